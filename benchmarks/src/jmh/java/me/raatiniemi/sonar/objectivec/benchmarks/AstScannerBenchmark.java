@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.benchmarks;
+
+import me.raatiniemi.sonar.objectivec.language.ObjectiveCAstScanner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.sonar.squidbridge.api.SourceFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+public class AstScannerBenchmark {
+    @Param
+    private ObjectiveCCorpus.Profile profile;
+
+    private File directory;
+    private File file;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("objectivec-benchmarks").toFile();
+        file = ObjectiveCCorpus.write(profile, directory);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file.toPath());
+        Files.deleteIfExists(directory.toPath());
+    }
+
+    /**
+     * Includes the creation of the scanner, parser and lexer, since that is part of scanning a single file.
+     */
+    @Benchmark
+    public SourceFile scanSingleFile() {
+        return ObjectiveCAstScanner.scanSingleFile(file);
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.benchmarks;
+
+import me.raatiniemi.sonar.objectivec.reports.ObjectiveCCoberturaParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import javax.annotation.Nonnull;
+import javax.xml.stream.XMLStreamException;
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Throughput of the streaming Cobertura parser on a generated report, in reports per second.
+ *
+ * The report is generated once per trial, e.g. 1000 files with 500 lines each is about 25 MB.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+public class CoberturaBenchmark {
+    @Param({"100", "1000"})
+    private int numberOfFiles;
+
+    @Param({"500"})
+    private int numberOfLines;
+
+    private File report;
+
+    @Setup
+    public void setUp() throws IOException {
+        report = File.createTempFile("cobertura", ".xml");
+        Random random = new Random(42);
+        try (BufferedWriter writer = Files.newBufferedWriter(report.toPath(), StandardCharsets.UTF_8)) {
+            writer.write("<?xml version=\"1.0\"?>\n<coverage line-rate=\"0.5\">\n");
+            writer.write("<sources><source>/project</source></sources>\n<packages><package name=\"App\"><classes>\n");
+            for (int i = 0; i < numberOfFiles; i++) {
+                writer.write("<class name=\"Class" + i + "\" filename=\"App/Class" + i + ".m\" line-rate=\"0.5\">\n");
+                writer.write("<methods/>\n<lines>\n");
+                for (int line = 1; line <= numberOfLines; line++) {
+                    if (random.nextInt(4) == 0) {
+                        writer.write("<line number=\"" + line + "\" hits=\"" + random.nextInt(3)
+                                + "\" branch=\"true\" condition-coverage=\"50% (1/2)\"/>\n");
+                    } else {
+                        writer.write("<line number=\"" + line + "\" hits=\"" + random.nextInt(100) + "\" branch=\"false\"/>\n");
+                    }
+                }
+                writer.write("</lines>\n</class>\n");
+            }
+            writer.write("</classes></package></packages>\n</coverage>\n");
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(report.toPath());
+    }
+
+    @Benchmark
+    public long parse() throws IOException, XMLStreamException {
+        CountingHandler handler = new CountingHandler();
+        try (InputStream input = new BufferedInputStream(Files.newInputStream(report.toPath()), 64 * 1024)) {
+            ObjectiveCCoberturaParser.parse(input, handler);
+        }
+        return handler.hits;
+    }
+
+    private static final class CountingHandler implements ObjectiveCCoberturaParser.Handler {
+        private long hits;
+
+        @Override
+        public boolean startFile(@Nonnull String filename, @Nonnull List<String> sources) {
+            return true;
+        }
+
+        @Override
+        public void line(int line, int lineHits, int conditions, int coveredConditions) {
+            hits += lineHits + coveredConditions;
+        }
+
+        @Override
+        public void endFile() {
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.benchmarks;
+
+import com.sonar.sslr.api.Token;
+import com.sonar.sslr.api.Trivia;
+import me.raatiniemi.sonar.objectivec.language.ObjectiveCCommentAnalyser;
+import me.raatiniemi.sonar.objectivec.language.ObjectiveCCommentMetrics;
+import me.raatiniemi.sonar.objectivec.language.lexer.ObjectiveCLexer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.sonar.squidbridge.CommentAnalyser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Analyses the comments the same way as the comments visitor of SSLR squid bridge, i.e. the contents
+ * of each comment is split into lines and each line is checked for being blank, compared to the
+ * comment metrics that classifies the lines in place.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+public class CommentAnalyserBenchmark {
+    @Param
+    private ObjectiveCCorpus.Profile profile;
+
+    private CommentAnalyser commentAnalyser;
+    private ObjectiveCCommentMetrics commentMetrics;
+    private List<String> comments;
+
+    @Setup
+    public void setUp() {
+        commentAnalyser = new ObjectiveCCommentAnalyser();
+        commentMetrics = new ObjectiveCCommentMetrics();
+        comments = new ArrayList<>();
+        for (Token token : ObjectiveCLexer.create().lex(ObjectiveCCorpus.generate(profile))) {
+            for (Trivia trivia : token.getTrivia()) {
+                if (trivia.isComment()) {
+                    comments.add(trivia.getToken().getOriginalValue());
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void analyse(Blackhole blackhole) {
+        for (String comment : comments) {
+            String[] lines = commentAnalyser.getContents(comment).split("(\r)?\n|\r", -1);
+            for (String line : lines) {
+                blackhole.consume(commentAnalyser.isBlank(line));
+            }
+        }
+    }
+
+    @Benchmark
+    public int analyseCommentMetrics() {
+        commentMetrics.reset();
+        int line = 1;
+        for (String comment : comments) {
+            // Every comment on its own line, the lines are only used to group the comment lines.
+            commentMetrics.visitComment(comment, 0, comment.length(), line);
+            line += comment.length();
+        }
+        commentMetrics.finish();
+        return commentMetrics.getCommentLines();
+    }
+}
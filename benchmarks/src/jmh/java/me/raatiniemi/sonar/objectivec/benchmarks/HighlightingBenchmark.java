@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.benchmarks;
+
+import me.raatiniemi.sonar.objectivec.language.ObjectiveCConfiguration;
+import me.raatiniemi.sonar.objectivec.language.ObjectiveCMetricsScanner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.sonar.squidbridge.api.SourceFile;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Scans the code with the metrics scanner, with and without highlighting, i.e. the difference
+ * between the two is the cost of highlighting on top of the lex pass.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+public class HighlightingBenchmark {
+    @Param
+    private ObjectiveCCorpus.Profile profile;
+
+    @Param({"false", "true"})
+    private boolean highlighting;
+
+    private ObjectiveCMetricsScanner scanner;
+    private String code;
+
+    @Setup
+    public void setUp() {
+        ObjectiveCConfiguration configuration = ObjectiveCConfiguration.create(StandardCharsets.UTF_8);
+        configuration.setHighlighting(highlighting);
+
+        scanner = ObjectiveCMetricsScanner.create(configuration);
+        code = ObjectiveCCorpus.generate(profile);
+    }
+
+    @Benchmark
+    public SourceFile scan() {
+        SourceFile sourceFile = new SourceFile("benchmark.m", "benchmark.m");
+        scanner.scan(sourceFile, code);
+        return sourceFile;
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.benchmarks;
+
+import com.sonar.sslr.api.Token;
+import com.sonar.sslr.impl.Lexer;
+import me.raatiniemi.sonar.objectivec.language.lexer.ObjectiveCLexer;
+import me.raatiniemi.sonar.objectivec.language.lexer.ObjectiveCTokenBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+public class LexerBenchmark {
+    @Param
+    private ObjectiveCCorpus.Profile profile;
+
+    private Lexer lexer;
+    private ObjectiveCTokenBuffer tokenBuffer;
+    private String code;
+
+    @Setup
+    public void setUp() {
+        lexer = ObjectiveCLexer.create();
+        tokenBuffer = new ObjectiveCTokenBuffer();
+        code = ObjectiveCCorpus.generate(profile);
+    }
+
+    @Benchmark
+    public List<Token> lex() {
+        return lexer.lex(code);
+    }
+
+    @Benchmark
+    public int lexTokenBuffer() {
+        tokenBuffer.lex(code);
+        return tokenBuffer.size();
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.benchmarks;
+
+import javax.annotation.Nonnull;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+
+/**
+ * Generates deterministic synthetic Objective-C source code for the benchmarks.
+ *
+ * The same profile always generate the same source code, so that results are comparable between runs.
+ */
+public final class ObjectiveCCorpus {
+    private static final long SEED = 42;
+
+    private static final String[] TYPES = {"NSString", "NSArray", "NSDictionary", "NSNumber", "NSData", "UIView"};
+    private static final String[] WORDS = {
+            "profile", "user", "name", "identifier", "request", "response", "cache", "view", "model", "value"
+    };
+
+    public enum Profile {
+        /**
+         * Single class with a handful of methods.
+         */
+        SMALL(1, 4, 0.1),
+        /**
+         * Implementation of a typical class.
+         */
+        TYPICAL(4, 40, 0.2),
+        /**
+         * Implementation where most lines are documentation or comments.
+         */
+        COMMENT_HEAVY(4, 40, 0.8),
+        /**
+         * Very large generated implementation.
+         */
+        HUGE(200, 40, 0.2);
+
+        private final int numberOfClasses;
+        private final int numberOfMethods;
+        private final double commentRatio;
+
+        Profile(int numberOfClasses, int numberOfMethods, double commentRatio) {
+            this.numberOfClasses = numberOfClasses;
+            this.numberOfMethods = numberOfMethods;
+            this.commentRatio = commentRatio;
+        }
+    }
+
+    private final Random random;
+    private final double commentRatio;
+    private final StringBuilder builder = new StringBuilder();
+
+    private ObjectiveCCorpus(@Nonnull Profile profile) {
+        random = new Random(SEED + profile.ordinal());
+        commentRatio = profile.commentRatio;
+    }
+
+    @Nonnull
+    public static String generate(@Nonnull Profile profile) {
+        ObjectiveCCorpus corpus = new ObjectiveCCorpus(profile);
+        corpus.license();
+        corpus.imports();
+        for (int i = 0; i < profile.numberOfClasses; i++) {
+            corpus.implementation(i, profile.numberOfMethods);
+        }
+        return corpus.builder.toString();
+    }
+
+    /**
+     * Write the generated source code to a file in the directory.
+     */
+    @Nonnull
+    public static File write(@Nonnull Profile profile, @Nonnull File directory) throws IOException {
+        File file = new File(directory, profile.name() + ".m");
+        Files.write(file.toPath(), generate(profile).getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private void license() {
+        builder.append("/*\n")
+                .append(" * Copyright (c) 2018 Example\n")
+                .append(" *\n")
+                .append(" * Licensed under the Apache License, Version 2.0.\n")
+                .append(" */\n\n");
+    }
+
+    private void imports() {
+        builder.append("#import <Foundation/Foundation.h>\n")
+                .append("#import <UIKit/UIKit.h>\n")
+                .append("#import \"Profile.h\"\n\n");
+    }
+
+    private void implementation(int index, int numberOfMethods) {
+        String name = "Generated" + capitalize(word()) + index;
+
+        comment();
+        builder.append("@interface ").append(name).append(" : NSObject\n");
+        for (int i = 0; i < 3; i++) {
+            builder.append("@property (nonatomic, strong) ").append(type()).append(" *").append(word()).append(i).append(";\n");
+        }
+        builder.append("@end\n\n");
+
+        builder.append("@implementation ").append(name).append("\n\n");
+        for (int i = 0; i < numberOfMethods; i++) {
+            method(i);
+        }
+        builder.append("@end\n\n");
+    }
+
+    private void method(int index) {
+        comment();
+        builder.append("- (").append(type()).append(" *)").append(word()).append(index)
+                .append(":(").append(type()).append(" *)").append(word()).append(" {\n");
+
+        int numberOfStatements = 2 + random.nextInt(8);
+        for (int i = 0; i < numberOfStatements; i++) {
+            if (random.nextDouble() < commentRatio) {
+                builder.append("    // ").append(sentence()).append('\n');
+            }
+            statement(i);
+        }
+        builder.append("    return nil;\n")
+                .append("}\n\n");
+    }
+
+    private void statement(int index) {
+        switch (random.nextInt(4)) {
+            case 0:
+                builder.append("    ").append(type()).append(" *").append(word()).append(index)
+                        .append(" = [[").append(type()).append(" alloc] init];\n");
+                break;
+            case 1:
+                builder.append("    NSLog(@\"").append(sentence()).append("\");\n");
+                break;
+            case 2:
+                builder.append("    if (self.").append(word()).append(" == nil) {\n")
+                        .append("        [self ").append(word()).append(":").append(random.nextInt(100)).append("];\n")
+                        .append("    }\n");
+                break;
+            default:
+                builder.append("    [self.").append(word()).append(" setValue:@").append(random.nextInt(1000))
+                        .append(" forKey:@\"").append(word()).append("\"]; /* ").append(word()).append(" */\n");
+                break;
+        }
+    }
+
+    private void comment() {
+        if (random.nextDouble() >= commentRatio) {
+            return;
+        }
+
+        builder.append("/**\n");
+        int numberOfLines = 1 + random.nextInt(6);
+        for (int i = 0; i < numberOfLines; i++) {
+            builder.append(" * ").append(sentence()).append('\n');
+        }
+        if (random.nextInt(10) == 0) {
+            builder.append(" * NOSONAR\n");
+        }
+        builder.append(" *\n")
+                .append(" */\n");
+    }
+
+    @Nonnull
+    private String sentence() {
+        StringBuilder sentence = new StringBuilder(capitalize(word()));
+        int numberOfWords = 2 + random.nextInt(8);
+        for (int i = 0; i < numberOfWords; i++) {
+            sentence.append(' ').append(word());
+        }
+        return sentence.append('.').toString();
+    }
+
+    @Nonnull
+    private String type() {
+        return TYPES[random.nextInt(TYPES.length)];
+    }
+
+    @Nonnull
+    private String word() {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    @Nonnull
+    private static String capitalize(@Nonnull String value) {
+        return Character.toUpperCase(value.charAt(0)) + value.substring(1);
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.benchmarks;
+
+import com.sonar.sslr.api.AstNode;
+import com.sonar.sslr.impl.Parser;
+import me.raatiniemi.sonar.objectivec.language.api.ObjectiveCGrammar;
+import me.raatiniemi.sonar.objectivec.language.parser.ObjectiveCParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+public class ParserBenchmark {
+    @Param
+    private ObjectiveCCorpus.Profile profile;
+
+    private Parser<ObjectiveCGrammar> parser;
+    private String code;
+
+    @Setup
+    public void setUp() {
+        parser = ObjectiveCParser.create();
+        code = ObjectiveCCorpus.generate(profile);
+    }
+
+    @Benchmark
+    public AstNode parse() {
+        return parser.parse(code);
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec;
+
+import me.raatiniemi.sonar.objectivec.reports.ObjectiveCCompilationDatabase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Files within the analysis scope when it is limited by a compilation database, i.e. the translation
+ * units listed in the database and the project files they include, directly or through other files.
+ *
+ * Only the include directives of the files reached from the translation units are read, by a line
+ * based search for {@code #import} and {@code #include}, before any file is scanned. Files that are
+ * never compiled, e.g. dead files, sample code or unused headers, are then not scanned at all.
+ */
+class ObjectiveCAnalysisScope {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ObjectiveCAnalysisScope.class);
+
+    private static final String[] DIRECTIVES = {"import", "include", "include_next"};
+
+    private final Set<String> paths;
+    private final int translationUnits;
+
+    private ObjectiveCAnalysisScope(@Nonnull Set<String> paths, int translationUnits) {
+        this.paths = paths;
+        this.translationUnits = translationUnits;
+    }
+
+    /**
+     * @param files Files that would be analysed without the compilation database.
+     */
+    @Nonnull
+    static ObjectiveCAnalysisScope create(
+            @Nonnull Path compilationDatabase,
+            @Nonnull Path baseDir,
+            @Nonnull Collection<File> files,
+            @Nonnull Charset charset
+    ) throws IOException {
+        Set<Path> compiledFiles = ObjectiveCCompilationDatabase.read(compilationDatabase);
+
+        // The include graph requires the files sorted by their relative path.
+        List<File> sortedFiles = new ArrayList<>(files);
+        sortedFiles.sort(Comparator.comparing(file -> toRelativePath(baseDir, file)));
+        String[] relativePaths = new String[sortedFiles.size()];
+        BitSet roots = new BitSet(relativePaths.length);
+        for (int i = 0; i < relativePaths.length; i++) {
+            File file = sortedFiles.get(i);
+            relativePaths[i] = toRelativePath(baseDir, file);
+            if (compiledFiles.contains(file.toPath().toAbsolutePath().normalize())) {
+                roots.set(i);
+            }
+        }
+
+        BitSet reachable = ObjectiveCIncludeGraph.getReachable(relativePaths, roots, index -> readIncludes(sortedFiles.get(index), charset));
+        Set<String> paths = new HashSet<>();
+        for (int i = reachable.nextSetBit(0); i >= 0; i = reachable.nextSetBit(i + 1)) {
+            paths.add(sortedFiles.get(i).getAbsolutePath());
+        }
+        return new ObjectiveCAnalysisScope(paths, roots.cardinality());
+    }
+
+    @Nonnull
+    private static String toRelativePath(@Nonnull Path baseDir, @Nonnull File file) {
+        return baseDir.relativize(file.toPath().toAbsolutePath()).toString().replace(File.separatorChar, '/');
+    }
+
+    /**
+     * Read the files included by {@code #import}, {@code #include} and {@code #include_next}
+     * directives, directives within comments or disabled by the preprocessor are also included.
+     */
+    @Nonnull
+    static String[] readIncludes(@Nonnull File file, @Nonnull Charset charset) {
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(file.toPath());
+        } catch (IOException e) {
+            LOGGER.debug("Unable to read includes of: {}", file, e);
+            return new String[0];
+        }
+
+        List<String> includes = new ArrayList<>();
+        int position = 0;
+        while (position < bytes.length) {
+            position = skipWhitespace(bytes, position);
+            if (position < bytes.length && '#' == bytes[position]) {
+                int start = skipWhitespace(bytes, position + 1);
+                int end = start;
+                while (end < bytes.length && isIdentifierPart(bytes[end])) {
+                    end++;
+                }
+                if (isIncludeDirective(bytes, start, end)) {
+                    int pathStart = skipWhitespace(bytes, end);
+                    if (pathStart < bytes.length && ('"' == bytes[pathStart] || '<' == bytes[pathStart])) {
+                        byte close = '"' == bytes[pathStart] ? (byte) '"' : (byte) '>';
+                        int pathEnd = pathStart + 1;
+                        while (pathEnd < bytes.length && close != bytes[pathEnd] && '\n' != bytes[pathEnd]) {
+                            pathEnd++;
+                        }
+                        if (pathEnd < bytes.length && close == bytes[pathEnd] && pathEnd > pathStart + 1) {
+                            includes.add(new String(bytes, pathStart + 1, pathEnd - pathStart - 1, charset));
+                        }
+                    }
+                }
+            }
+
+            while (position < bytes.length && '\n' != bytes[position]) {
+                position++;
+            }
+            position++;
+        }
+        return includes.toArray(new String[0]);
+    }
+
+    private static int skipWhitespace(@Nonnull byte[] bytes, int position) {
+        while (position < bytes.length && (' ' == bytes[position] || '\t' == bytes[position])) {
+            position++;
+        }
+        return position;
+    }
+
+    private static boolean isIdentifierPart(byte character) {
+        return (character >= 'a' && character <= 'z') || (character >= 'A' && character <= 'Z')
+                || (character >= '0' && character <= '9') || '_' == character;
+    }
+
+    private static boolean isIncludeDirective(@Nonnull byte[] bytes, int start, int end) {
+        for (String directive : DIRECTIVES) {
+            if (end - start != directive.length()) {
+                continue;
+            }
+            boolean matches = true;
+            for (int i = 0; i < directive.length() && matches; i++) {
+                matches = directive.charAt(i) == bytes[start + i];
+            }
+            if (matches) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    boolean contains(@Nonnull File file) {
+        return paths.contains(file.getAbsolutePath());
+    }
+
+    int size() {
+        return paths.size();
+    }
+
+    /**
+     * @return Number of translation units in the compilation database that are part of the project.
+     */
+    int getTranslationUnits() {
+        return translationUnits;
+    }
+}
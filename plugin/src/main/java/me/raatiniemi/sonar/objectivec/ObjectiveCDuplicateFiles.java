@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec;
+
+import me.raatiniemi.sonar.objectivec.language.api.ObjectiveCDataMetric;
+import me.raatiniemi.sonar.objectivec.language.api.ObjectiveCMetric;
+import org.sonar.squidbridge.api.SourceFile;
+
+import javax.annotation.Nonnull;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Files with the same content as another file within the analysis, e.g. headers copied into several targets.
+ *
+ * Only files with the same size as another file are hashed, and only the first file with each
+ * content is scanned. The measures of the scanned file are then copied to the other files.
+ */
+class ObjectiveCDuplicateFiles {
+    private final List<File> distinctFiles;
+    private final Map<String, List<File>> copies;
+    private final int numberOfCopies;
+    private final long bytesOfCopies;
+
+    private ObjectiveCDuplicateFiles(
+            @Nonnull List<File> distinctFiles,
+            @Nonnull Map<String, List<File>> copies,
+            int numberOfCopies,
+            long bytesOfCopies
+    ) {
+        this.distinctFiles = distinctFiles;
+        this.copies = copies;
+        this.numberOfCopies = numberOfCopies;
+        this.bytesOfCopies = bytesOfCopies;
+    }
+
+    @Nonnull
+    static ObjectiveCDuplicateFiles none(@Nonnull List<File> files) {
+        return new ObjectiveCDuplicateFiles(files, Collections.emptyMap(), 0, 0);
+    }
+
+    @Nonnull
+    static ObjectiveCDuplicateFiles find(@Nonnull List<File> files) {
+        long[] sizes = new long[files.size()];
+        Map<Long, Integer> numberOfFilesBySize = new HashMap<>();
+        for (int i = 0; i < sizes.length; i++) {
+            sizes[i] = files.get(i).length();
+            numberOfFilesBySize.merge(sizes[i], 1, Integer::sum);
+        }
+
+        List<File> distinctFiles = new ArrayList<>(files.size());
+        Map<String, File> filesByHash = new HashMap<>();
+        Map<String, List<File>> copies = new HashMap<>();
+        int numberOfCopies = 0;
+        long bytesOfCopies = 0;
+        for (int i = 0; i < sizes.length; i++) {
+            File file = files.get(i);
+            if (numberOfFilesBySize.get(sizes[i]) < 2) {
+                distinctFiles.add(file);
+                continue;
+            }
+
+            String hash = ObjectiveCMeasuresCache.hash(file);
+            if (null == hash) {
+                distinctFiles.add(file);
+                continue;
+            }
+
+            // The size is part of the key, i.e. files are only considered equal with the same size.
+            File original = filesByHash.putIfAbsent(sizes[i] + ":" + hash, file);
+            if (null == original) {
+                distinctFiles.add(file);
+                continue;
+            }
+            copies.computeIfAbsent(original.getAbsolutePath(), key -> new ArrayList<>()).add(file);
+            numberOfCopies++;
+            bytesOfCopies += sizes[i];
+        }
+
+        return new ObjectiveCDuplicateFiles(distinctFiles, copies, numberOfCopies, bytesOfCopies);
+    }
+
+    /**
+     * @return Files to scan, i.e. the first file with each content, in the same order as the files.
+     */
+    @Nonnull
+    List<File> getDistinctFiles() {
+        return distinctFiles;
+    }
+
+    /**
+     * @param path Absolute path of a scanned file.
+     * @return Files with the same content as the scanned file.
+     */
+    @Nonnull
+    List<File> getCopies(@Nonnull String path) {
+        return copies.getOrDefault(path, Collections.emptyList());
+    }
+
+    int getNumberOfCopies() {
+        return numberOfCopies;
+    }
+
+    long getBytesOfCopies() {
+        return bytesOfCopies;
+    }
+
+    /**
+     * Copy the measures and data of the source file to a source file for the copy.
+     */
+    @Nonnull
+    static SourceFile copy(@Nonnull SourceFile sourceFile, @Nonnull File file) {
+        SourceFile copy = new SourceFile(file.getAbsolutePath(), file.getName());
+        for (ObjectiveCMetric metric : ObjectiveCMetric.values()) {
+            int value = sourceFile.getInt(metric);
+            if (value != 0) {
+                copy.setMeasure(metric, value);
+            }
+        }
+        copy.addNoSonarTagLines(sourceFile.getNoSonarTagLines());
+        for (ObjectiveCDataMetric metric : ObjectiveCDataMetric.values()) {
+            Object data = sourceFile.getData(metric);
+            if (null != data) {
+                copy.addData(metric, data);
+            }
+        }
+        return copy;
+    }
+}
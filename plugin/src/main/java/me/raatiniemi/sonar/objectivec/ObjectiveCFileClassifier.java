@@ -0,0 +1,254 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec;
+
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.config.Configuration;
+
+import javax.annotation.Nonnull;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Classifies source files as generated or vendored before they are scanned.
+ *
+ * Vendored files are recognised by a directory in their path, e.g. CocoaPods or Carthage
+ * checkouts, and generated files by their suffix, their size, or a marker in the comments
+ * leading the first few kilobytes of the file, e.g. "DO NOT EDIT". The classifier is not thread-safe.
+ */
+class ObjectiveCFileClassifier {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ObjectiveCFileClassifier.class);
+
+    static final int HEADER_SIZE = 4 * 1024;
+    private static final byte[][] GENERATED_MARKERS = {
+            toBytes("do not edit"),
+            toBytes("generated by"),
+            toBytes("@generated"),
+            toBytes("autogenerated"),
+            toBytes("auto-generated")
+    };
+
+    enum Kind {
+        SOURCE,
+        GENERATED,
+        VENDORED
+    }
+
+    /**
+     * Treatment of the generated or vendored files, i.e. scan them as any other file, only save their
+     * lines of code and comment lines, or skip them altogether.
+     */
+    enum Policy {
+        SCAN,
+        LINES,
+        SKIP;
+
+        @Nonnull
+        static Policy from(@Nonnull Configuration configuration, @Nonnull String key, @Nonnull Policy defaultPolicy) {
+            String value = configuration.get(key).map(String::trim).orElse("");
+            if (value.isEmpty()) {
+                return defaultPolicy;
+            }
+
+            for (Policy policy : values()) {
+                if (policy.name().equalsIgnoreCase(value)) {
+                    return policy;
+                }
+            }
+            LOGGER.warn("Invalid value for {}: {}, using {}", key, value, defaultPolicy.name().toLowerCase(Locale.ROOT));
+            return defaultPolicy;
+        }
+    }
+
+    private final String[] vendoredDirectories;
+    private final String[] generatedSuffixes;
+    private final long generatedFileSize;
+    private final byte[] header = new byte[HEADER_SIZE];
+
+    ObjectiveCFileClassifier(
+            @Nonnull String[] vendoredDirectories,
+            @Nonnull String[] generatedSuffixes,
+            long generatedFileSize
+    ) {
+        this.vendoredDirectories = vendoredDirectories;
+        this.generatedSuffixes = generatedSuffixes;
+        this.generatedFileSize = generatedFileSize;
+    }
+
+    @Nonnull
+    static ObjectiveCFileClassifier create(@Nonnull Configuration configuration) {
+        return new ObjectiveCFileClassifier(
+                getStringArray(configuration, ObjectiveCPlugin.SQUID_VENDORED_DIRECTORIES_KEY, ObjectiveCPlugin.SQUID_VENDORED_DIRECTORIES_DEFVALUE),
+                getStringArray(configuration, ObjectiveCPlugin.SQUID_GENERATED_SUFFIXES_KEY, ObjectiveCPlugin.SQUID_GENERATED_SUFFIXES_DEFVALUE),
+                configuration.getLong(ObjectiveCPlugin.SQUID_GENERATED_FILE_SIZE_KEY)
+                        .orElse(ObjectiveCPlugin.SQUID_GENERATED_FILE_SIZE_DEFVALUE)
+        );
+    }
+
+    @Nonnull
+    private static String[] getStringArray(@Nonnull Configuration configuration, @Nonnull String key, @Nonnull String defaultValue) {
+        String[] values = Stream.of(configuration.getStringArray(key))
+                .map(String::trim)
+                .filter(StringUtils::isNotBlank)
+                .toArray(String[]::new);
+        if (values.length == 0) {
+            values = StringUtils.split(defaultValue, ",");
+        }
+        return values;
+    }
+
+    @Nonnull
+    private static byte[] toBytes(@Nonnull String marker) {
+        byte[] bytes = new byte[marker.length()];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) marker.charAt(i);
+        }
+        return bytes;
+    }
+
+    /**
+     * Classify the file, the cheaper checks of the path and size are done before reading the header.
+     *
+     * @param relativePath Path of the file relative to the base directory.
+     */
+    @Nonnull
+    Kind classify(@Nonnull File file, @Nonnull String relativePath) {
+        if (isVendored(relativePath)) {
+            return Kind.VENDORED;
+        }
+        if (hasGeneratedSuffix(relativePath)) {
+            return Kind.GENERATED;
+        }
+        if (generatedFileSize > 0 && file.length() >= generatedFileSize) {
+            return Kind.GENERATED;
+        }
+        if (hasGeneratedMarker(file)) {
+            return Kind.GENERATED;
+        }
+        return Kind.SOURCE;
+    }
+
+    private boolean isVendored(@Nonnull String relativePath) {
+        int start = 0;
+        for (int i = 0; i < relativePath.length(); i++) {
+            char character = relativePath.charAt(i);
+            if (character != '/' && character != '\\') {
+                continue;
+            }
+            // Only directories are matched, i.e. segments followed by a separator.
+            for (String directory : vendoredDirectories) {
+                if (i - start == directory.length() && relativePath.regionMatches(true, start, directory, 0, directory.length())) {
+                    return true;
+                }
+            }
+            start = i + 1;
+        }
+        return false;
+    }
+
+    private boolean hasGeneratedSuffix(@Nonnull String relativePath) {
+        for (String suffix : generatedSuffixes) {
+            int offset = relativePath.length() - suffix.length();
+            if (offset >= 0 && relativePath.regionMatches(true, offset, suffix, 0, suffix.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasGeneratedMarker(@Nonnull File file) {
+        int length = 0;
+        try (InputStream input = Files.newInputStream(file.toPath())) {
+            int read;
+            while (length < header.length && (read = input.read(header, length, header.length - length)) > 0) {
+                length += read;
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Unable to read header of: {}", file, e);
+            return false;
+        }
+
+        int end = leadingCommentsEnd(header, length);
+        for (byte[] marker : GENERATED_MARKERS) {
+            if (contains(header, end, marker)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Find the end of the comments leading the file, i.e. markers in comments or string literals
+     * further down the file are not matched.
+     *
+     * @return Offset after the last leading comment, or the length if a comment is not closed.
+     */
+    private static int leadingCommentsEnd(@Nonnull byte[] bytes, int length) {
+        int end = 0;
+        int i = length >= 3 && isByteOrderMark(bytes) ? 3 : 0;
+        while (i < length) {
+            if ((bytes[i] & 0xff) <= ' ') {
+                i++;
+                continue;
+            }
+            if (i + 1 >= length || bytes[i] != '/' || (bytes[i + 1] != '/' && bytes[i + 1] != '*')) {
+                break;
+            }
+            boolean block = bytes[i + 1] == '*';
+            i += 2;
+            while (i < length && (block ? !(bytes[i - 1] == '*' && bytes[i] == '/') : bytes[i] != '\n')) {
+                i++;
+            }
+            if (i >= length) {
+                return length;
+            }
+            end = ++i;
+        }
+        return end;
+    }
+
+    private static boolean isByteOrderMark(@Nonnull byte[] bytes) {
+        return bytes[0] == (byte) 0xef && bytes[1] == (byte) 0xbb && bytes[2] == (byte) 0xbf;
+    }
+
+    /**
+     * Check if the bytes contain the lower case ASCII marker, ignoring the case of the bytes.
+     */
+    private static boolean contains(@Nonnull byte[] bytes, int length, @Nonnull byte[] marker) {
+        int last = length - marker.length;
+        for (int i = 0; i <= last; i++) {
+            int j = 0;
+            while (j < marker.length && toLowerCase(bytes[i + j]) == marker[j]) {
+                j++;
+            }
+            if (j == marker.length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static byte toLowerCase(byte b) {
+        return b >= 'A' && b <= 'Z' ? (byte) (b + ('a' - 'A')) : b;
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * Graph of the project files included by each project file, i.e. files that are not part of the
+ * project, e.g. system headers, are not part of the graph.
+ *
+ * Files are indexed by their position in the sorted paths, and the edges are kept as an adjacency
+ * array, i.e. the files included by file {@code i} are {@code targets[offsets[i]]} until
+ * {@code targets[offsets[i + 1]]}. Only the number of files including each file is kept.
+ */
+class ObjectiveCIncludeGraph {
+    private final String[] paths;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] reverseOffsets;
+
+    private ObjectiveCIncludeGraph(@Nonnull String[] paths, @Nonnull int[] offsets, @Nonnull int[] targets) {
+        this.paths = paths;
+        this.offsets = offsets;
+        this.targets = targets;
+
+        reverseOffsets = new int[paths.length + 1];
+        for (int target : targets) {
+            reverseOffsets[target + 1]++;
+        }
+        for (int i = 0; i < paths.length; i++) {
+            reverseOffsets[i + 1] += reverseOffsets[i];
+        }
+    }
+
+    /**
+     * Build the graph by resolving the included files of each file against the paths of the other files.
+     *
+     * An include is resolved relative to the directory of the including file, otherwise against the
+     * first file, in path order, whose path ends with the include. Dot segments, e.g. {@code ../},
+     * are removed before the include is resolved.
+     *
+     * @param includes Paths of the files, using forward slashes, mapped to the files they include.
+     */
+    @Nonnull
+    static ObjectiveCIncludeGraph build(@Nonnull Map<String, String[]> includes) {
+        String[] paths = includes.keySet().toArray(new String[0]);
+        Arrays.sort(paths);
+        Resolver resolver = new Resolver(paths);
+
+        int[] offsets = new int[paths.length + 1];
+        int[] targets = new int[16];
+        int numberOfTargets = 0;
+        BitSet included = new BitSet(paths.length);
+        for (int source = 0; source < paths.length; source++) {
+            offsets[source] = numberOfTargets;
+            included.clear();
+            for (String include : includes.get(paths[source])) {
+                int target = resolver.resolve(source, include);
+                if (target < 0 || target == source || included.get(target)) {
+                    continue;
+                }
+                included.set(target);
+                if (numberOfTargets == targets.length) {
+                    targets = Arrays.copyOf(targets, targets.length * 2);
+                }
+                targets[numberOfTargets++] = target;
+            }
+        }
+        offsets[paths.length] = numberOfTargets;
+
+        return new ObjectiveCIncludeGraph(paths, offsets, Arrays.copyOf(targets, numberOfTargets));
+    }
+
+    /**
+     * Find the files reachable from the roots through includes, resolved the same way as when the
+     * graph is built. The includes of a file are only requested once the file has been reached.
+     *
+     * @param paths Sorted paths of the files, using forward slashes.
+     * @param includes Files included by the file at the index.
+     */
+    @Nonnull
+    static BitSet getReachable(@Nonnull String[] paths, @Nonnull BitSet roots, @Nonnull IntFunction<String[]> includes) {
+        Resolver resolver = new Resolver(paths);
+        BitSet reachable = (BitSet) roots.clone();
+        int[] queue = new int[paths.length];
+        int head = 0;
+        int tail = 0;
+        for (int i = roots.nextSetBit(0); i >= 0; i = roots.nextSetBit(i + 1)) {
+            queue[tail++] = i;
+        }
+        while (head < tail) {
+            int source = queue[head++];
+            for (String include : includes.apply(source)) {
+                int target = resolver.resolve(source, include);
+                if (target >= 0 && !reachable.get(target)) {
+                    reachable.set(target);
+                    queue[tail++] = target;
+                }
+            }
+        }
+        return reachable;
+    }
+
+    @Nonnull
+    private static String getName(@Nonnull String path) {
+        return path.substring(path.lastIndexOf('/') + 1);
+    }
+
+    /**
+     * Remove the dot segments of the path, using forward slashes. Parent segments that can not be
+     * removed are kept at the beginning of a relative path.
+     */
+    @Nonnull
+    static String normalize(@Nonnull String path) {
+        boolean absolute = path.startsWith("/");
+        List<String> segments = new ArrayList<>();
+        for (String segment : path.split("/")) {
+            if (segment.isEmpty() || ".".equals(segment)) {
+                continue;
+            }
+            if ("..".equals(segment)) {
+                int last = segments.size() - 1;
+                if (last >= 0 && !"..".equals(segments.get(last))) {
+                    segments.remove(last);
+                    continue;
+                }
+                if (absolute) {
+                    continue;
+                }
+            }
+            segments.add(segment);
+        }
+        return (absolute ? "/" : "") + String.join("/", segments);
+    }
+
+    int size() {
+        return paths.length;
+    }
+
+    @Nonnull
+    String getPath(int index) {
+        return paths[index];
+    }
+
+    /**
+     * @return Number of project files included by the file.
+     */
+    int getFanOut(int index) {
+        return offsets[index + 1] - offsets[index];
+    }
+
+    /**
+     * @return Number of project files including the file.
+     */
+    int getFanIn(int index) {
+        return reverseOffsets[index + 1] - reverseOffsets[index];
+    }
+
+    /**
+     * Resolves an include relative to the directory of the including file, otherwise against the
+     * first file, in path order, whose path ends with the include.
+     */
+    private static final class Resolver {
+        private final String[] paths;
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private final Map<String, List<Integer>> indexesByName = new HashMap<>();
+
+        private Resolver(@Nonnull String[] paths) {
+            this.paths = paths;
+            for (int i = 0; i < paths.length; i++) {
+                indexes.put(paths[i], i);
+                indexesByName.computeIfAbsent(getName(paths[i]), name -> new ArrayList<>()).add(i);
+            }
+        }
+
+        /**
+         * @return Index of the included file, or a negative value if the file is not part of the graph.
+         */
+        private int resolve(int source, @Nonnull String include) {
+            int directoryEnd = paths[source].lastIndexOf('/');
+            String relative = directoryEnd < 0 ? include : paths[source].substring(0, directoryEnd + 1) + include;
+            boolean hasDotSegments = include.contains("./");
+            Integer index = indexes.get(hasDotSegments ? normalize(relative) : relative);
+            if (null != index) {
+                return index;
+            }
+
+            String normalized = hasDotSegments ? normalize(include) : include;
+            // Parent segments can not be matched against the end of a path.
+            while (normalized.startsWith("../")) {
+                normalized = normalized.substring(3);
+            }
+            List<Integer> candidates = indexesByName.get(getName(normalized));
+            if (null == candidates) {
+                return -1;
+            }
+            for (int candidate : candidates) {
+                String path = paths[candidate];
+                if (path.equals(normalized) || path.endsWith("/" + normalized)) {
+                    return candidate;
+                }
+            }
+            return -1;
+        }
+    }
+}
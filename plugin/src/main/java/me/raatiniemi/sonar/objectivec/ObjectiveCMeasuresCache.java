@@ -0,0 +1,383 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec;
+
+import me.raatiniemi.sonar.objectivec.language.ObjectiveCConfiguration;
+import me.raatiniemi.sonar.objectivec.language.ObjectiveCCpdTokens;
+import me.raatiniemi.sonar.objectivec.language.ObjectiveCHighlighting;
+import me.raatiniemi.sonar.objectivec.language.api.ObjectiveCDataMetric;
+import me.raatiniemi.sonar.objectivec.language.api.ObjectiveCMetric;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.squidbridge.api.SourceFile;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * On-disk cache of the squid measures for each source file.
+ *
+ * Entries are keyed by the relative path and content hash of the file, and the cache as a whole
+ * is keyed by the plugin version and configuration. If the key do not match, or the cache can not
+ * be read, the cache is invalidated and every file will be scanned.
+ *
+ * The cache is followed by a checksum of its content, and every count and length read from the
+ * cache is bounded by the size of the file, so that a truncated or corrupted cache is invalidated
+ * instead of allocating arbitrary amounts of memory.
+ */
+class ObjectiveCMeasuresCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ObjectiveCMeasuresCache.class);
+
+    static final String FILE_NAME = "objectivec-measures.cache";
+
+    private static final int MAGIC = 0x4f424a43;
+    private static final int FORMAT_VERSION = 7;
+    private static final ObjectiveCMetric[] METRICS = ObjectiveCMetric.values();
+
+    private final Path cacheFile;
+    private final Path baseDir;
+    private final String key;
+    private final Map<String, Entry> entries;
+    private final Map<String, Entry> updatedEntries = new HashMap<>();
+    private final Map<String, String> hashes = new HashMap<>();
+
+    private ObjectiveCMeasuresCache(
+            @Nonnull Path cacheFile,
+            @Nonnull Path baseDir,
+            @Nonnull String key,
+            @Nonnull Map<String, Entry> entries
+    ) {
+        this.cacheFile = cacheFile;
+        this.baseDir = baseDir;
+        this.key = key;
+        this.entries = entries;
+    }
+
+    @Nonnull
+    static ObjectiveCMeasuresCache load(@Nonnull Path directory, @Nonnull Path baseDir, @Nonnull String key) {
+        Path cacheFile = directory.resolve(FILE_NAME);
+
+        return new ObjectiveCMeasuresCache(cacheFile, baseDir, key, readEntries(cacheFile, key));
+    }
+
+    @Nonnull
+    private static Map<String, Entry> readEntries(@Nonnull Path cacheFile, @Nonnull String key) {
+        Map<String, Entry> entries = new HashMap<>();
+        if (!Files.isRegularFile(cacheFile)) {
+            return entries;
+        }
+
+        CRC32 checksum = new CRC32();
+        try (DataInputStream input = new DataInputStream(new CheckedInputStream(new BufferedInputStream(Files.newInputStream(cacheFile)), checksum))) {
+            if (input.readInt() != MAGIC || input.readInt() != FORMAT_VERSION || !key.equals(input.readUTF())) {
+                LOGGER.info("Measures cache is outdated, all files will be scanned");
+                return entries;
+            }
+
+            long size = Files.size(cacheFile);
+            int numberOfEntries = readLength(input, size);
+            for (int i = 0; i < numberOfEntries; i++) {
+                String path = input.readUTF();
+                String hash = input.readUTF();
+                int[] values = new int[METRICS.length];
+                for (int j = 0; j < values.length; j++) {
+                    values[j] = input.readInt();
+                }
+                byte[] cpdTokens = readBytes(input, size);
+                byte[] highlighting = readBytes(input, size);
+                String[] includes = null;
+                int numberOfIncludes = input.readInt();
+                if (-1 != numberOfIncludes) {
+                    includes = new String[checkLength(numberOfIncludes, size)];
+                    for (int j = 0; j < includes.length; j++) {
+                        includes[j] = input.readUTF();
+                    }
+                }
+                entries.put(path, new Entry(hash, values, cpdTokens, highlighting, includes));
+            }
+
+            long expectedChecksum = checksum.getValue();
+            if (input.readLong() != expectedChecksum) {
+                throw new IOException("Checksum mismatch");
+            }
+            return entries;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Unable to read measures cache, all files will be scanned", e);
+            entries.clear();
+            return entries;
+        }
+    }
+
+    private static int readLength(@Nonnull DataInputStream input, long maximum) throws IOException {
+        return checkLength(input.readInt(), maximum);
+    }
+
+    private static int checkLength(int length, long maximum) throws IOException {
+        if (length < 0 || length > maximum) {
+            throw new IOException("Invalid length: " + length);
+        }
+        return length;
+    }
+
+    /**
+     * @return Bytes, or null if the length is -1.
+     */
+    @CheckForNull
+    private static byte[] readBytes(@Nonnull DataInputStream input, long maximum) throws IOException {
+        int length = input.readInt();
+        if (-1 == length) {
+            return null;
+        }
+
+        byte[] bytes = new byte[checkLength(length, maximum)];
+        input.readFully(bytes);
+        return bytes;
+    }
+
+    private static void writeBytes(@Nonnull DataOutputStream output, @Nullable byte[] bytes) throws IOException {
+        if (null == bytes) {
+            output.writeInt(-1);
+            return;
+        }
+
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    /**
+     * Build the cache key from the plugin version and the configuration used when scanning.
+     */
+    @Nonnull
+    static String createKey(@Nonnull ObjectiveCConfiguration configuration) {
+        return getPluginVersion()
+                + ";charset=" + configuration.getCharset().name()
+                + ";ignoreHeaderComments=" + configuration.getIgnoreHeaderComments()
+                + ";cpdTokens=" + configuration.getCpdTokens()
+                + ";highlighting=" + configuration.getHighlighting()
+                + ";includes=" + configuration.getIncludes();
+    }
+
+    @Nonnull
+    private static String getPluginVersion() {
+        String version = ObjectiveCPlugin.class.getPackage().getImplementationVersion();
+        if (null != version) {
+            return version;
+        }
+
+        // Without an implementation version, use the size and modification time of the plugin.
+        URL location = ObjectiveCPlugin.class.getProtectionDomain().getCodeSource().getLocation();
+        File plugin = new File(location.getPath());
+        return plugin.getName() + ":" + plugin.length() + ":" + plugin.lastModified();
+    }
+
+    @CheckForNull
+    static String hash(@Nonnull File file) {
+        try (InputStream input = Files.newInputStream(file.toPath())) {
+            MessageDigest digest = MessageDigest.getInstance("MD5");
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = input.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+            return toHex(digest.digest());
+        } catch (IOException | NoSuchAlgorithmException e) {
+            LOGGER.warn("Unable to compute hash for: {}", file, e);
+            return null;
+        }
+    }
+
+    @Nonnull
+    private static String toHex(@Nonnull byte[] bytes) {
+        StringBuilder builder = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            builder.append(Character.forDigit((b >> 4) & 0xf, 16));
+            builder.append(Character.forDigit(b & 0xf, 16));
+        }
+        return builder.toString();
+    }
+
+    @Nonnull
+    private String relativePath(@Nonnull File file) {
+        return baseDir.relativize(file.toPath().toAbsolutePath()).toString();
+    }
+
+    /**
+     * Get the cached source file if the content of the file is unchanged.
+     */
+    @CheckForNull
+    SourceFile get(@Nonnull File file) {
+        String hash = hash(file);
+        if (null == hash) {
+            return null;
+        }
+
+        String path = relativePath(file);
+        hashes.put(path, hash);
+
+        Entry entry = entries.get(path);
+        if (null == entry || !entry.hash.equals(hash)) {
+            return null;
+        }
+        updatedEntries.put(path, entry);
+
+        SourceFile sourceFile = new SourceFile(file.getAbsolutePath(), file.getName());
+        for (int i = 0; i < METRICS.length; i++) {
+            if (entry.values[i] != 0) {
+                sourceFile.setMeasure(METRICS[i], entry.values[i]);
+            }
+        }
+        try {
+            if (null != entry.cpdTokens) {
+                sourceFile.addData(ObjectiveCDataMetric.CPD_TOKENS, ObjectiveCCpdTokens.fromByteArray(entry.cpdTokens));
+            }
+            if (null != entry.highlighting) {
+                sourceFile.addData(ObjectiveCDataMetric.HIGHLIGHTING, ObjectiveCHighlighting.fromByteArray(entry.highlighting));
+            }
+            if (null != entry.includes) {
+                sourceFile.addData(ObjectiveCDataMetric.INCLUDES, entry.includes);
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Unable to read cached data for: {}", path, e);
+            updatedEntries.remove(path);
+            return null;
+        }
+        return sourceFile;
+    }
+
+    void put(@Nonnull SourceFile sourceFile) {
+        String path = relativePath(new File(sourceFile.getKey()));
+        String hash = hashes.get(path);
+        if (null == hash) {
+            return;
+        }
+
+        int[] values = new int[METRICS.length];
+        for (int i = 0; i < METRICS.length; i++) {
+            values[i] = sourceFile.getInt(METRICS[i]);
+        }
+
+        byte[] cpdTokens = null;
+        byte[] highlighting = null;
+        try {
+            Object data = sourceFile.getData(ObjectiveCDataMetric.CPD_TOKENS);
+            if (data instanceof ObjectiveCCpdTokens) {
+                cpdTokens = ((ObjectiveCCpdTokens) data).toByteArray();
+            }
+            data = sourceFile.getData(ObjectiveCDataMetric.HIGHLIGHTING);
+            if (data instanceof ObjectiveCHighlighting) {
+                highlighting = ((ObjectiveCHighlighting) data).toByteArray();
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Unable to cache data for: {}", path, e);
+            return;
+        }
+        Object includes = sourceFile.getData(ObjectiveCDataMetric.INCLUDES);
+        updatedEntries.put(path, new Entry(hash, values, cpdTokens, highlighting, includes instanceof String[] ? (String[]) includes : null));
+    }
+
+    /**
+     * Write the entries used by this analysis, entries for removed files are dropped.
+     */
+    void save() {
+        Path temporaryFile = null;
+        try {
+            Files.createDirectories(cacheFile.getParent());
+            temporaryFile = Files.createTempFile(cacheFile.getParent(), FILE_NAME, ".tmp");
+            CRC32 checksum = new CRC32();
+            try (DataOutputStream output = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryFile)), checksum))) {
+                output.writeInt(MAGIC);
+                output.writeInt(FORMAT_VERSION);
+                output.writeUTF(key);
+                output.writeInt(updatedEntries.size());
+                for (Map.Entry<String, Entry> entry : updatedEntries.entrySet()) {
+                    output.writeUTF(entry.getKey());
+                    output.writeUTF(entry.getValue().hash);
+                    for (int value : entry.getValue().values) {
+                        output.writeInt(value);
+                    }
+                    writeBytes(output, entry.getValue().cpdTokens);
+                    writeBytes(output, entry.getValue().highlighting);
+                    String[] includes = entry.getValue().includes;
+                    output.writeInt(null == includes ? -1 : includes.length);
+                    if (null != includes) {
+                        for (String include : includes) {
+                            output.writeUTF(include);
+                        }
+                    }
+                }
+                output.writeLong(checksum.getValue());
+            }
+            Files.move(temporaryFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.warn("Unable to write measures cache: {}", cacheFile, e);
+            deleteTemporaryFile(temporaryFile);
+        }
+    }
+
+    private static void deleteTemporaryFile(@Nullable Path temporaryFile) {
+        if (null == temporaryFile) {
+            return;
+        }
+
+        try {
+            Files.deleteIfExists(temporaryFile);
+        } catch (IOException e) {
+            LOGGER.debug("Unable to delete temporary file: {}", temporaryFile, e);
+        }
+    }
+
+    private static final class Entry {
+        private final String hash;
+        private final int[] values;
+        private final byte[] cpdTokens;
+        private final byte[] highlighting;
+        private final String[] includes;
+
+        private Entry(
+                @Nonnull String hash,
+                @Nonnull int[] values,
+                @Nullable byte[] cpdTokens,
+                @Nullable byte[] highlighting,
+                @Nullable String[] includes
+        ) {
+            this.hash = hash;
+            this.values = values;
+            this.cpdTokens = cpdTokens;
+            this.highlighting = highlighting;
+            this.includes = includes;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec;
+
+import org.sonar.api.measures.Metric;
+import org.sonar.api.measures.Metrics;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Measures computed by the plugin in addition to the core metrics.
+ */
+public class ObjectiveCMetrics implements Metrics {
+    private static final String DOMAIN_DESIGN = "Design";
+    private static final String DOMAIN_SIZE = "Size";
+
+    public static final Metric<Integer> INCLUDE_FAN_IN = new Metric.Builder("objc_include_fan_in", "Include Fan-In", Metric.ValueType.INT)
+            .setDescription("Number of project files including the file")
+            .setDirection(Metric.DIRECTION_WORST)
+            .setQualitative(false)
+            .setDomain(DOMAIN_DESIGN)
+            .create();
+
+    public static final Metric<Integer> INCLUDE_FAN_OUT = new Metric.Builder("objc_include_fan_out", "Include Fan-Out", Metric.ValueType.INT)
+            .setDescription("Number of project files included by the file")
+            .setDirection(Metric.DIRECTION_WORST)
+            .setQualitative(false)
+            .setDomain(DOMAIN_DESIGN)
+            .create();
+
+    public static final Metric<Boolean> APPROXIMATE_MEASURES = new Metric.Builder("objc_approximate_measures", "Approximate Measures", Metric.ValueType.BOOL)
+            .setDescription("Only the lines of the file were counted, since it is larger than the maximum file size or took longer than the time budget to scan")
+            .setDirection(Metric.DIRECTION_NONE)
+            .setQualitative(false)
+            .setDomain(DOMAIN_SIZE)
+            .create();
+
+    /**
+     * The raw metric type is declared by the {@link Metrics} interface.
+     */
+    @Override
+    @SuppressWarnings("rawtypes")
+    public List<Metric> getMetrics() {
+        return Arrays.asList(INCLUDE_FAN_IN, INCLUDE_FAN_OUT, APPROXIMATE_MEASURES);
+    }
+}
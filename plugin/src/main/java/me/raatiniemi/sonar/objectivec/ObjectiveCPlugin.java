@@ -18,9 +18,14 @@
 package me.raatiniemi.sonar.objectivec;
 
 import me.raatiniemi.sonar.objectivec.core.ObjectiveC;
+import me.raatiniemi.sonar.objectivec.reports.ObjectiveCCoberturaSensor;
+import me.raatiniemi.sonar.objectivec.reports.ObjectiveCLizardSensor;
+import me.raatiniemi.sonar.objectivec.reports.ObjectiveCLlvmCovSensor;
+import me.raatiniemi.sonar.objectivec.reports.ObjectiveCOCLintSensor;
+import me.raatiniemi.sonar.objectivec.reports.ObjectiveCReports;
 import me.raatiniemi.sonar.objectivec.violations.ObjectiveCProfile;
 import org.sonar.api.Plugin;
-import me.raatiniemi.sonar.lizard.LizardSensor;
+import org.sonar.api.config.Configuration;
 import me.raatiniemi.sonar.cobertura.CoberturaSensor;
 import me.raatiniemi.sonar.surefire.SurefireSensor;
 import me.raatiniemi.sonar.oclint.OCLintProfile;
@@ -38,19 +43,116 @@ public class ObjectiveCPlugin implements Plugin {
     public void define(@Nonnull Context context) {
         List<Class> extensions = new ArrayList<>();
         extensions.add(ObjectiveC.class);
+        extensions.add(ObjectiveCMetrics.class);
         extensions.add(ObjectiveCSquidSensor.class);
         extensions.add(ObjectiveCProfile.class);
+        extensions.add(ObjectiveCReports.class);
         extensions.add(SurefireSensor.class);
-        extensions.add(CoberturaSensor.class);
+        extensions.add(isCoberturaStreamingEnabled(context.getBootConfiguration()) ? ObjectiveCCoberturaSensor.class : CoberturaSensor.class);
+        extensions.add(ObjectiveCLlvmCovSensor.class);
         extensions.add(OCLintRulesDefinition.class);
-        extensions.add(OCLintSensor.class);
+        extensions.add(isOCLintStreamingEnabled(context.getBootConfiguration()) ? ObjectiveCOCLintSensor.class : OCLintSensor.class);
         extensions.add(OCLintProfile.class);
         extensions.add(OCLintProfileImporter.class);
-        extensions.add(LizardSensor.class);
+        extensions.add(ObjectiveCLizardSensor.class);
 
         context.addExtensions(Collections.unmodifiableCollection(extensions));
     }
 
+    /**
+     * Cobertura reports are imported by the Cobertura module unless enabled, in which case they are
+     * imported by the streaming sensor instead.
+     *
+     * The sensors of the Cobertura module can not skip themselves, so the sensor is chosen when the
+     * plugin is loaded, i.e. the setting is read from the scanner properties.
+     */
+    static boolean isCoberturaStreamingEnabled(@Nonnull Configuration configuration) {
+        return configuration.getBoolean(COBERTURA_STREAMING_KEY).orElse(COBERTURA_STREAMING_DEFVALUE);
+    }
+
+    /**
+     * OCLint reports are imported by the OCLint module unless enabled, in which case the reports,
+     * e.g. one per shard, are imported concurrently by the streaming sensor instead.
+     *
+     * As for Cobertura, the setting is read from the scanner properties.
+     */
+    static boolean isOCLintStreamingEnabled(@Nonnull Configuration configuration) {
+        return configuration.getBoolean(OCLINT_STREAMING_KEY).orElse(OCLINT_STREAMING_DEFVALUE);
+    }
+
+    /**
+     * Functions and complexity are computed by the squid sensor unless disabled, in which case
+     * they are imported from the Lizard report instead.
+     *
+     * Both sensors are always registered and read the setting from the configuration of the
+     * module, so that the setting can be changed in the project settings on the server.
+     */
+    public static boolean isComplexityEnabled(@Nonnull Configuration configuration) {
+        return configuration.getBoolean(SQUID_COMPLEXITY_KEY).orElse(SQUID_COMPLEXITY_DEFVALUE);
+    }
+
     public static final String FILE_SUFFIXES_KEY = "sonar.objectivec.file.suffixes";
     public static final String FILE_SUFFIXES_DEFVALUE = "h,m,mm";
+
+    public static final String SQUID_THREADS_KEY = "sonar.objectivec.squid.threads";
+    public static final int SQUID_THREADS_DEFVALUE = 1;
+
+    public static final String SQUID_AST_KEY = "sonar.objectivec.squid.ast";
+    public static final boolean SQUID_AST_DEFVALUE = false;
+
+    public static final String SQUID_CACHE_KEY = "sonar.objectivec.squid.cache";
+    public static final boolean SQUID_CACHE_DEFVALUE = false;
+    public static final String SQUID_CACHE_PATH_KEY = "sonar.objectivec.squid.cache.path";
+    public static final String SQUID_CACHE_PATH_DEFVALUE = ".sonar-cache";
+
+    public static final String SQUID_STREAMING_KEY = "sonar.objectivec.squid.streaming";
+    public static final boolean SQUID_STREAMING_DEFVALUE = false;
+
+    public static final String SQUID_REPORT_SLOWEST_FILES_KEY = "sonar.objectivec.squid.report.slowestFiles";
+    public static final int SQUID_REPORT_SLOWEST_FILES_DEFVALUE = 20;
+
+    public static final String SQUID_COMPLEXITY_KEY = "sonar.objectivec.squid.complexity";
+    public static final boolean SQUID_COMPLEXITY_DEFVALUE = true;
+
+    public static final String SQUID_CPD_KEY = "sonar.objectivec.squid.cpd";
+    public static final boolean SQUID_CPD_DEFVALUE = true;
+
+    public static final String SQUID_HIGHLIGHTING_KEY = "sonar.objectivec.squid.highlighting";
+    public static final boolean SQUID_HIGHLIGHTING_DEFVALUE = true;
+
+    public static final String SQUID_DEDUPLICATE_KEY = "sonar.objectivec.squid.deduplicate";
+    public static final boolean SQUID_DEDUPLICATE_DEFVALUE = true;
+
+    public static final String SQUID_INCLUDES_KEY = "sonar.objectivec.squid.includes";
+    public static final boolean SQUID_INCLUDES_DEFVALUE = true;
+
+    public static final String SQUID_MAX_FILE_SIZE_KEY = "sonar.objectivec.squid.maxFileSize";
+    public static final long SQUID_MAX_FILE_SIZE_DEFVALUE = 0;
+
+    public static final String SQUID_MEMORY_BUDGET_KEY = "sonar.objectivec.squid.memoryBudget";
+    public static final long SQUID_MEMORY_BUDGET_DEFVALUE = 0;
+
+    public static final String SQUID_COMPILATION_DATABASE_KEY = "sonar.objectivec.squid.compilationDatabase";
+
+    public static final String SQUID_TIMEOUT_KEY = "sonar.objectivec.squid.timeout";
+    public static final long SQUID_TIMEOUT_DEFVALUE = 0;
+
+    public static final String REPORTS_DIRECTORIES_KEY = "sonar.objectivec.reports.directories";
+    public static final String REPORTS_DIRECTORIES_DEFVALUE = "sonar-reports";
+
+    public static final String COBERTURA_STREAMING_KEY = "sonar.objectivec.cobertura.streaming";
+    public static final boolean COBERTURA_STREAMING_DEFVALUE = false;
+
+    public static final String OCLINT_STREAMING_KEY = "sonar.objectivec.oclint.streaming";
+    public static final boolean OCLINT_STREAMING_DEFVALUE = false;
+
+    public static final String SQUID_GENERATED_FILES_KEY = "sonar.objectivec.squid.generatedFiles";
+    public static final String SQUID_GENERATED_SUFFIXES_KEY = "sonar.objectivec.squid.generatedFiles.suffixes";
+    public static final String SQUID_GENERATED_SUFFIXES_DEFVALUE = ".pbobjc.h,.pbobjc.m,.pbrpc.h,.pbrpc.m";
+    public static final String SQUID_GENERATED_FILE_SIZE_KEY = "sonar.objectivec.squid.generatedFiles.size";
+    public static final long SQUID_GENERATED_FILE_SIZE_DEFVALUE = 0;
+
+    public static final String SQUID_VENDORED_FILES_KEY = "sonar.objectivec.squid.vendoredFiles";
+    public static final String SQUID_VENDORED_DIRECTORIES_KEY = "sonar.objectivec.squid.vendoredFiles.directories";
+    public static final String SQUID_VENDORED_DIRECTORIES_DEFVALUE = "Pods,Carthage,vendor,third_party,ThirdParty";
 }
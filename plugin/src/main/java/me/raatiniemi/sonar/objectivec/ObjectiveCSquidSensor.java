@@ -17,11 +17,18 @@
  */
 package me.raatiniemi.sonar.objectivec;
 
-import com.google.common.collect.ImmutableList;
 import me.raatiniemi.sonar.objectivec.language.ObjectiveCAstScanner;
 import me.raatiniemi.sonar.objectivec.language.ObjectiveCConfiguration;
-import me.raatiniemi.sonar.objectivec.language.api.ObjectiveCGrammar;
+import me.raatiniemi.sonar.objectivec.language.ObjectiveCCpdTokens;
+import me.raatiniemi.sonar.objectivec.language.ObjectiveCHighlighting;
+import me.raatiniemi.sonar.objectivec.language.ObjectiveCLineCounter;
+import me.raatiniemi.sonar.objectivec.language.ObjectiveCMemoryBudget;
+import me.raatiniemi.sonar.objectivec.language.ObjectiveCMetricsScanner;
+import me.raatiniemi.sonar.objectivec.language.ObjectiveCScanStatistics;
+import me.raatiniemi.sonar.objectivec.language.api.ObjectiveCDataMetric;
 import me.raatiniemi.sonar.objectivec.language.api.ObjectiveCMetric;
+import me.raatiniemi.sonar.objectivec.ObjectiveCFileClassifier.Kind;
+import me.raatiniemi.sonar.objectivec.ObjectiveCFileClassifier.Policy;
 import me.raatiniemi.sonar.objectivec.core.ObjectiveC;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -31,32 +38,50 @@ import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.sensor.Sensor;
 import org.sonar.api.batch.sensor.SensorContext;
 import org.sonar.api.batch.sensor.SensorDescriptor;
+import org.sonar.api.batch.sensor.cpd.NewCpdTokens;
+import org.sonar.api.batch.sensor.highlighting.NewHighlighting;
+import org.sonar.api.batch.sensor.highlighting.TypeOfText;
+import org.sonar.api.config.Configuration;
 import org.sonar.api.measures.CoreMetrics;
 import org.sonar.api.measures.Metric;
-import org.sonar.api.scan.filesystem.PathResolver;
-import org.sonar.squidbridge.AstScanner;
-import org.sonar.squidbridge.api.SourceCode;
 import org.sonar.squidbridge.api.SourceFile;
-import org.sonar.squidbridge.indexer.QueryByType;
 
+import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import java.io.File;
+import java.io.IOException;
 import java.io.Serializable;
-import java.util.Collection;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 
 class ObjectiveCSquidSensor implements Sensor {
     private static final Logger LOGGER = LoggerFactory.getLogger(ObjectiveCSquidSensor.class);
 
+    static final String SCAN_REPORT_FILE_NAME = "objectivec-scan-report.json";
+
     private final FileSystem fileSystem;
 
-    private final PathResolver pathResolver;
     private SensorContext context;
+    private Map<String, InputFile> inputFiles;
+    private ObjectiveCScanStatistics statistics;
+    private ObjectiveCDuplicateFiles duplicateFiles;
+    private Map<String, String[]> includes;
+    private boolean saveComplexity;
 
     @SuppressWarnings("WeakerAccess")
-    public ObjectiveCSquidSensor(FileSystem fileSystem, PathResolver pathResolver) {
+    public ObjectiveCSquidSensor(FileSystem fileSystem) {
         this.fileSystem = fileSystem;
-        this.pathResolver = pathResolver;
     }
 
     @Nonnull
@@ -67,6 +92,15 @@ class ObjectiveCSquidSensor implements Sensor {
         );
     }
 
+    private static int getNumberOfThreads(@Nonnull Configuration configuration) {
+        int threads = configuration.getInt(ObjectiveCPlugin.SQUID_THREADS_KEY)
+                .orElse(ObjectiveCPlugin.SQUID_THREADS_DEFVALUE);
+        if (threads < 1) {
+            return Runtime.getRuntime().availableProcessors();
+        }
+        return threads;
+    }
+
     @Override
     public void describe(@Nonnull SensorDescriptor descriptor) {
         descriptor.name(getClass().getSimpleName());
@@ -82,35 +116,387 @@ class ObjectiveCSquidSensor implements Sensor {
         this.context = context;
 
         ObjectiveCConfiguration configuration = ObjectiveCConfiguration.create(context.fileSystem().encoding());
-        AstScanner<ObjectiveCGrammar> scanner = ObjectiveCAstScanner.create(configuration);
+        configuration.setCpdTokens(context.config().getBoolean(ObjectiveCPlugin.SQUID_CPD_KEY)
+                .orElse(ObjectiveCPlugin.SQUID_CPD_DEFVALUE));
+        configuration.setHighlighting(context.config().getBoolean(ObjectiveCPlugin.SQUID_HIGHLIGHTING_KEY)
+                .orElse(ObjectiveCPlugin.SQUID_HIGHLIGHTING_DEFVALUE));
+        configuration.setIncludes(context.config().getBoolean(ObjectiveCPlugin.SQUID_INCLUDES_KEY)
+                .orElse(ObjectiveCPlugin.SQUID_INCLUDES_DEFVALUE));
+        configuration.setMemoryBudget(ObjectiveCMemoryBudget.create(context.config().getLong(ObjectiveCPlugin.SQUID_MEMORY_BUDGET_KEY)
+                .orElse(ObjectiveCPlugin.SQUID_MEMORY_BUDGET_DEFVALUE)));
+        configuration.setTimeout(context.config().getLong(ObjectiveCPlugin.SQUID_TIMEOUT_KEY)
+                .orElse(ObjectiveCPlugin.SQUID_TIMEOUT_DEFVALUE));
+        includes = configuration.getIncludes() ? new HashMap<>() : null;
+        int threads = getNumberOfThreads(context.config());
+        boolean useAstScanner = context.config().getBoolean(ObjectiveCPlugin.SQUID_AST_KEY)
+                .orElse(ObjectiveCPlugin.SQUID_AST_DEFVALUE);
+
+        Policy generatedPolicy = Policy.from(context.config(), ObjectiveCPlugin.SQUID_GENERATED_FILES_KEY, Policy.SCAN);
+        Policy vendoredPolicy = Policy.from(context.config(), ObjectiveCPlugin.SQUID_VENDORED_FILES_KEY, Policy.SCAN);
+        ObjectiveCFileClassifier classifier = null;
+        if (Policy.SCAN != generatedPolicy || Policy.SCAN != vendoredPolicy) {
+            classifier = ObjectiveCFileClassifier.create(context.config());
+        }
+        Path baseDir = fileSystem.baseDir().toPath().toAbsolutePath();
+        long maxFileSize = context.config().getLong(ObjectiveCPlugin.SQUID_MAX_FILE_SIZE_KEY)
+                .orElse(ObjectiveCPlugin.SQUID_MAX_FILE_SIZE_DEFVALUE);
+        int[] classifiedFiles = new int[Kind.values().length];
+        long[] classifiedBytes = new long[Kind.values().length];
 
-        //noinspection deprecation
-        scanner.scanFiles(ImmutableList.copyOf(fileSystem.files(createFilePredicate(fileSystem))));
+        ObjectiveCAnalysisScope scope = createScope(context.config(), baseDir, configuration.getCharset());
 
-        Collection<SourceCode> squidSourceFiles = scanner.getIndex().search(new QueryByType(SourceFile.class));
-        save(squidSourceFiles);
+        // Keep the input file for each scanned file, to avoid resolving them when saving measures.
+        List<File> files = new ArrayList<>();
+        List<File> linesOnlyFiles = new ArrayList<>();
+        List<File> approximateFiles = new ArrayList<>();
+        inputFiles = new HashMap<>();
+        for (InputFile inputFile : fileSystem.inputFiles(createFilePredicate(fileSystem))) {
+            File file = new File(inputFile.uri());
+            if (null != scope && !scope.contains(file)) {
+                continue;
+            }
+            Policy policy = Policy.SCAN;
+            if (null != classifier) {
+                Kind kind = classifier.classify(file, baseDir.relativize(file.toPath().toAbsolutePath()).toString());
+                classifiedFiles[kind.ordinal()]++;
+                classifiedBytes[kind.ordinal()] += file.length();
+                if (Kind.GENERATED == kind) {
+                    policy = generatedPolicy;
+                } else if (Kind.VENDORED == kind) {
+                    policy = vendoredPolicy;
+                }
+            }
+
+            if (Policy.SKIP == policy) {
+                continue;
+            }
+            if (maxFileSize > 0 && file.length() > maxFileSize) {
+                LOGGER.warn("Only counting the lines of {} ({} bytes), since it is larger than {} bytes, its measures are approximate",
+                        inputFile, file.length(), maxFileSize);
+                approximateFiles.add(file);
+            } else if (Policy.LINES == policy) {
+                linesOnlyFiles.add(file);
+            } else {
+                files.add(file);
+            }
+            inputFiles.put(file.getAbsolutePath(), inputFile);
+        }
+        if (null != classifier) {
+            LOGGER.info("Found {} generated files ({} bytes) and {} vendored files ({} bytes), treated as: {} and {}",
+                    classifiedFiles[Kind.GENERATED.ordinal()], classifiedBytes[Kind.GENERATED.ordinal()],
+                    classifiedFiles[Kind.VENDORED.ordinal()], classifiedBytes[Kind.VENDORED.ordinal()],
+                    generatedPolicy.name().toLowerCase(Locale.ROOT), vendoredPolicy.name().toLowerCase(Locale.ROOT));
+        }
+
+        saveComplexity = ObjectiveCPlugin.isComplexityEnabled(context.config());
+        boolean streaming = context.config().getBoolean(ObjectiveCPlugin.SQUID_STREAMING_KEY)
+                .orElse(ObjectiveCPlugin.SQUID_STREAMING_DEFVALUE);
+        statistics = new ObjectiveCScanStatistics(context.config().getInt(ObjectiveCPlugin.SQUID_REPORT_SLOWEST_FILES_KEY)
+                .orElse(ObjectiveCPlugin.SQUID_REPORT_SLOWEST_FILES_DEFVALUE));
+
+        long start = System.nanoTime();
+        if (context.config().getBoolean(ObjectiveCPlugin.SQUID_DEDUPLICATE_KEY).orElse(ObjectiveCPlugin.SQUID_DEDUPLICATE_DEFVALUE)) {
+            duplicateFiles = ObjectiveCDuplicateFiles.find(files);
+            statistics.deduplicated(duplicateFiles.getNumberOfCopies(), duplicateFiles.getBytesOfCopies());
+            LOGGER.debug("Found {} files ({} bytes) with the same content as another file",
+                    duplicateFiles.getNumberOfCopies(), duplicateFiles.getBytesOfCopies());
+        } else {
+            duplicateFiles = ObjectiveCDuplicateFiles.none(files);
+        }
+        files = duplicateFiles.getDistinctFiles();
+
+        if (isCacheEnabled(context.config())) {
+            scanFilesWithCache(configuration, files, threads, useAstScanner, streaming);
+        } else {
+            LOGGER.debug("Scanning {} files using {} thread(s)", files.size(), threads);
+            scanFiles(configuration, files, threads, useAstScanner, streaming, statistics, this::save);
+        }
+        if (!linesOnlyFiles.isEmpty()) {
+            // Neither the AST, tokens nor highlighting are needed for the lines of code and comment lines.
+            ObjectiveCConfiguration linesConfiguration = ObjectiveCConfiguration.create(configuration.getCharset());
+            linesConfiguration.setIncludes(configuration.getIncludes());
+            linesConfiguration.setMemoryBudget(configuration.getMemoryBudget());
+            linesConfiguration.setTimeout(configuration.getTimeout());
+            LOGGER.debug("Counting lines of {} files using {} thread(s)", linesOnlyFiles.size(), threads);
+            scanFiles(linesConfiguration, linesOnlyFiles, threads, false, streaming, statistics, this::saveLines);
+        }
+        if (!approximateFiles.isEmpty()) {
+            // The files are streamed one at a time, neither their content nor their tokens are kept.
+            ObjectiveCLineCounter lineCounter = ObjectiveCLineCounter.create(configuration, statistics);
+            LOGGER.debug("Counting lines of {} files larger than {} bytes", approximateFiles.size(), maxFileSize);
+            for (File file : approximateFiles) {
+                save(lineCounter.scanFile(file));
+            }
+        }
+        if (null != includes) {
+            saveIncludeGraph();
+        }
+        report(System.nanoTime() - start);
+
+        inputFiles = null;
+        statistics = null;
+        duplicateFiles = null;
+        includes = null;
+    }
+
+    /**
+     * Limit the analysis to the files reached from the translation units in the compilation database,
+     * if configured. Returns null if every file should be analysed.
+     */
+    @CheckForNull
+    private ObjectiveCAnalysisScope createScope(@Nonnull Configuration configuration, @Nonnull Path baseDir, @Nonnull Charset charset) {
+        String database = configuration.get(ObjectiveCPlugin.SQUID_COMPILATION_DATABASE_KEY).map(String::trim).orElse("");
+        if (database.isEmpty()) {
+            return null;
+        }
+
+        List<File> files = new ArrayList<>();
+        for (InputFile inputFile : fileSystem.inputFiles(createFilePredicate(fileSystem))) {
+            files.add(new File(inputFile.uri()));
+        }
+
+        ObjectiveCAnalysisScope scope;
+        try {
+            scope = ObjectiveCAnalysisScope.create(baseDir.resolve(database), baseDir, files, charset);
+        } catch (IOException | InvalidPathException e) {
+            LOGGER.warn("Unable to read compilation database {}, every file will be analysed", database, e);
+            return null;
+        }
+        if (0 == scope.getTranslationUnits()) {
+            LOGGER.warn("No file in compilation database {} is part of the project, every file will be analysed", database);
+            return null;
+        }
+
+        LOGGER.info("Limiting the analysis to {} of {} files, reached from {} translation units in {}",
+                scope.size(), files.size(), scope.getTranslationUnits(), database);
+        return scope;
     }
 
-    private void save(Collection<SourceCode> squidSourceFiles) {
-        for (SourceCode squidSourceFile : squidSourceFiles) {
-            SourceFile squidFile = (SourceFile) squidSourceFile;
+    private void scanFilesWithCache(
+            @Nonnull ObjectiveCConfiguration configuration,
+            @Nonnull List<File> files,
+            int threads,
+            boolean useAstScanner,
+            boolean streaming
+    ) {
+        ObjectiveCMeasuresCache cache = ObjectiveCMeasuresCache.load(
+                getCacheDirectory(context.config()),
+                fileSystem.baseDir().toPath().toAbsolutePath(),
+                ObjectiveCMeasuresCache.createKey(configuration)
+        );
 
-            String relativePath = pathResolver.relativePath(fileSystem.baseDir(), new File(squidFile.getKey()));
-            if (null == relativePath) {
-                LOGGER.warn("Unable to build relative path for: {}", squidFile.getKey());
+        List<File> filesToScan = new ArrayList<>();
+        for (File file : files) {
+            SourceFile squidFile = cache.get(file);
+            if (null == squidFile) {
+                filesToScan.add(file);
                 continue;
             }
+            save(squidFile);
+        }
+        LOGGER.debug("Scanning {} files using {} thread(s), {} files are unchanged",
+                filesToScan.size(), threads, files.size() - filesToScan.size());
+
+        scanFiles(configuration, filesToScan, threads, useAstScanner, streaming, statistics, squidFile -> {
+            if (!isApproximate(squidFile)) {
+                cache.put(squidFile);
+            }
+            save(squidFile);
+        });
+        cache.save();
+    }
+
+    /**
+     * Scan files with the metrics scanner, unless the AST scanner is requested for AST-dependent visitors.
+     *
+     * When streaming, the source file for each file is passed to the consumer as soon as the file has
+     * been scanned, otherwise every file is scanned before the source files are passed to the consumer.
+     */
+    private static void scanFiles(
+            @Nonnull ObjectiveCConfiguration configuration,
+            @Nonnull List<File> files,
+            int threads,
+            boolean useAstScanner,
+            boolean streaming,
+            @Nonnull ObjectiveCScanStatistics statistics,
+            @Nonnull Consumer<SourceFile> consumer
+    ) {
+        if (streaming) {
+            if (useAstScanner) {
+                ObjectiveCAstScanner.scanFiles(configuration, files, threads, statistics, consumer);
+                return;
+            }
+            ObjectiveCMetricsScanner.scanFiles(configuration, files, threads, statistics, consumer);
+            return;
+        }
+
+        List<SourceFile> squidSourceFiles;
+        if (useAstScanner) {
+            squidSourceFiles = ObjectiveCAstScanner.scanFiles(configuration, files, threads, statistics);
+        } else {
+            squidSourceFiles = ObjectiveCMetricsScanner.scanFiles(configuration, files, threads, statistics);
+        }
+        squidSourceFiles.forEach(consumer);
+    }
 
-            InputFile inputFile = fileSystem.inputFile(fileSystem.predicates().hasRelativePath(relativePath));
+    private static boolean isCacheEnabled(@Nonnull Configuration configuration) {
+        return configuration.getBoolean(ObjectiveCPlugin.SQUID_CACHE_KEY)
+                .orElse(ObjectiveCPlugin.SQUID_CACHE_DEFVALUE);
+    }
+
+    /**
+     * The cache is kept in the base directory by default, since the work directory is emptied
+     * at the beginning of every analysis.
+     */
+    @Nonnull
+    private Path getCacheDirectory(@Nonnull Configuration configuration) {
+        String path = configuration.get(ObjectiveCPlugin.SQUID_CACHE_PATH_KEY)
+                .orElse(ObjectiveCPlugin.SQUID_CACHE_PATH_DEFVALUE);
+        return fileSystem.baseDir().toPath().resolve(path);
+    }
+
+    /**
+     * Only the lines are saved for files that exceeded the size or time budget, see {@link ObjectiveCLineCounter}.
+     */
+    private static boolean isApproximate(@Nonnull SourceFile squidFile) {
+        return Boolean.TRUE.equals(squidFile.getData(ObjectiveCDataMetric.APPROXIMATE));
+    }
 
-            saveMeasures(inputFile, squidFile);
+    private void save(@Nonnull SourceFile squidFile) {
+        save(squidFile, isApproximate(squidFile) ? this::saveApproximateMeasures : this::saveMeasures);
+    }
+
+    private void saveLines(@Nonnull SourceFile squidFile) {
+        save(squidFile, isApproximate(squidFile) ? this::saveApproximateMeasures : this::saveLineMeasures);
+    }
+
+    private void save(@Nonnull SourceFile squidFile, @Nonnull BiConsumer<InputFile, SourceFile> saveMeasures) {
+        InputFile inputFile = inputFiles.get(squidFile.getKey());
+        if (null == inputFile) {
+            LOGGER.warn("Unable to find input file for: {}", squidFile.getKey());
+            return;
+        }
+
+        long start = System.nanoTime();
+        saveMeasures.accept(inputFile, squidFile);
+        statistics.saved(squidFile.getKey(), System.nanoTime() - start);
+
+        Object data = squidFile.getData(ObjectiveCDataMetric.INCLUDES);
+        if (null != includes && data instanceof String[]) {
+            includes.put(squidFile.getKey(), (String[]) data);
+        }
+
+        for (File copy : duplicateFiles.getCopies(squidFile.getKey())) {
+            save(ObjectiveCDuplicateFiles.copy(squidFile, copy), saveMeasures);
         }
     }
 
+    /**
+     * Save the include fan-in and fan-out of every file.
+     */
+    private void saveIncludeGraph() {
+        Path baseDir = fileSystem.baseDir().toPath().toAbsolutePath();
+        Map<String, String> absolutePaths = new HashMap<>();
+        Map<String, String[]> includesByPath = new HashMap<>();
+        for (Map.Entry<String, String[]> entry : includes.entrySet()) {
+            String path = baseDir.relativize(Paths.get(entry.getKey())).toString().replace(File.separatorChar, '/');
+            absolutePaths.put(path, entry.getKey());
+            includesByPath.put(path, entry.getValue());
+        }
+
+        ObjectiveCIncludeGraph graph = ObjectiveCIncludeGraph.build(includesByPath);
+        for (int i = 0; i < graph.size(); i++) {
+            InputFile inputFile = inputFiles.get(absolutePaths.get(graph.getPath(i)));
+            saveMeasure(inputFile, ObjectiveCMetrics.INCLUDE_FAN_IN, graph.getFanIn(i));
+            saveMeasure(inputFile, ObjectiveCMetrics.INCLUDE_FAN_OUT, graph.getFanOut(i));
+        }
+    }
+
+    /**
+     * Log a summary of the scan and write the slowest files to the report in the work directory.
+     */
+    private void report(long elapsedNanos) {
+        LOGGER.info("Scanned {}", statistics.getSummary(elapsedNanos));
+
+        Path reportFile = fileSystem.workDir().toPath().resolve(SCAN_REPORT_FILE_NAME);
+        try {
+            Files.createDirectories(reportFile.getParent());
+            statistics.writeReport(reportFile, elapsedNanos);
+        } catch (IOException e) {
+            LOGGER.warn("Unable to write scan report: {}", reportFile, e);
+        }
+    }
+
+    private void saveLineMeasures(InputFile inputFile, SourceFile squidFile) {
+        saveMeasure(inputFile, CoreMetrics.NCLOC, squidFile.getInt(ObjectiveCMetric.LINES_OF_CODE));
+        saveMeasure(inputFile, CoreMetrics.COMMENT_LINES, squidFile.getInt(ObjectiveCMetric.COMMENT_LINES));
+    }
+
+    private void saveApproximateMeasures(InputFile inputFile, SourceFile squidFile) {
+        saveLineMeasures(inputFile, squidFile);
+        saveMeasure(inputFile, ObjectiveCMetrics.APPROXIMATE_MEASURES, true);
+    }
+
     private void saveMeasures(InputFile inputFile, SourceFile squidFile) {
         saveMeasure(inputFile, CoreMetrics.NCLOC, squidFile.getInt(ObjectiveCMetric.LINES_OF_CODE));
         saveMeasure(inputFile, CoreMetrics.STATEMENTS, squidFile.getInt(ObjectiveCMetric.STATEMENTS));
         saveMeasure(inputFile, CoreMetrics.COMMENT_LINES, squidFile.getInt(ObjectiveCMetric.COMMENT_LINES));
+        if (saveComplexity) {
+            saveMeasure(inputFile, CoreMetrics.FUNCTIONS, squidFile.getInt(ObjectiveCMetric.FUNCTIONS));
+            saveMeasure(inputFile, CoreMetrics.COMPLEXITY, squidFile.getInt(ObjectiveCMetric.COMPLEXITY));
+        }
+
+        Object cpdTokens = squidFile.getData(ObjectiveCDataMetric.CPD_TOKENS);
+        if (cpdTokens instanceof ObjectiveCCpdTokens) {
+            saveCpdTokens(inputFile, (ObjectiveCCpdTokens) cpdTokens);
+        }
+
+        Object highlighting = squidFile.getData(ObjectiveCDataMetric.HIGHLIGHTING);
+        if (highlighting instanceof ObjectiveCHighlighting) {
+            saveHighlighting(inputFile, (ObjectiveCHighlighting) highlighting);
+        }
+    }
+
+    private void saveCpdTokens(@Nonnull InputFile inputFile, @Nonnull ObjectiveCCpdTokens cpdTokens) {
+        NewCpdTokens newCpdTokens = context.newCpdTokens().onFile(inputFile);
+        try {
+            cpdTokens.forEach((line, column, length, image) ->
+                    newCpdTokens.addToken(line, column, line, column + length, image));
+        } catch (IllegalArgumentException e) {
+            LOGGER.warn("Unable to save duplication tokens for: {}", inputFile, e);
+            return;
+        }
+        newCpdTokens.save();
+    }
+
+    /**
+     * Save every highlighted range of the file at once, the ranges are only sent when saved.
+     */
+    private void saveHighlighting(@Nonnull InputFile inputFile, @Nonnull ObjectiveCHighlighting highlighting) {
+        NewHighlighting newHighlighting = context.newHighlighting().onFile(inputFile);
+        try {
+            highlighting.forEach((startLine, startColumn, endLine, endColumn, type) ->
+                    newHighlighting.highlight(startLine, startColumn, endLine, endColumn, toTypeOfText(type)));
+            newHighlighting.save();
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            LOGGER.warn("Unable to save highlighting for: {}", inputFile, e);
+        }
+    }
+
+    @Nonnull
+    private static TypeOfText toTypeOfText(@Nonnull ObjectiveCHighlighting.Type type) {
+        switch (type) {
+            case STRUCTURED_COMMENT:
+                return TypeOfText.STRUCTURED_COMMENT;
+            case STRING:
+                return TypeOfText.STRING;
+            case KEYWORD:
+                return TypeOfText.KEYWORD;
+            case PREPROCESS_DIRECTIVE:
+                return TypeOfText.PREPROCESS_DIRECTIVE;
+            default:
+                return TypeOfText.COMMENT;
+        }
     }
 
     private void saveMeasure(@Nonnull InputFile inputFile, @Nonnull Metric metric, Serializable value) {
@@ -22,20 +22,24 @@ import me.raatiniemi.sonar.objectivec.language.api.ObjectiveCMetric;
 import me.raatiniemi.sonar.objectivec.language.parser.ObjectiveCParser;
 import com.sonar.sslr.impl.Parser;
 import org.sonar.squidbridge.AstScanner;
-import org.sonar.squidbridge.CommentAnalyser;
+import org.sonar.squidbridge.SquidAstVisitor;
 import org.sonar.squidbridge.SquidAstVisitorContextImpl;
 import org.sonar.squidbridge.api.SourceCode;
 import org.sonar.squidbridge.api.SourceFile;
 import org.sonar.squidbridge.api.SourceProject;
 import org.sonar.squidbridge.indexer.QueryByType;
-import org.sonar.squidbridge.metrics.CommentsVisitor;
 import org.sonar.squidbridge.metrics.LinesOfCodeVisitor;
 import org.sonar.squidbridge.metrics.LinesVisitor;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.io.File;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 public class ObjectiveCAstScanner {
 
@@ -58,33 +62,131 @@ public class ObjectiveCAstScanner {
         return (SourceFile) sources.iterator().next();
     }
 
+    /**
+     * Scan files and return the source file for each of them, in the same order as the files.
+     *
+     * If more than one thread is requested, the files are partitioned across the threads and each
+     * thread scans its partition using its own scanner, since the parser and lexer are not thread-safe.
+     * With a memory budget or a time budget, the files of a partition are scanned one at a time within the budgets.
+     */
+    @Nonnull
+    public static List<SourceFile> scanFiles(@Nonnull ObjectiveCConfiguration conf, @Nonnull List<File> files, int threads) {
+        return scanFiles(conf, files, threads, new ObjectiveCScanStatistics(0));
+    }
+
+    /**
+     * Scan files and return the source file for each of them, recording the statistics for each file.
+     */
+    @Nonnull
+    public static List<SourceFile> scanFiles(
+            @Nonnull ObjectiveCConfiguration conf,
+            @Nonnull List<File> files,
+            int threads,
+            @Nonnull ObjectiveCScanStatistics statistics
+    ) {
+        return ObjectiveCParallelScanner.scanFiles(files, threads, partition -> scanPartition(conf, statistics, partition));
+    }
+
+    @Nonnull
+    private static List<SourceFile> scanPartition(
+            @Nonnull ObjectiveCConfiguration conf,
+            @Nonnull ObjectiveCScanStatistics statistics,
+            @Nonnull List<File> files
+    ) {
+        if (conf.getMemoryBudget().getLimit() > 0 || conf.getTimeout() > 0) {
+            // Each file has to be scanned on its own to be within the budgets.
+            Function<File, SourceFile> fileScanner = createFileScanner(conf, statistics);
+            List<SourceFile> sourceFiles = new ArrayList<>(files.size());
+            for (File file : files) {
+                sourceFiles.add(fileScanner.apply(file));
+            }
+            return sourceFiles;
+        }
+
+        ObjectiveCScanTimer timer = new ObjectiveCScanTimer(conf, statistics);
+        AstScanner<ObjectiveCGrammar> scanner = create(conf, timer.getParser(), timer.createVisitor());
+        scanner.scanFiles(files);
+
+        List<SourceFile> sourceFiles = new ArrayList<>(files.size());
+        for (File file : files) {
+            SourceCode sourceCode = scanner.getIndex().search(file.getAbsolutePath());
+            if (sourceCode instanceof SourceFile) {
+                sourceFiles.add((SourceFile) sourceCode);
+            }
+        }
+        return sourceFiles;
+    }
+
+    /**
+     * Scan files and pass the source file for each of them to the consumer as soon as it has been scanned.
+     *
+     * Since the index of a scanner keeps every source file it has scanned, each file is scanned
+     * with a new scanner, only the parser is shared between the files scanned by a thread.
+     */
+    public static void scanFiles(
+            @Nonnull ObjectiveCConfiguration conf,
+            @Nonnull List<File> files,
+            int threads,
+            @Nonnull ObjectiveCScanStatistics statistics,
+            @Nonnull Consumer<SourceFile> consumer
+    ) {
+        ObjectiveCParallelScanner.scanFiles(files, threads, () -> createFileScanner(conf, statistics), consumer);
+    }
+
+    /**
+     * Files exceeding the time budget are aborted and only their lines are counted.
+     */
+    @Nonnull
+    private static Function<File, SourceFile> createFileScanner(
+            @Nonnull ObjectiveCConfiguration conf,
+            @Nonnull ObjectiveCScanStatistics statistics
+    ) {
+        ObjectiveCScanTimer timer = new ObjectiveCScanTimer(conf, statistics);
+        ObjectiveCLineCounter lineCounter = timer.getWatchdog().isEnabled() ? ObjectiveCLineCounter.create(conf, statistics) : null;
+
+        return file -> {
+            long reserved = conf.getMemoryBudget().acquire(file);
+            try {
+                AstScanner<ObjectiveCGrammar> scanner = create(conf, timer.getParser(), timer.createVisitor());
+                scanner.scanFile(file);
+                if (timer.hasTimedOut()) {
+                    return lineCounter.scanFileAfterTimeout(file, timer.getWatchdog().getTimeoutMillis());
+                }
+
+                SourceCode sourceCode = scanner.getIndex().search(file.getAbsolutePath());
+                if (sourceCode instanceof SourceFile) {
+                    return (SourceFile) sourceCode;
+                }
+                throw new IllegalStateException("No source file was created for: " + file.getAbsolutePath());
+            } finally {
+                conf.getMemoryBudget().release(reserved);
+            }
+        };
+    }
+
     public static AstScanner<ObjectiveCGrammar> create(ObjectiveCConfiguration conf) {
+        return create(conf, ObjectiveCParser.create(conf), null);
+    }
+
+    private static AstScanner<ObjectiveCGrammar> create(
+            ObjectiveCConfiguration conf,
+            Parser<ObjectiveCGrammar> parser,
+            @Nullable SquidAstVisitor<ObjectiveCGrammar> timerVisitor
+    ) {
         final SquidAstVisitorContextImpl<ObjectiveCGrammar> context = new SquidAstVisitorContextImpl<>(new SourceProject("Objective-C Project"));
-        final Parser<ObjectiveCGrammar> parser = ObjectiveCParser.create(conf);
 
         AstScanner.Builder<ObjectiveCGrammar> builder = AstScanner.builder(context).setBaseParser(parser);
 
+        /* Statistics, added first to surround the other visitors */
+        if (null != timerVisitor) {
+            builder.withSquidAstVisitor(timerVisitor);
+        }
+
         /* Metrics */
         builder.withMetrics(ObjectiveCMetric.values());
 
         /* Comments */
-        builder.setCommentAnalyser(
-                new CommentAnalyser() {
-                    @Override
-                    public boolean isBlank(@Nonnull String line) {
-                        for (int i = 0; i < line.length(); i++) {
-                            if (Character.isLetterOrDigit(line.charAt(i))) {
-                                return false;
-                            }
-                        }
-                        return true;
-                    }
-
-                    @Override
-                    public String getContents(@Nonnull String comment) {
-                        return comment.startsWith("//") ? comment.substring(2) : comment.substring(2, comment.length() - 2);
-                    }
-                });
+        builder.setCommentAnalyser(new ObjectiveCCommentAnalyser());
 
         /* Files */
       builder.setFilesMetric(ObjectiveCMetric.FILES);
@@ -92,10 +194,17 @@ public class ObjectiveCAstScanner {
         /* Metrics */
 	builder.withSquidAstVisitor(new LinesVisitor<>(ObjectiveCMetric.LINES));
 	builder.withSquidAstVisitor(new LinesOfCodeVisitor<>(ObjectiveCMetric.LINES_OF_CODE));
-      	builder.withSquidAstVisitor(CommentsVisitor.<ObjectiveCGrammar> builder().withCommentMetric(ObjectiveCMetric.COMMENT_LINES)
-      			.withNoSonar(true)
-      			.withIgnoreHeaderComment(conf.getIgnoreHeaderComments())
-      			.build());
+	builder.withSquidAstVisitor(new ObjectiveCComplexityVisitor());
+        if (conf.getCpdTokens()) {
+            builder.withSquidAstVisitor(new ObjectiveCCpdVisitor());
+        }
+        if (conf.getHighlighting()) {
+            builder.withSquidAstVisitor(new ObjectiveCHighlightingVisitor());
+        }
+        if (conf.getIncludes()) {
+            builder.withSquidAstVisitor(new ObjectiveCIncludeVisitor(conf.getCharset()));
+        }
+        builder.withSquidAstVisitor(new ObjectiveCCommentsVisitor(conf.getIgnoreHeaderComments()));
 
         return builder.build();
     }
@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.language;
+
+import org.sonar.squidbridge.CommentAnalyser;
+
+import javax.annotation.Nonnull;
+
+public class ObjectiveCCommentAnalyser extends CommentAnalyser {
+    @Override
+    public boolean isBlank(@Nonnull String line) {
+        return ObjectiveCCommentMetrics.isBlank(line, 0, line.length());
+    }
+
+    @Override
+    public String getContents(@Nonnull String comment) {
+        return comment.startsWith("//") ? comment.substring(2) : comment.substring(2, comment.length() - 2);
+    }
+}
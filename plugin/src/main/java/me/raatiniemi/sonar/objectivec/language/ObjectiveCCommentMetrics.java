@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.language;
+
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Counts the comment lines, blank comment lines and lines with NOSONAR markers of a file.
+ *
+ * Comments are given as offsets into the code, each line of a comment is classified in a single
+ * pass without creating any strings. The lines are counted the same way as by the comments
+ * visitor of SSLR squid bridge, i.e. a line with a NOSONAR marker is not a comment line and a
+ * line is blank unless it contains a letter or digit.
+ */
+public class ObjectiveCCommentMetrics {
+    private static final String NOSONAR = "NOSONAR";
+    private static final boolean[] ASCII_LETTER_OR_DIGIT = new boolean[128];
+
+    static {
+        for (char character = 0; character < ASCII_LETTER_OR_DIGIT.length; character++) {
+            ASCII_LETTER_OR_DIGIT[character] = Character.isLetterOrDigit(character);
+        }
+    }
+
+    private int commentLine;
+    private boolean commentLineHasContent;
+    private boolean commentLineHasNoSonar;
+    private int commentLines;
+    private int blankCommentLines;
+    private int[] noSonarLines = new int[8];
+    private int numberOfNoSonarLines;
+
+    public ObjectiveCCommentMetrics() {
+        reset();
+    }
+
+    public void reset() {
+        commentLine = -1;
+        commentLineHasContent = false;
+        commentLineHasNoSonar = false;
+        commentLines = 0;
+        blankCommentLines = 0;
+        numberOfNoSonarLines = 0;
+    }
+
+    /**
+     * Visit a comment, the comments of a file have to be visited in order.
+     *
+     * @param start Offset of the first character of the comment, i.e. the slash.
+     * @param end Offset after the last character of the comment.
+     * @param line Line of the first character of the comment.
+     */
+    public void visitComment(@Nonnull CharSequence code, int start, int end, int line) {
+        // Both comment types start with two characters, only block comments end with two characters.
+        int contentStart = start + 2;
+        int contentEnd = code.charAt(start + 1) == '*' ? end - 2 : end;
+
+        int currentLine = line;
+        int segmentStart = contentStart;
+        for (int i = contentStart; i < contentEnd; i++) {
+            char character = code.charAt(i);
+            if (character == '\n' || character == '\r') {
+                visitCommentLine(code, segmentStart, i, currentLine);
+                if (character == '\r' && i + 1 < contentEnd && code.charAt(i + 1) == '\n') {
+                    i++;
+                }
+                segmentStart = i + 1;
+                currentLine++;
+            }
+        }
+        visitCommentLine(code, segmentStart, contentEnd, currentLine);
+    }
+
+    /**
+     * Visit a segment of a comment on a single line, the segments of a file have to be visited in order.
+     */
+    void visitCommentLine(@Nonnull CharSequence code, int start, int end, int line) {
+        if (line != commentLine) {
+            flushCommentLine();
+            commentLine = line;
+        }
+
+        for (int i = start; i < end; i++) {
+            char character = code.charAt(i);
+            if (character == 'N' && regionMatches(code, i, end, NOSONAR)) {
+                commentLineHasNoSonar = true;
+                return;
+            }
+            if (!commentLineHasContent && isLetterOrDigit(character)) {
+                commentLineHasContent = true;
+            }
+        }
+    }
+
+    /**
+     * Count the last comment line, has to be called after the last comment of the file has been visited.
+     */
+    public void finish() {
+        flushCommentLine();
+        commentLine = -1;
+    }
+
+    private void flushCommentLine() {
+        if (commentLine < 0) {
+            return;
+        }
+
+        if (commentLineHasNoSonar) {
+            if (numberOfNoSonarLines == noSonarLines.length) {
+                noSonarLines = Arrays.copyOf(noSonarLines, numberOfNoSonarLines * 2);
+            }
+            noSonarLines[numberOfNoSonarLines++] = commentLine;
+        } else if (commentLineHasContent) {
+            commentLines++;
+        } else {
+            blankCommentLines++;
+        }
+        commentLineHasNoSonar = false;
+        commentLineHasContent = false;
+    }
+
+    public int getCommentLines() {
+        return commentLines;
+    }
+
+    public int getBlankCommentLines() {
+        return blankCommentLines;
+    }
+
+    @Nonnull
+    public Set<Integer> getNoSonarLines() {
+        Set<Integer> lines = new HashSet<>();
+        for (int i = 0; i < numberOfNoSonarLines; i++) {
+            lines.add(noSonarLines[i]);
+        }
+        return lines;
+    }
+
+    static boolean isLetterOrDigit(char character) {
+        return character < ASCII_LETTER_OR_DIGIT.length ? ASCII_LETTER_OR_DIGIT[character] : Character.isLetterOrDigit(character);
+    }
+
+    /**
+     * @return Whether the code between the offsets is blank, i.e. without any letter or digit.
+     */
+    public static boolean isBlank(@Nonnull CharSequence code, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (isLetterOrDigit(code.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean regionMatches(@Nonnull CharSequence code, int offset, int end, @Nonnull String value) {
+        if (end - offset < value.length()) {
+            return false;
+        }
+        for (int i = 1; i < value.length(); i++) {
+            if (code.charAt(offset + i) != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
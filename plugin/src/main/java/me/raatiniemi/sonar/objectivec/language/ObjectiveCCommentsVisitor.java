@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.language;
+
+import com.sonar.sslr.api.AstAndTokenVisitor;
+import com.sonar.sslr.api.AstNode;
+import com.sonar.sslr.api.GenericTokenType;
+import com.sonar.sslr.api.Token;
+import com.sonar.sslr.api.Trivia;
+import me.raatiniemi.sonar.objectivec.language.api.ObjectiveCGrammar;
+import me.raatiniemi.sonar.objectivec.language.api.ObjectiveCMetric;
+import org.sonar.squidbridge.SquidAstVisitor;
+import org.sonar.squidbridge.api.SourceCode;
+import org.sonar.squidbridge.api.SourceFile;
+
+import javax.annotation.Nullable;
+
+/**
+ * Saves the comment lines and the lines with NOSONAR markers, as counted by {@link ObjectiveCCommentMetrics}.
+ */
+class ObjectiveCCommentsVisitor extends SquidAstVisitor<ObjectiveCGrammar> implements AstAndTokenVisitor {
+    private final ObjectiveCCommentMetrics commentMetrics = new ObjectiveCCommentMetrics();
+    private final boolean ignoreHeaderComments;
+
+    private boolean seenFirstToken;
+
+    ObjectiveCCommentsVisitor(boolean ignoreHeaderComments) {
+        this.ignoreHeaderComments = ignoreHeaderComments;
+    }
+
+    @Override
+    public void visitFile(@Nullable AstNode astNode) {
+        commentMetrics.reset();
+        seenFirstToken = false;
+    }
+
+    @Override
+    public void visitToken(Token token) {
+        if (!ignoreHeaderComments || seenFirstToken) {
+            for (Trivia trivia : token.getTrivia()) {
+                if (trivia.isComment()) {
+                    String value = trivia.getToken().getOriginalValue();
+                    commentMetrics.visitComment(value, 0, value.length(), trivia.getToken().getLine());
+                }
+            }
+        }
+        seenFirstToken = true;
+
+        if (GenericTokenType.EOF.equals(token.getType())) {
+            commentMetrics.finish();
+
+            SourceCode sourceCode = getContext().peekSourceCode();
+            sourceCode.setMeasure(ObjectiveCMetric.COMMENT_LINES, commentMetrics.getCommentLines());
+            if (sourceCode instanceof SourceFile) {
+                ((SourceFile) sourceCode).addNoSonarTagLines(commentMetrics.getNoSonarLines());
+            }
+        }
+    }
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.language;
+
+import javax.annotation.Nonnull;
+
+import static me.raatiniemi.sonar.objectivec.language.ObjectiveCTokenWalker.identifierEnd;
+import static me.raatiniemi.sonar.objectivec.language.ObjectiveCTokenWalker.isIdentifierPart;
+
+/**
+ * Counts functions and their cyclomatic complexity from the tokens of a file.
+ *
+ * Methods and C functions with a body are counted as functions, blocks are part of the enclosing
+ * function. The complexity of a function is one plus the number of if, for, while, case, catch,
+ * &&, || and ? within its body, i.e. the same decision points as Lizard. The complexity of the
+ * file is the sum of the complexity of its functions. Preprocessor directives and the contents of
+ * string and character literals are ignored. The braces of {@code extern "C"} and namespace blocks
+ * are not counted as nesting, i.e. functions defined within them are counted.
+ */
+final class ObjectiveCComplexityAnalyser {
+    private static final String[] DECISION_KEYWORDS = {"if", "for", "while", "case", "catch"};
+    private static final String[] TYPE_KEYWORDS = {
+            "enum", "struct", "union", "NS_ENUM", "NS_OPTIONS", "NS_CLOSED_ENUM", "NS_ERROR_ENUM"
+    };
+
+    private enum Declaration {
+        NONE, METHOD, DIRECTIVE, TYPE, EXTERN, LINKAGE, NAMESPACE, OTHER
+    }
+
+    private final ObjectiveCTokenWalker walker = new ObjectiveCTokenWalker();
+    private int functions;
+    private int complexity;
+
+    private int depth;
+    private int linkageBlocks;
+    private boolean inFunction;
+    private int functionComplexity;
+    private Declaration declaration;
+    private char lastSignificant;
+
+    ObjectiveCComplexityAnalyser() {
+        reset();
+    }
+
+    void reset() {
+        walker.reset();
+        functions = 0;
+        complexity = 0;
+        depth = 0;
+        linkageBlocks = 0;
+        inFunction = false;
+        functionComplexity = 0;
+        declaration = Declaration.NONE;
+        lastSignificant = 0;
+    }
+
+    int getFunctions() {
+        return functions;
+    }
+
+    int getComplexity() {
+        return inFunction ? complexity + functionComplexity : complexity;
+    }
+
+    /**
+     * Visit the token, i.e. the characters between start and end, neither of which may be whitespace.
+     */
+    void visitToken(@Nonnull CharSequence code, int start, int end, int line) {
+        boolean firstOnLine = walker.visitToken(code, start, end, line);
+        if (firstOnLine && !walker.isContinued() && 0 == depth && Declaration.DIRECTIVE == declaration) {
+            declaration = Declaration.NONE;
+        }
+        if (walker.isInPreprocessor()) {
+            return;
+        }
+
+        char first = code.charAt(start);
+        if (firstOnLine && !walker.isInLiteral()) {
+            if (0 == depth && (first == '-' || first == '+')) {
+                declaration = Declaration.METHOD;
+            } else if (0 == depth && first == '@') {
+                declaration = Declaration.DIRECTIVE;
+            }
+        }
+
+        char previous = 0;
+        for (int i = start; i < end; i++) {
+            char character = code.charAt(i);
+            if (walker.isInLiteral()) {
+                i = walker.literalEnd(code, i, end) - 1;
+                continue;
+            }
+
+            if (isIdentifierPart(character)) {
+                int identifierEnd = identifierEnd(code, i + 1, end);
+                visitIdentifier(code, i, identifierEnd);
+                i = identifierEnd - 1;
+                previous = character;
+                continue;
+            }
+
+            switch (character) {
+                case '"':
+                    if (0 == depth && Declaration.EXTERN == declaration) {
+                        declaration = Declaration.LINKAGE;
+                    }
+                    walker.openLiteral(character);
+                    break;
+                case '\'':
+                    walker.openLiteral(character);
+                    break;
+                case '{':
+                    openBrace();
+                    previous = 0;
+                    continue;
+                case '}':
+                    closeBrace();
+                    previous = 0;
+                    continue;
+                case ';':
+                    if (0 == depth) {
+                        declaration = Declaration.NONE;
+                        previous = 0;
+                        continue;
+                    }
+                    break;
+                case '&':
+                case '|':
+                    visitSignificant(character);
+                    // Both characters are needed for a decision point, i.e. &&& is a decision point followed by &.
+                    if (previous == character) {
+                        decision();
+                        previous = 0;
+                    } else {
+                        previous = character;
+                    }
+                    continue;
+                case '?':
+                    decision();
+                    break;
+                case '=':
+                    if (0 == depth && Declaration.METHOD != declaration) {
+                        declaration = Declaration.TYPE;
+                    }
+                    break;
+                default:
+                    break;
+            }
+
+            visitSignificant(character);
+            previous = character;
+        }
+    }
+
+    private void visitIdentifier(@Nonnull CharSequence code, int start, int end) {
+        if (inFunction) {
+            if (matchesAny(code, start, end, DECISION_KEYWORDS)) {
+                decision();
+            }
+            return;
+        }
+        if (0 != depth) {
+            return;
+        }
+
+        Declaration previous = declaration;
+        visitSignificant(code.charAt(end - 1));
+        if (Declaration.METHOD != declaration && matchesAny(code, start, end, TYPE_KEYWORDS)) {
+            declaration = Declaration.TYPE;
+        } else if (Declaration.NONE == previous && matches(code, start, end, "extern")) {
+            declaration = Declaration.EXTERN;
+        } else if (Declaration.NONE == previous && matches(code, start, end, "namespace")) {
+            declaration = Declaration.NAMESPACE;
+        }
+    }
+
+    private void visitSignificant(char character) {
+        if (0 != depth) {
+            return;
+        }
+
+        if (Declaration.NONE == declaration) {
+            declaration = Declaration.OTHER;
+        } else if ((Declaration.EXTERN == declaration || Declaration.LINKAGE == declaration) && character != '"') {
+            // The linkage only applies to the following declaration, e.g. extern "C" int f(void) { ... }.
+            declaration = Declaration.OTHER;
+        }
+        lastSignificant = character;
+    }
+
+    private void openBrace() {
+        if (0 == depth && (Declaration.LINKAGE == declaration || Declaration.NAMESPACE == declaration)) {
+            linkageBlocks++;
+            declaration = Declaration.NONE;
+            return;
+        }
+        if (0 == depth) {
+            if (Declaration.METHOD == declaration || Declaration.OTHER == declaration && lastSignificant == ')') {
+                inFunction = true;
+                functions++;
+                functionComplexity = 1;
+            }
+            declaration = Declaration.NONE;
+        }
+        depth++;
+    }
+
+    private void closeBrace() {
+        if (0 == depth) {
+            if (linkageBlocks > 0) {
+                linkageBlocks--;
+                declaration = Declaration.NONE;
+            }
+            return;
+        }
+
+        depth--;
+        if (0 == depth) {
+            if (inFunction) {
+                complexity += functionComplexity;
+                inFunction = false;
+            }
+            declaration = Declaration.NONE;
+        }
+    }
+
+    private void decision() {
+        if (inFunction) {
+            functionComplexity++;
+        }
+    }
+
+    private static boolean matchesAny(@Nonnull CharSequence code, int start, int end, @Nonnull String[] values) {
+        for (String value : values) {
+            if (matches(code, start, end, value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matches(@Nonnull CharSequence code, int start, int end, @Nonnull String value) {
+        if (end - start != value.length()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (code.charAt(start + i) != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
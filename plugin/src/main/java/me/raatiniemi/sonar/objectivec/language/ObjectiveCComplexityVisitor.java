@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.language;
+
+import com.sonar.sslr.api.AstAndTokenVisitor;
+import com.sonar.sslr.api.AstNode;
+import com.sonar.sslr.api.GenericTokenType;
+import com.sonar.sslr.api.Token;
+import me.raatiniemi.sonar.objectivec.language.api.ObjectiveCGrammar;
+import me.raatiniemi.sonar.objectivec.language.api.ObjectiveCMetric;
+import org.sonar.squidbridge.SquidAstVisitor;
+import org.sonar.squidbridge.api.SourceCode;
+
+import javax.annotation.Nullable;
+
+/**
+ * Saves the functions and complexity of the file, as counted by {@link ObjectiveCComplexityAnalyser}.
+ */
+class ObjectiveCComplexityVisitor extends SquidAstVisitor<ObjectiveCGrammar> implements AstAndTokenVisitor {
+    private final ObjectiveCComplexityAnalyser analyser = new ObjectiveCComplexityAnalyser();
+
+    @Override
+    public void visitFile(@Nullable AstNode astNode) {
+        analyser.reset();
+    }
+
+    @Override
+    public void visitToken(Token token) {
+        if (GenericTokenType.EOF.equals(token.getType())) {
+            SourceCode sourceCode = getContext().peekSourceCode();
+            sourceCode.setMeasure(ObjectiveCMetric.FUNCTIONS, analyser.getFunctions());
+            sourceCode.setMeasure(ObjectiveCMetric.COMPLEXITY, analyser.getComplexity());
+            return;
+        }
+
+        String value = token.getOriginalValue();
+        analyser.visitToken(value, 0, value.length(), token.getLine());
+    }
+}
@@ -19,10 +19,18 @@ package me.raatiniemi.sonar.objectivec.language;
 
 import org.sonar.squidbridge.api.SquidConfiguration;
 
+import javax.annotation.Nonnull;
 import java.nio.charset.Charset;
+import java.util.function.LongSupplier;
 
 public class ObjectiveCConfiguration extends SquidConfiguration {
     private boolean ignoreHeaderComments;
+    private boolean cpdTokens;
+    private boolean highlighting;
+    private boolean includes;
+    private ObjectiveCMemoryBudget memoryBudget = ObjectiveCMemoryBudget.unlimited();
+    private long timeoutMillis;
+    private LongSupplier clock = System::nanoTime;
 
     private ObjectiveCConfiguration(Charset charset) {
         super(charset);
@@ -39,4 +47,60 @@ public class ObjectiveCConfiguration extends SquidConfiguration {
     public boolean getIgnoreHeaderComments() {
         return ignoreHeaderComments;
     }
+
+    public void setCpdTokens(boolean cpdTokens) {
+        this.cpdTokens = cpdTokens;
+    }
+
+    public boolean getCpdTokens() {
+        return cpdTokens;
+    }
+
+    public void setHighlighting(boolean highlighting) {
+        this.highlighting = highlighting;
+    }
+
+    public boolean getHighlighting() {
+        return highlighting;
+    }
+
+    public void setIncludes(boolean includes) {
+        this.includes = includes;
+    }
+
+    public boolean getIncludes() {
+        return includes;
+    }
+
+    public void setMemoryBudget(@Nonnull ObjectiveCMemoryBudget memoryBudget) {
+        this.memoryBudget = memoryBudget;
+    }
+
+    @Nonnull
+    public ObjectiveCMemoryBudget getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * @param timeoutMillis Time budget for lexing and parsing each file, unlimited if zero or less.
+     */
+    public void setTimeout(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public long getTimeout() {
+        return timeoutMillis;
+    }
+
+    /**
+     * @param clock Current time in nanoseconds, read by the time budget of each file.
+     */
+    public void setClock(@Nonnull LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    @Nonnull
+    public LongSupplier getClock() {
+        return clock;
+    }
 }
@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.language;
+
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static me.raatiniemi.sonar.objectivec.language.ObjectiveCTokenWalker.identifierEnd;
+import static me.raatiniemi.sonar.objectivec.language.ObjectiveCTokenWalker.isIdentifierPart;
+import static me.raatiniemi.sonar.objectivec.language.ObjectiveCTokenWalker.isIdentifierStart;
+
+/**
+ * Splits the tokens of a file into normalised tokens for copy-paste detection.
+ *
+ * Identifiers are replaced by ID, numbers by NUM, and string and character literals by STR and
+ * CHR so that renamed copies still match, while keywords, directives and operators are kept. Each
+ * operator is a separate token, e.g. {@code ){} and {@code ) {} have the same tokens, and operators
+ * of more than one character are matched against a fixed table, the longest first.
+ * Preprocessor directives are ignored, e.g. imports should not be reported as duplications.
+ */
+final class ObjectiveCCpdTokenizer {
+    private static final String IDENTIFIER = "ID";
+    private static final String NUMBER = "NUM";
+    private static final String STRING = "STR";
+    private static final String CHARACTER = "CHR";
+
+    private static final Set<String> KEYWORDS = new HashSet<>(Arrays.asList(
+            "auto", "break", "case", "char", "const", "continue", "default", "do", "double", "else", "enum",
+            "extern", "float", "for", "goto", "if", "inline", "int", "long", "register", "restrict", "return",
+            "short", "signed", "sizeof", "static", "struct", "switch", "typedef", "union", "unsigned", "void",
+            "volatile", "while", "self", "super", "nil", "Nil", "YES", "NO", "id", "instancetype", "BOOL",
+            "SEL", "IMP", "Class", "in", "out", "inout", "bycopy", "byref", "oneway", "nonatomic", "atomic",
+            "strong", "weak", "copy", "assign", "retain", "readonly", "readwrite", "nullable", "nonnull",
+            "__block", "__weak", "__strong", "typeof", "__typeof__"
+    ));
+
+    private static final String[] OPERATORS = {
+            "<<=", ">>=", "...", "->", "++", "--", "<<", ">>", "<=", ">=", "==", "!=", "&&", "||",
+            "+=", "-=", "*=", "/=", "%=", "&=", "|=", "^=", "::"
+    };
+
+    private final ObjectiveCTokenWalker walker = new ObjectiveCTokenWalker();
+    private ObjectiveCCpdTokens tokens;
+
+    private int literalLine;
+    private int literalColumn;
+    private int literalEnd;
+    private String literalImage;
+
+    void reset() {
+        walker.reset();
+        tokens = new ObjectiveCCpdTokens();
+        literalLine = 0;
+    }
+
+    /**
+     * @return Tokens of the file, the tokenizer has to be reset before the next file.
+     */
+    @Nonnull
+    ObjectiveCCpdTokens getTokens() {
+        addLiteral();
+        return tokens;
+    }
+
+    /**
+     * Visit the token, i.e. the characters between start and end, neither of which may be whitespace.
+     *
+     * @param column Column of the first character of the token.
+     */
+    void visitToken(@Nonnull CharSequence code, int start, int end, int line, int column) {
+        if (walker.visitToken(code, start, end, line)) {
+            // Literals are only continued on the next line with a line continuation, either way
+            // the part on each line is a separate token since tokens can not span lines.
+            addLiteral();
+            if (walker.isInLiteral()) {
+                startLiteral(line, column);
+            }
+        }
+        if (walker.isInPreprocessor()) {
+            return;
+        }
+
+        int offset = start;
+        while (offset < end) {
+            int tokenColumn = column + offset - start;
+            if (walker.isInLiteral()) {
+                offset = walker.literalEnd(code, offset, end);
+                literalEnd = column + offset - start;
+                if (!walker.isInLiteral()) {
+                    addLiteral();
+                }
+                continue;
+            }
+
+            char character = code.charAt(offset);
+            if (character == '"' || character == '\'' || character == '@' && offset + 1 < end && code.charAt(offset + 1) == '"') {
+                int quoteOffset = character == '@' ? offset + 1 : offset;
+                walker.openLiteral(code.charAt(quoteOffset));
+                startLiteral(line, tokenColumn);
+                offset = quoteOffset + 1;
+                literalEnd = column + offset - start;
+                continue;
+            }
+
+            int tokenEnd;
+            String image;
+            if (isIdentifierStart(character)) {
+                tokenEnd = identifierEnd(code, offset + 1, end);
+                String word = code.subSequence(offset, tokenEnd).toString();
+                image = KEYWORDS.contains(word) ? word : IDENTIFIER;
+            } else if (character == '@' && offset + 1 < end && isIdentifierStart(code.charAt(offset + 1))) {
+                tokenEnd = identifierEnd(code, offset + 2, end);
+                image = code.subSequence(offset, tokenEnd).toString();
+            } else if (Character.isDigit(character)) {
+                tokenEnd = offset + 1;
+                while (tokenEnd < end && (isIdentifierPart(code.charAt(tokenEnd)) || code.charAt(tokenEnd) == '.')) {
+                    tokenEnd++;
+                }
+                image = NUMBER;
+            } else {
+                tokenEnd = operatorEnd(code, offset, end);
+                image = code.subSequence(offset, tokenEnd).toString();
+            }
+
+            tokens.add(line, tokenColumn, tokenEnd - offset, image);
+            offset = tokenEnd;
+        }
+    }
+
+    private void startLiteral(int line, int column) {
+        literalLine = line;
+        literalColumn = column;
+        literalEnd = column;
+        literalImage = walker.getQuote() == '\'' ? CHARACTER : STRING;
+    }
+
+    private void addLiteral() {
+        if (0 == literalLine) {
+            return;
+        }
+
+        tokens.add(literalLine, literalColumn, literalEnd - literalColumn, literalImage);
+        literalLine = 0;
+    }
+
+    private static int operatorEnd(@Nonnull CharSequence code, int offset, int end) {
+        for (String operator : OPERATORS) {
+            if (startsWith(code, offset, end, operator)) {
+                return offset + operator.length();
+            }
+        }
+        return offset + 1;
+    }
+
+    private static boolean startsWith(@Nonnull CharSequence code, int offset, int end, @Nonnull String value) {
+        if (end - offset < value.length()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (code.charAt(offset + i) != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
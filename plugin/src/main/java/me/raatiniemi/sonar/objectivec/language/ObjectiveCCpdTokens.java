@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.language;
+
+import javax.annotation.Nonnull;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Normalised tokens of a file for copy-paste detection.
+ *
+ * Tokens are kept in a compact encoding, i.e. variable length integers relative to the previous
+ * token and an index into the distinct images of the file, since they are retained until the
+ * measures for the file have been saved.
+ */
+public class ObjectiveCCpdTokens {
+    @FunctionalInterface
+    public interface TokenConsumer {
+        void accept(int line, int column, int length, @Nonnull String image);
+    }
+
+    private final List<String> images;
+    private final Map<String, Integer> imageIndexes = new HashMap<>();
+
+    private byte[] buffer;
+    private int size;
+    private int numberOfTokens;
+    private int lastLine = 1;
+    private int lastEnd;
+
+    ObjectiveCCpdTokens() {
+        images = new ArrayList<>();
+        buffer = new byte[256];
+    }
+
+    private ObjectiveCCpdTokens(@Nonnull List<String> images, @Nonnull byte[] buffer, int numberOfTokens) {
+        this.images = images;
+        this.buffer = buffer;
+        size = buffer.length;
+        this.numberOfTokens = numberOfTokens;
+    }
+
+    /**
+     * Add a token, tokens are added in the order they appear in the file and can not span lines.
+     */
+    void add(int line, int column, int length, @Nonnull String image) {
+        Integer imageIndex = imageIndexes.get(image);
+        if (null == imageIndex) {
+            imageIndex = images.size();
+            images.add(image);
+            imageIndexes.put(image, imageIndex);
+        }
+
+        int lineDelta = line - lastLine;
+        writeVarInt(lineDelta);
+        writeVarInt(lineDelta == 0 ? column - lastEnd : column);
+        writeVarInt(length);
+        writeVarInt(imageIndex);
+        lastLine = line;
+        lastEnd = column + length;
+        numberOfTokens++;
+    }
+
+    public int size() {
+        return numberOfTokens;
+    }
+
+    public void forEach(@Nonnull TokenConsumer consumer) {
+        int offset = 0;
+        int line = 1;
+        int end = 0;
+        int[] value = new int[1];
+        for (int i = 0; i < numberOfTokens; i++) {
+            offset = readVarInt(offset, value);
+            int lineDelta = value[0];
+            offset = readVarInt(offset, value);
+            int column = lineDelta == 0 ? end + value[0] : value[0];
+            offset = readVarInt(offset, value);
+            int length = value[0];
+            offset = readVarInt(offset, value);
+            String image = images.get(value[0]);
+
+            line += lineDelta;
+            end = column + length;
+            consumer.accept(line, column, length, image);
+        }
+    }
+
+    @Nonnull
+    public byte[] toByteArray() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(size + 64);
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeInt(images.size());
+            for (String image : images) {
+                output.writeUTF(image);
+            }
+            output.writeInt(numberOfTokens);
+            output.writeInt(size);
+            output.write(buffer, 0, size);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @throws IOException If the bytes are not a valid encoding of the tokens, e.g. a corrupted cache entry.
+     */
+    @Nonnull
+    public static ObjectiveCCpdTokens fromByteArray(@Nonnull byte[] bytes) throws IOException {
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            // Each image is written with at least two bytes, and each token with at least four bytes.
+            int numberOfImages = checkCount(input.readInt(), bytes.length / 2);
+            List<String> images = new ArrayList<>(numberOfImages);
+            for (int i = 0; i < numberOfImages; i++) {
+                images.add(input.readUTF());
+            }
+            int numberOfTokens = checkCount(input.readInt(), bytes.length / 4);
+            byte[] buffer = new byte[checkCount(input.readInt(), input.available())];
+            input.readFully(buffer);
+
+            ObjectiveCCpdTokens cpdTokens = new ObjectiveCCpdTokens(images, buffer, numberOfTokens);
+            cpdTokens.validate();
+            return cpdTokens;
+        }
+    }
+
+    private static int checkCount(int count, int maximum) throws IOException {
+        if (count < 0 || count > maximum) {
+            throw new IOException("Invalid count: " + count);
+        }
+        return count;
+    }
+
+    /**
+     * Decode every token once, so that {@link #forEach(TokenConsumer)} can not fail on malformed tokens.
+     */
+    private void validate() throws IOException {
+        int offset = 0;
+        for (int i = 0; i < numberOfTokens * 4; i++) {
+            int result = 0;
+            int shift = 0;
+            byte b;
+            do {
+                if (offset >= size || shift > 28) {
+                    throw new IOException("Malformed token at index: " + i / 4);
+                }
+                b = buffer[offset++];
+                result |= (b & 0x7f) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+
+            if (3 == i % 4 && (result < 0 || result >= images.size())) {
+                throw new IOException("Malformed token at index: " + i / 4);
+            }
+        }
+        if (offset != size) {
+            throw new IOException("Unexpected data after tokens");
+        }
+    }
+
+    private void writeVarInt(int value) {
+        if (size + 5 > buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        while ((value & ~0x7f) != 0) {
+            buffer[size++] = (byte) ((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        buffer[size++] = (byte) value;
+    }
+
+    private int readVarInt(int offset, @Nonnull int[] value) {
+        int result = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer[offset++];
+            result |= (b & 0x7f) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        value[0] = result;
+        return offset;
+    }
+}
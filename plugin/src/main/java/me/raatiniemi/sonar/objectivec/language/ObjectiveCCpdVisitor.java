@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.language;
+
+import com.sonar.sslr.api.AstAndTokenVisitor;
+import com.sonar.sslr.api.AstNode;
+import com.sonar.sslr.api.GenericTokenType;
+import com.sonar.sslr.api.Token;
+import me.raatiniemi.sonar.objectivec.language.api.ObjectiveCDataMetric;
+import me.raatiniemi.sonar.objectivec.language.api.ObjectiveCGrammar;
+import org.sonar.squidbridge.SquidAstVisitor;
+
+import javax.annotation.Nullable;
+
+/**
+ * Attaches the copy-paste detection tokens of the file, as split by {@link ObjectiveCCpdTokenizer}.
+ */
+class ObjectiveCCpdVisitor extends SquidAstVisitor<ObjectiveCGrammar> implements AstAndTokenVisitor {
+    private final ObjectiveCCpdTokenizer tokenizer = new ObjectiveCCpdTokenizer();
+
+    @Override
+    public void visitFile(@Nullable AstNode astNode) {
+        tokenizer.reset();
+    }
+
+    @Override
+    public void visitToken(Token token) {
+        if (GenericTokenType.EOF.equals(token.getType())) {
+            getContext().peekSourceCode().addData(ObjectiveCDataMetric.CPD_TOKENS, tokenizer.getTokens());
+            return;
+        }
+
+        String value = token.getOriginalValue();
+        tokenizer.visitToken(value, 0, value.length(), token.getLine(), token.getColumn());
+    }
+}
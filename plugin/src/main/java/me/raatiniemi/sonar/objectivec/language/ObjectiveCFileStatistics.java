@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.language;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Bytes, tokens and time spent in each phase while scanning and saving a single file.
+ *
+ * The metrics scanner records the time spent lexing into the token buffer as lexing and the pass
+ * over the tokens as visitors, parsing is not recorded. The line counter records its single pass
+ * over the source code as lexing.
+ */
+public class ObjectiveCFileStatistics {
+    private final String path;
+
+    long bytes;
+    long tokens;
+    long readNanos;
+    long lexNanos;
+    long parseNanos;
+    long visitNanos;
+    long saveNanos;
+
+    ObjectiveCFileStatistics(@Nonnull String path) {
+        this.path = path;
+    }
+
+    @Nonnull
+    public String getPath() {
+        return path;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getTokens() {
+        return tokens;
+    }
+
+    public long getReadNanos() {
+        return readNanos;
+    }
+
+    public long getLexNanos() {
+        return lexNanos;
+    }
+
+    public long getParseNanos() {
+        return parseNanos;
+    }
+
+    public long getVisitNanos() {
+        return visitNanos;
+    }
+
+    public long getSaveNanos() {
+        return saveNanos;
+    }
+
+    public long getTotalNanos() {
+        return readNanos + lexNanos + parseNanos + visitNanos + saveNanos;
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.language;
+
+import me.raatiniemi.sonar.objectivec.language.ObjectiveCHighlighting.Type;
+
+import javax.annotation.Nonnull;
+
+import static me.raatiniemi.sonar.objectivec.language.ObjectiveCTokenWalker.identifierEnd;
+import static me.raatiniemi.sonar.objectivec.language.ObjectiveCTokenWalker.isIdentifierStart;
+
+/**
+ * Finds the highlighted ranges of a file, i.e. comments, string and character literals,
+ * {@code @} keywords and preprocessor directives, from the same tokens and comments as the scanners.
+ */
+final class ObjectiveCHighlighter {
+    private final ObjectiveCTokenWalker walker = new ObjectiveCTokenWalker();
+    private ObjectiveCHighlighting highlighting;
+
+    private int literalLine;
+    private int literalColumn;
+    private int literalEndLine;
+    private int literalEndColumn;
+
+    void reset() {
+        walker.reset();
+        highlighting = new ObjectiveCHighlighting();
+        literalLine = 0;
+    }
+
+    /**
+     * @return Highlighting of the file, the highlighter has to be reset before the next file.
+     */
+    @Nonnull
+    ObjectiveCHighlighting getHighlighting() {
+        addLiteral();
+        return highlighting;
+    }
+
+    /**
+     * Visit the comment, i.e. the characters between start and end.
+     *
+     * @param column Column of the first character of the comment.
+     * @param endLine Line of the last character of the comment.
+     * @param endColumn Column after the last character of the comment.
+     */
+    void visitComment(@Nonnull CharSequence code, int start, int end, int line, int column, int endLine, int endColumn) {
+        addLiteral();
+        walker.visitComment(endLine);
+
+        highlighting.add(line, column, endLine, endColumn, isStructured(code, start, end) ? Type.STRUCTURED_COMMENT : Type.COMMENT);
+    }
+
+    private static boolean isStructured(@Nonnull CharSequence code, int start, int end) {
+        if (end - start < 3) {
+            return false;
+        }
+        char second = code.charAt(start + 1);
+        char third = code.charAt(start + 2);
+        if (second == '*') {
+            // An empty block comment, i.e. "/**/", is not a documentation comment.
+            return third == '*' && end - start > 4;
+        }
+        return third == '/';
+    }
+
+    /**
+     * Visit the token, i.e. the characters between start and end, neither of which may be whitespace.
+     *
+     * @param column Column of the first character of the token.
+     */
+    void visitToken(@Nonnull CharSequence code, int start, int end, int line, int column) {
+        boolean firstOnLine = walker.visitToken(code, start, end, line);
+        // Only literals followed by a line continuation are continued on the next line.
+        if (firstOnLine && !walker.isContinued()) {
+            addLiteral();
+        }
+
+        int offset = start;
+        if (walker.isDirective()) {
+            offset = identifierEnd(code, start + 1, end);
+            highlighting.add(line, column, line, column + offset - start, Type.PREPROCESS_DIRECTIVE);
+        }
+
+        while (offset < end) {
+            if (walker.isInLiteral()) {
+                offset = walker.literalEnd(code, offset, end);
+                literalEndLine = line;
+                literalEndColumn = column + offset - start;
+                if (!walker.isInLiteral()) {
+                    addLiteral();
+                }
+                continue;
+            }
+
+            char character = code.charAt(offset);
+            if (character == '"' || character == '\'') {
+                walker.openLiteral(character);
+                startLiteral(line, column + offset - start);
+                offset++;
+                literalEndColumn = column + offset - start;
+            } else if (character == '@' && offset + 1 < end) {
+                char next = code.charAt(offset + 1);
+                if (next == '"') {
+                    walker.openLiteral(next);
+                    startLiteral(line, column + offset - start);
+                    offset += 2;
+                    literalEndColumn = column + offset - start;
+                } else if (isIdentifierStart(next)) {
+                    int keywordEnd = identifierEnd(code, offset + 2, end);
+                    highlighting.add(line, column + offset - start, line, column + keywordEnd - start, Type.KEYWORD);
+                    offset = keywordEnd;
+                } else {
+                    offset++;
+                }
+            } else {
+                offset++;
+            }
+        }
+    }
+
+    private void startLiteral(int line, int column) {
+        literalLine = line;
+        literalColumn = column;
+        literalEndLine = line;
+    }
+
+    private void addLiteral() {
+        if (0 == literalLine) {
+            return;
+        }
+
+        highlighting.add(literalLine, literalColumn, literalEndLine, literalEndColumn, Type.STRING);
+        literalLine = 0;
+    }
+}
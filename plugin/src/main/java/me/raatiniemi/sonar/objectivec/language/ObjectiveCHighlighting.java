@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.language;
+
+import javax.annotation.Nonnull;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Highlighted ranges of a file, in the order they appear in the file.
+ *
+ * Ranges never overlap, and are kept as a flat array of integers since they are retained until the
+ * measures for the file have been saved.
+ */
+public class ObjectiveCHighlighting {
+    public enum Type {
+        COMMENT,
+        STRUCTURED_COMMENT,
+        STRING,
+        KEYWORD,
+        PREPROCESS_DIRECTIVE
+    }
+
+    @FunctionalInterface
+    public interface RangeConsumer {
+        void accept(int startLine, int startColumn, int endLine, int endColumn, @Nonnull Type type);
+    }
+
+    private static final int FIELDS = 5;
+    private static final Type[] TYPES = Type.values();
+
+    private int[] ranges;
+    private int size;
+
+    ObjectiveCHighlighting() {
+        this(new int[16 * FIELDS], 0);
+    }
+
+    private ObjectiveCHighlighting(@Nonnull int[] ranges, int size) {
+        this.ranges = ranges;
+        this.size = size;
+    }
+
+    void add(int startLine, int startColumn, int endLine, int endColumn, @Nonnull Type type) {
+        if (size + FIELDS > ranges.length) {
+            ranges = Arrays.copyOf(ranges, ranges.length * 2);
+        }
+        ranges[size++] = startLine;
+        ranges[size++] = startColumn;
+        ranges[size++] = endLine;
+        ranges[size++] = endColumn;
+        ranges[size++] = type.ordinal();
+    }
+
+    public int size() {
+        return size / FIELDS;
+    }
+
+    public void forEach(@Nonnull RangeConsumer consumer) {
+        for (int i = 0; i < size; i += FIELDS) {
+            consumer.accept(ranges[i], ranges[i + 1], ranges[i + 2], ranges[i + 3], TYPES[ranges[i + 4]]);
+        }
+    }
+
+    @Nonnull
+    public byte[] toByteArray() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(size * 4 + 4);
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeInt(size);
+            for (int i = 0; i < size; i++) {
+                output.writeInt(ranges[i]);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    @Nonnull
+    public static ObjectiveCHighlighting fromByteArray(@Nonnull byte[] bytes) throws IOException {
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            int size = input.readInt();
+            if (size < 0 || size % FIELDS != 0) {
+                throw new IOException("Invalid number of highlighted ranges: " + size);
+            }
+
+            int[] ranges = new int[size];
+            for (int i = 0; i < size; i++) {
+                ranges[i] = input.readInt();
+            }
+            for (int i = FIELDS - 1; i < size; i += FIELDS) {
+                if (ranges[i] < 0 || ranges[i] >= TYPES.length) {
+                    throw new IOException("Invalid type of highlighted range: " + ranges[i]);
+                }
+            }
+            return new ObjectiveCHighlighting(ranges, size);
+        }
+    }
+}
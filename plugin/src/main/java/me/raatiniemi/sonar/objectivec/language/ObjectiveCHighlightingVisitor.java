@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.language;
+
+import com.sonar.sslr.api.AstAndTokenVisitor;
+import com.sonar.sslr.api.AstNode;
+import com.sonar.sslr.api.GenericTokenType;
+import com.sonar.sslr.api.Token;
+import com.sonar.sslr.api.Trivia;
+import me.raatiniemi.sonar.objectivec.language.api.ObjectiveCDataMetric;
+import me.raatiniemi.sonar.objectivec.language.api.ObjectiveCGrammar;
+import org.sonar.squidbridge.SquidAstVisitor;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Attaches the highlighting of the file, as found by {@link ObjectiveCHighlighter}.
+ */
+class ObjectiveCHighlightingVisitor extends SquidAstVisitor<ObjectiveCGrammar> implements AstAndTokenVisitor {
+    private final ObjectiveCHighlighter highlighter = new ObjectiveCHighlighter();
+
+    @Override
+    public void visitFile(@Nullable AstNode astNode) {
+        highlighter.reset();
+    }
+
+    @Override
+    public void visitToken(Token token) {
+        for (Trivia trivia : token.getTrivia()) {
+            if (trivia.isComment()) {
+                visitComment(trivia.getToken());
+            }
+        }
+
+        if (GenericTokenType.EOF.equals(token.getType())) {
+            getContext().peekSourceCode().addData(ObjectiveCDataMetric.HIGHLIGHTING, highlighter.getHighlighting());
+            return;
+        }
+
+        String value = token.getOriginalValue();
+        highlighter.visitToken(value, 0, value.length(), token.getLine(), token.getColumn());
+    }
+
+    private void visitComment(@Nonnull Token comment) {
+        String value = comment.getOriginalValue();
+        int endLine = comment.getLine();
+        int endColumn = comment.getColumn();
+        for (int i = 0; i < value.length(); i++) {
+            char character = value.charAt(i);
+            if (character == '\n' || character == '\r' && (i + 1 >= value.length() || value.charAt(i + 1) != '\n')) {
+                endLine++;
+                endColumn = 0;
+            } else {
+                endColumn++;
+            }
+        }
+        highlighter.visitComment(value, 0, value.length(), comment.getLine(), comment.getColumn(), endLine, endColumn);
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.language;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the files included by {@code #import} and {@code #include} directives, e.g. "Foo.h" for
+ * {@code #import "Foo.h"} and "UIKit/UIKit.h" for {@code #import <UIKit/UIKit.h>}.
+ *
+ * Since slashes and whitespace are not part of tokens, the path of a directive can be split across
+ * tokens on the same line, and the characters between those tokens are read from the code, i.e. the
+ * code have to contain the whole file. The collector keeps its state between tokens and is not thread-safe.
+ */
+final class ObjectiveCIncludeCollector {
+    private static final String[] DIRECTIVES = {"import", "include", "include_next"};
+
+    private enum State {
+        NONE,
+        HASH,
+        DIRECTIVE,
+        PATH
+    }
+
+    private final StringBuilder path = new StringBuilder();
+    private List<String> includes;
+    private State state;
+    private char close;
+    private int lastLine;
+    private int lastEnd;
+
+    void reset() {
+        includes = new ArrayList<>();
+        state = State.NONE;
+        lastLine = 0;
+    }
+
+    /**
+     * @return Included files, in the order they are included, the collector has to be reset before the next file.
+     */
+    @Nonnull
+    String[] getIncludes() {
+        return includes.toArray(new String[0]);
+    }
+
+    /**
+     * Visit the token, i.e. the characters between start and end, neither of which may be whitespace.
+     *
+     * @param code Code of the whole file, the start and end are offsets into the code.
+     * @param column Column of the first character of the token.
+     */
+    void visitToken(@Nonnull CharSequence code, int start, int end, int line, int column) {
+        boolean firstOnLine = line != lastLine;
+        int gap = column - lastEnd;
+        lastLine = line;
+        lastEnd = column + end - start;
+
+        if (firstOnLine) {
+            state = State.NONE;
+            if (code.charAt(start) != '#') {
+                return;
+            }
+            state = State.HASH;
+            start++;
+        } else if (State.NONE == state) {
+            return;
+        }
+
+        if (start < end && State.HASH == state) {
+            int nameEnd = start;
+            while (nameEnd < end && isIdentifierPart(code.charAt(nameEnd))) {
+                nameEnd++;
+            }
+            if (!isIncludeDirective(code, start, nameEnd)) {
+                state = State.NONE;
+                return;
+            }
+            state = State.DIRECTIVE;
+            start = nameEnd;
+        }
+
+        if (start < end && State.DIRECTIVE == state) {
+            char open = code.charAt(start);
+            close = open == '"' ? '"' : open == '<' ? '>' : 0;
+            if (0 == close) {
+                state = State.NONE;
+                return;
+            }
+            state = State.PATH;
+            path.setLength(0);
+            start++;
+        } else if (State.PATH == state) {
+            path.append(code, start - gap, start);
+        }
+
+        if (State.PATH == state) {
+            for (int i = start; i < end; i++) {
+                char character = code.charAt(i);
+                if (character == close) {
+                    if (path.length() > 0) {
+                        includes.add(path.toString());
+                    }
+                    state = State.NONE;
+                    return;
+                }
+                path.append(character);
+            }
+        }
+    }
+
+    private static boolean isIncludeDirective(@Nonnull CharSequence code, int start, int end) {
+        for (String directive : DIRECTIVES) {
+            if (end - start != directive.length()) {
+                continue;
+            }
+
+            int i = 0;
+            while (i < directive.length() && code.charAt(start + i) == directive.charAt(i)) {
+                i++;
+            }
+            if (i == directive.length()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isIdentifierPart(char character) {
+        return Character.isLetterOrDigit(character) || character == '_';
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.language;
+
+import com.sonar.sslr.api.AstAndTokenVisitor;
+import com.sonar.sslr.api.AstNode;
+import com.sonar.sslr.api.GenericTokenType;
+import com.sonar.sslr.api.Token;
+import me.raatiniemi.sonar.objectivec.language.api.ObjectiveCDataMetric;
+import me.raatiniemi.sonar.objectivec.language.api.ObjectiveCGrammar;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.squidbridge.SquidAstVisitor;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Attaches the files included by the file, as collected by {@link ObjectiveCIncludeCollector}.
+ *
+ * The tokens do not include the characters between them, e.g. the slashes of an included path, so
+ * the code of the file is read again and the tokens are visited at their offset in the code.
+ */
+class ObjectiveCIncludeVisitor extends SquidAstVisitor<ObjectiveCGrammar> implements AstAndTokenVisitor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ObjectiveCIncludeVisitor.class);
+
+    private final ObjectiveCIncludeCollector collector = new ObjectiveCIncludeCollector();
+    private final ObjectiveCSourceReader reader;
+
+    private CharSequence code;
+    private int[] lineStarts = new int[256];
+    private int numberOfLines;
+
+    ObjectiveCIncludeVisitor(@Nonnull Charset charset) {
+        reader = new ObjectiveCSourceReader(charset);
+    }
+
+    @Override
+    public void visitFile(@Nullable AstNode astNode) {
+        collector.reset();
+        try {
+            code = reader.read(getContext().getFile());
+        } catch (IOException e) {
+            LOGGER.warn("Unable to read {}, its includes are not collected", getContext().getFile(), e);
+            code = null;
+            return;
+        }
+        readLineStarts(code);
+    }
+
+    private void readLineStarts(@Nonnull CharSequence code) {
+        numberOfLines = 0;
+        addLineStart(0);
+        int length = code.length();
+        for (int i = 0; i < length; i++) {
+            char character = code.charAt(i);
+            if (character == '\n' || character == '\r' && (i + 1 >= length || code.charAt(i + 1) != '\n')) {
+                addLineStart(i + 1);
+            }
+        }
+    }
+
+    private void addLineStart(int start) {
+        if (numberOfLines == lineStarts.length) {
+            lineStarts = Arrays.copyOf(lineStarts, numberOfLines * 2);
+        }
+        lineStarts[numberOfLines++] = start;
+    }
+
+    @Override
+    public void visitToken(Token token) {
+        if (GenericTokenType.EOF.equals(token.getType())) {
+            getContext().peekSourceCode().addData(ObjectiveCDataMetric.INCLUDES, collector.getIncludes());
+            return;
+        }
+        if (null == code || token.getLine() > numberOfLines) {
+            return;
+        }
+
+        String value = token.getOriginalValue();
+        int start = lineStarts[token.getLine() - 1] + token.getColumn();
+        int end = start + value.length();
+        // Skip tokens that are not found at their position, e.g. if the file changed since it was lexed.
+        if (end > code.length() || !value.contentEquals(code.subSequence(start, end))) {
+            return;
+        }
+        collector.visitToken(code, start, end, token.getLine(), token.getColumn());
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.language;
+
+import me.raatiniemi.sonar.objectivec.language.api.ObjectiveCDataMetric;
+import me.raatiniemi.sonar.objectivec.language.api.ObjectiveCMetric;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.squidbridge.api.SourceFile;
+
+import javax.annotation.Nonnull;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+
+import static me.raatiniemi.sonar.objectivec.language.lexer.ObjectiveCChannel.isWhitespace;
+
+/**
+ * Counts the lines, lines of code and comment lines of a file while streaming it in fixed-size chunks.
+ *
+ * Neither the content nor the tokens of the file are kept, i.e. the memory used is independent of
+ * the size of the file. The counts are approximate: an unterminated block comment is counted as a
+ * comment until the end of the file, and a NOSONAR marker split between two chunks is not found.
+ * Functions and complexity are not computed.
+ *
+ * String and character literals are not tracked, e.g. {@code @"http://"} starts a line comment and
+ * {@code "/*"} a block comment. This is the same as for {@link ObjectiveCMetricsScanner}, whose
+ * lexer do not recognise literals either, so that the counts do not depend on which of them scanned
+ * the file.
+ */
+public class ObjectiveCLineCounter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ObjectiveCLineCounter.class);
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private enum State {
+        CODE, SLASH, LINE_COMMENT, BLOCK_COMMENT, BLOCK_COMMENT_STAR
+    }
+
+    private final Charset charset;
+    private final boolean ignoreHeaderComments;
+    private final ObjectiveCScanStatistics statistics;
+    private final char[] buffer;
+    private final CharBuffer chunk;
+    private final ObjectiveCCommentMetrics commentMetrics = new ObjectiveCCommentMetrics();
+
+    ObjectiveCLineCounter(@Nonnull ObjectiveCConfiguration conf, @Nonnull ObjectiveCScanStatistics statistics, int bufferSize) {
+        charset = conf.getCharset();
+        ignoreHeaderComments = conf.getIgnoreHeaderComments();
+        this.statistics = statistics;
+        buffer = new char[bufferSize];
+        chunk = CharBuffer.wrap(buffer);
+    }
+
+    @Nonnull
+    public static ObjectiveCLineCounter create(@Nonnull ObjectiveCConfiguration conf, @Nonnull ObjectiveCScanStatistics statistics) {
+        return new ObjectiveCLineCounter(conf, statistics, BUFFER_SIZE);
+    }
+
+    @Nonnull
+    public SourceFile scanFile(@Nonnull File file) {
+        SourceFile squidFile = new SourceFile(file.getAbsolutePath(), file.getName());
+        squidFile.setMeasure(ObjectiveCMetric.FILES, 1);
+        ObjectiveCFileStatistics fileStatistics = new ObjectiveCFileStatistics(squidFile.getKey());
+
+        long start = System.nanoTime();
+        try (Reader reader = new InputStreamReader(Files.newInputStream(file.toPath()), charset)) {
+            scan(squidFile, reader);
+            fileStatistics.bytes = file.length();
+        } catch (IOException e) {
+            LOGGER.error("Unable to parse file: " + file.getAbsolutePath(), e);
+            squidFile.setMeasure(ObjectiveCMetric.COMMENT_LINES, 0);
+        }
+        fileStatistics.lexNanos = System.nanoTime() - start;
+        statistics.scanned(fileStatistics);
+        return squidFile;
+    }
+
+    /**
+     * Count the lines of a file that exceeded its time budget while being scanned, and record it as timed out.
+     */
+    @Nonnull
+    SourceFile scanFileAfterTimeout(@Nonnull File file, long timeoutMillis) {
+        LOGGER.warn("Scanning {} took longer than {} ms, only counting its lines", file.getAbsolutePath(), timeoutMillis);
+        statistics.timedOut(file.getAbsolutePath());
+        return scanFile(file);
+    }
+
+    /**
+     * Count the lines of the code and save the measures to the source file.
+     */
+    void scan(@Nonnull SourceFile squidFile, @Nonnull Reader reader) throws IOException {
+        commentMetrics.reset();
+
+        State state = State.CODE;
+        int line = 1;
+        boolean previousCarriageReturn = false;
+        int linesOfCode = 0;
+        int lastLineOfCode = -1;
+        boolean seenFirstToken = false;
+        boolean visitComment = false;
+
+        int length;
+        while ((length = reader.read(buffer)) >= 0) {
+            int segmentStart = 0;
+            for (int i = 0; i < length; i++) {
+                char character = buffer[i];
+                boolean lineBreak = character == '\n' && !previousCarriageReturn || character == '\r';
+                previousCarriageReturn = character == '\r';
+
+                if (State.SLASH == state) {
+                    if (character == '/' || character == '*') {
+                        state = character == '/' ? State.LINE_COMMENT : State.BLOCK_COMMENT;
+                        visitComment = !ignoreHeaderComments || seenFirstToken;
+                        segmentStart = i;
+                        continue;
+                    }
+                    // A single slash is neither a comment nor part of a literal.
+                    state = State.CODE;
+                }
+
+                if (State.CODE == state) {
+                    if (character == '/') {
+                        state = State.SLASH;
+                    } else if (!isWhitespace(character)) {
+                        seenFirstToken = true;
+                        if (line != lastLineOfCode) {
+                            linesOfCode++;
+                            lastLineOfCode = line;
+                        }
+                    }
+                } else if (State.LINE_COMMENT == state) {
+                    if (character == '\n' || character == '\r') {
+                        if (visitComment) {
+                            commentMetrics.visitCommentLine(chunk, segmentStart, i, line);
+                        }
+                        state = State.CODE;
+                    }
+                } else {
+                    if (lineBreak && visitComment) {
+                        commentMetrics.visitCommentLine(chunk, segmentStart, i, line);
+                    }
+                    if (character == '\n' || character == '\r') {
+                        segmentStart = i + 1;
+                    }
+                    if (State.BLOCK_COMMENT_STAR == state && character == '/') {
+                        if (visitComment) {
+                            commentMetrics.visitCommentLine(chunk, segmentStart, i + 1, line);
+                        }
+                        state = State.CODE;
+                    } else {
+                        state = character == '*' ? State.BLOCK_COMMENT_STAR : State.BLOCK_COMMENT;
+                    }
+                }
+
+                if (lineBreak) {
+                    line++;
+                }
+            }
+
+            if (visitComment && (State.LINE_COMMENT == state || State.BLOCK_COMMENT == state || State.BLOCK_COMMENT_STAR == state)) {
+                commentMetrics.visitCommentLine(chunk, segmentStart, length, line);
+            }
+        }
+        commentMetrics.finish();
+
+        squidFile.setMeasure(ObjectiveCMetric.LINES, line);
+        squidFile.setMeasure(ObjectiveCMetric.LINES_OF_CODE, linesOfCode);
+        squidFile.setMeasure(ObjectiveCMetric.COMMENT_LINES, commentMetrics.getCommentLines());
+        squidFile.addNoSonarTagLines(commentMetrics.getNoSonarLines());
+        squidFile.addData(ObjectiveCDataMetric.APPROXIMATE, Boolean.TRUE);
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.language;
+
+import javax.annotation.Nonnull;
+import java.io.File;
+
+/**
+ * Limits the total size of the files being scanned at the same time by the scanning threads.
+ *
+ * The memory used while scanning a file is proportional to its size, so a thread waits before
+ * scanning a file until the bytes of the files scanned by the other threads fit in the budget. A
+ * file larger than the whole budget is scanned once no other file is being scanned.
+ */
+public class ObjectiveCMemoryBudget {
+    private static final ObjectiveCMemoryBudget UNLIMITED = new ObjectiveCMemoryBudget(0);
+
+    private final long limit;
+    private long inFlight;
+
+    private ObjectiveCMemoryBudget(long limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * @param limit Maximum number of bytes being scanned at the same time, unlimited if zero or less.
+     */
+    @Nonnull
+    public static ObjectiveCMemoryBudget create(long limit) {
+        if (limit <= 0) {
+            return UNLIMITED;
+        }
+        return new ObjectiveCMemoryBudget(limit);
+    }
+
+    @Nonnull
+    public static ObjectiveCMemoryBudget unlimited() {
+        return UNLIMITED;
+    }
+
+    public long getLimit() {
+        return limit;
+    }
+
+    /**
+     * Wait until the file fits in the budget and reserve its size.
+     *
+     * @return Number of reserved bytes, that have to be released when the file has been scanned.
+     */
+    long acquire(@Nonnull File file) {
+        if (limit <= 0) {
+            return 0;
+        }
+
+        long bytes = Math.max(1, Math.min(file.length(), limit));
+        synchronized (this) {
+            while (inFlight + bytes > limit) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Scan of files was interrupted", e);
+                }
+            }
+            inFlight += bytes;
+        }
+        return bytes;
+    }
+
+    void release(long bytes) {
+        if (bytes <= 0) {
+            return;
+        }
+
+        synchronized (this) {
+            inFlight -= bytes;
+            notifyAll();
+        }
+    }
+
+    synchronized long getBytesInFlight() {
+        return inFlight;
+    }
+}
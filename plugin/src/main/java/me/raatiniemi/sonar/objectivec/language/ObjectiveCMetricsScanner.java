@@ -0,0 +1,250 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.language;
+
+import me.raatiniemi.sonar.objectivec.language.api.ObjectiveCDataMetric;
+import me.raatiniemi.sonar.objectivec.language.api.ObjectiveCMetric;
+import me.raatiniemi.sonar.objectivec.language.lexer.ObjectiveCTokenBuffer;
+import me.raatiniemi.sonar.objectivec.language.lexer.ObjectiveCWatchdog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.squidbridge.api.SourceFile;
+
+import javax.annotation.Nonnull;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Computes the lines, lines of code, comment lines, functions and complexity directly from the source code.
+ *
+ * The measures are the same as the ones computed by the visitors of {@link ObjectiveCAstScanner},
+ * but the code is lexed into a {@link ObjectiveCTokenBuffer} instead of creating tokens and an AST.
+ */
+public class ObjectiveCMetricsScanner {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ObjectiveCMetricsScanner.class);
+
+    private final ObjectiveCSourceReader reader;
+    private final boolean ignoreHeaderComments;
+    private final ObjectiveCScanStatistics statistics;
+    private final ObjectiveCMemoryBudget memoryBudget;
+    private final ObjectiveCWatchdog watchdog;
+    private final ObjectiveCLineCounter lineCounter;
+    private final ObjectiveCTokenBuffer tokenBuffer = new ObjectiveCTokenBuffer();
+    private final ObjectiveCCommentMetrics commentMetrics = new ObjectiveCCommentMetrics();
+    private final ObjectiveCComplexityAnalyser complexityAnalyser = new ObjectiveCComplexityAnalyser();
+    private final ObjectiveCCpdTokenizer cpdTokenizer;
+    private final ObjectiveCHighlighter highlighter;
+    private final ObjectiveCIncludeCollector includeCollector;
+
+    private int tokens;
+
+    private ObjectiveCMetricsScanner(@Nonnull ObjectiveCConfiguration conf, @Nonnull ObjectiveCScanStatistics statistics) {
+        reader = new ObjectiveCSourceReader(conf.getCharset());
+        ignoreHeaderComments = conf.getIgnoreHeaderComments();
+        this.statistics = statistics;
+        memoryBudget = conf.getMemoryBudget();
+        watchdog = new ObjectiveCWatchdog(conf.getTimeout(), conf.getClock());
+        lineCounter = watchdog.isEnabled() ? ObjectiveCLineCounter.create(conf, statistics) : null;
+        cpdTokenizer = conf.getCpdTokens() ? new ObjectiveCCpdTokenizer() : null;
+        highlighter = conf.getHighlighting() ? new ObjectiveCHighlighter() : null;
+        includeCollector = conf.getIncludes() ? new ObjectiveCIncludeCollector() : null;
+    }
+
+    @Nonnull
+    public static ObjectiveCMetricsScanner create(@Nonnull ObjectiveCConfiguration conf) {
+        return create(conf, new ObjectiveCScanStatistics(0));
+    }
+
+    @Nonnull
+    public static ObjectiveCMetricsScanner create(@Nonnull ObjectiveCConfiguration conf, @Nonnull ObjectiveCScanStatistics statistics) {
+        return new ObjectiveCMetricsScanner(conf, statistics);
+    }
+
+    /**
+     * Scan files and return the source file for each of them, in the same order as the files.
+     *
+     * If more than one thread is requested, the files are partitioned across the threads and each
+     * thread scans its partition using its own scanner.
+     */
+    @Nonnull
+    public static List<SourceFile> scanFiles(@Nonnull ObjectiveCConfiguration conf, @Nonnull List<File> files, int threads) {
+        return scanFiles(conf, files, threads, new ObjectiveCScanStatistics(0));
+    }
+
+    /**
+     * Scan files and return the source file for each of them, recording the statistics for each file.
+     */
+    @Nonnull
+    public static List<SourceFile> scanFiles(
+            @Nonnull ObjectiveCConfiguration conf,
+            @Nonnull List<File> files,
+            int threads,
+            @Nonnull ObjectiveCScanStatistics statistics
+    ) {
+        return ObjectiveCParallelScanner.scanFiles(files, threads, partition -> {
+            ObjectiveCMetricsScanner scanner = create(conf, statistics);
+
+            List<SourceFile> sourceFiles = new ArrayList<>(partition.size());
+            for (File file : partition) {
+                sourceFiles.add(scanner.scanFile(file));
+            }
+            return sourceFiles;
+        });
+    }
+
+    /**
+     * Scan files and pass the source file for each of them to the consumer as soon as it has been scanned.
+     */
+    public static void scanFiles(
+            @Nonnull ObjectiveCConfiguration conf,
+            @Nonnull List<File> files,
+            int threads,
+            @Nonnull ObjectiveCScanStatistics statistics,
+            @Nonnull Consumer<SourceFile> consumer
+    ) {
+        ObjectiveCParallelScanner.scanFiles(files, threads, () -> create(conf, statistics)::scanFile, consumer);
+    }
+
+    @Nonnull
+    public SourceFile scanFile(@Nonnull File file) {
+        SourceFile squidFile = new SourceFile(file.getAbsolutePath(), file.getName());
+        squidFile.setMeasure(ObjectiveCMetric.FILES, 1);
+        ObjectiveCFileStatistics fileStatistics = new ObjectiveCFileStatistics(squidFile.getKey());
+
+        long reserved = memoryBudget.acquire(file);
+        try {
+            watchdog.start();
+            scanFile(file, squidFile, fileStatistics);
+        } catch (ObjectiveCWatchdog.TimeoutException e) {
+            return lineCounter.scanFileAfterTimeout(file, watchdog.getTimeoutMillis());
+        } finally {
+            watchdog.stop();
+            memoryBudget.release(reserved);
+        }
+        statistics.scanned(fileStatistics);
+        return squidFile;
+    }
+
+    private void scanFile(@Nonnull File file, @Nonnull SourceFile squidFile, @Nonnull ObjectiveCFileStatistics fileStatistics) {
+        long start = System.nanoTime();
+        CharSequence code;
+        try {
+            code = reader.read(file);
+        } catch (IOException e) {
+            LOGGER.error("Unable to parse file: " + file.getAbsolutePath(), e);
+            squidFile.setMeasure(ObjectiveCMetric.COMMENT_LINES, 0);
+            fileStatistics.readNanos = System.nanoTime() - start;
+            return;
+        }
+        long read = System.nanoTime();
+
+        tokenBuffer.lex(code, watchdog);
+        long lexed = System.nanoTime();
+
+        scan(squidFile, tokenBuffer);
+        fileStatistics.bytes = reader.getBytesRead();
+        fileStatistics.tokens = tokens;
+        fileStatistics.readNanos = read - start;
+        fileStatistics.lexNanos = lexed - read;
+        fileStatistics.visitNanos = System.nanoTime() - lexed;
+    }
+
+    /**
+     * Scan the code and save the measures to the source file.
+     */
+    public void scan(@Nonnull SourceFile squidFile, @Nonnull CharSequence code) {
+        tokenBuffer.lex(code);
+        scan(squidFile, tokenBuffer);
+    }
+
+    /**
+     * Scan the tokens of the code and save the measures to the source file.
+     */
+    public void scan(@Nonnull SourceFile squidFile, @Nonnull ObjectiveCTokenBuffer buffer) {
+        tokens = 0;
+        commentMetrics.reset();
+        complexityAnalyser.reset();
+        if (null != cpdTokenizer) {
+            cpdTokenizer.reset();
+        }
+        if (null != highlighter) {
+            highlighter.reset();
+        }
+        if (null != includeCollector) {
+            includeCollector.reset();
+        }
+
+        CharSequence code = buffer.getCode();
+        int linesOfCode = 0;
+        int lastLineOfCode = -1;
+        boolean seenFirstToken = false;
+
+        for (int i = 0; i < buffer.size(); i++) {
+            watchdog.check();
+            int start = buffer.getStart(i);
+            int end = buffer.getEnd(i);
+            int line = buffer.getLine(i);
+            if (ObjectiveCTokenBuffer.COMMENT == buffer.getType(i)) {
+                if (!ignoreHeaderComments || seenFirstToken) {
+                    commentMetrics.visitComment(code, start, end, line);
+                }
+                if (null != highlighter) {
+                    int endLine = buffer.getEndLine(i);
+                    highlighter.visitComment(code, start, end, line, buffer.getColumn(i), endLine, buffer.getEndColumn(i));
+                }
+                continue;
+            }
+
+            seenFirstToken = true;
+            tokens++;
+            if (line != lastLineOfCode) {
+                linesOfCode++;
+                lastLineOfCode = line;
+            }
+            complexityAnalyser.visitToken(code, start, end, line);
+            if (null != cpdTokenizer) {
+                cpdTokenizer.visitToken(code, start, end, line, buffer.getColumn(i));
+            }
+            if (null != highlighter) {
+                highlighter.visitToken(code, start, end, line, buffer.getColumn(i));
+            }
+            if (null != includeCollector) {
+                includeCollector.visitToken(code, start, end, line, buffer.getColumn(i));
+            }
+        }
+        commentMetrics.finish();
+
+        squidFile.setMeasure(ObjectiveCMetric.LINES, buffer.getNumberOfLines());
+        squidFile.setMeasure(ObjectiveCMetric.LINES_OF_CODE, linesOfCode);
+        squidFile.setMeasure(ObjectiveCMetric.COMMENT_LINES, commentMetrics.getCommentLines());
+        squidFile.addNoSonarTagLines(commentMetrics.getNoSonarLines());
+        squidFile.setMeasure(ObjectiveCMetric.FUNCTIONS, complexityAnalyser.getFunctions());
+        squidFile.setMeasure(ObjectiveCMetric.COMPLEXITY, complexityAnalyser.getComplexity());
+        if (null != cpdTokenizer) {
+            squidFile.addData(ObjectiveCDataMetric.CPD_TOKENS, cpdTokenizer.getTokens());
+        }
+        if (null != highlighter) {
+            squidFile.addData(ObjectiveCDataMetric.HIGHLIGHTING, highlighter.getHighlighting());
+        }
+        if (null != includeCollector) {
+            squidFile.addData(ObjectiveCDataMetric.INCLUDES, includeCollector.getIncludes());
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.language;
+
+import com.google.common.collect.Lists;
+import org.sonar.squidbridge.api.SourceFile;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Partitions files across threads, each partition is scanned by the function on a separate thread.
+ */
+final class ObjectiveCParallelScanner {
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+
+    private ObjectiveCParallelScanner() {
+    }
+
+    /**
+     * @return source files in the same order as the files.
+     */
+    @Nonnull
+    static List<SourceFile> scanFiles(
+            @Nonnull List<File> files,
+            int threads,
+            @Nonnull Function<List<File>, List<SourceFile>> scanPartition
+    ) {
+        if (threads <= 1 || files.size() <= 1) {
+            return scanPartition.apply(files);
+        }
+
+        int numberOfPartitions = Math.min(threads, files.size());
+        int partitionSize = (files.size() + numberOfPartitions - 1) / numberOfPartitions;
+
+        ExecutorService executor = Executors.newFixedThreadPool(numberOfPartitions);
+        try {
+            List<Future<List<SourceFile>>> futures = new ArrayList<>();
+            for (List<File> partition : Lists.partition(files, partitionSize)) {
+                futures.add(executor.submit(() -> scanPartition.apply(partition)));
+            }
+
+            List<SourceFile> sourceFiles = new ArrayList<>(files.size());
+            for (Future<List<SourceFile>> future : futures) {
+                sourceFiles.addAll(get(future));
+            }
+            return sourceFiles;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Scan files and pass each source file to the consumer as soon as the file has been scanned.
+     *
+     * Each thread creates its own scanner for its partition. The consumer is always called from the
+     * calling thread, and at most one source file per thread is waiting to be consumed, i.e. source
+     * files are not retained after they have been consumed. The order of the source files is only
+     * the same as the files when a single thread is used.
+     */
+    static void scanFiles(
+            @Nonnull List<File> files,
+            int threads,
+            @Nonnull Supplier<Function<File, SourceFile>> createScanner,
+            @Nonnull Consumer<SourceFile> consumer
+    ) {
+        if (threads <= 1 || files.size() <= 1) {
+            Function<File, SourceFile> scanner = createScanner.get();
+            for (File file : files) {
+                consumer.accept(scanner.apply(file));
+            }
+            return;
+        }
+
+        int numberOfPartitions = Math.min(threads, files.size());
+        int partitionSize = (files.size() + numberOfPartitions - 1) / numberOfPartitions;
+        BlockingQueue<SourceFile> queue = new ArrayBlockingQueue<>(numberOfPartitions);
+
+        ExecutorService executor = Executors.newFixedThreadPool(numberOfPartitions);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (List<File> partition : Lists.partition(files, partitionSize)) {
+                futures.add(executor.submit(() -> {
+                    Function<File, SourceFile> scanner = createScanner.get();
+                    for (File file : partition) {
+                        queue.put(scanner.apply(file));
+                    }
+                    return null;
+                }));
+            }
+
+            int remaining = files.size();
+            while (remaining > 0) {
+                SourceFile sourceFile = poll(queue);
+                if (null == sourceFile) {
+                    // Failures are only surfaced by the futures, otherwise we'd wait for files that never arrive.
+                    for (Future<Void> future : futures) {
+                        if (future.isDone()) {
+                            get(future);
+                        }
+                    }
+                    continue;
+                }
+
+                consumer.accept(sourceFile);
+                remaining--;
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @CheckForNull
+    private static SourceFile poll(@Nonnull BlockingQueue<SourceFile> queue) {
+        try {
+            return queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Scan of files was interrupted", e);
+        }
+    }
+
+    private static <T> T get(@Nonnull Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Scan of files was interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Unable to scan files", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,273 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.language;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects the statistics for each scanned file, and in aggregate for every file.
+ *
+ * Scanners record files from their own threads, the statistics for a file are added to the
+ * aggregate when the measures for the file have been saved. Only the latency of each file and
+ * the statistics of the slowest files are retained.
+ */
+public class ObjectiveCScanStatistics {
+    private static final Comparator<ObjectiveCFileStatistics> BY_TOTAL_NANOS =
+            Comparator.comparingLong(ObjectiveCFileStatistics::getTotalNanos);
+
+    private final Map<String, ObjectiveCFileStatistics> scannedFiles = new ConcurrentHashMap<>();
+    private final int numberOfSlowestFiles;
+    private final PriorityQueue<ObjectiveCFileStatistics> slowestFiles = new PriorityQueue<>(BY_TOTAL_NANOS);
+
+    private long[] latencies = new long[64];
+    private int files;
+    private long bytes;
+    private long tokens;
+    private long readNanos;
+    private long lexNanos;
+    private long parseNanos;
+    private long visitNanos;
+    private long saveNanos;
+    private int deduplicatedFiles;
+    private long deduplicatedBytes;
+    private final List<String> timedOutFiles = new ArrayList<>();
+
+    public ObjectiveCScanStatistics(int numberOfSlowestFiles) {
+        this.numberOfSlowestFiles = numberOfSlowestFiles;
+    }
+
+    void scanned(@Nonnull ObjectiveCFileStatistics file) {
+        scannedFiles.put(file.getPath(), file);
+    }
+
+    /**
+     * Record that the measures for the file have been saved, should only be called from a single thread.
+     *
+     * @param path Absolute path of the file.
+     * @param nanos Time spent saving the measures.
+     */
+    public void saved(@Nonnull String path, long nanos) {
+        saveNanos += nanos;
+
+        ObjectiveCFileStatistics file = scannedFiles.remove(path);
+        if (null == file) {
+            return;
+        }
+        file.saveNanos = nanos;
+
+        if (files == latencies.length) {
+            latencies = Arrays.copyOf(latencies, files * 2);
+        }
+        latencies[files++] = file.getTotalNanos();
+        bytes += file.bytes;
+        tokens += file.tokens;
+        readNanos += file.readNanos;
+        lexNanos += file.lexNanos;
+        parseNanos += file.parseNanos;
+        visitNanos += file.visitNanos;
+
+        if (numberOfSlowestFiles <= 0) {
+            return;
+        }
+        slowestFiles.add(file);
+        if (slowestFiles.size() > numberOfSlowestFiles) {
+            slowestFiles.poll();
+        }
+    }
+
+    /**
+     * Record the files that were not scanned since they have the same content as another file.
+     */
+    public void deduplicated(int files, long bytes) {
+        deduplicatedFiles = files;
+        deduplicatedBytes = bytes;
+    }
+
+    /**
+     * Record that scanning the file was aborted since it exceeded its time budget.
+     *
+     * @param path Absolute path of the file.
+     */
+    public void timedOut(@Nonnull String path) {
+        synchronized (timedOutFiles) {
+            timedOutFiles.add(path);
+        }
+    }
+
+    /**
+     * @return Absolute path of the files that exceeded their time budget, in the order they were aborted.
+     */
+    @Nonnull
+    public List<String> getTimedOutFiles() {
+        synchronized (timedOutFiles) {
+            return new ArrayList<>(timedOutFiles);
+        }
+    }
+
+    public int getNumberOfDeduplicatedFiles() {
+        return deduplicatedFiles;
+    }
+
+    public long getDeduplicatedBytes() {
+        return deduplicatedBytes;
+    }
+
+    public int getNumberOfFiles() {
+        return files;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getTokens() {
+        return tokens;
+    }
+
+    /**
+     * @param percentile Percentile between 0 and 100.
+     * @return Per-file latency in nanoseconds, or zero if no file has been saved.
+     */
+    public long getLatencyPercentile(double percentile) {
+        if (0 == files) {
+            return 0;
+        }
+
+        long[] sorted = Arrays.copyOf(latencies, files);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100 * files) - 1;
+        return sorted[Math.max(0, Math.min(files - 1, index))];
+    }
+
+    /**
+     * @return Slowest files, slowest first.
+     */
+    @Nonnull
+    public List<ObjectiveCFileStatistics> getSlowestFiles() {
+        List<ObjectiveCFileStatistics> slowest = new ArrayList<>(slowestFiles);
+        slowest.sort(BY_TOTAL_NANOS.reversed());
+        return slowest;
+    }
+
+    /**
+     * @param elapsedNanos Wall-clock time of the whole scan.
+     */
+    @Nonnull
+    public String getSummary(long elapsedNanos) {
+        double seconds = Math.max(elapsedNanos, 1) / 1e9;
+        return String.format(
+                Locale.ROOT,
+                "%d files in %d ms (%.1f files/s, %.2f MB/s), per-file latency p50 %.2f ms, p99 %.2f ms, "
+                        + "time spent reading %d ms, lexing %d ms, parsing %d ms, visitors %d ms, saving %d ms, "
+                        + "%d files (%d bytes) deduplicated, %d files timed out",
+                files,
+                toMillis(elapsedNanos),
+                files / seconds,
+                bytes / (1024.0 * 1024.0) / seconds,
+                getLatencyPercentile(50) / 1e6,
+                getLatencyPercentile(99) / 1e6,
+                toMillis(readNanos),
+                toMillis(lexNanos),
+                toMillis(parseNanos),
+                toMillis(visitNanos),
+                toMillis(saveNanos),
+                deduplicatedFiles,
+                deduplicatedBytes,
+                getTimedOutFiles().size()
+        );
+    }
+
+    private static long toMillis(long nanos) {
+        return nanos / 1_000_000;
+    }
+
+    /**
+     * Write the aggregate and the slowest files as JSON.
+     */
+    public void writeReport(@Nonnull Path reportFile, long elapsedNanos) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(reportFile, StandardCharsets.UTF_8)) {
+            writer.write("{\n");
+            writer.write("  \"files\": " + files + ",\n");
+            writer.write("  \"bytes\": " + bytes + ",\n");
+            writer.write("  \"tokens\": " + tokens + ",\n");
+            writer.write("  \"elapsedNanos\": " + elapsedNanos + ",\n");
+            writer.write("  \"readNanos\": " + readNanos + ",\n");
+            writer.write("  \"lexNanos\": " + lexNanos + ",\n");
+            writer.write("  \"parseNanos\": " + parseNanos + ",\n");
+            writer.write("  \"visitNanos\": " + visitNanos + ",\n");
+            writer.write("  \"saveNanos\": " + saveNanos + ",\n");
+            writer.write("  \"p50Nanos\": " + getLatencyPercentile(50) + ",\n");
+            writer.write("  \"p99Nanos\": " + getLatencyPercentile(99) + ",\n");
+            writer.write("  \"deduplicatedFiles\": " + deduplicatedFiles + ",\n");
+            writer.write("  \"deduplicatedBytes\": " + deduplicatedBytes + ",\n");
+            writer.write("  \"timedOutFiles\": [");
+            List<String> timedOut = getTimedOutFiles();
+            for (int i = 0; i < timedOut.size(); i++) {
+                writer.write((i == 0 ? "\"" : ", \"") + escape(timedOut.get(i)) + "\"");
+            }
+            writer.write("],\n");
+            writer.write("  \"slowestFiles\": [");
+
+            List<ObjectiveCFileStatistics> slowest = getSlowestFiles();
+            for (int i = 0; i < slowest.size(); i++) {
+                ObjectiveCFileStatistics file = slowest.get(i);
+                writer.write(i == 0 ? "\n" : ",\n");
+                writer.write("    {\"path\": \"" + escape(file.getPath()) + "\""
+                        + ", \"bytes\": " + file.bytes
+                        + ", \"tokens\": " + file.tokens
+                        + ", \"totalNanos\": " + file.getTotalNanos()
+                        + ", \"readNanos\": " + file.readNanos
+                        + ", \"lexNanos\": " + file.lexNanos
+                        + ", \"parseNanos\": " + file.parseNanos
+                        + ", \"visitNanos\": " + file.visitNanos
+                        + ", \"saveNanos\": " + file.saveNanos
+                        + "}");
+            }
+            writer.write(slowest.isEmpty() ? "]\n" : "\n  ]\n");
+            writer.write("}\n");
+        }
+    }
+
+    @Nonnull
+    private static String escape(@Nonnull String value) {
+        StringBuilder builder = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char character = value.charAt(i);
+            if (character == '"' || character == '\\') {
+                builder.append('\\').append(character);
+            } else if (character < 0x20) {
+                builder.append(String.format(Locale.ROOT, "\\u%04x", (int) character));
+            } else {
+                builder.append(character);
+            }
+        }
+        return builder.toString();
+    }
+}
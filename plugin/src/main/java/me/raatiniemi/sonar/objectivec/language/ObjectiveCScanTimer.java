@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.language;
+
+import com.sonar.sslr.api.AstNode;
+import com.sonar.sslr.api.Rule;
+import com.sonar.sslr.api.Token;
+import com.sonar.sslr.impl.Lexer;
+import com.sonar.sslr.impl.Parser;
+import com.sonar.sslr.impl.matcher.RuleDefinition;
+import me.raatiniemi.sonar.objectivec.language.api.ObjectiveCGrammar;
+import me.raatiniemi.sonar.objectivec.language.lexer.ObjectiveCLexer;
+import me.raatiniemi.sonar.objectivec.language.lexer.ObjectiveCWatchdog;
+import me.raatiniemi.sonar.objectivec.language.parser.ObjectiveCParser;
+import org.sonar.squidbridge.SquidAstVisitor;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.File;
+import java.util.List;
+
+/**
+ * Records the statistics for the files scanned by a single AST scanner.
+ *
+ * The parser lexes the file itself to be able to time lexing and parsing separately, and the
+ * visitors should be the first visitor of their scanner so that their visitFile and leaveFile surround the others.
+ * The time budget of the watchdog covers both lexing and parsing, but only lexing is aborted as
+ * soon as the file exceeds the budget. The parser can not be interrupted, the budget is instead
+ * checked once the file is parsed. Since the grammar is a flat sequence of literals, parsing is
+ * linear in the number of tokens, which is bounded by the tokens lexed within the budget. A file
+ * exceeding the budget in either step is treated as timed out, i.e. the parser returns the AST of
+ * empty code and the file is not recorded.
+ */
+final class ObjectiveCScanTimer {
+    private final ObjectiveCScanStatistics statistics;
+    private final Parser<ObjectiveCGrammar> parser;
+    private final ObjectiveCWatchdog watchdog;
+
+    private ObjectiveCFileStatistics file;
+    private long visitStart;
+    private boolean timedOut;
+
+    ObjectiveCScanTimer(@Nonnull ObjectiveCConfiguration conf, @Nonnull ObjectiveCScanStatistics statistics) {
+        this.statistics = statistics;
+        watchdog = new ObjectiveCWatchdog(conf.getTimeout(), conf.getClock());
+        parser = new TimedParser(ObjectiveCLexer.create(conf, watchdog), ObjectiveCParser.create(conf));
+    }
+
+    @Nonnull
+    ObjectiveCWatchdog getWatchdog() {
+        return watchdog;
+    }
+
+    /**
+     * @return Whether the last parsed file exceeded the time budget of the watchdog.
+     */
+    boolean hasTimedOut() {
+        return timedOut;
+    }
+
+    @Nonnull
+    Parser<ObjectiveCGrammar> getParser() {
+        return parser;
+    }
+
+    /**
+     * A visitor can only belong to a single scanner, i.e. each scanner needs its own visitor.
+     */
+    @Nonnull
+    SquidAstVisitor<ObjectiveCGrammar> createVisitor() {
+        return new TimerVisitor();
+    }
+
+    /**
+     * The lexer wraps the exceptions thrown by its channels, possibly more than once.
+     */
+    private static boolean isTimeout(@Nonnull Throwable throwable) {
+        for (Throwable cause = throwable; null != cause; cause = cause.getCause()) {
+            if (cause instanceof ObjectiveCWatchdog.TimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private final class TimedParser extends Parser<ObjectiveCGrammar> {
+        private final Lexer lexer;
+        private final Parser<ObjectiveCGrammar> delegate;
+
+        private TimedParser(@Nonnull Lexer lexer, @Nonnull Parser<ObjectiveCGrammar> delegate) {
+            super(delegate.getGrammar());
+            this.lexer = lexer;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public AstNode parse(File source) {
+            file = new ObjectiveCFileStatistics(source.getAbsolutePath());
+            file.bytes = source.length();
+
+            long start = System.nanoTime();
+            timedOut = false;
+            watchdog.start();
+            try {
+                List<Token> tokens = lexer.lex(source);
+                long lexed = System.nanoTime();
+                file.tokens = tokens.size();
+                file.lexNanos = lexed - start;
+
+                AstNode astNode = delegate.parse(tokens);
+                file.parseNanos = System.nanoTime() - lexed;
+                watchdog.checkNow();
+                return astNode;
+            } catch (RuntimeException e) {
+                if (!isTimeout(e)) {
+                    throw e;
+                }
+                timedOut = true;
+                file = null;
+                return delegate.parse("");
+            } finally {
+                watchdog.stop();
+            }
+        }
+
+        @Override
+        public AstNode parse(String source) {
+            return delegate.parse(source);
+        }
+
+        @Override
+        public AstNode parse(List<Token> tokens) {
+            return delegate.parse(tokens);
+        }
+
+        @Override
+        public RuleDefinition getRootRule() {
+            return delegate.getRootRule();
+        }
+
+        @Override
+        public void setRootRule(Rule rootRule) {
+            delegate.setRootRule(rootRule);
+        }
+    }
+
+    private final class TimerVisitor extends SquidAstVisitor<ObjectiveCGrammar> {
+        @Override
+        public void visitFile(@Nullable AstNode astNode) {
+            visitStart = System.nanoTime();
+        }
+
+        @Override
+        public void leaveFile(@Nullable AstNode astNode) {
+            if (null == file) {
+                return;
+            }
+
+            file.visitNanos = System.nanoTime() - visitStart;
+            statistics.scanned(file);
+            file = null;
+        }
+    }
+}
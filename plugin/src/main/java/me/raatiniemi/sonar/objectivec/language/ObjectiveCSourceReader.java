@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.language;
+
+import javax.annotation.Nonnull;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads source files into a buffer that is reused between files.
+ *
+ * Large files are memory-mapped, smaller files are read into a reusable byte buffer. Content that
+ * only consists of ASCII characters is copied without going through the charset decoder, if the
+ * charset is ASCII compatible. The reader is not thread-safe, each thread should use its own reader.
+ */
+public class ObjectiveCSourceReader {
+    static final int MAPPED_THRESHOLD = 1024 * 1024;
+    private static final int INITIAL_CAPACITY = 16 * 1024;
+
+    private final CharsetDecoder decoder;
+    private final boolean asciiCompatible;
+
+    private ByteBuffer byteBuffer = ByteBuffer.allocate(INITIAL_CAPACITY);
+    private CharBuffer charBuffer = CharBuffer.allocate(INITIAL_CAPACITY);
+    private long bytesRead;
+
+    public ObjectiveCSourceReader(@Nonnull Charset charset) {
+        decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        asciiCompatible = isAsciiCompatible(charset);
+    }
+
+    private static boolean isAsciiCompatible(@Nonnull Charset charset) {
+        if (!charset.canEncode()) {
+            return false;
+        }
+
+        char[] ascii = new char[128];
+        for (int i = 0; i < ascii.length; i++) {
+            ascii[i] = (char) i;
+        }
+        ByteBuffer bytes = charset.encode(CharBuffer.wrap(ascii));
+        if (bytes.remaining() != ascii.length) {
+            return false;
+        }
+        for (int i = 0; i < ascii.length; i++) {
+            if (bytes.get(i) != i) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Read the content of the file.
+     *
+     * @return Buffer with the content of the file, only valid until the next file is read.
+     */
+    @Nonnull
+    public CharBuffer read(@Nonnull File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File is too large to be read: " + file);
+            }
+
+            bytesRead = size;
+            ByteBuffer bytes;
+            if (size >= MAPPED_THRESHOLD) {
+                bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            } else {
+                bytes = readFully(channel, (int) size);
+            }
+            return decode(bytes);
+        }
+    }
+
+    /**
+     * @return Size in bytes of the last file that was read.
+     */
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    @Nonnull
+    private ByteBuffer readFully(@Nonnull FileChannel channel, int size) throws IOException {
+        if (byteBuffer.capacity() < size) {
+            byteBuffer = ByteBuffer.allocate(size);
+        }
+        byteBuffer.clear();
+        byteBuffer.limit(size);
+        while (byteBuffer.hasRemaining()) {
+            if (channel.read(byteBuffer) < 0) {
+                break;
+            }
+        }
+        byteBuffer.flip();
+        return byteBuffer;
+    }
+
+    @Nonnull
+    private CharBuffer decode(@Nonnull ByteBuffer bytes) throws CharacterCodingException {
+        int size = bytes.remaining();
+        int capacity = (int) Math.min(Integer.MAX_VALUE, (long) Math.ceil(size * (double) decoder.maxCharsPerByte()));
+        if (charBuffer.capacity() < capacity) {
+            charBuffer = CharBuffer.allocate(capacity);
+        }
+        charBuffer.clear();
+
+        if (asciiCompatible) {
+            char[] chars = charBuffer.array();
+            int offset = bytes.position();
+            int index = 0;
+            while (index < size) {
+                byte b = bytes.get(offset + index);
+                if (b < 0) {
+                    break;
+                }
+                chars[index] = (char) b;
+                index++;
+            }
+
+            charBuffer.position(index);
+            bytes.position(offset + index);
+        }
+
+        if (bytes.hasRemaining()) {
+            decoder.reset();
+            CoderResult result = decoder.decode(bytes, charBuffer, true);
+            if (result.isError() || result.isOverflow()) {
+                result.throwException();
+            }
+            result = decoder.flush(charBuffer);
+            if (result.isError() || result.isOverflow()) {
+                result.throwException();
+            }
+        }
+
+        charBuffer.flip();
+        return charBuffer;
+    }
+}
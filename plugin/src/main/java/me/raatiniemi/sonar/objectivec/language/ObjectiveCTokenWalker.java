@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.language;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Keeps track of the string and character literals, line continuations and preprocessor directives
+ * while walking the tokens of a file, shared by the highlighter, the CPD tokenizer and the complexity
+ * analyser.
+ *
+ * Since the tokens are separated by whitespace and comments, literals and directives can span several
+ * tokens, i.e. the walker, and each of the classes using it, keeps its state between tokens and is not
+ * thread-safe.
+ */
+final class ObjectiveCTokenWalker {
+    private char quote;
+    private boolean escaped;
+    private boolean continuesLine;
+    private boolean continued;
+    private boolean directive;
+    private boolean inPreprocessor;
+    private int lastLine;
+
+    void reset() {
+        quote = 0;
+        escaped = false;
+        continuesLine = false;
+        continued = false;
+        directive = false;
+        inPreprocessor = false;
+        lastLine = 0;
+    }
+
+    /**
+     * Visit the token, i.e. the characters between start and end, neither of which may be whitespace.
+     *
+     * @return True if the token is the first on its line, otherwise false.
+     */
+    boolean visitToken(@Nonnull CharSequence code, int start, int end, int line) {
+        boolean firstOnLine = line != lastLine;
+        if (firstOnLine) {
+            continued = continuesLine;
+            // Neither string nor character literals can span lines without a line continuation.
+            if (!continued) {
+                quote = 0;
+                inPreprocessor = false;
+            }
+            escaped = false;
+        }
+        lastLine = line;
+        continuesLine = code.charAt(end - 1) == '\\';
+
+        directive = firstOnLine && !continued && code.charAt(start) == '#';
+        if (directive) {
+            inPreprocessor = true;
+        }
+        return firstOnLine;
+    }
+
+    /**
+     * Visit the comment, literals are recognised without regard to comments, i.e. an open literal ends
+     * where the comment starts.
+     *
+     * @param endLine Line of the last character of the comment.
+     */
+    void visitComment(int endLine) {
+        quote = 0;
+        escaped = false;
+        continuesLine = false;
+        lastLine = endLine;
+    }
+
+    /**
+     * @return True if the line of the token continues the previous line, otherwise false.
+     */
+    boolean isContinued() {
+        return continued;
+    }
+
+    /**
+     * @return True if the token starts a preprocessor directive, otherwise false.
+     */
+    boolean isDirective() {
+        return directive;
+    }
+
+    /**
+     * @return True if the token is part of a preprocessor directive, including its first token.
+     */
+    boolean isInPreprocessor() {
+        return inPreprocessor;
+    }
+
+    boolean isInLiteral() {
+        return 0 != quote;
+    }
+
+    char getQuote() {
+        return quote;
+    }
+
+    void openLiteral(char quote) {
+        this.quote = quote;
+        escaped = false;
+    }
+
+    /**
+     * @return Offset after the closing quote, or the end if the literal continues in the next token.
+     */
+    int literalEnd(@Nonnull CharSequence code, int offset, int end) {
+        while (offset < end) {
+            char character = code.charAt(offset++);
+            if (escaped) {
+                escaped = false;
+            } else if (character == '\\') {
+                escaped = true;
+            } else if (character == quote) {
+                quote = 0;
+                break;
+            }
+        }
+        return offset;
+    }
+
+    static int identifierEnd(@Nonnull CharSequence code, int offset, int end) {
+        while (offset < end && isIdentifierPart(code.charAt(offset))) {
+            offset++;
+        }
+        return offset;
+    }
+
+    static boolean isIdentifierStart(char character) {
+        return Character.isLetter(character) || character == '_' || character == '$';
+    }
+
+    static boolean isIdentifierPart(char character) {
+        return Character.isLetterOrDigit(character) || character == '_' || character == '$';
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.language.lexer;
+
+import com.sonar.sslr.api.Token;
+import com.sonar.sslr.api.TokenType;
+import com.sonar.sslr.api.Trivia;
+import com.sonar.sslr.impl.Lexer;
+import org.sonar.sslr.channel.Channel;
+import org.sonar.sslr.channel.CodeReader;
+
+import javax.annotation.Nonnull;
+
+import static com.sonar.sslr.api.GenericTokenType.COMMENT;
+import static com.sonar.sslr.api.GenericTokenType.LITERAL;
+
+/**
+ * Channel recognising comments, literals and whitespace by dispatching on the next character.
+ *
+ * The produced tokens are the same as for the regular expressions {@code //[^\n\r]*+},
+ * {@code /\*[\s\S]*?\*}{@code /}, {@code [^\r\n\s/]+} and {@code [\s]}, but every character is
+ * only looked at once, with the exception of unterminated block comments.
+ */
+public class ObjectiveCChannel extends Channel<Lexer> {
+    private final StringBuilder tmpBuilder = new StringBuilder();
+    private final Token.Builder tokenBuilder = Token.builder();
+    private final ObjectiveCWatchdog watchdog;
+
+    /**
+     * Remaining length of the code when a block comment could not be terminated, no block comment
+     * can be terminated in the rest of the code since it do not contain the end of a comment.
+     */
+    private CodeReader unterminatedCode;
+    private int unterminatedLength;
+
+    public ObjectiveCChannel() {
+        this(new ObjectiveCWatchdog(0));
+    }
+
+    public ObjectiveCChannel(@Nonnull ObjectiveCWatchdog watchdog) {
+        this.watchdog = watchdog;
+    }
+
+    /**
+     * Check if character is whitespace, i.e. the characters matched by {@code \s}.
+     */
+    public static boolean isWhitespace(char character) {
+        return character == ' '
+                || character == '\t'
+                || character == '\n'
+                || character == '\u000B'
+                || character == '\f'
+                || character == '\r';
+    }
+
+    /**
+     * Check if character is part of a literal, i.e. any character except whitespace and slash.
+     */
+    public static boolean isLiteral(char character) {
+        return character != '/' && !isWhitespace(character);
+    }
+
+    /**
+     * Find the end of the line comment starting at offset.
+     *
+     * @return End offset (exclusive) of the comment, or -1 if no line comment starts at offset.
+     */
+    public static int matchLineComment(@Nonnull CharSequence code, int offset, int end) {
+        if (offset + 1 >= end || code.charAt(offset) != '/' || code.charAt(offset + 1) != '/') {
+            return -1;
+        }
+
+        int index = offset + 2;
+        while (index < end) {
+            char character = code.charAt(index);
+            if (character == '\n' || character == '\r') {
+                break;
+            }
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * Find the end of the block comment starting at offset.
+     *
+     * @return End offset (exclusive) of the comment, or -1 if no terminated block comment starts at offset.
+     */
+    public static int matchBlockComment(@Nonnull CharSequence code, int offset, int end) {
+        if (offset + 1 >= end || code.charAt(offset) != '/' || code.charAt(offset + 1) != '*') {
+            return -1;
+        }
+
+        for (int index = offset + 2; index + 1 < end; index++) {
+            if (code.charAt(index) == '*' && code.charAt(index + 1) == '/') {
+                return index + 2;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Find the end of the literal starting at offset.
+     *
+     * @return End offset (exclusive) of the literal, equal to offset if no literal starts at offset.
+     */
+    public static int matchLiteral(@Nonnull CharSequence code, int offset, int end) {
+        int index = offset;
+        while (index < end && isLiteral(code.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+
+    @Override
+    public boolean consume(@Nonnull CodeReader code, @Nonnull Lexer lexer) {
+        watchdog.check();
+        char character = code.charAt(0);
+        if (character == '/') {
+            return consumeComment(code, lexer);
+        }
+        if (isWhitespace(character)) {
+            code.pop();
+            return true;
+        }
+
+        int length = matchLiteral(code, 0, code.length());
+        lexer.addToken(createToken(code, lexer, LITERAL, length));
+        return true;
+    }
+
+    private boolean consumeComment(@Nonnull CodeReader code, @Nonnull Lexer lexer) {
+        int length = code.length();
+        int end = matchLineComment(code, 0, length);
+        if (end < 0 && !isKnownUnterminated(code)) {
+            end = matchBlockComment(code, 0, length);
+            if (end < 0 && length > 1 && code.charAt(1) == '*') {
+                unterminatedCode = code;
+                unterminatedLength = length;
+            }
+        }
+
+        if (end < 0) {
+            // A slash that is not part of a comment is not consumed by any other channel.
+            code.pop();
+            return true;
+        }
+
+        lexer.addTrivia(Trivia.createComment(createToken(code, lexer, COMMENT, end)));
+        return true;
+    }
+
+    private boolean isKnownUnterminated(@Nonnull CodeReader code) {
+        return unterminatedCode == code && code.length() < unterminatedLength;
+    }
+
+    @Nonnull
+    private Token createToken(@Nonnull CodeReader code, @Nonnull Lexer lexer, @Nonnull TokenType type, int length) {
+        int line = code.getLinePosition();
+        int column = code.getColumnPosition();
+
+        tmpBuilder.setLength(0);
+        for (int i = 0; i < length; i++) {
+            tmpBuilder.append((char) code.pop());
+        }
+
+        return tokenBuilder
+                .setType(type)
+                .setValueAndOriginalValue(tmpBuilder.toString())
+                .setURI(lexer.getURI())
+                .setLine(line)
+                .setColumn(column)
+                .build();
+    }
+}
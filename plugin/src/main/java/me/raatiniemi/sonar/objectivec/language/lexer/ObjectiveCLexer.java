@@ -19,14 +19,9 @@ package me.raatiniemi.sonar.objectivec.language.lexer;
 
 import me.raatiniemi.sonar.objectivec.language.ObjectiveCConfiguration;
 import com.sonar.sslr.impl.Lexer;
-import com.sonar.sslr.impl.channel.BlackHoleChannel;
 
 import java.nio.charset.Charset;
 
-import static com.sonar.sslr.api.GenericTokenType.LITERAL;
-import static com.sonar.sslr.impl.channel.RegexpChannelBuilder.commentRegexp;
-import static com.sonar.sslr.impl.channel.RegexpChannelBuilder.regexp;
-
 public class ObjectiveCLexer {
     private ObjectiveCLexer() {
     }
@@ -36,19 +31,17 @@ public class ObjectiveCLexer {
     }
 
     public static Lexer create(ObjectiveCConfiguration conf) {
+        return create(conf, new ObjectiveCWatchdog(0));
+    }
+
+    public static Lexer create(ObjectiveCConfiguration conf, ObjectiveCWatchdog watchdog) {
         return Lexer.builder()
                 .withCharset(conf.getCharset())
 
                 .withFailIfNoChannelToConsumeOneCharacter(false)
 
-                // Comments
-                .withChannel(commentRegexp("//[^\\n\\r]*+"))
-                .withChannel(commentRegexp("/\\*[\\s\\S]*?\\*/"))
-
-                // All other tokens
-                .withChannel(regexp(LITERAL, "[^\r\n\\s/]+"))
-
-                .withChannel(new BlackHoleChannel("[\\s]"))
+                // Comments, literals, and whitespace
+                .withChannel(new ObjectiveCChannel(watchdog))
 
                 .build();
     }
@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.language.lexer;
+
+import com.sonar.sslr.api.GenericTokenType;
+import com.sonar.sslr.api.Token;
+
+import javax.annotation.Nonnull;
+import java.net.URI;
+import java.util.Arrays;
+
+import static me.raatiniemi.sonar.objectivec.language.lexer.ObjectiveCChannel.isWhitespace;
+import static me.raatiniemi.sonar.objectivec.language.lexer.ObjectiveCChannel.matchBlockComment;
+import static me.raatiniemi.sonar.objectivec.language.lexer.ObjectiveCChannel.matchLineComment;
+import static me.raatiniemi.sonar.objectivec.language.lexer.ObjectiveCChannel.matchLiteral;
+
+/**
+ * Tokens of a file kept as parallel arrays of type, start offset, length and line, referring back
+ * to the code instead of copying the value of each token.
+ *
+ * The tokens are the same as the literals and comments produced by {@link ObjectiveCChannel}, in the
+ * order they appear in the code. The arrays are reused when the next file is lexed, i.e. the buffer
+ * is not thread-safe and the tokens are only valid until the next file is lexed.
+ */
+public class ObjectiveCTokenBuffer {
+    public static final byte LITERAL = 0;
+    public static final byte COMMENT = 1;
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final ObjectiveCWatchdog DISABLED_WATCHDOG = new ObjectiveCWatchdog(0);
+
+    private CharSequence code;
+    private byte[] types = new byte[INITIAL_CAPACITY];
+    private int[] starts = new int[INITIAL_CAPACITY];
+    private int[] lengths = new int[INITIAL_CAPACITY];
+    private int[] lines = new int[INITIAL_CAPACITY];
+    private int size;
+    private int[] lineStarts = new int[INITIAL_CAPACITY];
+    private int numberOfLines;
+
+    /**
+     * Lex the code, replacing the tokens of the previous code.
+     */
+    public void lex(@Nonnull CharSequence code) {
+        lex(code, DISABLED_WATCHDOG);
+    }
+
+    /**
+     * Lex the code, checking the watchdog for every token.
+     *
+     * @throws ObjectiveCWatchdog.TimeoutException If the time budget of the watchdog is exceeded.
+     */
+    public void lex(@Nonnull CharSequence code, @Nonnull ObjectiveCWatchdog watchdog) {
+        this.code = code;
+        size = 0;
+        numberOfLines = 0;
+        addLine(0);
+
+        int length = code.length();
+        int unterminatedOffset = length;
+        int offset = 0;
+        while (offset < length) {
+            watchdog.check();
+            char character = code.charAt(offset);
+            if (character == '/') {
+                int end = matchLineComment(code, offset, length);
+                if (end < 0 && offset < unterminatedOffset) {
+                    end = matchBlockComment(code, offset, length);
+                    if (end < 0 && offset + 1 < length && code.charAt(offset + 1) == '*') {
+                        // No block comment after this offset can be terminated either.
+                        unterminatedOffset = offset;
+                    }
+                }
+                if (end < 0) {
+                    offset++;
+                    continue;
+                }
+
+                add(COMMENT, offset, end);
+                for (int i = offset; i < end; i++) {
+                    char commentCharacter = code.charAt(i);
+                    if (commentCharacter == '\n' || commentCharacter == '\r' && (i + 1 >= length || code.charAt(i + 1) != '\n')) {
+                        addLine(i + 1);
+                    }
+                }
+                offset = end;
+            } else if (character == '\n') {
+                offset++;
+                addLine(offset);
+            } else if (character == '\r') {
+                offset++;
+                if (offset >= length || code.charAt(offset) != '\n') {
+                    addLine(offset);
+                }
+            } else if (isWhitespace(character)) {
+                offset++;
+            } else {
+                int end = matchLiteral(code, offset, length);
+                add(LITERAL, offset, end);
+                offset = end;
+            }
+        }
+    }
+
+    private void add(byte type, int start, int end) {
+        if (size == types.length) {
+            int capacity = size * 2;
+            types = Arrays.copyOf(types, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            lines = Arrays.copyOf(lines, capacity);
+        }
+        types[size] = type;
+        starts[size] = start;
+        lengths[size] = end - start;
+        lines[size] = numberOfLines;
+        size++;
+    }
+
+    private void addLine(int start) {
+        if (numberOfLines == lineStarts.length) {
+            lineStarts = Arrays.copyOf(lineStarts, numberOfLines * 2);
+        }
+        lineStarts[numberOfLines++] = start;
+    }
+
+    @Nonnull
+    public CharSequence getCode() {
+        return code;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return Number of lines in the code, i.e. one more than the number of line breaks.
+     */
+    public int getNumberOfLines() {
+        return numberOfLines;
+    }
+
+    public byte getType(int index) {
+        return types[index];
+    }
+
+    public int getStart(int index) {
+        return starts[index];
+    }
+
+    public int getEnd(int index) {
+        return starts[index] + lengths[index];
+    }
+
+    public int getLength(int index) {
+        return lengths[index];
+    }
+
+    public int getLine(int index) {
+        return lines[index];
+    }
+
+    public int getColumn(int index) {
+        return starts[index] - lineStarts[lines[index] - 1];
+    }
+
+    /**
+     * @return Line of the last character of the token, only differs from the line for comments.
+     */
+    public int getEndLine(int index) {
+        int line = lines[index];
+        int end = starts[index] + lengths[index];
+        while (line < numberOfLines && lineStarts[line] < end) {
+            line++;
+        }
+        return line;
+    }
+
+    /**
+     * @return Column after the last character of the token.
+     */
+    public int getEndColumn(int index) {
+        return starts[index] + lengths[index] - lineStarts[getEndLine(index) - 1];
+    }
+
+    /**
+     * @return View of the value of the token, only valid until the next file is lexed.
+     */
+    @Nonnull
+    public CharSequence getValue(int index) {
+        return code.subSequence(starts[index], starts[index] + lengths[index]);
+    }
+
+    /**
+     * Create a token for consumers that need one, the same as the one created by {@link ObjectiveCChannel}.
+     */
+    @Nonnull
+    public Token createToken(int index, @Nonnull URI uri) {
+        String value = getValue(index).toString();
+        return Token.builder()
+                .setType(COMMENT == types[index] ? GenericTokenType.COMMENT : GenericTokenType.LITERAL)
+                .setValueAndOriginalValue(value)
+                .setURI(uri)
+                .setLine(getLine(index))
+                .setColumn(getColumn(index))
+                .build();
+    }
+}
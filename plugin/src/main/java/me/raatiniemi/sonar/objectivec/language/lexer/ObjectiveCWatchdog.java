@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.language.lexer;
+
+import javax.annotation.Nonnull;
+import java.util.function.LongSupplier;
+
+/**
+ * Wall-clock time budget for scanning a single file, checked cooperatively while lexing.
+ *
+ * The time is only read every few checks to keep the checks cheap, i.e. a file is aborted shortly
+ * after exceeding the budget. Steps that can not be interrupted, e.g. parsing, are instead checked
+ * once they are done with {@link #checkNow()}. The watchdog is not thread-safe, each thread should
+ * use its own watchdog.
+ */
+public class ObjectiveCWatchdog {
+    private static final int CHECK_INTERVAL = 1024;
+
+    private final long timeoutNanos;
+    private final LongSupplier clock;
+    private long deadline;
+    private boolean started;
+    private int remainingChecks;
+
+    /**
+     * @param timeoutMillis Time budget for each file, disabled if zero or less.
+     */
+    public ObjectiveCWatchdog(long timeoutMillis) {
+        this(timeoutMillis, System::nanoTime);
+    }
+
+    /**
+     * @param timeoutMillis Time budget for each file, disabled if zero or less.
+     * @param clock Current time in nanoseconds.
+     */
+    public ObjectiveCWatchdog(long timeoutMillis, @Nonnull LongSupplier clock) {
+        timeoutNanos = Math.max(0, timeoutMillis) * 1_000_000;
+        this.clock = clock;
+    }
+
+    public boolean isEnabled() {
+        return timeoutNanos > 0;
+    }
+
+    public long getTimeoutMillis() {
+        return timeoutNanos / 1_000_000;
+    }
+
+    /**
+     * Start the budget for the next file.
+     */
+    public void start() {
+        if (!isEnabled()) {
+            return;
+        }
+
+        deadline = clock.getAsLong() + timeoutNanos;
+        remainingChecks = CHECK_INTERVAL;
+        started = true;
+    }
+
+    public void stop() {
+        started = false;
+    }
+
+    /**
+     * @throws TimeoutException If the budget for the file is exceeded.
+     */
+    public void check() {
+        if (!started || --remainingChecks > 0) {
+            return;
+        }
+
+        checkNow();
+    }
+
+    /**
+     * Check the budget regardless of the number of checks since the time was last read.
+     *
+     * @throws TimeoutException If the budget for the file is exceeded.
+     */
+    public void checkNow() {
+        if (!started) {
+            return;
+        }
+
+        remainingChecks = CHECK_INTERVAL;
+        if (clock.getAsLong() - deadline > 0) {
+            started = false;
+            throw new TimeoutException(getTimeoutMillis());
+        }
+    }
+
+    public static class TimeoutException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        TimeoutException(long timeoutMillis) {
+            super("Scan of file took longer than " + timeoutMillis + " ms");
+        }
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.reports;
+
+import javax.annotation.Nonnull;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Streaming parser for Cobertura coverage reports.
+ *
+ * The report is read with a StAX reader and the lines of each class are passed to the handler as
+ * they are read, so the memory used do not depend on the size of the report. Adjacent classes with
+ * the same file name, e.g. categories in the same file, are passed as a single file. Lines within
+ * methods are skipped since they are repeated in the lines of the class.
+ */
+public class ObjectiveCCoberturaParser {
+    public interface Handler {
+        /**
+         * @param filename File name of the class, as written in the report.
+         * @param sources Source directories from the report, the file name is relative to one of them.
+         * @return Whether the lines of the file should be passed to the handler.
+         */
+        boolean startFile(@Nonnull String filename, @Nonnull List<String> sources);
+
+        /**
+         * @param conditions Number of branch conditions on the line, or zero if the line is not a branch.
+         */
+        void line(int line, int hits, int conditions, int coveredConditions);
+
+        void endFile();
+    }
+
+    private ObjectiveCCoberturaParser() {
+    }
+
+    public static void parse(@Nonnull InputStream input, @Nonnull Handler handler) throws XMLStreamException {
+        XMLStreamReader reader = ObjectiveCXmlReaders.create(input);
+        try {
+            parse(reader, handler);
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static void parse(@Nonnull XMLStreamReader reader, @Nonnull Handler handler) throws XMLStreamException {
+        List<String> sources = new ArrayList<>();
+        List<String> readOnlySources = Collections.unmodifiableList(sources);
+        String filename = null;
+        boolean accepted = false;
+        boolean inClass = false;
+        boolean skipClass = false;
+        int methodDepth = 0;
+
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (XMLStreamConstants.END_ELEMENT == event) {
+                String name = reader.getLocalName();
+                if ("methods".equals(name)) {
+                    methodDepth--;
+                } else if ("class".equals(name)) {
+                    inClass = false;
+                }
+                continue;
+            }
+            if (XMLStreamConstants.START_ELEMENT != event) {
+                continue;
+            }
+
+            String name = reader.getLocalName();
+            if ("line".equals(name)) {
+                if (accepted && inClass && !skipClass && 0 == methodDepth) {
+                    parseLine(reader, handler);
+                }
+            } else if ("class".equals(name)) {
+                String classFilename = reader.getAttributeValue(null, "filename");
+                inClass = true;
+                skipClass = null == classFilename;
+                methodDepth = 0;
+                if (skipClass || classFilename.equals(filename)) {
+                    continue;
+                }
+                if (null != filename && accepted) {
+                    handler.endFile();
+                }
+                filename = classFilename;
+                accepted = handler.startFile(filename, readOnlySources);
+            } else if ("methods".equals(name)) {
+                methodDepth++;
+            } else if ("source".equals(name)) {
+                sources.add(reader.getElementText().trim());
+            }
+        }
+
+        if (null != filename && accepted) {
+            handler.endFile();
+        }
+    }
+
+    private static void parseLine(@Nonnull XMLStreamReader reader, @Nonnull Handler handler) {
+        int number = parseInt(reader.getAttributeValue(null, "number"));
+        int hits = parseInt(reader.getAttributeValue(null, "hits"));
+        if (number < 1 || hits < 0) {
+            return;
+        }
+
+        int conditions = 0;
+        int coveredConditions = 0;
+        String conditionCoverage = reader.getAttributeValue(null, "condition-coverage");
+        if ("true".equals(reader.getAttributeValue(null, "branch")) && null != conditionCoverage) {
+            // The condition coverage is written as e.g. "50% (1/2)".
+            int open = conditionCoverage.indexOf('(');
+            int slash = conditionCoverage.indexOf('/', open + 1);
+            int close = conditionCoverage.indexOf(')', slash + 1);
+            if (open >= 0 && slash > open && close > slash) {
+                coveredConditions = parseInt(conditionCoverage.substring(open + 1, slash));
+                conditions = parseInt(conditionCoverage.substring(slash + 1, close));
+            }
+            if (conditions < 0 || coveredConditions < 0 || coveredConditions > conditions) {
+                conditions = 0;
+                coveredConditions = 0;
+            }
+        }
+        handler.line(number, hits, conditions, coveredConditions);
+    }
+
+    /**
+     * @return Value clamped to an int, or -1 if the value is missing or is not a non-negative number.
+     */
+    private static int parseInt(String value) {
+        if (null == value || value.isEmpty()) {
+            return -1;
+        }
+
+        long result = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char character = value.charAt(i);
+            if (character < '0' || character > '9') {
+                return -1;
+            }
+            result = Math.min(result * 10 + (character - '0'), Integer.MAX_VALUE);
+        }
+        return (int) result;
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.reports;
+
+import org.sonar.api.batch.fs.FileSystem;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.sensor.coverage.NewCoverage;
+
+import javax.annotation.Nonnull;
+import javax.xml.stream.XMLStreamException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Imports line and branch coverage from Cobertura reports, e.g. generated by slather.
+ *
+ * The reports are parsed with {@link ObjectiveCCoberturaParser} and the coverage is saved as soon as
+ * every line of a file has been read.
+ */
+public class ObjectiveCCoberturaSensor extends ObjectiveCCoverageSensor {
+    @SuppressWarnings("WeakerAccess")
+    public ObjectiveCCoberturaSensor(FileSystem fileSystem, ObjectiveCReports reports) {
+        super(fileSystem, reports, ObjectiveCReportType.COBERTURA, "Cobertura report");
+    }
+
+    @Override
+    void parse(@Nonnull InputStream input, @Nonnull Coverage coverage) throws XMLStreamException {
+        ObjectiveCCoberturaParser.parse(input, new CoverageHandler(coverage));
+    }
+
+    /**
+     * Collects the lines of a file into arrays indexed by line number, which are reused between files.
+     */
+    private static final class CoverageHandler implements ObjectiveCCoberturaParser.Handler {
+        private final Coverage coverage;
+
+        private InputFile inputFile;
+        private int[] hits = new int[0];
+        private int[] conditions = new int[0];
+        private int[] coveredConditions = new int[0];
+
+        private CoverageHandler(@Nonnull Coverage coverage) {
+            this.coverage = coverage;
+        }
+
+        @Override
+        public boolean startFile(@Nonnull String filename, @Nonnull List<String> sources) {
+            inputFile = coverage.resolve(filename, sources);
+            if (null == inputFile) {
+                return false;
+            }
+
+            int size = inputFile.lines() + 1;
+            if (hits.length < size) {
+                hits = new int[size];
+                conditions = new int[size];
+                coveredConditions = new int[size];
+            }
+            Arrays.fill(hits, 0, size, -1);
+            Arrays.fill(conditions, 0, size, 0);
+            Arrays.fill(coveredConditions, 0, size, 0);
+            return true;
+        }
+
+        @Override
+        public void line(int line, int lineHits, int lineConditions, int lineCoveredConditions) {
+            if (line > inputFile.lines()) {
+                return;
+            }
+
+            int previousHits = Math.max(hits[line], 0);
+            hits[line] = previousHits + Math.min(lineHits, Integer.MAX_VALUE - previousHits);
+            conditions[line] = Math.max(conditions[line], lineConditions);
+            coveredConditions[line] = Math.max(coveredConditions[line], lineCoveredConditions);
+        }
+
+        @Override
+        public void endFile() {
+            NewCoverage newCoverage = coverage.newCoverage(inputFile);
+            for (int line = 1; line <= inputFile.lines(); line++) {
+                if (hits[line] < 0) {
+                    continue;
+                }
+
+                newCoverage.lineHits(line, hits[line]);
+                if (conditions[line] > 0) {
+                    newCoverage.conditions(line, conditions[line], coveredConditions[line]);
+                }
+            }
+            coverage.save(newCoverage);
+            inputFile = null;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.reports;
+
+import javax.annotation.Nonnull;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Reads the translation units from a clang compilation database, i.e. {@code compile_commands.json}.
+ *
+ * The database is read one entry at a time with {@link ObjectiveCJsonReader}, and only the
+ * directory and file of each entry are kept, the commands and arguments are skipped.
+ */
+public final class ObjectiveCCompilationDatabase {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private ObjectiveCCompilationDatabase() {
+    }
+
+    /**
+     * @return Normalized absolute paths of the files compiled by the entries, in the order of the entries.
+     */
+    @Nonnull
+    public static Set<Path> read(@Nonnull Path database) throws IOException {
+        Path directory = database.toAbsolutePath().getParent();
+        try (InputStream input = new BufferedInputStream(Files.newInputStream(database), BUFFER_SIZE)) {
+            return read(input, directory);
+        }
+    }
+
+    /**
+     * @param directory Directory used to resolve entries with a relative directory.
+     */
+    @Nonnull
+    static Set<Path> read(@Nonnull InputStream input, @Nonnull Path directory) throws IOException {
+        Set<Path> files = new LinkedHashSet<>();
+        ObjectiveCJsonReader reader = new ObjectiveCJsonReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+
+        reader.beginArray();
+        while (reader.hasNext()) {
+            String entryDirectory = null;
+            String file = null;
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if ("directory".equals(name) && ObjectiveCJsonReader.Token.STRING == reader.peek()) {
+                    entryDirectory = reader.nextString();
+                } else if ("file".equals(name) && ObjectiveCJsonReader.Token.STRING == reader.peek()) {
+                    file = reader.nextString();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+
+            if (null == file) {
+                continue;
+            }
+            try {
+                Path entryPath = null == entryDirectory ? directory : directory.resolve(entryDirectory);
+                files.add(entryPath.resolve(file).normalize());
+            } catch (InvalidPathException e) {
+                // Paths from other platforms can not be part of the project.
+            }
+        }
+        reader.endArray();
+        return files;
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.reports;
+
+import me.raatiniemi.sonar.objectivec.core.ObjectiveC;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.batch.fs.FileSystem;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.sensor.Sensor;
+import org.sonar.api.batch.sensor.SensorContext;
+import org.sonar.api.batch.sensor.SensorDescriptor;
+import org.sonar.api.batch.sensor.coverage.NewCoverage;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import javax.xml.stream.XMLStreamException;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Base for the sensors importing coverage reports, each report is streamed through the parser of
+ * the sensor and the coverage is saved as soon as a file has been read.
+ *
+ * The file names in the reports are resolved through an index of the absolute path of each
+ * Objective-C file, built once before the reports are read.
+ */
+abstract class ObjectiveCCoverageSensor implements Sensor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ObjectiveCCoverageSensor.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FileSystem fileSystem;
+    private final ObjectiveCReports reports;
+    private final ObjectiveCReportType type;
+    private final String reportName;
+
+    /**
+     * @param reportName Name of the report in the log, e.g. "Cobertura report".
+     */
+    ObjectiveCCoverageSensor(
+            @Nonnull FileSystem fileSystem,
+            @Nonnull ObjectiveCReports reports,
+            @Nonnull ObjectiveCReportType type,
+            @Nonnull String reportName
+    ) {
+        this.fileSystem = fileSystem;
+        this.reports = reports;
+        this.type = type;
+        this.reportName = reportName;
+    }
+
+    @Override
+    public void describe(@Nonnull SensorDescriptor descriptor) {
+        descriptor.name(getClass().getSimpleName());
+        descriptor.onlyOnLanguage(ObjectiveC.KEY);
+    }
+
+    @Override
+    public void execute(@Nonnull SensorContext context) {
+        List<Path> reportFiles = reports.get(fileSystem, context.config()).getReports(type);
+        if (reportFiles.isEmpty()) {
+            LOGGER.info("No {}s found", reportName);
+            return;
+        }
+
+        ObjectiveCInputFileIndex inputFiles = ObjectiveCInputFileIndex.create(fileSystem);
+        for (Path reportFile : reportFiles) {
+            importReport(context, inputFiles, reportFile);
+        }
+    }
+
+    /**
+     * Parse the report and save the coverage of each file through the coverage.
+     */
+    abstract void parse(@Nonnull InputStream input, @Nonnull Coverage coverage) throws IOException, XMLStreamException;
+
+    private void importReport(@Nonnull SensorContext context, @Nonnull ObjectiveCInputFileIndex inputFiles, @Nonnull Path reportFile) {
+        LOGGER.info("Importing {} {}", reportName, reportFile);
+        long start = System.nanoTime();
+
+        Coverage coverage = new Coverage(context, inputFiles);
+        try (InputStream input = new BufferedInputStream(Files.newInputStream(reportFile), BUFFER_SIZE)) {
+            parse(input, coverage);
+        } catch (IOException | XMLStreamException e) {
+            LOGGER.warn("Unable to import {} {}", reportName, reportFile, e);
+        }
+
+        LOGGER.info(
+                "Imported coverage for {} files from {} in {} ms, {} files were not found",
+                coverage.importedFiles,
+                reportFile.getFileName(),
+                (System.nanoTime() - start) / 1_000_000,
+                coverage.unresolvedFiles
+        );
+    }
+
+    /**
+     * Resolves the files of a report and counts the imported and unresolved files.
+     */
+    static final class Coverage {
+        private final SensorContext context;
+        private final ObjectiveCInputFileIndex inputFiles;
+
+        private int importedFiles;
+        private int unresolvedFiles;
+
+        private Coverage(@Nonnull SensorContext context, @Nonnull ObjectiveCInputFileIndex inputFiles) {
+            this.context = context;
+            this.inputFiles = inputFiles;
+        }
+
+        /**
+         * @param sources Source directories from the report, the file name may be relative to one of them.
+         * @return Input file, or null if the file can not be found.
+         */
+        @CheckForNull
+        InputFile resolve(@Nonnull String filename, @Nonnull List<String> sources) {
+            InputFile inputFile = inputFiles.resolve(filename, sources);
+            if (null == inputFile) {
+                LOGGER.debug("Unable to find file for coverage: {}", filename);
+                unresolvedFiles++;
+            }
+            return inputFile;
+        }
+
+        @Nonnull
+        NewCoverage newCoverage(@Nonnull InputFile inputFile) {
+            return context.newCoverage().onFile(inputFile);
+        }
+
+        void save(@Nonnull NewCoverage coverage) {
+            coverage.save();
+            importedFiles++;
+        }
+    }
+}
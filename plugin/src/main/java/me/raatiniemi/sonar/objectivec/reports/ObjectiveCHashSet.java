@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.reports;
+
+/**
+ * Open addressing set of 64-bit hashes, without boxing each hash.
+ *
+ * Zero is used to mark empty slots, a hash of zero is therefore stored as a separate flag.
+ */
+final class ObjectiveCHashSet {
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] slots = new long[64];
+    private int size;
+    private boolean containsZero;
+
+    /**
+     * @return Whether the hash was added, i.e. not already in the set.
+     */
+    boolean add(long hash) {
+        if (0 == hash) {
+            boolean added = !containsZero;
+            containsZero = true;
+            return added;
+        }
+        if (size + 1 > slots.length * LOAD_FACTOR) {
+            resize();
+        }
+        if (!insert(slots, hash)) {
+            return false;
+        }
+        size++;
+        return true;
+    }
+
+    int size() {
+        return size + (containsZero ? 1 : 0);
+    }
+
+    private static boolean insert(long[] slots, long hash) {
+        int mask = slots.length - 1;
+        int index = (int) (hash ^ (hash >>> 32)) & mask;
+        while (0 != slots[index]) {
+            if (hash == slots[index]) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        slots[index] = hash;
+        return true;
+    }
+
+    private void resize() {
+        long[] resized = new long[slots.length * 2];
+        for (long hash : slots) {
+            if (0 != hash) {
+                insert(resized, hash);
+            }
+        }
+        slots = resized;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.reports;
+
+import me.raatiniemi.sonar.objectivec.core.ObjectiveC;
+import org.sonar.api.batch.fs.FilePredicate;
+import org.sonar.api.batch.fs.FileSystem;
+import org.sonar.api.batch.fs.InputFile;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of the Objective-C files by their absolute path, used to resolve the paths in reports.
+ */
+final class ObjectiveCInputFileIndex {
+    private final Path baseDir;
+    private final Map<String, InputFile> inputFiles;
+
+    private ObjectiveCInputFileIndex(@Nonnull Path baseDir, @Nonnull Map<String, InputFile> inputFiles) {
+        this.baseDir = baseDir;
+        this.inputFiles = inputFiles;
+    }
+
+    @Nonnull
+    private static FilePredicate createFilePredicate(@Nonnull FileSystem fs) {
+        return fs.predicates().and(
+                fs.predicates().hasLanguage(ObjectiveC.KEY),
+                fs.predicates().hasType(InputFile.Type.MAIN)
+        );
+    }
+
+    @Nonnull
+    static ObjectiveCInputFileIndex create(@Nonnull FileSystem fileSystem) {
+        Map<String, InputFile> inputFiles = new HashMap<>();
+        for (InputFile inputFile : fileSystem.inputFiles(createFilePredicate(fileSystem))) {
+            inputFiles.put(normalize(Paths.get(inputFile.uri())), inputFile);
+        }
+        return new ObjectiveCInputFileIndex(fileSystem.baseDir().toPath(), inputFiles);
+    }
+
+    @Nonnull
+    private static String normalize(@Nonnull Path path) {
+        return path.toAbsolutePath().normalize().toString();
+    }
+
+    /**
+     * @param path Absolute path, or path relative to the base directory.
+     */
+    @CheckForNull
+    InputFile resolve(@Nonnull String path) {
+        try {
+            return inputFiles.get(normalize(baseDir.resolve(path)));
+        } catch (InvalidPathException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @param path Absolute path, or path relative to one of the source directories or the base directory.
+     * @param sources Source directories, absolute or relative to the base directory.
+     */
+    @CheckForNull
+    InputFile resolve(@Nonnull String path, @Nonnull List<String> sources) {
+        try {
+            if (Paths.get(path).isAbsolute()) {
+                return resolve(path);
+            }
+
+            for (String source : sources) {
+                InputFile inputFile = inputFiles.get(normalize(baseDir.resolve(source).resolve(path)));
+                if (null != inputFile) {
+                    return inputFile;
+                }
+            }
+            return resolve(path);
+        } catch (InvalidPathException e) {
+            return null;
+        }
+    }
+}
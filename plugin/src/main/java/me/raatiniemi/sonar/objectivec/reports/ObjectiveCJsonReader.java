@@ -0,0 +1,391 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.reports;
+
+import javax.annotation.Nonnull;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Pull reader for JSON documents, reading one token at a time from a reader.
+ *
+ * Values are only read when requested, and skipped values are scanned without creating strings,
+ * so the memory used only depend on the nesting of the document and the longest requested string.
+ */
+final class ObjectiveCJsonReader implements Closeable {
+    enum Token {
+        BEGIN_OBJECT,
+        END_OBJECT,
+        BEGIN_ARRAY,
+        END_ARRAY,
+        NAME,
+        STRING,
+        NUMBER,
+        BOOLEAN,
+        NULL,
+        END_DOCUMENT
+    }
+
+    private static final byte EMPTY_DOCUMENT = 0;
+    private static final byte NONEMPTY_DOCUMENT = 1;
+    private static final byte EMPTY_OBJECT = 2;
+    private static final byte NONEMPTY_OBJECT = 3;
+    private static final byte DANGLING_NAME = 4;
+    private static final byte EMPTY_ARRAY = 5;
+    private static final byte NONEMPTY_ARRAY = 6;
+
+    private final Reader reader;
+    private final char[] buffer = new char[64 * 1024];
+    private final StringBuilder builder = new StringBuilder();
+    private int position;
+    private int limit;
+
+    private byte[] stack = new byte[32];
+    private int depth = 1;
+    private Token peeked;
+
+    ObjectiveCJsonReader(@Nonnull Reader reader) {
+        this.reader = reader;
+        stack[0] = EMPTY_DOCUMENT;
+    }
+
+    @Nonnull
+    Token peek() throws IOException {
+        if (null != peeked) {
+            return peeked;
+        }
+
+        byte scope = stack[depth - 1];
+        if (EMPTY_ARRAY == scope || NONEMPTY_ARRAY == scope) {
+            int character = nextNonWhitespace();
+            if (']' == character) {
+                return peeked = Token.END_ARRAY;
+            }
+            if (NONEMPTY_ARRAY == scope) {
+                expect(',', character);
+            } else if (-1 == character) {
+                throw syntaxError("Unexpected end of document");
+            } else {
+                position--;
+            }
+            stack[depth - 1] = NONEMPTY_ARRAY;
+        } else if (EMPTY_OBJECT == scope || NONEMPTY_OBJECT == scope) {
+            int character = nextNonWhitespace();
+            if ('}' == character) {
+                return peeked = Token.END_OBJECT;
+            }
+            if (NONEMPTY_OBJECT == scope) {
+                expect(',', character);
+                character = nextNonWhitespace();
+            }
+            expect('"', character);
+            stack[depth - 1] = DANGLING_NAME;
+            return peeked = Token.NAME;
+        } else if (DANGLING_NAME == scope) {
+            expect(':', nextNonWhitespace());
+            stack[depth - 1] = NONEMPTY_OBJECT;
+        } else if (NONEMPTY_DOCUMENT == scope) {
+            if (-1 == nextNonWhitespace()) {
+                return peeked = Token.END_DOCUMENT;
+            }
+            throw syntaxError("Expected end of document");
+        } else {
+            stack[depth - 1] = NONEMPTY_DOCUMENT;
+        }
+
+        int character = nextNonWhitespace();
+        switch (character) {
+            case '{':
+                return peeked = Token.BEGIN_OBJECT;
+            case '[':
+                return peeked = Token.BEGIN_ARRAY;
+            case '"':
+                return peeked = Token.STRING;
+            case 't':
+            case 'f':
+                position--;
+                return peeked = Token.BOOLEAN;
+            case 'n':
+                position--;
+                return peeked = Token.NULL;
+            default:
+                if ('-' == character || (character >= '0' && character <= '9')) {
+                    position--;
+                    return peeked = Token.NUMBER;
+                }
+                throw syntaxError("Unexpected character");
+        }
+    }
+
+    boolean hasNext() throws IOException {
+        Token token = peek();
+        return Token.END_OBJECT != token && Token.END_ARRAY != token && Token.END_DOCUMENT != token;
+    }
+
+    void beginObject() throws IOException {
+        consume(Token.BEGIN_OBJECT);
+        push(EMPTY_OBJECT);
+    }
+
+    void endObject() throws IOException {
+        consume(Token.END_OBJECT);
+        depth--;
+    }
+
+    void beginArray() throws IOException {
+        consume(Token.BEGIN_ARRAY);
+        push(EMPTY_ARRAY);
+    }
+
+    void endArray() throws IOException {
+        consume(Token.END_ARRAY);
+        depth--;
+    }
+
+    @Nonnull
+    String nextName() throws IOException {
+        consume(Token.NAME);
+        return readString(true);
+    }
+
+    @Nonnull
+    String nextString() throws IOException {
+        consume(Token.STRING);
+        return readString(true);
+    }
+
+    /**
+     * @return Value of the number, numbers with a fraction or exponent are truncated.
+     */
+    long nextLong() throws IOException {
+        consume(Token.NUMBER);
+        String literal = readLiteral();
+        try {
+            return Long.parseLong(literal);
+        } catch (NumberFormatException e) {
+            try {
+                return (long) Double.parseDouble(literal);
+            } catch (NumberFormatException invalid) {
+                throw syntaxError("Invalid number " + literal);
+            }
+        }
+    }
+
+    boolean nextBoolean() throws IOException {
+        consume(Token.BOOLEAN);
+        String literal = readLiteral();
+        if ("true".equals(literal)) {
+            return true;
+        }
+        if ("false".equals(literal)) {
+            return false;
+        }
+        throw syntaxError("Invalid literal " + literal);
+    }
+
+    void nextNull() throws IOException {
+        consume(Token.NULL);
+        if (!"null".equals(readLiteral())) {
+            throw syntaxError("Invalid literal");
+        }
+    }
+
+    /**
+     * Skip the next value, including every value nested within it.
+     */
+    void skipValue() throws IOException {
+        int nesting = 0;
+        do {
+            switch (peek()) {
+                case BEGIN_OBJECT:
+                    beginObject();
+                    nesting++;
+                    break;
+                case BEGIN_ARRAY:
+                    beginArray();
+                    nesting++;
+                    break;
+                case END_OBJECT:
+                    endObject();
+                    nesting--;
+                    break;
+                case END_ARRAY:
+                    endArray();
+                    nesting--;
+                    break;
+                case NAME:
+                case STRING:
+                    peeked = null;
+                    readString(false);
+                    break;
+                case END_DOCUMENT:
+                    throw syntaxError("Unexpected end of document");
+                default:
+                    peeked = null;
+                    readLiteral();
+                    break;
+            }
+        } while (nesting > 0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private void consume(@Nonnull Token expected) throws IOException {
+        Token token = peek();
+        if (expected != token) {
+            throw syntaxError("Expected " + expected + " but was " + token);
+        }
+        peeked = null;
+    }
+
+    private void push(byte scope) {
+        if (depth == stack.length) {
+            stack = Arrays.copyOf(stack, depth * 2);
+        }
+        stack[depth++] = scope;
+    }
+
+    private void expect(char expected, int character) throws IOException {
+        if (expected != character) {
+            throw syntaxError("Expected '" + expected + "'");
+        }
+    }
+
+    private boolean fill() throws IOException {
+        position = 0;
+        limit = reader.read(buffer, 0, buffer.length);
+        if (limit < 0) {
+            limit = 0;
+            return false;
+        }
+        return true;
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position++];
+    }
+
+    private int nextNonWhitespace() throws IOException {
+        int character;
+        do {
+            character = read();
+        } while (' ' == character || '\n' == character || '\r' == character || '\t' == character);
+        return character;
+    }
+
+    /**
+     * Read the rest of a string, after the opening quote.
+     */
+    @Nonnull
+    private String readString(boolean keep) throws IOException {
+        builder.setLength(0);
+        while (true) {
+            int start = position;
+            while (position < limit) {
+                char character = buffer[position];
+                if ('"' == character || '\\' == character) {
+                    break;
+                }
+                position++;
+            }
+            if (keep) {
+                builder.append(buffer, start, position - start);
+            }
+            if (position == limit) {
+                if (!fill()) {
+                    throw syntaxError("Unterminated string");
+                }
+                continue;
+            }
+
+            if ('"' == buffer[position++]) {
+                return keep ? builder.toString() : "";
+            }
+            char escaped = readEscape();
+            if (keep) {
+                builder.append(escaped);
+            }
+        }
+    }
+
+    private char readEscape() throws IOException {
+        int character = read();
+        switch (character) {
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'u':
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(read(), 16);
+                    if (digit < 0) {
+                        throw syntaxError("Invalid unicode escape");
+                    }
+                    value = value << 4 | digit;
+                }
+                return (char) value;
+            case '"':
+            case '\\':
+            case '/':
+                return (char) character;
+            default:
+                throw syntaxError("Invalid escape");
+        }
+    }
+
+    /**
+     * Read a number, boolean or null literal.
+     */
+    @Nonnull
+    private String readLiteral() throws IOException {
+        builder.setLength(0);
+        while (true) {
+            if (position == limit && !fill()) {
+                break;
+            }
+            char character = buffer[position];
+            if ((character >= 'a' && character <= 'z') || (character >= '0' && character <= '9')
+                    || '-' == character || '+' == character || '.' == character || 'E' == character) {
+                builder.append(character);
+                position++;
+            } else {
+                break;
+            }
+        }
+        return builder.toString();
+    }
+
+    @Nonnull
+    private IOException syntaxError(@Nonnull String message) {
+        return new IOException("Malformed JSON: " + message);
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.reports;
+
+import javax.annotation.Nonnull;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming parser for Lizard complexity reports, written in the cppncss format.
+ *
+ * Only the file measures are passed to the handler, the values of each file are looked up by the
+ * labels of the measure, i.e. "CCN" and "Functions".
+ */
+public class ObjectiveCLizardParser {
+    public interface Handler {
+        /**
+         * @param filename File name of the measure, as written in the report.
+         */
+        void file(@Nonnull String filename, int complexity, int functions);
+    }
+
+    private ObjectiveCLizardParser() {
+    }
+
+    public static void parse(@Nonnull InputStream input, @Nonnull Handler handler) throws XMLStreamException {
+        XMLStreamReader reader = ObjectiveCXmlReaders.create(input);
+        try {
+            parse(reader, handler);
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static void parse(@Nonnull XMLStreamReader reader, @Nonnull Handler handler) throws XMLStreamException {
+        List<String> labels = new ArrayList<>();
+        List<String> values = new ArrayList<>();
+        boolean inFileMeasure = false;
+        String filename = null;
+
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (XMLStreamConstants.END_ELEMENT == event) {
+                String name = reader.getLocalName();
+                if ("item".equals(name) && null != filename) {
+                    int complexity = parseInt(valueOf(labels, values, "CCN"));
+                    int functions = parseInt(valueOf(labels, values, "Functions"));
+                    if (complexity >= 0 && functions >= 0) {
+                        handler.file(filename, complexity, functions);
+                    }
+                    filename = null;
+                } else if ("measure".equals(name)) {
+                    inFileMeasure = false;
+                }
+                continue;
+            }
+            if (XMLStreamConstants.START_ELEMENT != event) {
+                continue;
+            }
+
+            String name = reader.getLocalName();
+            if ("measure".equals(name)) {
+                inFileMeasure = "File".equals(reader.getAttributeValue(null, "type"));
+                labels.clear();
+            } else if (!inFileMeasure) {
+                continue;
+            } else if ("label".equals(name)) {
+                labels.add(reader.getElementText().trim());
+            } else if ("item".equals(name)) {
+                filename = reader.getAttributeValue(null, "name");
+                values.clear();
+            } else if ("value".equals(name) && null != filename) {
+                values.add(reader.getElementText().trim());
+            }
+        }
+    }
+
+    private static String valueOf(@Nonnull List<String> labels, @Nonnull List<String> values, @Nonnull String label) {
+        int index = labels.indexOf(label);
+        if (index < 0 || index >= values.size()) {
+            return null;
+        }
+        return values.get(index);
+    }
+
+    /**
+     * @return Value clamped to an int, or -1 if the value is missing or is not a non-negative number.
+     */
+    private static int parseInt(String value) {
+        if (null == value || value.isEmpty()) {
+            return -1;
+        }
+
+        long result = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char character = value.charAt(i);
+            if (character < '0' || character > '9') {
+                return -1;
+            }
+            result = Math.min(result * 10 + (character - '0'), Integer.MAX_VALUE);
+        }
+        return (int) result;
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.reports;
+
+import me.raatiniemi.sonar.objectivec.ObjectiveCPlugin;
+import me.raatiniemi.sonar.objectivec.core.ObjectiveC;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.batch.fs.FileSystem;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.sensor.Sensor;
+import org.sonar.api.batch.sensor.SensorContext;
+import org.sonar.api.batch.sensor.SensorDescriptor;
+import org.sonar.api.measures.CoreMetrics;
+
+import javax.annotation.Nonnull;
+import javax.xml.stream.XMLStreamException;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Imports functions and complexity from Lizard reports.
+ *
+ * The sensor is always registered and returns without reading any report when the complexity is
+ * computed by the squid sensor, both read the setting from the configuration of the module.
+ */
+public class ObjectiveCLizardSensor implements Sensor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ObjectiveCLizardSensor.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FileSystem fileSystem;
+    private final ObjectiveCReports reports;
+
+    @SuppressWarnings("WeakerAccess")
+    public ObjectiveCLizardSensor(FileSystem fileSystem, ObjectiveCReports reports) {
+        this.fileSystem = fileSystem;
+        this.reports = reports;
+    }
+
+    @Override
+    public void describe(@Nonnull SensorDescriptor descriptor) {
+        descriptor.name(getClass().getSimpleName());
+        descriptor.onlyOnLanguage(ObjectiveC.KEY);
+    }
+
+    @Override
+    public void execute(@Nonnull SensorContext context) {
+        List<Path> reportFiles = reports.get(fileSystem, context.config()).getReports(ObjectiveCReportType.LIZARD);
+        if (ObjectiveCPlugin.isComplexityEnabled(context.config())) {
+            if (!reportFiles.isEmpty()) {
+                LOGGER.warn(
+                        "Skipping {} Lizard reports since complexity is computed by the squid sensor, disable {} to import them",
+                        reportFiles.size(),
+                        ObjectiveCPlugin.SQUID_COMPLEXITY_KEY
+                );
+            }
+            return;
+        }
+
+        if (reportFiles.isEmpty()) {
+            LOGGER.info("No Lizard reports found");
+            return;
+        }
+
+        ObjectiveCInputFileIndex inputFiles = ObjectiveCInputFileIndex.create(fileSystem);
+        Set<InputFile> savedFiles = new HashSet<>();
+        for (Path reportFile : reportFiles) {
+            importReport(context, inputFiles, savedFiles, reportFile);
+        }
+    }
+
+    private void importReport(
+            @Nonnull SensorContext context,
+            @Nonnull ObjectiveCInputFileIndex inputFiles,
+            @Nonnull Set<InputFile> savedFiles,
+            @Nonnull Path reportFile
+    ) {
+        LOGGER.info("Importing Lizard report {}", reportFile);
+
+        ObjectiveCLizardParser.Handler handler = (filename, complexity, functions) -> {
+            InputFile inputFile = inputFiles.resolve(filename);
+            if (null == inputFile) {
+                LOGGER.debug("Unable to find file for complexity: {}", filename);
+                return;
+            }
+            // Measures can only be saved once for each file, e.g. when it is included in several reports.
+            if (!savedFiles.add(inputFile)) {
+                return;
+            }
+
+            context.<Integer>newMeasure()
+                    .on(inputFile)
+                    .forMetric(CoreMetrics.COMPLEXITY)
+                    .withValue(complexity)
+                    .save();
+            context.<Integer>newMeasure()
+                    .on(inputFile)
+                    .forMetric(CoreMetrics.FUNCTIONS)
+                    .withValue(functions)
+                    .save();
+        };
+        try (InputStream input = new BufferedInputStream(Files.newInputStream(reportFile), BUFFER_SIZE)) {
+            ObjectiveCLizardParser.parse(input, handler);
+        } catch (IOException | XMLStreamException e) {
+            LOGGER.warn("Unable to import Lizard report {}", reportFile, e);
+        }
+    }
+}
@@ -0,0 +1,357 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.reports;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Streaming parser for the JSON coverage exported by {@code llvm-cov export}.
+ *
+ * The export is read one token at a time with {@link ObjectiveCJsonReader}, and the segments of
+ * each file are turned into per-line hit counts while they are read, so only the coverage of the
+ * current file is kept in memory. Functions, expansions and summaries are skipped.
+ */
+public class ObjectiveCLlvmCovParser {
+    static final String EXPORT_TYPE = "llvm.coverage.json.export";
+
+    public interface Handler {
+        /**
+         * @param filename File name, as written in the export, i.e. usually an absolute path.
+         * @param coverage Coverage of the file, only valid until the method returns.
+         */
+        void file(@Nonnull String filename, @Nonnull FileCoverage coverage);
+    }
+
+    private ObjectiveCLlvmCovParser() {
+    }
+
+    public static void parse(@Nonnull InputStream input, @Nonnull Handler handler) throws IOException {
+        try (ObjectiveCJsonReader reader = new ObjectiveCJsonReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            FileCoverage coverage = new FileCoverage();
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if ("data".equals(reader.nextName())) {
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        parseExport(reader, coverage, handler);
+                    }
+                    reader.endArray();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+    }
+
+    /**
+     * Check whether the input is a coverage export, without reading more than the beginning of it.
+     *
+     * The keys are written in sorted order by llvm-cov, so the type is usually at the end of the
+     * export, the export is instead recognised by the files or functions of the first data entry.
+     */
+    static boolean isExport(@Nonnull InputStream input) throws IOException {
+        ObjectiveCJsonReader reader = new ObjectiveCJsonReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        if (ObjectiveCJsonReader.Token.BEGIN_OBJECT != reader.peek()) {
+            return false;
+        }
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("type".equals(name)) {
+                return ObjectiveCJsonReader.Token.STRING == reader.peek() && EXPORT_TYPE.equals(reader.nextString());
+            }
+            if (!"data".equals(name)) {
+                reader.skipValue();
+                continue;
+            }
+
+            if (ObjectiveCJsonReader.Token.BEGIN_ARRAY != reader.peek()) {
+                return false;
+            }
+            reader.beginArray();
+            if (ObjectiveCJsonReader.Token.BEGIN_OBJECT != reader.peek()) {
+                return false;
+            }
+            reader.beginObject();
+            if (!reader.hasNext()) {
+                return false;
+            }
+            name = reader.nextName();
+            return "files".equals(name) || "functions".equals(name) || "totals".equals(name);
+        }
+        return false;
+    }
+
+    private static void parseExport(
+            @Nonnull ObjectiveCJsonReader reader,
+            @Nonnull FileCoverage coverage,
+            @Nonnull Handler handler
+    ) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if ("files".equals(reader.nextName())) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    parseFile(reader, coverage, handler);
+                }
+                reader.endArray();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    /**
+     * The file name is written after the branches by llvm-cov, so the coverage of the file is
+     * collected before it is passed to the handler.
+     */
+    private static void parseFile(
+            @Nonnull ObjectiveCJsonReader reader,
+            @Nonnull FileCoverage coverage,
+            @Nonnull Handler handler
+    ) throws IOException {
+        coverage.reset();
+        String filename = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "filename":
+                    filename = reader.nextString();
+                    break;
+                case "segments":
+                    parseSegments(reader, coverage);
+                    break;
+                case "branches":
+                    parseBranches(reader, coverage);
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+
+        if (null != filename) {
+            handler.file(filename, coverage);
+        }
+    }
+
+    /**
+     * Each segment is written as {@code [line, column, count, hasCount, isRegionEntry, isGapRegion]},
+     * where the gap flag is missing from exports written by older versions of llvm-cov.
+     */
+    private static void parseSegments(@Nonnull ObjectiveCJsonReader reader, @Nonnull FileCoverage coverage) throws IOException {
+        reader.beginArray();
+        while (reader.hasNext()) {
+            reader.beginArray();
+            int line = toInt(reader.nextLong());
+            reader.skipValue();
+            int count = toInt(reader.nextLong());
+            boolean hasCount = reader.nextBoolean();
+            boolean isRegionEntry = reader.nextBoolean();
+            boolean isGapRegion = reader.hasNext() && reader.nextBoolean();
+            while (reader.hasNext()) {
+                reader.skipValue();
+            }
+            reader.endArray();
+
+            coverage.segment(line, count, hasCount, isRegionEntry, isGapRegion);
+        }
+        reader.endArray();
+        coverage.endSegments();
+    }
+
+    /**
+     * Each branch is written as {@code [line, column, endLine, endColumn, trueCount, falseCount, ...]},
+     * and is counted as two conditions on the line where it starts.
+     */
+    private static void parseBranches(@Nonnull ObjectiveCJsonReader reader, @Nonnull FileCoverage coverage) throws IOException {
+        reader.beginArray();
+        while (reader.hasNext()) {
+            reader.beginArray();
+            int line = toInt(reader.nextLong());
+            reader.skipValue();
+            reader.skipValue();
+            reader.skipValue();
+            long trueCount = reader.nextLong();
+            long falseCount = reader.nextLong();
+            while (reader.hasNext()) {
+                reader.skipValue();
+            }
+            reader.endArray();
+
+            coverage.branch(line, trueCount > 0, falseCount > 0);
+        }
+        reader.endArray();
+    }
+
+    private static int toInt(long value) {
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, value));
+    }
+
+    /**
+     * Coverage of a file, indexed by line number. The arrays are reused between files.
+     *
+     * The hits of a line are computed the same way as by llvm-cov: a line is covered if a region
+     * starts on the line, or if the line is within a region started on a previous line, i.e. the
+     * last segment before the line. The hits are the highest count of the regions starting on the
+     * line and the wrapping region. Lines starting with a skipped region, e.g. code excluded by the
+     * preprocessor, are not covered.
+     */
+    public static final class FileCoverage {
+        private int[] hits = new int[0];
+        private int[] conditions = new int[0];
+        private int[] coveredConditions = new int[0];
+        private int lines;
+
+        private int currentLine;
+        private int regionsStarted;
+        private int regionsStartedCount;
+        private boolean startsWithSkippedRegion;
+        private boolean hasWrapped;
+        private boolean wrappedHasCount;
+        private int wrappedCount;
+        private boolean lastHasCount;
+        private int lastCount;
+
+        private FileCoverage() {
+        }
+
+        /**
+         * @return Highest line number with coverage.
+         */
+        public int getLines() {
+            return lines;
+        }
+
+        /**
+         * @return Number of hits for the line, or -1 if the line is not covered by any region.
+         */
+        public int getHits(int line) {
+            return line < 1 || line > lines ? -1 : hits[line];
+        }
+
+        /**
+         * @return Number of branch conditions on the line, or zero if the line is not a branch.
+         */
+        public int getConditions(int line) {
+            return line < 1 || line > lines ? 0 : conditions[line];
+        }
+
+        public int getCoveredConditions(int line) {
+            return line < 1 || line > lines ? 0 : coveredConditions[line];
+        }
+
+        private void reset() {
+            Arrays.fill(hits, 0, Math.min(hits.length, lines + 1), -1);
+            Arrays.fill(conditions, 0, Math.min(conditions.length, lines + 1), 0);
+            Arrays.fill(coveredConditions, 0, Math.min(coveredConditions.length, lines + 1), 0);
+            lines = 0;
+            currentLine = 0;
+            hasWrapped = false;
+        }
+
+        private void ensureLine(int line) {
+            if (line >= hits.length) {
+                int size = Math.max(line + 1, hits.length * 2);
+                int previousSize = hits.length;
+                hits = Arrays.copyOf(hits, size);
+                conditions = Arrays.copyOf(conditions, size);
+                coveredConditions = Arrays.copyOf(coveredConditions, size);
+                Arrays.fill(hits, previousSize, size, -1);
+            }
+            lines = Math.max(lines, line);
+        }
+
+        private void segment(int line, int count, boolean hasCount, boolean isRegionEntry, boolean isGapRegion) {
+            if (line < 1 || line < currentLine) {
+                return;
+            }
+
+            if (line != currentLine) {
+                if (0 != currentLine) {
+                    endLine();
+                    hasWrapped = true;
+                    wrappedHasCount = lastHasCount;
+                    wrappedCount = lastCount;
+                    if (wrappedHasCount) {
+                        for (int wrappedLine = currentLine + 1; wrappedLine < line; wrappedLine++) {
+                            setHits(wrappedLine, wrappedCount);
+                        }
+                    }
+                }
+
+                currentLine = line;
+                regionsStarted = 0;
+                regionsStartedCount = 0;
+                startsWithSkippedRegion = !hasCount && isRegionEntry;
+            }
+
+            if (hasCount && isRegionEntry && !isGapRegion) {
+                regionsStarted++;
+                regionsStartedCount = Math.max(regionsStartedCount, count);
+            }
+            lastHasCount = hasCount;
+            lastCount = count;
+        }
+
+        private void endSegments() {
+            if (0 != currentLine) {
+                endLine();
+            }
+            currentLine = 0;
+            hasWrapped = false;
+        }
+
+        private void endLine() {
+            boolean mapped = !startsWithSkippedRegion && ((hasWrapped && wrappedHasCount) || regionsStarted > 0);
+            if (!mapped) {
+                return;
+            }
+
+            int count = hasWrapped ? wrappedCount : 0;
+            if (regionsStarted > 0) {
+                count = Math.max(count, regionsStartedCount);
+            }
+            setHits(currentLine, count);
+        }
+
+        private void setHits(int line, int count) {
+            ensureLine(line);
+            hits[line] = Math.max(0, count);
+        }
+
+        private void branch(int line, boolean trueCovered, boolean falseCovered) {
+            if (line < 1) {
+                return;
+            }
+
+            ensureLine(line);
+            conditions[line] = Math.min(Integer.MAX_VALUE - 2, conditions[line]) + 2;
+            coveredConditions[line] = Math.min(conditions[line], coveredConditions[line] + (trueCovered ? 1 : 0) + (falseCovered ? 1 : 0));
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.reports;
+
+import org.sonar.api.batch.fs.FileSystem;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.sensor.coverage.NewCoverage;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+
+/**
+ * Imports line and branch coverage from the JSON exported by {@code llvm-cov export}, without
+ * converting the coverage to a Cobertura report first.
+ *
+ * The exports are parsed with {@link ObjectiveCLlvmCovParser} and the coverage is saved as soon as
+ * every segment of a file has been read.
+ */
+public class ObjectiveCLlvmCovSensor extends ObjectiveCCoverageSensor {
+    @SuppressWarnings("WeakerAccess")
+    public ObjectiveCLlvmCovSensor(FileSystem fileSystem, ObjectiveCReports reports) {
+        super(fileSystem, reports, ObjectiveCReportType.LLVM_COV, "llvm-cov export");
+    }
+
+    @Override
+    void parse(@Nonnull InputStream input, @Nonnull Coverage coverage) throws IOException {
+        ObjectiveCLlvmCovParser.parse(input, (filename, fileCoverage) -> saveCoverage(coverage, filename, fileCoverage));
+    }
+
+    private static void saveCoverage(
+            @Nonnull Coverage coverage,
+            @Nonnull String filename,
+            @Nonnull ObjectiveCLlvmCovParser.FileCoverage fileCoverage
+    ) {
+        InputFile inputFile = coverage.resolve(filename, Collections.emptyList());
+        if (null == inputFile) {
+            return;
+        }
+
+        NewCoverage newCoverage = coverage.newCoverage(inputFile);
+        int lines = Math.min(inputFile.lines(), fileCoverage.getLines());
+        for (int line = 1; line <= lines; line++) {
+            int hits = fileCoverage.getHits(line);
+            if (hits < 0) {
+                continue;
+            }
+
+            newCoverage.lineHits(line, hits);
+            int conditions = fileCoverage.getConditions(line);
+            if (conditions > 0) {
+                newCoverage.conditions(line, conditions, fileCoverage.getCoveredConditions(line));
+            }
+        }
+        coverage.save(newCoverage);
+    }
+}
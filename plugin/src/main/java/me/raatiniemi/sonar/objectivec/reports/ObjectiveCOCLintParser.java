@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.reports;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+/**
+ * Streaming parser for OCLint reports, in either the OCLint XML or the PMD report format.
+ *
+ * In the OCLint format each violation is an element with the path, position, rule and message as
+ * attributes. In the PMD format the violations are grouped by file, and the message is the text
+ * of the violation. Violations are passed to the consumer as they are read.
+ */
+public final class ObjectiveCOCLintParser {
+    private ObjectiveCOCLintParser() {
+    }
+
+    public static void parse(@Nonnull InputStream input, @Nonnull Consumer<Violation> consumer) throws XMLStreamException {
+        XMLStreamReader reader = ObjectiveCXmlReaders.create(input);
+        try {
+            String file = null;
+            while (reader.hasNext()) {
+                if (XMLStreamConstants.START_ELEMENT != reader.next()) {
+                    continue;
+                }
+
+                String name = reader.getLocalName();
+                if ("file".equals(name)) {
+                    file = reader.getAttributeValue(null, "name");
+                } else if ("violation".equals(name)) {
+                    Violation violation = parseViolation(reader, file);
+                    if (null != violation) {
+                        consumer.accept(violation);
+                    }
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    @CheckForNull
+    private static Violation parseViolation(@Nonnull XMLStreamReader reader, @CheckForNull String file) throws XMLStreamException {
+        String rule = reader.getAttributeValue(null, "rule");
+        String path = reader.getAttributeValue(null, "path");
+        String endLine = reader.getAttributeValue(null, "endline");
+        String endColumn = reader.getAttributeValue(null, "endcolumn");
+        if (null != path) {
+            String line = reader.getAttributeValue(null, "startline");
+            String column = reader.getAttributeValue(null, "startcolumn");
+            String message = reader.getAttributeValue(null, "message");
+            return createViolation(path, new String[]{line, column, endLine, endColumn}, rule, message);
+        }
+
+        String line = reader.getAttributeValue(null, "beginline");
+        String column = reader.getAttributeValue(null, "begincolumn");
+        return createViolation(file, new String[]{line, column, endLine, endColumn}, rule, reader.getElementText().trim());
+    }
+
+    /**
+     * @param position Start line and column, and end line and column, of the violation.
+     */
+    @CheckForNull
+    private static Violation createViolation(
+            @CheckForNull String path,
+            @Nonnull String[] position,
+            @CheckForNull String rule,
+            @CheckForNull String message
+    ) {
+        if (null == path || path.isEmpty() || null == rule || rule.isEmpty()) {
+            return null;
+        }
+        return new Violation(
+                path,
+                parsePosition(position[0]),
+                parsePosition(position[1]),
+                parsePosition(position[2]),
+                parsePosition(position[3]),
+                rule,
+                null == message ? "" : message
+        );
+    }
+
+    /**
+     * @return Line or column of the violation, or zero if it is missing or invalid.
+     */
+    private static int parsePosition(@CheckForNull String value) {
+        if (null == value) {
+            return 0;
+        }
+
+        try {
+            return Math.max(0, Integer.parseInt(value.trim()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    public static final class Violation {
+        private final String path;
+        private final int line;
+        private final int column;
+        private final int endLine;
+        private final int endColumn;
+        private final String rule;
+        private final String message;
+
+        Violation(
+                @Nonnull String path,
+                int line,
+                int column,
+                int endLine,
+                int endColumn,
+                @Nonnull String rule,
+                @Nonnull String message
+        ) {
+            this.path = path;
+            this.line = line;
+            this.column = column;
+            this.endLine = endLine;
+            this.endColumn = endColumn;
+            this.rule = rule;
+            this.message = message;
+        }
+
+        @Nonnull
+        public String getPath() {
+            return path;
+        }
+
+        /**
+         * @return Line of the violation, or zero if the violation is not on a line.
+         */
+        public int getLine() {
+            return line;
+        }
+
+        /**
+         * @return Column of the start of the violation, or zero if the column is missing.
+         */
+        public int getColumn() {
+            return column;
+        }
+
+        @Nonnull
+        public String getRule() {
+            return rule;
+        }
+
+        @Nonnull
+        public String getMessage() {
+            return message;
+        }
+
+        /**
+         * @param key Key of the file the path was resolved to, since reports can use relative and absolute paths.
+         * @return 64-bit hash of the violation, used to detect the same violation in several reports.
+         */
+        long hash(@Nonnull String key) {
+            long hash = 0xcbf29ce484222325L;
+            hash = hash(hash, key);
+            hash = hash(hash, line);
+            hash = hash(hash, column);
+            hash = hash(hash, endLine);
+            hash = hash(hash, endColumn);
+            hash = hash(hash, rule);
+            return hash(hash, message);
+        }
+
+        private static long hash(long hash, int value) {
+            return (hash ^ value) * 0x100000001b3L;
+        }
+
+        private static long hash(long hash, @Nonnull String value) {
+            for (int i = 0; i < value.length(); i++) {
+                hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+            }
+            // Separate the fields, so that e.g. the path and rule can not be shifted into each other.
+            return (hash ^ 0xff) * 0x100000001b3L;
+        }
+    }
+}
@@ -0,0 +1,300 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.reports;
+
+import me.raatiniemi.sonar.objectivec.core.ObjectiveC;
+import me.raatiniemi.sonar.oclint.OCLintRulesDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.batch.fs.FileSystem;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.sensor.Sensor;
+import org.sonar.api.batch.sensor.SensorContext;
+import org.sonar.api.batch.sensor.SensorDescriptor;
+import org.sonar.api.batch.sensor.issue.NewIssue;
+import org.sonar.api.batch.sensor.issue.NewIssueLocation;
+import org.sonar.api.rule.RuleKey;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import javax.xml.stream.XMLStreamException;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Imports issues from OCLint reports, e.g. one report per shard when OCLint is split across machines.
+ *
+ * The reports matching the report path are parsed concurrently with {@link ObjectiveCOCLintParser},
+ * each thread passing batches of violations through a bounded queue. The issues are created from
+ * the calling thread, since the sensor context is not thread-safe. Violations found in more than
+ * one report are only imported once, using a set of the hash of each violation and its resolved file.
+ */
+public class ObjectiveCOCLintSensor implements Sensor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ObjectiveCOCLintSensor.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int BATCH_SIZE = 1024;
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+    private static final List<ObjectiveCOCLintParser.Violation> END_OF_REPORT = new ArrayList<>(0);
+
+    private final FileSystem fileSystem;
+    private final ObjectiveCReports reports;
+
+    private SensorContext context;
+    private ObjectiveCInputFileIndex inputFiles;
+    private Map<String, InputFile> resolvedFiles;
+    private Map<String, RuleKey> activeRules;
+    private ObjectiveCHashSet violations;
+    private int importedIssues;
+    private int duplicatedIssues;
+    private int skippedIssues;
+
+    @SuppressWarnings("WeakerAccess")
+    public ObjectiveCOCLintSensor(FileSystem fileSystem, ObjectiveCReports reports) {
+        this.fileSystem = fileSystem;
+        this.reports = reports;
+    }
+
+    @Override
+    public void describe(@Nonnull SensorDescriptor descriptor) {
+        descriptor.name(getClass().getSimpleName());
+        descriptor.onlyOnLanguage(ObjectiveC.KEY);
+        descriptor.createIssuesForRuleRepository(OCLintRulesDefinition.REPOSITORY_KEY);
+    }
+
+    @Override
+    public void execute(@Nonnull SensorContext context) {
+        List<Path> reportFiles = reports.get(fileSystem, context.config()).getReports(ObjectiveCReportType.OCLINT);
+        if (reportFiles.isEmpty()) {
+            LOGGER.info("No OCLint reports found");
+            return;
+        }
+
+        this.context = context;
+        inputFiles = ObjectiveCInputFileIndex.create(fileSystem);
+        resolvedFiles = new HashMap<>();
+        activeRules = new HashMap<>();
+        violations = new ObjectiveCHashSet();
+        importedIssues = 0;
+        duplicatedIssues = 0;
+        skippedIssues = 0;
+
+        long start = System.nanoTime();
+        try {
+            importReports(reportFiles, Math.min(reportFiles.size(), Runtime.getRuntime().availableProcessors()));
+        } finally {
+            LOGGER.info(
+                    "Imported {} issues from {} OCLint reports in {} ms, {} duplicated issues and {} issues without file or active rule were skipped",
+                    importedIssues,
+                    reportFiles.size(),
+                    (System.nanoTime() - start) / 1_000_000,
+                    duplicatedIssues,
+                    skippedIssues
+            );
+
+            this.context = null;
+            inputFiles = null;
+            resolvedFiles = null;
+            activeRules = null;
+            violations = null;
+        }
+    }
+
+    private void importReports(@Nonnull List<Path> reportFiles, int threads) {
+        BlockingQueue<List<ObjectiveCOCLintParser.Violation>> queue = new ArrayBlockingQueue<>(threads * 2);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (Path reportFile : reportFiles) {
+                futures.add(executor.submit(() -> {
+                    try {
+                        parse(reportFile, queue);
+                    } finally {
+                        queue.put(END_OF_REPORT);
+                    }
+                    return null;
+                }));
+            }
+
+            int remaining = reportFiles.size();
+            while (remaining > 0) {
+                List<ObjectiveCOCLintParser.Violation> batch = poll(queue);
+                if (null == batch) {
+                    // Failures are only surfaced by the futures, otherwise we'd wait for reports that never end.
+                    for (Future<Void> future : futures) {
+                        if (future.isDone()) {
+                            get(future);
+                        }
+                    }
+                } else if (END_OF_REPORT == batch) {
+                    remaining--;
+                } else {
+                    batch.forEach(this::save);
+                }
+            }
+            for (Future<Void> future : futures) {
+                get(future);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void parse(
+            @Nonnull Path reportFile,
+            @Nonnull BlockingQueue<List<ObjectiveCOCLintParser.Violation>> queue
+    ) throws InterruptedException {
+        LOGGER.debug("Importing OCLint report {}", reportFile);
+
+        BatchingConsumer consumer = new BatchingConsumer(queue);
+        try (InputStream input = new BufferedInputStream(Files.newInputStream(reportFile), BUFFER_SIZE)) {
+            ObjectiveCOCLintParser.parse(input, consumer);
+        } catch (IOException | XMLStreamException e) {
+            LOGGER.warn("Unable to import OCLint report {}", reportFile, e);
+        }
+        consumer.flush();
+    }
+
+    @CheckForNull
+    private static List<ObjectiveCOCLintParser.Violation> poll(@Nonnull BlockingQueue<List<ObjectiveCOCLintParser.Violation>> queue) {
+        try {
+            return queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Import of OCLint reports was interrupted", e);
+        }
+    }
+
+    private static void get(@Nonnull Future<Void> future) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Import of OCLint reports was interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Unable to import OCLint reports", e.getCause());
+        }
+    }
+
+    private void save(@Nonnull ObjectiveCOCLintParser.Violation violation) {
+        InputFile inputFile = resolveFile(violation.getPath());
+        RuleKey ruleKey = findActiveRule(violation.getRule());
+        if (null == inputFile || null == ruleKey) {
+            skippedIssues++;
+            return;
+        }
+
+        if (!violations.add(violation.hash(inputFile.key()))) {
+            duplicatedIssues++;
+            return;
+        }
+
+        NewIssue issue = context.newIssue().forRule(ruleKey);
+        NewIssueLocation location = issue.newLocation()
+                .on(inputFile)
+                .message(violation.getMessage());
+        if (violation.getLine() > 0 && violation.getLine() <= inputFile.lines()) {
+            location.at(inputFile.selectLine(violation.getLine()));
+        }
+        issue.at(location).save();
+        importedIssues++;
+    }
+
+    @CheckForNull
+    private InputFile resolveFile(@Nonnull String path) {
+        if (resolvedFiles.containsKey(path)) {
+            return resolvedFiles.get(path);
+        }
+
+        InputFile inputFile = inputFiles.resolve(path);
+        if (null == inputFile) {
+            LOGGER.debug("Unable to find file for OCLint violation: {}", path);
+        }
+        resolvedFiles.put(path, inputFile);
+        return inputFile;
+    }
+
+    @CheckForNull
+    private RuleKey findActiveRule(@Nonnull String rule) {
+        if (activeRules.containsKey(rule)) {
+            return activeRules.get(rule);
+        }
+
+        RuleKey ruleKey = RuleKey.of(OCLintRulesDefinition.REPOSITORY_KEY, rule);
+        if (null == context.activeRules().find(ruleKey)) {
+            LOGGER.debug("OCLint rule is not active: {}", rule);
+            ruleKey = null;
+        }
+        activeRules.put(rule, ruleKey);
+        return ruleKey;
+    }
+
+    /**
+     * Passes the violations to the queue in batches, blocking while the queue is full.
+     */
+    private static final class BatchingConsumer implements Consumer<ObjectiveCOCLintParser.Violation> {
+        private final BlockingQueue<List<ObjectiveCOCLintParser.Violation>> queue;
+        private List<ObjectiveCOCLintParser.Violation> batch = new ArrayList<>(BATCH_SIZE);
+
+        private BatchingConsumer(@Nonnull BlockingQueue<List<ObjectiveCOCLintParser.Violation>> queue) {
+            this.queue = queue;
+        }
+
+        @Override
+        public void accept(@Nonnull ObjectiveCOCLintParser.Violation violation) {
+            batch.add(violation);
+            if (batch.size() < BATCH_SIZE) {
+                return;
+            }
+
+            try {
+                flush();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Import of OCLint report was interrupted", e);
+            }
+        }
+
+        private void flush() throws InterruptedException {
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            queue.put(batch);
+            batch = new ArrayList<>(BATCH_SIZE);
+        }
+    }
+}
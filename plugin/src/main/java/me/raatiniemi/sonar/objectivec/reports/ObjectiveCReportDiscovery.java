@@ -0,0 +1,262 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.reports;
+
+import me.raatiniemi.sonar.objectivec.ObjectiveCPlugin;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.config.Configuration;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Reports found in the report directories, classified by their type.
+ *
+ * The report directories, and the directories of the configured report paths, are walked once
+ * and each XML file is classified by the name of its root element, and each JSON file by its
+ * first keys, without parsing the rest of the file. If a report path is configured for a type, only the reports matching the path are kept.
+ *
+ * Report paths containing {@code **} are walked at most {@value #MAX_DEPTH} directories deep, and
+ * hidden, vendored and other dependency directories below the walked directories are skipped.
+ */
+public class ObjectiveCReportDiscovery {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ObjectiveCReportDiscovery.class);
+
+    private static final String GLOB_CHARACTERS = "*?[{";
+    private static final int MAX_DEPTH = 10;
+    private static final String[] DEPENDENCY_DIRECTORIES = {"DerivedData", "node_modules"};
+
+    private final Map<ObjectiveCReportType, List<Path>> reports;
+
+    private ObjectiveCReportDiscovery(@Nonnull Map<ObjectiveCReportType, List<Path>> reports) {
+        this.reports = reports;
+    }
+
+    @Nonnull
+    public static ObjectiveCReportDiscovery discover(@Nonnull Path baseDir, @Nonnull Configuration configuration) {
+        Map<ObjectiveCReportType, PathMatcher> matchers = new EnumMap<>(ObjectiveCReportType.class);
+        Map<Path, Integer> directories = new LinkedHashMap<>();
+        for (String directory : getReportDirectories(configuration)) {
+            directories.put(baseDir.resolve(directory).normalize(), Integer.MAX_VALUE);
+        }
+        for (ObjectiveCReportType type : ObjectiveCReportType.values()) {
+            String pattern = configuration.get(type.getReportPathKey()).map(String::trim).orElse("");
+            if (pattern.isEmpty()) {
+                continue;
+            }
+
+            Path path = baseDir.resolve(pattern).normalize();
+            matchers.put(type, FileSystems.getDefault().getPathMatcher("glob:" + escapeSeparators(path.toString())));
+            directories.merge(getDirectory(path), getDepth(path), Math::max);
+        }
+
+        Set<String> excludedDirectories = getExcludedDirectories(configuration);
+        Map<ObjectiveCReportType, List<Path>> reports = new EnumMap<>(ObjectiveCReportType.class);
+        Set<Path> visitedFiles = new HashSet<>();
+        for (Map.Entry<Path, Integer> directory : directories.entrySet()) {
+            walk(directory.getKey(), directory.getValue(), excludedDirectories, file -> {
+                if (!visitedFiles.add(file)) {
+                    return;
+                }
+
+                ObjectiveCReportType type = sniff(file);
+                if (null == type) {
+                    return;
+                }
+                PathMatcher matcher = matchers.get(type);
+                if (null == matcher || matcher.matches(file)) {
+                    reports.computeIfAbsent(type, key -> new ArrayList<>()).add(file);
+                }
+            });
+        }
+
+        for (Map.Entry<ObjectiveCReportType, List<Path>> entry : reports.entrySet()) {
+            Collections.sort(entry.getValue());
+            LOGGER.debug("Found {} {} reports", entry.getValue().size(), entry.getKey());
+        }
+        return new ObjectiveCReportDiscovery(reports);
+    }
+
+    @Nonnull
+    private static String[] getReportDirectories(@Nonnull Configuration configuration) {
+        String[] directories = configuration.getStringArray(ObjectiveCPlugin.REPORTS_DIRECTORIES_KEY);
+        if (0 == directories.length) {
+            directories = StringUtils.split(ObjectiveCPlugin.REPORTS_DIRECTORIES_DEFVALUE, ",");
+        }
+        return directories;
+    }
+
+    @Nonnull
+    private static Set<String> getExcludedDirectories(@Nonnull Configuration configuration) {
+        String[] directories = configuration.getStringArray(ObjectiveCPlugin.SQUID_VENDORED_DIRECTORIES_KEY);
+        if (0 == directories.length) {
+            directories = StringUtils.split(ObjectiveCPlugin.SQUID_VENDORED_DIRECTORIES_DEFVALUE, ",");
+        }
+
+        Set<String> excludedDirectories = new HashSet<>(Arrays.asList(DEPENDENCY_DIRECTORIES));
+        for (String directory : directories) {
+            excludedDirectories.add(directory.trim());
+        }
+        return excludedDirectories;
+    }
+
+    @Nonnull
+    private static String escapeSeparators(@Nonnull String pattern) {
+        return pattern.replace("\\", "\\\\");
+    }
+
+    /**
+     * @return Directory containing every file matching the report path, i.e. the path up to the first glob.
+     */
+    @Nonnull
+    private static Path getDirectory(@Nonnull Path path) {
+        Path directory = path.getRoot();
+        for (Path name : path) {
+            if (StringUtils.containsAny(name.toString(), GLOB_CHARACTERS)) {
+                break;
+            }
+            directory = null == directory ? name : directory.resolve(name);
+        }
+        return directory.equals(path) ? path.getParent() : directory;
+    }
+
+    /**
+     * @return Depth of the files matching the report path below its directory.
+     */
+    private static int getDepth(@Nonnull Path path) {
+        if (path.toString().contains("**")) {
+            return MAX_DEPTH;
+        }
+        return path.getNameCount() - getDirectory(path).getNameCount();
+    }
+
+    private static void walk(
+            @Nonnull Path directory,
+            int maxDepth,
+            @Nonnull Set<String> excludedDirectories,
+            @Nonnull Consumer<Path> consumer
+    ) {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+
+        try {
+            Files.walkFileTree(directory, EnumSet.noneOf(FileVisitOption.class), maxDepth, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path subdirectory, BasicFileAttributes attributes) {
+                    if (subdirectory.equals(directory)) {
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    String name = subdirectory.getFileName().toString();
+                    if (name.startsWith(".") || excludedDirectories.contains(name)) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                    String name = file.getFileName().toString();
+                    if (attributes.isRegularFile() && (name.endsWith(".xml") || name.endsWith(".json"))) {
+                        consumer.accept(file);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    LOGGER.debug("Unable to visit {}", file, e);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            LOGGER.warn("Unable to search for reports in {}", directory, e);
+        }
+    }
+
+    /**
+     * @return Type of the report, or null if the file is not a report or can not be read.
+     */
+    @CheckForNull
+    static ObjectiveCReportType sniff(@Nonnull Path file) {
+        if (file.getFileName().toString().endsWith(".json")) {
+            return sniffJson(file);
+        }
+
+        try (InputStream input = Files.newInputStream(file)) {
+            XMLStreamReader reader = ObjectiveCXmlReaders.create(input);
+            try {
+                while (reader.hasNext()) {
+                    if (XMLStreamConstants.START_ELEMENT == reader.next()) {
+                        return ObjectiveCReportType.fromRootElement(reader.getLocalName());
+                    }
+                }
+                return null;
+            } finally {
+                reader.close();
+            }
+        } catch (IOException | XMLStreamException e) {
+            LOGGER.debug("Unable to read root element of {}", file, e);
+            return null;
+        }
+    }
+
+    @CheckForNull
+    private static ObjectiveCReportType sniffJson(@Nonnull Path file) {
+        try (InputStream input = Files.newInputStream(file)) {
+            return ObjectiveCLlvmCovParser.isExport(input) ? ObjectiveCReportType.LLVM_COV : null;
+        } catch (IOException e) {
+            LOGGER.debug("Unable to read beginning of {}", file, e);
+            return null;
+        }
+    }
+
+    /**
+     * @return Reports of the type, sorted by their path.
+     */
+    @Nonnull
+    public List<Path> getReports(@Nonnull ObjectiveCReportType type) {
+        return Collections.unmodifiableList(reports.getOrDefault(type, Collections.emptyList()));
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.reports;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+/**
+ * Reports imported by the sensors, recognised by the name of their root element.
+ *
+ * JSON reports do not have a root element, and are instead recognised by their content.
+ */
+public enum ObjectiveCReportType {
+    COBERTURA("sonar.objectivec.cobertura.reportPath", "coverage"),
+    OCLINT("sonar.objectivec.oclint.reportPath", "oclint", "pmd"),
+    LIZARD("sonar.objectivec.lizard.reportPath", "cppncss"),
+    LLVM_COV("sonar.objectivec.llvmcov.reportPath");
+
+    private final String reportPathKey;
+    private final String[] rootElements;
+
+    ObjectiveCReportType(@Nonnull String reportPathKey, @Nonnull String... rootElements) {
+        this.reportPathKey = reportPathKey;
+        this.rootElements = rootElements;
+    }
+
+    /**
+     * @return Key for the report path pattern configured for the sensor importing the report.
+     */
+    @Nonnull
+    public String getReportPathKey() {
+        return reportPathKey;
+    }
+
+    @CheckForNull
+    static ObjectiveCReportType fromRootElement(@Nonnull String name) {
+        for (ObjectiveCReportType type : values()) {
+            for (String rootElement : type.rootElements) {
+                if (rootElement.equals(name)) {
+                    return type;
+                }
+            }
+        }
+        return null;
+    }
+}
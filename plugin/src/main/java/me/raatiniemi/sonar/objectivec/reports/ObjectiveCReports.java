@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.reports;
+
+import org.sonar.api.batch.ScannerSide;
+import org.sonar.api.batch.fs.FileSystem;
+import org.sonar.api.config.Configuration;
+
+import javax.annotation.Nonnull;
+import java.nio.file.Path;
+
+/**
+ * Reports for the module being analysed, shared by the sensors importing them.
+ *
+ * The reports are discovered the first time a sensor asks for them, using the configuration and
+ * base directory of the module, i.e. including report paths set as project settings on the server.
+ * The discovery is kept until a sensor asks for the reports of another module.
+ */
+@ScannerSide
+public class ObjectiveCReports {
+    private Path baseDir;
+    private Configuration configuration;
+    private ObjectiveCReportDiscovery discovery;
+
+    @Nonnull
+    public synchronized ObjectiveCReportDiscovery get(@Nonnull FileSystem fileSystem, @Nonnull Configuration configuration) {
+        Path baseDir = fileSystem.baseDir().toPath().toAbsolutePath();
+        if (null == discovery || !baseDir.equals(this.baseDir) || configuration != this.configuration) {
+            discovery = ObjectiveCReportDiscovery.discover(baseDir, configuration);
+            this.baseDir = baseDir;
+            this.configuration = configuration;
+        }
+        return discovery;
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.reports;
+
+import javax.annotation.Nonnull;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.io.Reader;
+
+/**
+ * Creates the StAX readers for the reports and profiles, from a single factory.
+ *
+ * Neither DTDs nor external entities are supported, and adjacent character data is coalesced,
+ * i.e. the text of an element is read as a single event.
+ */
+public final class ObjectiveCXmlReaders {
+    private static final XMLInputFactory FACTORY = createFactory();
+
+    private ObjectiveCXmlReaders() {
+    }
+
+    @Nonnull
+    private static XMLInputFactory createFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+
+    @Nonnull
+    public static XMLStreamReader create(@Nonnull InputStream input) throws XMLStreamException {
+        return FACTORY.createXMLStreamReader(input);
+    }
+
+    @Nonnull
+    public static XMLStreamReader create(@Nonnull Reader input) throws XMLStreamException {
+        return FACTORY.createXMLStreamReader(input);
+    }
+}
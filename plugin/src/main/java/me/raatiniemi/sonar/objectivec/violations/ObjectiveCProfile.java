@@ -17,48 +17,108 @@
  */
 package me.raatiniemi.sonar.objectivec.violations;
 
-import com.google.common.io.Closeables;
 import me.raatiniemi.sonar.objectivec.core.ObjectiveC;
 import me.raatiniemi.sonar.oclint.OCLintProfile;
 import me.raatiniemi.sonar.oclint.OCLintProfileImporter;
 import org.sonar.api.profiles.ProfileDefinition;
 import org.sonar.api.profiles.RulesProfile;
-import org.sonar.api.rules.ActiveRule;
 import org.sonar.api.utils.ValidationMessages;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 
+import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
+/**
+ * Default profile with the active rules from the OCLint profile.
+ *
+ * The active rules are read from the {@link ObjectiveCProfileIndex} packaged with the plugin, or
+ * imported from the OCLint profile if the index is missing or can not be read, and are only loaded once.
+ */
 public class ObjectiveCProfile extends ProfileDefinition {
     private static final Logger LOGGER = Loggers.get(ObjectiveCProfile.class);
 
-    private final OCLintProfileImporter ocLintProfileImporter;
+    /**
+     * Active rules for each index, the index packaged with the plugin is the only one outside tests.
+     */
+    private static final Map<String, List<ObjectiveCProfileIndex.Entry>> ACTIVE_RULES = new ConcurrentHashMap<>();
+
+    private final URL index;
+    private final Function<ValidationMessages, RulesProfile> profileImporter;
 
     public ObjectiveCProfile(@Nonnull OCLintProfileImporter ocLintProfileImporter) {
-        this.ocLintProfileImporter = ocLintProfileImporter;
+        this(
+                ObjectiveCProfile.class.getResource(ObjectiveCProfileIndex.RESOURCE_PATH),
+                messages -> importProfile(ocLintProfileImporter, messages)
+        );
+    }
+
+    /**
+     * @param index Index of the active rules, or null if the index is missing.
+     * @param profileImporter Import the profile when the index is missing or can not be read.
+     */
+    ObjectiveCProfile(@Nullable URL index, @Nonnull Function<ValidationMessages, RulesProfile> profileImporter) {
+        this.index = index;
+        this.profileImporter = profileImporter;
     }
 
     @Override
     public RulesProfile createProfile(ValidationMessages messages) {
         LOGGER.info("Creating Objective-C Profile");
 
-        Reader config = null;
         final RulesProfile profile = RulesProfile.create("Objective-C", ObjectiveC.KEY);
         profile.setDefaultProfile(true);
 
-        try {
-            config = new InputStreamReader(getClass().getResourceAsStream(OCLintProfile.PROFILE_PATH));
-            RulesProfile ocLintRulesProfile = ocLintProfileImporter.importProfile(config, messages);
-            for (ActiveRule rule : ocLintRulesProfile.getActiveRules()) {
-                profile.addActiveRule(rule);
-            }
+        for (ObjectiveCProfileIndex.Entry rule : getActiveRules(messages)) {
+            rule.activate(profile);
+        }
+        return profile;
+    }
+
+    @Nonnull
+    private List<ObjectiveCProfileIndex.Entry> getActiveRules(@Nonnull ValidationMessages messages) {
+        return ACTIVE_RULES.computeIfAbsent(String.valueOf(index), key -> {
+            List<ObjectiveCProfileIndex.Entry> rules = readIndex(index);
+            return null == rules ? ObjectiveCProfileIndex.fromProfile(profileImporter.apply(messages)) : rules;
+        });
+    }
+
+    @CheckForNull
+    private static List<ObjectiveCProfileIndex.Entry> readIndex(@Nullable URL index) {
+        if (null == index) {
+            LOGGER.debug("OCLint profile index is missing, importing the profile");
+            return null;
+        }
+
+        try (InputStream input = new BufferedInputStream(index.openStream())) {
+            return ObjectiveCProfileIndex.read(input);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Unable to read OCLint profile index, importing the profile", e);
+            return null;
+        }
+    }
 
-            return profile;
-        } finally {
-            Closeables.closeQuietly(config);
+    @Nonnull
+    private static RulesProfile importProfile(
+            @Nonnull OCLintProfileImporter ocLintProfileImporter,
+            @Nonnull ValidationMessages messages
+    ) {
+        try (Reader config = new InputStreamReader(ObjectiveCProfile.class.getResourceAsStream(OCLintProfile.PROFILE_PATH), StandardCharsets.UTF_8)) {
+            return ocLintProfileImporter.importProfile(config, messages);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to import OCLint profile", e);
         }
     }
 }
@@ -0,0 +1,292 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.violations;
+
+import me.raatiniemi.sonar.objectivec.reports.ObjectiveCXmlReaders;
+import me.raatiniemi.sonar.oclint.OCLintProfile;
+import org.sonar.api.profiles.RulesProfile;
+import org.sonar.api.rule.Severity;
+import org.sonar.api.rules.ActiveRule;
+import org.sonar.api.rules.ActiveRuleParam;
+import org.sonar.api.rules.Rule;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Binary index of the active rules in the default OCLint profile.
+ *
+ * The index is written when the plugin is built, by running {@link #main(String[])} with the
+ * profile XML from {@link OCLintProfile#PROFILE_PATH}, and packaged as {@link #RESOURCE_PATH}.
+ * Reading the index avoids parsing the profile XML and resolving the rules when the server starts.
+ *
+ * The profile XML is parsed directly, since the importer used by the server needs the rules of
+ * the server to resolve the active rules, which are not available when the plugin is built.
+ */
+final class ObjectiveCProfileIndex {
+    static final String RESOURCE_PATH = "/me/raatiniemi/sonar/objectivec/violations/profile-oclint.index";
+
+    private static final int MAGIC = 0x4f434c49;
+    private static final int FORMAT_VERSION = 2;
+
+    private ObjectiveCProfileIndex() {
+    }
+
+    /**
+     * Write the index for the default OCLint profile to the file given as the only argument.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            throw new IllegalArgumentException("Usage: ObjectiveCProfileIndex <index file>");
+        }
+
+        InputStream stream = ObjectiveCProfileIndex.class.getResourceAsStream(OCLintProfile.PROFILE_PATH);
+        if (null == stream) {
+            throw new IllegalStateException("Unable to find OCLint profile: " + OCLintProfile.PROFILE_PATH);
+        }
+
+        List<Entry> entries;
+        try (Reader config = new InputStreamReader(stream, StandardCharsets.UTF_8)) {
+            entries = fromXml(config);
+        }
+        if (entries.isEmpty()) {
+            throw new IllegalStateException("No active rules in OCLint profile: " + OCLintProfile.PROFILE_PATH);
+        }
+
+        Path indexFile = Paths.get(args[0]);
+        Files.createDirectories(indexFile.toAbsolutePath().getParent());
+        try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(indexFile))) {
+            write(entries, output);
+        }
+    }
+
+    /**
+     * Read the active rules from a profile XML, in the format read by the profile importer.
+     */
+    @Nonnull
+    static List<Entry> fromXml(@Nonnull Reader config) throws IOException {
+        try {
+            XMLStreamReader reader = ObjectiveCXmlReaders.create(config);
+            try {
+                return fromXml(reader);
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Unable to parse profile", e);
+        }
+    }
+
+    @Nonnull
+    private static List<Entry> fromXml(@Nonnull XMLStreamReader reader) throws XMLStreamException, IOException {
+        List<Entry> entries = new ArrayList<>();
+        String repositoryKey = null;
+        String key = null;
+        String severity = null;
+        List<String> params = new ArrayList<>();
+        boolean inRule = false;
+        boolean inParameter = false;
+        String paramKey = null;
+        String paramValue = null;
+
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (XMLStreamConstants.END_ELEMENT == event) {
+                String name = reader.getLocalName();
+                if ("parameter".equals(name) && inParameter) {
+                    if (null != paramKey) {
+                        params.add(paramKey);
+                        params.add(null == paramValue ? "" : paramValue);
+                    }
+                    inParameter = false;
+                } else if ("rule".equals(name) && inRule) {
+                    if (null == repositoryKey || null == key) {
+                        throw new IOException("Missing repository key or key for profile rule " + entries.size());
+                    }
+                    checkSeverity(severity);
+                    entries.add(new Entry(repositoryKey, key, severity, params.toArray(new String[0])));
+                    inRule = false;
+                }
+                continue;
+            }
+            if (XMLStreamConstants.START_ELEMENT != event) {
+                continue;
+            }
+
+            String name = reader.getLocalName();
+            if ("rule".equals(name)) {
+                inRule = true;
+                repositoryKey = null;
+                key = null;
+                severity = null;
+                params.clear();
+            } else if (!inRule) {
+                continue;
+            } else if ("parameter".equals(name)) {
+                inParameter = true;
+                paramKey = null;
+                paramValue = null;
+            } else if ("key".equals(name)) {
+                if (inParameter) {
+                    paramKey = reader.getElementText().trim();
+                } else {
+                    key = reader.getElementText().trim();
+                }
+            } else if ("value".equals(name) && inParameter) {
+                paramValue = reader.getElementText().trim();
+            } else if ("repositoryKey".equals(name)) {
+                repositoryKey = reader.getElementText().trim();
+            } else if ("priority".equals(name)) {
+                severity = reader.getElementText().trim();
+            }
+        }
+        return Collections.unmodifiableList(entries);
+    }
+
+    @Nonnull
+    static List<Entry> fromProfile(@Nonnull RulesProfile profile) {
+        List<Entry> entries = new ArrayList<>();
+        for (ActiveRule activeRule : profile.getActiveRules()) {
+            List<ActiveRuleParam> activeParams = activeRule.getActiveRuleParams();
+            String[] params = new String[activeParams.size() * 2];
+            for (int i = 0; i < activeParams.size(); i++) {
+                params[i * 2] = activeParams.get(i).getKey();
+                params[i * 2 + 1] = activeParams.get(i).getValue();
+            }
+            String severity = null == activeRule.getSeverity() ? null : activeRule.getSeverity().name();
+            entries.add(new Entry(activeRule.getRepositoryKey(), activeRule.getRuleKey(), severity, params));
+        }
+        return Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * Write the entries, the repository key is only written when it differ from the previous entry.
+     */
+    static void write(@Nonnull List<Entry> entries, @Nonnull OutputStream stream) throws IOException {
+        DataOutputStream output = new DataOutputStream(stream);
+        output.writeInt(MAGIC);
+        output.writeInt(FORMAT_VERSION);
+        output.writeInt(entries.size());
+
+        String repositoryKey = null;
+        for (Entry entry : entries) {
+            boolean sameRepository = entry.repositoryKey.equals(repositoryKey);
+            output.writeBoolean(sameRepository);
+            if (!sameRepository) {
+                output.writeUTF(entry.repositoryKey);
+                repositoryKey = entry.repositoryKey;
+            }
+            output.writeUTF(entry.key);
+            output.writeUTF(null == entry.severity ? "" : entry.severity);
+            output.writeShort(entry.params.length / 2);
+            for (String value : entry.params) {
+                output.writeUTF(null == value ? "" : value);
+            }
+        }
+        output.flush();
+    }
+
+    @Nonnull
+    static List<Entry> read(@Nonnull InputStream stream) throws IOException {
+        DataInputStream input = new DataInputStream(stream);
+        if (input.readInt() != MAGIC || input.readInt() != FORMAT_VERSION) {
+            throw new IOException("Unsupported profile index format");
+        }
+
+        int numberOfEntries = input.readInt();
+        List<Entry> entries = new ArrayList<>(numberOfEntries);
+        String repositoryKey = null;
+        for (int i = 0; i < numberOfEntries; i++) {
+            if (!input.readBoolean()) {
+                repositoryKey = input.readUTF();
+            }
+            if (null == repositoryKey) {
+                throw new IOException("Missing repository key for profile index entry " + i);
+            }
+            String key = input.readUTF();
+            String severity = input.readUTF();
+            if (severity.isEmpty()) {
+                severity = null;
+            }
+            checkSeverity(severity);
+            String[] params = new String[input.readShort() * 2];
+            for (int j = 0; j < params.length; j++) {
+                params[j] = input.readUTF();
+            }
+            entries.add(new Entry(repositoryKey, key, severity, params));
+        }
+        return Collections.unmodifiableList(entries);
+    }
+
+    private static void checkSeverity(@Nullable String severity) throws IOException {
+        if (null != severity && !Severity.ALL.contains(severity)) {
+            throw new IOException("Unknown severity: " + severity);
+        }
+    }
+
+    static final class Entry {
+        private final String repositoryKey;
+        private final String key;
+        private final String severity;
+        private final String[] params;
+
+        private Entry(@Nonnull String repositoryKey, @Nonnull String key, @Nullable String severity, @Nonnull String[] params) {
+            this.repositoryKey = repositoryKey;
+            this.key = key;
+            this.severity = severity;
+            this.params = params;
+        }
+
+        /**
+         * Activate the rule in the profile, a new rule is created for each profile since they are mutable.
+         */
+        @SuppressWarnings("deprecation")
+        void activate(@Nonnull RulesProfile profile) {
+            Rule rule = Rule.create(repositoryKey, key);
+            for (int i = 0; i < params.length; i += 2) {
+                rule.createParameter(params[i]);
+            }
+
+            // The active rules of a profile can only be given a severity as a rule priority.
+            ActiveRule activeRule = profile.activateRule(
+                    rule,
+                    null == severity ? null : org.sonar.api.rules.RulePriority.valueOf(severity)
+            );
+            for (int i = 0; i < params.length; i += 2) {
+                activeRule.setParameter(params[i], params[i + 1]);
+            }
+        }
+    }
+}
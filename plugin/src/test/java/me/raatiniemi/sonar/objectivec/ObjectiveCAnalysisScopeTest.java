@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class ObjectiveCAnalysisScopeTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File write(String path, String contents) throws IOException {
+        File file = new File(temporaryFolder.getRoot(), path);
+        Files.createDirectories(file.getParentFile().toPath());
+        Files.write(file.toPath(), contents.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    @Test
+    public void readIncludes() throws IOException {
+        File file = write("App/Sample.m", "#import \"Sample.h\"\n"
+                + "  #  include <Foundation/Foundation.h>\r\n"
+                + "#include_next \"Next.h\"\n"
+                + "#define IMPORT \"Other.h\"\n"
+                + "// #import \"Commented.h\"\n"
+                + "[self import]; #import \"Statement.h\"\n"
+                + "#import \"Unterminated.h\n"
+                + "#import");
+
+        String[] includes = ObjectiveCAnalysisScope.readIncludes(file, StandardCharsets.UTF_8);
+
+        assertArrayEquals(new String[]{"Sample.h", "Foundation/Foundation.h", "Next.h"}, includes);
+    }
+
+    @Test
+    public void readIncludes_withMissingFile() {
+        File file = new File(temporaryFolder.getRoot(), "Missing.m");
+
+        assertEquals(0, ObjectiveCAnalysisScope.readIncludes(file, StandardCharsets.UTF_8).length);
+    }
+
+    @Test
+    public void create() throws IOException {
+        List<File> files = new ArrayList<>();
+        File delegate = write("App/AppDelegate.m", "#import \"AppDelegate.h\"\n#import \"Model/Profile.h\"\n");
+        files.add(delegate);
+        File delegateHeader = write("App/AppDelegate.h", "#import <UIKit/UIKit.h>\n");
+        files.add(delegateHeader);
+        File profileHeader = write("App/Model/Profile.h", "#import \"Purchase.h\"\n");
+        files.add(profileHeader);
+        File purchaseHeader = write("App/Model/Purchase.h", "");
+        files.add(purchaseHeader);
+        File unused = write("App/Unused.m", "#import \"AppDelegate.h\"\n");
+        files.add(unused);
+        File sample = write("Samples/Sample.m", "");
+        files.add(sample);
+        File database = write("compile_commands.json", "[\n"
+                + "  {\"directory\": \"App\", \"command\": \"clang -c AppDelegate.m\", \"file\": \"AppDelegate.m\"},\n"
+                + "  {\"file\": \"" + write("Outside.m", "").getAbsolutePath().replace("\\", "\\\\") + "\", \"directory\": \"/\"}\n"
+                + "]\n");
+
+        ObjectiveCAnalysisScope scope = ObjectiveCAnalysisScope.create(
+                database.toPath(), temporaryFolder.getRoot().toPath(), files, StandardCharsets.UTF_8);
+
+        assertEquals(1, scope.getTranslationUnits());
+        assertEquals(4, scope.size());
+        assertTrue(scope.contains(delegate));
+        assertTrue(scope.contains(delegateHeader));
+        assertTrue(scope.contains(profileHeader));
+        assertTrue(scope.contains(purchaseHeader));
+        assertFalse(scope.contains(unused));
+        assertFalse(scope.contains(sample));
+    }
+}
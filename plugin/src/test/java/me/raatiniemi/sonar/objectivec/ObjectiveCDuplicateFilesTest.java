@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec;
+
+import me.raatiniemi.sonar.objectivec.language.api.ObjectiveCDataMetric;
+import me.raatiniemi.sonar.objectivec.language.api.ObjectiveCMetric;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.sonar.squidbridge.api.SourceFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class ObjectiveCDuplicateFilesTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File write(String name, String contents) throws IOException {
+        File file = temporaryFolder.newFile(name);
+        Files.write(file.toPath(), contents.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    @Test
+    public void find() throws IOException {
+        File original = write("A.h", "@interface A : NSObject\n@end\n");
+        File sameSize = write("B.h", "@interface B : NSObject\n@end\n");
+        File copy = write("C.h", "@interface A : NSObject\n@end\n");
+        File other = write("D.h", "@end\n");
+
+        ObjectiveCDuplicateFiles duplicateFiles = ObjectiveCDuplicateFiles.find(Arrays.asList(original, sameSize, copy, other));
+
+        assertEquals(Arrays.asList(original, sameSize, other), duplicateFiles.getDistinctFiles());
+        assertEquals(Collections.singletonList(copy), duplicateFiles.getCopies(original.getAbsolutePath()));
+        assertTrue(duplicateFiles.getCopies(sameSize.getAbsolutePath()).isEmpty());
+        assertEquals(1, duplicateFiles.getNumberOfCopies());
+        assertEquals(copy.length(), duplicateFiles.getBytesOfCopies());
+    }
+
+    @Test
+    public void none() throws IOException {
+        File original = write("A.h", "@end\n");
+        File copy = write("B.h", "@end\n");
+
+        ObjectiveCDuplicateFiles duplicateFiles = ObjectiveCDuplicateFiles.none(Arrays.asList(original, copy));
+
+        assertEquals(Arrays.asList(original, copy), duplicateFiles.getDistinctFiles());
+        assertEquals(0, duplicateFiles.getNumberOfCopies());
+    }
+
+    @Test
+    public void copy() throws IOException {
+        File original = write("A.h", "@end\n");
+        File copy = write("B.h", "@end\n");
+        SourceFile sourceFile = new SourceFile(original.getAbsolutePath(), original.getName());
+        sourceFile.setMeasure(ObjectiveCMetric.LINES_OF_CODE, 10);
+        sourceFile.setMeasure(ObjectiveCMetric.COMMENT_LINES, 2);
+        sourceFile.addNoSonarTagLine(3);
+        Object highlighting = new Object();
+        sourceFile.addData(ObjectiveCDataMetric.HIGHLIGHTING, highlighting);
+
+        SourceFile actual = ObjectiveCDuplicateFiles.copy(sourceFile, copy);
+
+        assertEquals(copy.getAbsolutePath(), actual.getKey());
+        assertEquals(10, actual.getInt(ObjectiveCMetric.LINES_OF_CODE));
+        assertEquals(2, actual.getInt(ObjectiveCMetric.COMMENT_LINES));
+        assertEquals(Collections.singleton(3), actual.getNoSonarTagLines());
+        assertSame(highlighting, actual.getData(ObjectiveCDataMetric.HIGHLIGHTING));
+    }
+}
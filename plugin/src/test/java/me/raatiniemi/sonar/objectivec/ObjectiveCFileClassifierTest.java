@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec;
+
+import me.raatiniemi.sonar.objectivec.ObjectiveCFileClassifier.Kind;
+import me.raatiniemi.sonar.objectivec.ObjectiveCFileClassifier.Policy;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.sonar.api.config.internal.MapSettings;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(JUnit4.class)
+public class ObjectiveCFileClassifierTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private MapSettings settings;
+
+    @Before
+    public void setUp() {
+        settings = new MapSettings();
+    }
+
+    private File write(String contents) throws IOException {
+        File file = temporaryFolder.newFile();
+        Files.write(file.toPath(), contents.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private Kind classify(File file, String relativePath) {
+        return ObjectiveCFileClassifier.create(settings.asConfig()).classify(file, relativePath);
+    }
+
+    @Test
+    public void classify_withSource() throws IOException {
+        File file = write("// Copyright (c) 2018\n@interface Profile : NSObject\n@end\n");
+
+        assertEquals(Kind.SOURCE, classify(file, "Sources/Profile.h"));
+    }
+
+    @Test
+    public void classify_withVendoredDirectory() throws IOException {
+        File file = write("@end");
+
+        assertEquals(Kind.VENDORED, classify(file, "Pods/AFNetworking/AFNetworking.h"));
+        assertEquals(Kind.VENDORED, classify(file, "App\\carthage\\Checkouts\\Foo.m"));
+        assertEquals(Kind.SOURCE, classify(file, "Sources/PodsViewController.m"));
+        assertEquals(Kind.SOURCE, classify(file, "Pods.m"));
+    }
+
+    @Test
+    public void classify_withConfiguredVendoredDirectory() throws IOException {
+        settings.setProperty(ObjectiveCPlugin.SQUID_VENDORED_DIRECTORIES_KEY, "External");
+        File file = write("@end");
+
+        assertEquals(Kind.VENDORED, classify(file, "External/Foo.m"));
+        assertEquals(Kind.SOURCE, classify(file, "Pods/Foo.m"));
+    }
+
+    @Test
+    public void classify_withGeneratedSuffix() throws IOException {
+        File file = write("@end");
+
+        assertEquals(Kind.GENERATED, classify(file, "Proto/Message.pbobjc.m"));
+        assertEquals(Kind.GENERATED, classify(file, "Proto/Message.pbobjc.h"));
+    }
+
+    @Test
+    public void classify_withGeneratedMarker() throws IOException {
+        assertEquals(Kind.GENERATED, classify(write("// Generated by SwiftGen\n@end\n"), "R.m"));
+        assertEquals(Kind.GENERATED, classify(write("/* DO NOT EDIT! */\n@end\n"), "R.m"));
+        assertEquals(Kind.GENERATED, classify(write("// @generated\n@end\n"), "R.m"));
+        assertEquals(Kind.GENERATED, classify(write("//\n// Profile.m\n//\n\n/*\n * Generated by protoc\n */\n@end\n"), "R.m"));
+    }
+
+    @Test
+    public void classify_withGeneratedMarkerAfterLeadingComments() throws IOException {
+        assertEquals(Kind.SOURCE, classify(write("// Profile.m\n@end\n// Token generated by the server\n"), "R.m"));
+        assertEquals(Kind.SOURCE, classify(write("NSString *text = @\"Do not edit\";\n"), "R.m"));
+        assertEquals(Kind.SOURCE, classify(write("/* Profile.m */ int a; /* do not edit */\n"), "R.m"));
+    }
+
+    @Test
+    public void classify_withGeneratedMarkerAfterHeader() throws IOException {
+        StringBuilder builder = new StringBuilder();
+        while (builder.length() < ObjectiveCFileClassifier.HEADER_SIZE) {
+            builder.append("@dynamic property;\n");
+        }
+        builder.append("// Generated by SwiftGen\n");
+
+        assertEquals(Kind.SOURCE, classify(write(builder.toString()), "R.m"));
+    }
+
+    @Test
+    public void classify_withFileSize() throws IOException {
+        settings.setProperty(ObjectiveCPlugin.SQUID_GENERATED_FILE_SIZE_KEY, 10);
+
+        assertEquals(Kind.GENERATED, classify(write("@interface Profile : NSObject\n@end\n"), "Profile.h"));
+        assertEquals(Kind.SOURCE, classify(write("@end"), "Profile.h"));
+    }
+
+    @Test
+    public void policy() {
+        settings.setProperty(ObjectiveCPlugin.SQUID_GENERATED_FILES_KEY, "Lines");
+        settings.setProperty(ObjectiveCPlugin.SQUID_VENDORED_FILES_KEY, "unknown");
+
+        assertEquals(Policy.LINES, Policy.from(settings.asConfig(), ObjectiveCPlugin.SQUID_GENERATED_FILES_KEY, Policy.SCAN));
+        assertEquals(Policy.SCAN, Policy.from(settings.asConfig(), ObjectiveCPlugin.SQUID_VENDORED_FILES_KEY, Policy.SCAN));
+        assertEquals(Policy.SKIP, Policy.from(settings.asConfig(), "sonar.objectivec.missing", Policy.SKIP));
+    }
+}
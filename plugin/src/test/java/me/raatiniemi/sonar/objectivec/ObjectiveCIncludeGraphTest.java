@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class ObjectiveCIncludeGraphTest {
+    private static ObjectiveCIncludeGraph build() {
+        Map<String, String[]> includes = new HashMap<>();
+        includes.put("App/AppDelegate.m", new String[]{"AppDelegate.h", "Model/Profile.h", "UIKit/UIKit.h"});
+        includes.put("App/AppDelegate.h", new String[]{"UIKit/UIKit.h"});
+        includes.put("App/Model/Profile.h", new String[]{"Purchase.h", "Purchase.h"});
+        includes.put("App/Model/Profile.m", new String[]{"Profile.h", "./Profile.h"});
+        includes.put("App/Model/Purchase.h", new String[0]);
+        includes.put("Pods/Networking/Purchase.h", new String[0]);
+        return ObjectiveCIncludeGraph.build(includes);
+    }
+
+    private static int indexOf(ObjectiveCIncludeGraph graph, String path) {
+        for (int i = 0; i < graph.size(); i++) {
+            if (graph.getPath(i).equals(path)) {
+                return i;
+            }
+        }
+        throw new AssertionError("Missing path: " + path);
+    }
+
+    private static int fanIn(ObjectiveCIncludeGraph graph, String path) {
+        return graph.getFanIn(indexOf(graph, path));
+    }
+
+    private static int fanOut(ObjectiveCIncludeGraph graph, String path) {
+        return graph.getFanOut(indexOf(graph, path));
+    }
+
+    @Test
+    public void build_withFanInAndFanOut() {
+        ObjectiveCIncludeGraph graph = build();
+
+        assertEquals(6, graph.size());
+        assertEquals(2, fanOut(graph, "App/AppDelegate.m"));
+        assertEquals(1, fanIn(graph, "App/AppDelegate.h"));
+        assertEquals(2, fanIn(graph, "App/Model/Profile.h"));
+        assertEquals(1, fanOut(graph, "App/Model/Profile.m"));
+        assertEquals(1, fanIn(graph, "App/Model/Purchase.h"));
+        assertEquals(0, fanIn(graph, "Pods/Networking/Purchase.h"));
+    }
+
+    @Test
+    public void build_withParentDirectory() {
+        Map<String, String[]> includes = new HashMap<>();
+        includes.put("App/Views/Foo.m", new String[]{"../Models/Bar.h", "./../Views/../Models/Baz.h"});
+        includes.put("App/Models/Bar.h", new String[0]);
+        includes.put("Other/Models/Baz.h", new String[0]);
+
+        ObjectiveCIncludeGraph graph = ObjectiveCIncludeGraph.build(includes);
+
+        assertEquals(2, fanOut(graph, "App/Views/Foo.m"));
+        assertEquals(1, fanIn(graph, "App/Models/Bar.h"));
+        assertEquals(1, fanIn(graph, "Other/Models/Baz.h"));
+    }
+
+    @Test
+    public void normalize() {
+        assertEquals("App/Models/Bar.h", ObjectiveCIncludeGraph.normalize("App/Views/../Models/./Bar.h"));
+        assertEquals("/Models/Bar.h", ObjectiveCIncludeGraph.normalize("/App/../../Models/Bar.h"));
+        assertEquals("../Models/Bar.h", ObjectiveCIncludeGraph.normalize("App/../../Models/Bar.h"));
+    }
+
+    @Test
+    public void getReachable() {
+        String[] paths = {"App/AppDelegate.h", "App/AppDelegate.m", "App/Model/Profile.h", "App/Model/Profile.m", "App/Model/Purchase.h", "App/Unused.h"};
+        Map<String, String[]> includes = new HashMap<>();
+        includes.put("App/AppDelegate.m", new String[]{"AppDelegate.h", "Model/Profile.h", "UIKit/UIKit.h"});
+        includes.put("App/Model/Profile.h", new String[]{"Purchase.h"});
+        BitSet roots = new BitSet();
+        roots.set(1);
+        List<String> requested = new ArrayList<>();
+
+        BitSet reachable = ObjectiveCIncludeGraph.getReachable(paths, roots, index -> {
+            requested.add(paths[index]);
+            return includes.getOrDefault(paths[index], new String[0]);
+        });
+
+        assertEquals(4, reachable.cardinality());
+        assertFalse(reachable.get(3));
+        assertFalse(reachable.get(5));
+        assertEquals(Arrays.asList("App/AppDelegate.m", "App/AppDelegate.h", "App/Model/Profile.h", "App/Model/Purchase.h"), requested);
+    }
+}
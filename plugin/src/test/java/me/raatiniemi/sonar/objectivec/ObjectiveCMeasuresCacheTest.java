@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec;
+
+import me.raatiniemi.sonar.objectivec.language.api.ObjectiveCMetric;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.sonar.squidbridge.api.SourceFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+@RunWith(JUnit4.class)
+public class ObjectiveCMeasuresCacheTest {
+    private static final String KEY = "1.0;charset=UTF-8";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Path baseDir;
+    private Path cacheDir;
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        baseDir = temporaryFolder.newFolder("project").toPath();
+        cacheDir = temporaryFolder.newFolder("cache").toPath();
+        file = baseDir.resolve("Sample.m").toFile();
+        write(file, "[self init];");
+    }
+
+    private static void write(File file, String contents) throws IOException {
+        Files.write(file.toPath(), contents.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void populateCache(String key) {
+        ObjectiveCMeasuresCache cache = ObjectiveCMeasuresCache.load(cacheDir, baseDir, key);
+        assertNull(cache.get(file));
+
+        SourceFile sourceFile = new SourceFile(file.getAbsolutePath(), file.getName());
+        sourceFile.setMeasure(ObjectiveCMetric.LINES_OF_CODE, 10);
+        sourceFile.setMeasure(ObjectiveCMetric.COMMENT_LINES, 2);
+        cache.put(sourceFile);
+        cache.save();
+    }
+
+    @Test
+    public void get_withUnchangedFile() {
+        populateCache(KEY);
+        ObjectiveCMeasuresCache cache = ObjectiveCMeasuresCache.load(cacheDir, baseDir, KEY);
+
+        SourceFile actual = cache.get(file);
+
+        assertNotNull(actual);
+        assertEquals(file.getAbsolutePath(), actual.getKey());
+        assertEquals(10, actual.getInt(ObjectiveCMetric.LINES_OF_CODE));
+        assertEquals(2, actual.getInt(ObjectiveCMetric.COMMENT_LINES));
+        assertEquals(0, actual.getInt(ObjectiveCMetric.STATEMENTS));
+    }
+
+    @Test
+    public void get_withChangedFile() throws IOException {
+        populateCache(KEY);
+        write(file, "[self dealloc];");
+        ObjectiveCMeasuresCache cache = ObjectiveCMeasuresCache.load(cacheDir, baseDir, KEY);
+
+        assertNull(cache.get(file));
+    }
+
+    @Test
+    public void get_withDifferentKey() {
+        populateCache(KEY);
+        ObjectiveCMeasuresCache cache = ObjectiveCMeasuresCache.load(cacheDir, baseDir, "2.0;charset=UTF-8");
+
+        assertNull(cache.get(file));
+    }
+
+    @Test
+    public void get_withCorruptedCache() throws IOException {
+        populateCache(KEY);
+        File cacheFile = cacheDir.resolve(ObjectiveCMeasuresCache.FILE_NAME).toFile();
+        byte[] bytes = Files.readAllBytes(cacheFile.toPath());
+        Files.write(cacheFile.toPath(), Arrays.copyOf(bytes, bytes.length - 3));
+        ObjectiveCMeasuresCache cache = ObjectiveCMeasuresCache.load(cacheDir, baseDir, KEY);
+
+        assertNull(cache.get(file));
+    }
+
+    @Test
+    public void get_withInvalidChecksum() throws IOException {
+        populateCache(KEY);
+        Path cacheFile = cacheDir.resolve(ObjectiveCMeasuresCache.FILE_NAME);
+        byte[] bytes = Files.readAllBytes(cacheFile);
+        bytes[bytes.length - 9] ^= 1;
+        Files.write(cacheFile, bytes);
+        ObjectiveCMeasuresCache cache = ObjectiveCMeasuresCache.load(cacheDir, baseDir, KEY);
+
+        assertNull(cache.get(file));
+    }
+
+    @Test
+    public void get_withInvalidNumberOfEntries() throws IOException {
+        populateCache(KEY);
+        Path cacheFile = cacheDir.resolve(ObjectiveCMeasuresCache.FILE_NAME);
+        byte[] bytes = Files.readAllBytes(cacheFile);
+        // The number of entries follows the magic, the format version, and the key.
+        ByteBuffer.wrap(bytes).putInt(4 + 4 + 2 + KEY.length(), Integer.MAX_VALUE);
+        Files.write(cacheFile, bytes);
+        ObjectiveCMeasuresCache cache = ObjectiveCMeasuresCache.load(cacheDir, baseDir, KEY);
+
+        assertNull(cache.get(file));
+    }
+
+    @Test
+    public void save_withFailedMove() throws IOException {
+        Path cacheFile = cacheDir.resolve(ObjectiveCMeasuresCache.FILE_NAME);
+        Files.createDirectories(cacheFile.resolve("directory"));
+
+        populateCache(KEY);
+
+        try (Stream<Path> files = Files.list(cacheDir)) {
+            assertFalse(files.anyMatch(path -> path.getFileName().toString().endsWith(".tmp")));
+        }
+    }
+
+    @Test
+    public void save_withoutUsedEntries() {
+        populateCache(KEY);
+        ObjectiveCMeasuresCache cache = ObjectiveCMeasuresCache.load(cacheDir, baseDir, KEY);
+        cache.save();
+        cache = ObjectiveCMeasuresCache.load(cacheDir, baseDir, KEY);
+
+        assertNull(cache.get(file));
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec;
+
+import me.raatiniemi.sonar.cobertura.CoberturaSensor;
+import me.raatiniemi.sonar.oclint.OCLintSensor;
+import me.raatiniemi.sonar.objectivec.reports.ObjectiveCCoberturaSensor;
+import me.raatiniemi.sonar.objectivec.reports.ObjectiveCLizardSensor;
+import me.raatiniemi.sonar.objectivec.reports.ObjectiveCLlvmCovSensor;
+import me.raatiniemi.sonar.objectivec.reports.ObjectiveCOCLintSensor;
+import me.raatiniemi.sonar.objectivec.reports.ObjectiveCReports;
+import me.raatiniemi.sonar.surefire.SurefireSensor;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.sonar.api.Plugin;
+import org.sonar.api.SonarQubeSide;
+import org.sonar.api.config.internal.MapSettings;
+import org.sonar.api.internal.PluginContextImpl;
+import org.sonar.api.internal.SonarRuntimeImpl;
+import org.sonar.api.utils.Version;
+
+import java.util.List;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class ObjectiveCPluginTest {
+    private static List<?> define(SonarQubeSide side, MapSettings settings) {
+        Plugin.Context context = new PluginContextImpl.Builder()
+                .setSonarRuntime(SonarRuntimeImpl.forSonarQube(Version.create(7, 1), side))
+                .setBootConfiguration(settings.asConfig())
+                .build();
+
+        new ObjectiveCPlugin().define(context);
+        return context.getExtensions();
+    }
+
+    @Test
+    public void define_withServer() {
+        List<?> extensions = define(SonarQubeSide.SERVER, new MapSettings());
+
+        assertTrue(extensions.contains(SurefireSensor.class));
+        assertTrue(extensions.contains(CoberturaSensor.class));
+        assertFalse(extensions.contains(ObjectiveCCoberturaSensor.class));
+        assertTrue(extensions.contains(ObjectiveCLlvmCovSensor.class));
+        assertTrue(extensions.contains(OCLintSensor.class));
+        assertFalse(extensions.contains(ObjectiveCOCLintSensor.class));
+        assertTrue(extensions.contains(ObjectiveCLizardSensor.class));
+        assertTrue(extensions.contains(ObjectiveCReports.class));
+    }
+
+    @Test
+    public void define_withScanner() {
+        List<?> extensions = define(SonarQubeSide.SCANNER, new MapSettings());
+
+        assertTrue(extensions.contains(SurefireSensor.class));
+        assertTrue(extensions.contains(CoberturaSensor.class));
+        assertFalse(extensions.contains(ObjectiveCCoberturaSensor.class));
+        assertTrue(extensions.contains(ObjectiveCLlvmCovSensor.class));
+        assertTrue(extensions.contains(OCLintSensor.class));
+        assertFalse(extensions.contains(ObjectiveCOCLintSensor.class));
+        assertTrue(extensions.contains(ObjectiveCLizardSensor.class));
+        assertTrue(extensions.contains(ObjectiveCReports.class));
+    }
+
+    @Test
+    public void define_withCoberturaStreaming() {
+        MapSettings settings = new MapSettings();
+        settings.setProperty(ObjectiveCPlugin.COBERTURA_STREAMING_KEY, true);
+
+        List<?> extensions = define(SonarQubeSide.SCANNER, settings);
+
+        assertTrue(extensions.contains(ObjectiveCCoberturaSensor.class));
+        assertFalse(extensions.contains(CoberturaSensor.class));
+    }
+
+    @Test
+    public void define_withOCLintStreaming() {
+        MapSettings settings = new MapSettings();
+        settings.setProperty(ObjectiveCPlugin.OCLINT_STREAMING_KEY, true);
+
+        List<?> extensions = define(SonarQubeSide.SCANNER, settings);
+
+        assertTrue(extensions.contains(ObjectiveCOCLintSensor.class));
+        assertFalse(extensions.contains(OCLintSensor.class));
+    }
+
+    @Test
+    public void define_withoutComplexity() {
+        MapSettings settings = new MapSettings();
+        settings.setProperty(ObjectiveCPlugin.SQUID_COMPLEXITY_KEY, false);
+
+        List<?> extensions = define(SonarQubeSide.SCANNER, settings);
+
+        assertTrue(extensions.contains(ObjectiveCSquidSensor.class));
+        assertTrue(extensions.contains(ObjectiveCLizardSensor.class));
+    }
+
+    @Test
+    public void isComplexityEnabled() {
+        MapSettings settings = new MapSettings();
+
+        assertTrue(ObjectiveCPlugin.isComplexityEnabled(settings.asConfig()));
+    }
+
+    @Test
+    public void isComplexityEnabled_withoutComplexity() {
+        MapSettings settings = new MapSettings();
+        settings.setProperty(ObjectiveCPlugin.SQUID_COMPLEXITY_KEY, false);
+
+        assertFalse(ObjectiveCPlugin.isComplexityEnabled(settings.asConfig()));
+    }
+}
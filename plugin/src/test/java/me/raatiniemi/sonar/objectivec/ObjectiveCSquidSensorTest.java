@@ -23,11 +23,24 @@ import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.DefaultInputFile;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+import org.sonar.api.batch.sensor.highlighting.TypeOfText;
 import org.sonar.api.batch.sensor.internal.DefaultSensorDescriptor;
 import org.sonar.api.batch.sensor.internal.SensorContextTester;
-import org.sonar.api.scan.filesystem.PathResolver;
+import org.sonar.api.measures.CoreMetrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 @RunWith(JUnit4.class)
@@ -35,12 +48,38 @@ public class ObjectiveCSquidSensorTest {
     @Rule
     public TemporaryFolder temporaryFolder = new TemporaryFolder();
 
+    private SensorContextTester context;
     private ObjectiveCSquidSensor sensor;
 
     @Before
     public void setUp() {
-        SensorContextTester context = SensorContextTester.create(temporaryFolder.getRoot());
-        sensor = new ObjectiveCSquidSensor(context.fileSystem(), new PathResolver());
+        context = SensorContextTester.create(temporaryFolder.getRoot());
+        context.fileSystem().setWorkDir(temporaryFolder.getRoot().toPath().resolve(".sonar"));
+        context.fileSystem().setEncoding(StandardCharsets.UTF_8);
+        sensor = new ObjectiveCSquidSensor(context.fileSystem());
+    }
+
+    private DefaultInputFile createInputFile(String resource) throws IOException {
+        return createInputFile(resource, resource);
+    }
+
+    private DefaultInputFile createInputFile(String resource, String path) throws IOException {
+        File file = temporaryFolder.newFile(path);
+        Files.copy(new File("src/test/resources", resource).toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+        String contents = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        DefaultInputFile inputFile = TestInputFileBuilder.create("", temporaryFolder.getRoot(), file)
+                .setLanguage(ObjectiveC.KEY)
+                .setType(InputFile.Type.MAIN)
+                .setCharset(StandardCharsets.UTF_8)
+                .initMetadata(contents)
+                .build();
+        context.fileSystem().add(inputFile);
+        return inputFile;
+    }
+
+    private int getMeasure(InputFile inputFile, String metricKey) {
+        return context.<Integer>measure(inputFile.key(), metricKey).value();
     }
 
     @Test
@@ -52,4 +91,284 @@ public class ObjectiveCSquidSensorTest {
         assertEquals("ObjectiveCSquidSensor", descriptor.name());
         assertTrue(descriptor.languages().contains(ObjectiveC.KEY));
     }
+
+    @Test
+    public void execute() throws IOException {
+        DefaultInputFile inputFile = createInputFile("objcSample.h");
+
+        sensor.execute(context);
+
+        assertEquals(5, getMeasure(inputFile, CoreMetrics.NCLOC_KEY));
+        assertEquals(4, getMeasure(inputFile, CoreMetrics.COMMENT_LINES_KEY));
+        assertEquals(0, getMeasure(inputFile, CoreMetrics.FUNCTIONS_KEY));
+        assertEquals(0, getMeasure(inputFile, CoreMetrics.COMPLEXITY_KEY));
+        assertFalse(context.cpdTokens(inputFile.key()).isEmpty());
+    }
+
+    @Test
+    public void execute_withoutComplexity() throws IOException {
+        context.settings().setProperty(ObjectiveCPlugin.SQUID_COMPLEXITY_KEY, false);
+        DefaultInputFile inputFile = createInputFile("objcSample.h");
+
+        sensor.execute(context);
+
+        assertNull(context.measure(inputFile.key(), CoreMetrics.FUNCTIONS_KEY));
+        assertNull(context.measure(inputFile.key(), CoreMetrics.COMPLEXITY_KEY));
+    }
+
+    @Test
+    public void execute_withoutCpdTokens() throws IOException {
+        context.settings().setProperty(ObjectiveCPlugin.SQUID_CPD_KEY, false);
+        DefaultInputFile inputFile = createInputFile("objcSample.h");
+
+        sensor.execute(context);
+
+        assertNull(context.cpdTokens(inputFile.key()));
+    }
+
+    @Test
+    public void execute_withHighlighting() throws IOException {
+        DefaultInputFile inputFile = createInputFile("objcSample.h");
+
+        sensor.execute(context);
+
+        assertEquals(Collections.singletonList(TypeOfText.COMMENT), context.highlightingTypeAt(inputFile.key(), 5, 20));
+        assertEquals(Collections.singletonList(TypeOfText.PREPROCESS_DIRECTIVE), context.highlightingTypeAt(inputFile.key(), 9, 3));
+        assertEquals(Collections.singletonList(TypeOfText.KEYWORD), context.highlightingTypeAt(inputFile.key(), 11, 0));
+        assertTrue(context.highlightingTypeAt(inputFile.key(), 11, 8).isEmpty());
+    }
+
+    @Test
+    public void execute_withoutHighlighting() throws IOException {
+        context.settings().setProperty(ObjectiveCPlugin.SQUID_HIGHLIGHTING_KEY, false);
+        DefaultInputFile inputFile = createInputFile("objcSample.h");
+
+        sensor.execute(context);
+
+        assertTrue(context.highlightingTypeAt(inputFile.key(), 5, 20).isEmpty());
+    }
+
+    @Test
+    public void execute_withSkippedVendoredFiles() throws IOException {
+        context.settings().setProperty(ObjectiveCPlugin.SQUID_VENDORED_FILES_KEY, "skip");
+        context.settings().setProperty(ObjectiveCPlugin.SQUID_VENDORED_DIRECTORIES_KEY, "Vendor");
+        temporaryFolder.newFolder("Vendor");
+        DefaultInputFile header = createInputFile("objcSample.h");
+        DefaultInputFile implementation = createInputFile("Profile.m", "Vendor/Profile.m");
+
+        sensor.execute(context);
+
+        assertEquals(5, getMeasure(header, CoreMetrics.NCLOC_KEY));
+        assertNull(context.measure(implementation.key(), CoreMetrics.NCLOC_KEY));
+    }
+
+    @Test
+    public void execute_withLinesOfGeneratedFiles() throws IOException {
+        context.settings().setProperty(ObjectiveCPlugin.SQUID_GENERATED_FILES_KEY, "lines");
+        context.settings().setProperty(ObjectiveCPlugin.SQUID_GENERATED_SUFFIXES_KEY, ".m");
+        DefaultInputFile header = createInputFile("objcSample.h");
+        DefaultInputFile implementation = createInputFile("Profile.m");
+
+        sensor.execute(context);
+
+        assertEquals(0, getMeasure(header, CoreMetrics.FUNCTIONS_KEY));
+        assertEquals(27, getMeasure(implementation, CoreMetrics.NCLOC_KEY));
+        assertEquals(4, getMeasure(implementation, CoreMetrics.COMMENT_LINES_KEY));
+        assertNull(context.measure(implementation.key(), CoreMetrics.FUNCTIONS_KEY));
+        assertNull(context.cpdTokens(implementation.key()));
+    }
+
+    @Test
+    public void execute_withApproximateFiles() throws IOException {
+        context.settings().setProperty(ObjectiveCPlugin.SQUID_MAX_FILE_SIZE_KEY, 500);
+        DefaultInputFile header = createInputFile("objcSample.h");
+        DefaultInputFile implementation = createInputFile("Profile.m");
+
+        sensor.execute(context);
+
+        assertEquals(0, getMeasure(header, CoreMetrics.FUNCTIONS_KEY));
+        assertNull(context.measure(header.key(), ObjectiveCMetrics.APPROXIMATE_MEASURES.key()));
+        assertEquals(27, getMeasure(implementation, CoreMetrics.NCLOC_KEY));
+        assertEquals(4, getMeasure(implementation, CoreMetrics.COMMENT_LINES_KEY));
+        assertEquals(true, context.<Boolean>measure(implementation.key(), ObjectiveCMetrics.APPROXIMATE_MEASURES.key()).value());
+        assertNull(context.measure(implementation.key(), CoreMetrics.FUNCTIONS_KEY));
+        assertNull(context.cpdTokens(implementation.key()));
+    }
+
+    @Test
+    public void execute_withMemoryBudget() throws IOException {
+        context.settings().setProperty(ObjectiveCPlugin.SQUID_MEMORY_BUDGET_KEY, 500);
+        context.settings().setProperty(ObjectiveCPlugin.SQUID_THREADS_KEY, 2);
+        DefaultInputFile header = createInputFile("objcSample.h");
+        DefaultInputFile implementation = createInputFile("Profile.m");
+
+        sensor.execute(context);
+
+        assertEquals(5, getMeasure(header, CoreMetrics.NCLOC_KEY));
+        assertEquals(4, getMeasure(header, CoreMetrics.COMMENT_LINES_KEY));
+        assertEquals(27, getMeasure(implementation, CoreMetrics.NCLOC_KEY));
+        assertEquals(4, getMeasure(implementation, CoreMetrics.COMMENT_LINES_KEY));
+    }
+
+    @Test
+    public void execute_withThreads() throws IOException {
+        context.settings().setProperty(ObjectiveCPlugin.SQUID_THREADS_KEY, 2);
+        DefaultInputFile header = createInputFile("objcSample.h");
+        DefaultInputFile implementation = createInputFile("Profile.m");
+
+        sensor.execute(context);
+
+        assertEquals(5, getMeasure(header, CoreMetrics.NCLOC_KEY));
+        assertEquals(4, getMeasure(header, CoreMetrics.COMMENT_LINES_KEY));
+        assertEquals(27, getMeasure(implementation, CoreMetrics.NCLOC_KEY));
+        assertEquals(4, getMeasure(implementation, CoreMetrics.COMMENT_LINES_KEY));
+    }
+
+    @Test
+    public void execute_withStreaming() throws IOException {
+        context.settings().setProperty(ObjectiveCPlugin.SQUID_STREAMING_KEY, true);
+        context.settings().setProperty(ObjectiveCPlugin.SQUID_THREADS_KEY, 2);
+        DefaultInputFile header = createInputFile("objcSample.h");
+        DefaultInputFile implementation = createInputFile("Profile.m");
+
+        sensor.execute(context);
+
+        assertEquals(5, getMeasure(header, CoreMetrics.NCLOC_KEY));
+        assertEquals(4, getMeasure(header, CoreMetrics.COMMENT_LINES_KEY));
+        assertEquals(27, getMeasure(implementation, CoreMetrics.NCLOC_KEY));
+        assertEquals(4, getMeasure(implementation, CoreMetrics.COMMENT_LINES_KEY));
+    }
+
+    @Test
+    public void execute_withStreamingAstScanner() throws IOException {
+        context.settings().setProperty(ObjectiveCPlugin.SQUID_STREAMING_KEY, true);
+        context.settings().setProperty(ObjectiveCPlugin.SQUID_AST_KEY, true);
+        DefaultInputFile inputFile = createInputFile("objcSample.h");
+
+        sensor.execute(context);
+
+        assertEquals(5, getMeasure(inputFile, CoreMetrics.NCLOC_KEY));
+        assertEquals(4, getMeasure(inputFile, CoreMetrics.COMMENT_LINES_KEY));
+    }
+
+    @Test
+    public void execute_withScanReport() throws IOException {
+        context.settings().setProperty(ObjectiveCPlugin.SQUID_AST_KEY, true);
+        createInputFile("objcSample.h");
+        createInputFile("Profile.m");
+
+        sensor.execute(context);
+
+        File reportFile = context.fileSystem().workDir().toPath().resolve(ObjectiveCSquidSensor.SCAN_REPORT_FILE_NAME).toFile();
+        String report = new String(Files.readAllBytes(reportFile.toPath()), StandardCharsets.UTF_8);
+        assertTrue(report.contains("\"files\": 2,"));
+        assertTrue(report.contains("objcSample.h"));
+        assertTrue(report.contains("Profile.m"));
+    }
+
+    @Test
+    public void execute_withDuplicateFiles() throws IOException {
+        temporaryFolder.newFolder("Copy");
+        DefaultInputFile original = createInputFile("objcSample.h");
+        DefaultInputFile copy = createInputFile("objcSample.h", "Copy/objcSample.h");
+
+        sensor.execute(context);
+
+        assertEquals(5, getMeasure(original, CoreMetrics.NCLOC_KEY));
+        assertEquals(5, getMeasure(copy, CoreMetrics.NCLOC_KEY));
+        assertEquals(4, getMeasure(copy, CoreMetrics.COMMENT_LINES_KEY));
+        assertFalse(context.cpdTokens(copy.key()).isEmpty());
+        File reportFile = context.fileSystem().workDir().toPath().resolve(ObjectiveCSquidSensor.SCAN_REPORT_FILE_NAME).toFile();
+        String report = new String(Files.readAllBytes(reportFile.toPath()), StandardCharsets.UTF_8);
+        assertTrue(report.contains("\"files\": 1,"));
+        assertTrue(report.contains("\"deduplicatedFiles\": 1,"));
+    }
+
+    @Test
+    public void execute_withoutDeduplication() throws IOException {
+        context.settings().setProperty(ObjectiveCPlugin.SQUID_DEDUPLICATE_KEY, false);
+        temporaryFolder.newFolder("Copy");
+        createInputFile("objcSample.h");
+        DefaultInputFile copy = createInputFile("objcSample.h", "Copy/objcSample.h");
+
+        sensor.execute(context);
+
+        assertEquals(5, getMeasure(copy, CoreMetrics.NCLOC_KEY));
+        File reportFile = context.fileSystem().workDir().toPath().resolve(ObjectiveCSquidSensor.SCAN_REPORT_FILE_NAME).toFile();
+        String report = new String(Files.readAllBytes(reportFile.toPath()), StandardCharsets.UTF_8);
+        assertTrue(report.contains("\"files\": 2,"));
+    }
+
+    @Test
+    public void execute_withIncludes() throws IOException {
+        DefaultInputFile header = createInputFile("objcSample.h", "Profile.h");
+        DefaultInputFile implementation = createInputFile("Profile.m");
+
+        sensor.execute(context);
+
+        assertEquals(1, getMeasure(header, ObjectiveCMetrics.INCLUDE_FAN_IN.key()));
+        assertEquals(0, getMeasure(header, ObjectiveCMetrics.INCLUDE_FAN_OUT.key()));
+        assertEquals(0, getMeasure(implementation, ObjectiveCMetrics.INCLUDE_FAN_IN.key()));
+        assertEquals(1, getMeasure(implementation, ObjectiveCMetrics.INCLUDE_FAN_OUT.key()));
+    }
+
+    @Test
+    public void execute_withoutIncludes() throws IOException {
+        context.settings().setProperty(ObjectiveCPlugin.SQUID_INCLUDES_KEY, false);
+        DefaultInputFile implementation = createInputFile("Profile.m");
+
+        sensor.execute(context);
+
+        assertNull(context.measure(implementation.key(), ObjectiveCMetrics.INCLUDE_FAN_OUT.key()));
+    }
+
+    @Test
+    public void execute_withCompilationDatabase() throws IOException {
+        context.settings().setProperty(ObjectiveCPlugin.SQUID_COMPILATION_DATABASE_KEY, "build/compile_commands.json");
+        DefaultInputFile implementation = createInputFile("Profile.m");
+        DefaultInputFile header = createInputFile("objcSample.h", "Profile.h");
+        DefaultInputFile unused = createInputFile("objcSample.h", "Unused.h");
+        File database = new File(temporaryFolder.newFolder("build"), "compile_commands.json");
+        Files.write(database.toPath(), ("[{\"directory\": \"" + temporaryFolder.getRoot().getAbsolutePath().replace("\\", "\\\\") + "\","
+                + " \"arguments\": [\"clang\", \"-c\", \"Profile.m\"], \"file\": \"Profile.m\"}]").getBytes(StandardCharsets.UTF_8));
+
+        sensor.execute(context);
+
+        assertEquals(27, getMeasure(implementation, CoreMetrics.NCLOC_KEY));
+        assertEquals(5, getMeasure(header, CoreMetrics.NCLOC_KEY));
+        assertNull(context.measure(unused.key(), CoreMetrics.NCLOC_KEY));
+    }
+
+    @Test
+    public void execute_withMissingCompilationDatabase() throws IOException {
+        context.settings().setProperty(ObjectiveCPlugin.SQUID_COMPILATION_DATABASE_KEY, "compile_commands.json");
+        DefaultInputFile header = createInputFile("objcSample.h", "Unused.h");
+
+        sensor.execute(context);
+
+        assertEquals(5, getMeasure(header, CoreMetrics.NCLOC_KEY));
+    }
+
+    @Test
+    public void execute_withCache() throws IOException {
+        context.settings().setProperty(ObjectiveCPlugin.SQUID_CACHE_KEY, true);
+        context.fileSystem().setWorkDir(temporaryFolder.newFolder("work").toPath());
+        DefaultInputFile inputFile = createInputFile("objcSample.h");
+        sensor.execute(context);
+        setUp();
+        // The work directory is emptied at the beginning of every analysis.
+        context.settings().setProperty(ObjectiveCPlugin.SQUID_CACHE_KEY, true);
+        context.fileSystem().setWorkDir(temporaryFolder.newFolder("next-work").toPath());
+        context.fileSystem().add(inputFile);
+
+        sensor.execute(context);
+
+        File cacheDirectory = new File(context.fileSystem().baseDir(), ObjectiveCPlugin.SQUID_CACHE_PATH_DEFVALUE);
+        assertTrue(new File(cacheDirectory, ObjectiveCMeasuresCache.FILE_NAME).isFile());
+        assertEquals(5, getMeasure(inputFile, CoreMetrics.NCLOC_KEY));
+        assertEquals(4, getMeasure(inputFile, CoreMetrics.COMMENT_LINES_KEY));
+        assertFalse(context.cpdTokens(inputFile.key()).isEmpty());
+        assertEquals(Collections.singletonList(TypeOfText.KEYWORD), context.highlightingTypeAt(inputFile.key(), 11, 0));
+        assertEquals(0, getMeasure(inputFile, ObjectiveCMetrics.INCLUDE_FAN_OUT.key()));
+    }
 }
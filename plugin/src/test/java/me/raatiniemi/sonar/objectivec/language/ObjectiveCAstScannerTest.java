@@ -36,14 +36,27 @@ package me.raatiniemi.sonar.objectivec.language;/*
  */
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.hamcrest.Matchers;
 import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import me.raatiniemi.sonar.objectivec.language.api.ObjectiveCDataMetric;
 import me.raatiniemi.sonar.objectivec.language.api.ObjectiveCMetric;
 import org.sonar.squidbridge.api.SourceFile;
 
 public class ObjectiveCAstScannerTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
 
     @Test
     public void lines() {
@@ -65,4 +78,79 @@ public class ObjectiveCAstScannerTest {
         Assert.assertThat(file.getNoSonarTagLines().size(), Matchers.is(1));
     }
 
+    @Test
+    public void scanFiles_withThreads() {
+        List<File> files = Arrays.asList(new File("src/test/resources/objcSample.h"), new File("src/test/resources/Profile.m"));
+        ObjectiveCConfiguration configuration = ObjectiveCConfiguration.create(StandardCharsets.UTF_8);
+
+        List<SourceFile> expected = ObjectiveCAstScanner.scanFiles(configuration, files, 1);
+        List<SourceFile> actual = ObjectiveCAstScanner.scanFiles(configuration, files, 2);
+
+        Assert.assertThat(actual.size(), Matchers.is(2));
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertThat(actual.get(i).getKey(), Matchers.is(expected.get(i).getKey()));
+            for (ObjectiveCMetric metric : ObjectiveCMetric.values()) {
+                Assert.assertThat(actual.get(i).getInt(metric), Matchers.is(expected.get(i).getInt(metric)));
+            }
+            Assert.assertThat(actual.get(i).getNoSonarTagLines(), Matchers.is(expected.get(i).getNoSonarTagLines()));
+        }
+    }
+
+    @Test
+    public void scanFiles_withStreaming() {
+        List<File> files = Arrays.asList(new File("src/test/resources/objcSample.h"), new File("src/test/resources/Profile.m"));
+        ObjectiveCConfiguration configuration = ObjectiveCConfiguration.create(StandardCharsets.UTF_8);
+
+        List<SourceFile> expected = ObjectiveCAstScanner.scanFiles(configuration, files, 1);
+        List<SourceFile> actual = new ArrayList<>();
+        ObjectiveCAstScanner.scanFiles(configuration, files, 1, new ObjectiveCScanStatistics(0), actual::add);
+
+        Assert.assertThat(actual.size(), Matchers.is(2));
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertThat(actual.get(i).getKey(), Matchers.is(expected.get(i).getKey()));
+            for (ObjectiveCMetric metric : ObjectiveCMetric.values()) {
+                Assert.assertThat(actual.get(i).getInt(metric), Matchers.is(expected.get(i).getInt(metric)));
+            }
+            Assert.assertThat(actual.get(i).getNoSonarTagLines(), Matchers.is(expected.get(i).getNoSonarTagLines()));
+        }
+    }
+
+    @Test
+    public void scanFiles_withTimeout() throws IOException {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 100_000; i++) {
+            builder.append("[self init]; // comment\n");
+        }
+        File file = temporaryFolder.newFile("timeout.m");
+        Files.write(file.toPath(), builder.toString().getBytes(StandardCharsets.UTF_8));
+        List<File> files = Arrays.asList(new File("src/test/resources/objcSample.h"), file);
+        ObjectiveCConfiguration configuration = ObjectiveCConfiguration.create(StandardCharsets.UTF_8);
+        configuration.setTimeout(1);
+        // Each read of the clock advances it by the budget, i.e. only files checked more than once time out.
+        AtomicLong time = new AtomicLong();
+        configuration.setClock(() -> time.getAndAdd(1_000_000));
+        ObjectiveCScanStatistics statistics = new ObjectiveCScanStatistics(0);
+
+        List<SourceFile> sourceFiles = ObjectiveCAstScanner.scanFiles(configuration, files, 1, statistics);
+
+        Assert.assertThat(sourceFiles.size(), Matchers.is(2));
+        Assert.assertThat(sourceFiles.get(1).getData(ObjectiveCDataMetric.APPROXIMATE), Matchers.is(Boolean.TRUE));
+        Assert.assertThat(sourceFiles.get(1).getInt(ObjectiveCMetric.LINES_OF_CODE), Matchers.is(100_000));
+        Assert.assertThat(statistics.getTimedOutFiles(), Matchers.is(Collections.singletonList(file.getAbsolutePath())));
+    }
+
+    @Test
+    public void scanFiles_withIncludes() throws IOException {
+        File file = temporaryFolder.newFile("includes.m");
+        Files.write(file.toPath(), "#import <UIKit/UIKit.h>\n#import \"My File.h\"\n".getBytes(StandardCharsets.UTF_8));
+        ObjectiveCConfiguration configuration = ObjectiveCConfiguration.create(StandardCharsets.UTF_8);
+        configuration.setIncludes(true);
+
+        List<SourceFile> sourceFiles = ObjectiveCAstScanner.scanFiles(configuration, Collections.singletonList(file), 1);
+
+        Assert.assertThat(
+                Arrays.asList((String[]) sourceFiles.get(0).getData(ObjectiveCDataMetric.INCLUDES)),
+                Matchers.is(Arrays.asList("UIKit/UIKit.h", "My File.h"))
+        );
+    }
 }
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.language;
+
+import com.sonar.sslr.api.Token;
+import com.sonar.sslr.api.Trivia;
+import me.raatiniemi.sonar.objectivec.language.lexer.ObjectiveCLexer;
+import org.junit.Assert;
+import org.junit.Test;
+import org.sonar.squidbridge.CommentAnalyser;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Differential tests between the comment metrics and the way the comments visitor of SSLR squid
+ * bridge counts the comment lines using the comment analyser.
+ */
+public class ObjectiveCCommentMetricsTest {
+    private static final String[] FRAGMENTS = {
+            "/", "*", "//", "/*", "*/", "\n", "\r", "\r\n", " ", "\t",
+            "NOSONAR", "NOSO", "N", "-", "é", "x1", "@", "_", "²", " "
+    };
+
+    private final CommentAnalyser commentAnalyser = new ObjectiveCCommentAnalyser();
+
+    private static List<Token> comments(String code) {
+        List<Token> comments = new ArrayList<>();
+        for (Token token : ObjectiveCLexer.create().lex(code)) {
+            for (Trivia trivia : token.getTrivia()) {
+                if (trivia.isComment()) {
+                    comments.add(trivia.getToken());
+                }
+            }
+        }
+        return comments;
+    }
+
+    private void assertSameLines(String code) {
+        List<Token> comments = comments(code);
+
+        Set<Integer> expectedCommentLines = new HashSet<>();
+        Set<Integer> expectedNoSonarLines = new HashSet<>();
+        for (Token comment : comments) {
+            String[] lines = commentAnalyser.getContents(comment.getOriginalValue()).split("(\r)?\n|\r", -1);
+            int line = comment.getLine();
+            for (String commentLine : lines) {
+                if (commentLine.contains("NOSONAR")) {
+                    expectedCommentLines.remove(line);
+                    expectedNoSonarLines.add(line);
+                } else if (!commentAnalyser.isBlank(commentLine) && !expectedNoSonarLines.contains(line)) {
+                    expectedCommentLines.add(line);
+                }
+                line++;
+            }
+        }
+
+        ObjectiveCCommentMetrics commentMetrics = new ObjectiveCCommentMetrics();
+        for (Token comment : comments) {
+            String value = comment.getOriginalValue();
+            commentMetrics.visitComment(value, 0, value.length(), comment.getLine());
+        }
+        commentMetrics.finish();
+
+        Assert.assertEquals(code, expectedCommentLines.size(), commentMetrics.getCommentLines());
+        Assert.assertEquals(code, expectedNoSonarLines, commentMetrics.getNoSonarLines());
+    }
+
+    @Test
+    public void visitComment() {
+        ObjectiveCCommentMetrics commentMetrics = new ObjectiveCCommentMetrics();
+        String code = "/**\n * Profile.\n *\n */\n// NOSONAR\n/* a */ /* b */";
+        commentMetrics.visitComment(code, 0, code.indexOf("*/") + 2, 1);
+        commentMetrics.visitComment(code, code.indexOf("//"), code.indexOf("\n/* a"), 5);
+        commentMetrics.visitComment(code, code.indexOf("/* a"), code.indexOf(" /* b"), 6);
+        commentMetrics.visitComment(code, code.indexOf("/* b"), code.length(), 6);
+        commentMetrics.finish();
+
+        Assert.assertEquals(2, commentMetrics.getCommentLines());
+        Assert.assertEquals(3, commentMetrics.getBlankCommentLines());
+        Assert.assertEquals(1, commentMetrics.getNoSonarLines().size());
+        Assert.assertTrue(commentMetrics.getNoSonarLines().contains(5));
+    }
+
+    @Test
+    public void visitComment_withReset() {
+        ObjectiveCCommentMetrics commentMetrics = new ObjectiveCCommentMetrics();
+        commentMetrics.visitComment("// NOSONAR", 0, 10, 1);
+        commentMetrics.finish();
+        commentMetrics.reset();
+        commentMetrics.finish();
+
+        Assert.assertEquals(0, commentMetrics.getCommentLines());
+        Assert.assertEquals(0, commentMetrics.getBlankCommentLines());
+        Assert.assertTrue(commentMetrics.getNoSonarLines().isEmpty());
+    }
+
+    @Test
+    public void visitComment_withGeneratedCorpus() {
+        Random random = new Random(42);
+
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder builder = new StringBuilder();
+            int numberOfFragments = random.nextInt(200);
+            for (int j = 0; j < numberOfFragments; j++) {
+                builder.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+            }
+            assertSameLines(builder.toString());
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.language;
+
+import me.raatiniemi.sonar.objectivec.language.api.ObjectiveCMetric;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.sonar.squidbridge.api.SourceFile;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(JUnit4.class)
+public class ObjectiveCComplexityAnalyserTest {
+    private static SourceFile scan(String code) {
+        SourceFile sourceFile = new SourceFile("file.m", "file.m");
+        ObjectiveCMetricsScanner.create(ObjectiveCConfiguration.create(StandardCharsets.UTF_8))
+                .scan(sourceFile, code);
+        return sourceFile;
+    }
+
+    private static void assertComplexity(int functions, int complexity, String code) {
+        SourceFile sourceFile = scan(code);
+
+        assertEquals(functions, sourceFile.getInt(ObjectiveCMetric.FUNCTIONS));
+        assertEquals(complexity, sourceFile.getInt(ObjectiveCMetric.COMPLEXITY));
+    }
+
+    @Test
+    public void withMethods() {
+        assertComplexity(2, 6, "@implementation Profile\n"
+                + "- (void)load:(BOOL)force\n"
+                + "{\n"
+                + "    if (force && self.name == nil) {\n"
+                + "        for (id item in self.items) { [item load]; }\n"
+                + "    }\n"
+                + "}\n"
+                + "+ (instancetype)profile {\n"
+                + "    return self.cached ? self.cached : [self new];\n"
+                + "}\n"
+                + "@end\n");
+    }
+
+    @Test
+    public void withFunctions() {
+        assertComplexity(2, 7, "static int\n"
+                + "max(int a, int b)\n"
+                + "{\n"
+                + "    return a > b ? a : b;\n"
+                + "}\n"
+                + "void run(int value) {\n"
+                + "    switch (value) { case 1: break; case 2: break; default: break; }\n"
+                + "    while(value||value) {}\n"
+                + "}\n");
+    }
+
+    @Test
+    public void withBlocks() {
+        assertComplexity(1, 3, "- (void)run {\n"
+                + "    dispatch_async(queue, ^{\n"
+                + "        @try { if (a) {} } @catch (NSException *e) {}\n"
+                + "    });\n"
+                + "}\n");
+    }
+
+    @Test
+    public void withDeclarations() {
+        assertComplexity(0, 0, "@interface Profile : NSObject\n"
+                + "{\n"
+                + "    int count;\n"
+                + "}\n"
+                + "- (void)load;\n"
+                + "@end\n"
+                + "@interface Profile () {\n"
+                + "    BOOL loaded;\n"
+                + "}\n"
+                + "@end\n"
+                + "typedef NS_ENUM(NSInteger, State) { StateIdle, StateRunning };\n"
+                + "struct point { int x; int y; };\n"
+                + "static int values[] = { 1, 2 };\n"
+                + "void run(void);\n");
+    }
+
+    @Test
+    public void withLinkageBlocks() {
+        assertComplexity(3, 5, "#ifdef __cplusplus\n"
+                + "extern \"C\" {\n"
+                + "#endif\n"
+                + "int f(void) { if (x) { return 1; } return 0; }\n"
+                + "extern \"C\" int g(void) { return x ? 1 : 0; }\n"
+                + "extern int count;\n"
+                + "#ifdef __cplusplus\n"
+                + "}\n"
+                + "#endif\n"
+                + "namespace app { namespace detail {\n"
+                + "void run() {}\n"
+                + "} }\n");
+    }
+
+    @Test
+    public void withLiteralsAndPreprocessor() {
+        assertComplexity(1, 1, "#define CHECK(x) if (x) { return; }\n"
+                + "#define LONG(x) \\\n"
+                + "    while (x) { }\n"
+                + "- (void)run {\n"
+                + "    NSLog(@\"if && || ? \\\" for\");\n"
+                + "    char c = '?';\n"
+                + "}\n");
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.language;
+
+import me.raatiniemi.sonar.objectivec.language.api.ObjectiveCDataMetric;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.sonar.squidbridge.api.SourceFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(JUnit4.class)
+public class ObjectiveCCpdTokenizerTest {
+    static List<String> images(ObjectiveCCpdTokens tokens) {
+        List<String> images = new ArrayList<>();
+        tokens.forEach((line, column, length, image) -> images.add(image));
+        return images;
+    }
+
+    static List<String> positions(ObjectiveCCpdTokens tokens) {
+        List<String> positions = new ArrayList<>();
+        tokens.forEach((line, column, length, image) -> positions.add(line + ":" + column + ":" + length + ":" + image));
+        return positions;
+    }
+
+    private static ObjectiveCCpdTokens scan(String code) {
+        ObjectiveCConfiguration configuration = ObjectiveCConfiguration.create(StandardCharsets.UTF_8);
+        configuration.setCpdTokens(true);
+
+        SourceFile sourceFile = new SourceFile("file.m", "file.m");
+        ObjectiveCMetricsScanner.create(configuration).scan(sourceFile, code);
+        return (ObjectiveCCpdTokens) sourceFile.getData(ObjectiveCDataMetric.CPD_TOKENS);
+    }
+
+    @Test
+    public void visitToken_withNormalisedIdentifiers() {
+        ObjectiveCCpdTokens first = scan("- (int)count {\n    return [items count] + 1;\n}\n");
+        ObjectiveCCpdTokens second = scan("- (int)size {\n    return [elements size] + 2;\n}\n");
+
+        assertEquals(
+                Arrays.asList("-", "(", "int", ")", "ID", "{", "return", "[", "ID", "ID", "]", "+", "NUM", ";", "}"),
+                images(first)
+        );
+        assertEquals(images(first), images(second));
+    }
+
+    @Test
+    public void visitToken_withoutWhitespace() {
+        ObjectiveCCpdTokens first = scan("- (void)foo {\n    [self bar] ;\n    if (a) { b += c->d; }\n}\n");
+        ObjectiveCCpdTokens second = scan("-(void)foo{\n    [self bar];\n    if(a){b+=c->d;}\n}\n");
+
+        assertEquals(
+                Arrays.asList("-", "(", "void", ")", "ID", "{", "[", "self", "ID", "]", ";",
+                        "if", "(", "ID", ")", "{", "ID", "+=", "ID", "->", "ID", ";", "}", "}"),
+                images(first)
+        );
+        assertEquals(images(first), images(second));
+    }
+
+    @Test
+    public void visitToken_withPositions() {
+        ObjectiveCCpdTokens tokens = scan("@end\n  x = 10;");
+
+        assertEquals(
+                Arrays.asList("1:0:4:@end", "2:2:1:ID", "2:4:1:=", "2:6:2:NUM", "2:8:1:;"),
+                positions(tokens)
+        );
+    }
+
+    @Test
+    public void visitToken_withLiterals() {
+        ObjectiveCCpdTokens tokens = scan("NSLog(@\"a b\\\" c\", 'x');");
+
+        assertEquals(Arrays.asList("ID", "(", "STR", ",", "CHR", ")", ";"), images(tokens));
+    }
+
+    @Test
+    public void visitToken_withPreprocessorLines() {
+        ObjectiveCCpdTokens tokens = scan("#import <Foundation/Foundation.h>\n#define MAX \\\n  10\nreturn;");
+
+        assertEquals(Arrays.asList("return", ";"), images(tokens));
+    }
+
+    @Test
+    public void toByteArray_withRoundTrip() throws IOException {
+        ObjectiveCCpdTokens tokens = scan("@interface Profile : NSObject\n- (void)save:(NSString *)name;\n@end\n");
+
+        assertEquals(positions(tokens), positions(ObjectiveCCpdTokens.fromByteArray(tokens.toByteArray())));
+    }
+
+    private static byte[] encode(int numberOfImages, int numberOfTokens, int size, byte... buffer) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeInt(numberOfImages);
+            for (int i = 0; i < numberOfImages; i++) {
+                output.writeUTF("image");
+            }
+            output.writeInt(numberOfTokens);
+            output.writeInt(size);
+            output.write(buffer);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Test
+    public void fromByteArray() throws IOException {
+        ObjectiveCCpdTokens tokens = ObjectiveCCpdTokens.fromByteArray(encode(1, 1, 4, (byte) 0, (byte) 1, (byte) 5, (byte) 0));
+
+        assertEquals(Arrays.asList("1:1:5:image"), positions(tokens));
+    }
+
+    @Test(expected = IOException.class)
+    public void fromByteArray_withNegativeNumberOfImages() throws IOException {
+        ObjectiveCCpdTokens.fromByteArray(encode(-1, 0, 0));
+    }
+
+    @Test(expected = IOException.class)
+    public void fromByteArray_withInvalidSize() throws IOException {
+        ObjectiveCCpdTokens.fromByteArray(encode(0, 0, Integer.MAX_VALUE));
+    }
+
+    @Test(expected = IOException.class)
+    public void fromByteArray_withTruncatedToken() throws IOException {
+        ObjectiveCCpdTokens.fromByteArray(encode(1, 1, 4, (byte) 0, (byte) 1, (byte) 5, (byte) 0x80));
+    }
+
+    @Test(expected = IOException.class)
+    public void fromByteArray_withInvalidImage() throws IOException {
+        ObjectiveCCpdTokens.fromByteArray(encode(1, 1, 4, (byte) 0, (byte) 1, (byte) 5, (byte) 1));
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.language;
+
+import me.raatiniemi.sonar.objectivec.language.api.ObjectiveCDataMetric;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.sonar.squidbridge.api.SourceFile;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(JUnit4.class)
+public class ObjectiveCHighlighterTest {
+    static List<String> ranges(ObjectiveCHighlighting highlighting) {
+        List<String> ranges = new ArrayList<>();
+        highlighting.forEach((startLine, startColumn, endLine, endColumn, type) ->
+                ranges.add(startLine + ":" + startColumn + "-" + endLine + ":" + endColumn + " " + type));
+        return ranges;
+    }
+
+    private static List<String> highlight(String code) {
+        ObjectiveCConfiguration configuration = ObjectiveCConfiguration.create(StandardCharsets.UTF_8);
+        configuration.setHighlighting(true);
+
+        SourceFile sourceFile = new SourceFile("file.m", "file.m");
+        ObjectiveCMetricsScanner.create(configuration).scan(sourceFile, code);
+        return ranges((ObjectiveCHighlighting) sourceFile.getData(ObjectiveCDataMetric.HIGHLIGHTING));
+    }
+
+    @Test
+    public void visitComment() {
+        assertEquals(
+                Arrays.asList("1:0-1:10 COMMENT", "2:0-3:7 COMMENT", "4:0-4:11 STRUCTURED_COMMENT", "5:2-5:6 COMMENT"),
+                highlight("// comment\n/* multi\nline */\n/** docs */\n  /**/")
+        );
+    }
+
+    @Test
+    public void visitToken_withLiterals() {
+        assertEquals(
+                Arrays.asList("1:6-1:17 STRING", "1:19-1:22 STRING"),
+                highlight("NSLog(@\"a \\\" b c\", 'x');")
+        );
+    }
+
+    @Test
+    public void visitToken_withContinuedLiteral() {
+        assertEquals(
+                Collections.singletonList("1:4-2:2 STRING"),
+                highlight("x = \"a \\\nb\";")
+        );
+    }
+
+    @Test
+    public void visitToken_withKeywords() {
+        assertEquals(
+                Arrays.asList("1:0-1:10 KEYWORD", "1:30-1:34 KEYWORD"),
+                highlight("@interface Profile : NSObject @end @{} @[]")
+        );
+    }
+
+    @Test
+    public void visitToken_withPreprocessorDirectives() {
+        assertEquals(
+                Arrays.asList("1:0-1:7 PREPROCESS_DIRECTIVE", "1:8-1:15 STRING", "2:0-2:7 PREPROCESS_DIRECTIVE"),
+                highlight("#import \"Foo.h\"\n#define X \\\n  #Y")
+        );
+    }
+
+    @Test
+    public void visitComment_withCommentInLiteral() {
+        assertEquals(
+                Arrays.asList("1:4-1:10 STRING", "1:10-1:14 COMMENT"),
+                highlight("x = \"http://x\"")
+        );
+    }
+
+    @Test
+    public void toByteArray_withRoundTrip() throws IOException {
+        ObjectiveCConfiguration configuration = ObjectiveCConfiguration.create(StandardCharsets.UTF_8);
+        configuration.setHighlighting(true);
+        SourceFile sourceFile = new SourceFile("file.m", "file.m");
+        ObjectiveCMetricsScanner.create(configuration).scan(sourceFile, "#import <A.h>\n// a\n@end \"s\"");
+        ObjectiveCHighlighting highlighting = (ObjectiveCHighlighting) sourceFile.getData(ObjectiveCDataMetric.HIGHLIGHTING);
+
+        assertEquals(ranges(highlighting), ranges(ObjectiveCHighlighting.fromByteArray(highlighting.toByteArray())));
+    }
+}
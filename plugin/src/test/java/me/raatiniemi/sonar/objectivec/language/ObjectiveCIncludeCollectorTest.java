@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.language;
+
+import me.raatiniemi.sonar.objectivec.language.api.ObjectiveCDataMetric;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.sonar.squidbridge.api.SourceFile;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(JUnit4.class)
+public class ObjectiveCIncludeCollectorTest {
+    private static List<String> collect(String code) {
+        ObjectiveCConfiguration configuration = ObjectiveCConfiguration.create(StandardCharsets.UTF_8);
+        configuration.setIncludes(true);
+
+        SourceFile sourceFile = new SourceFile("file.m", "file.m");
+        ObjectiveCMetricsScanner.create(configuration).scan(sourceFile, code);
+        return Arrays.asList((String[]) sourceFile.getData(ObjectiveCDataMetric.INCLUDES));
+    }
+
+    @Test
+    public void visitToken_withImports() {
+        assertEquals(
+                Arrays.asList("Profile.h", "UIKit/UIKit.h", "Model/Purchase.h"),
+                collect("#import \"Profile.h\"\n#import <UIKit/UIKit.h>\n#include \"Model/Purchase.h\" // purchases\n")
+        );
+    }
+
+    @Test
+    public void visitToken_withSpacing() {
+        assertEquals(
+                Arrays.asList("a/b/c.h", "Profile.h"),
+                collect("  #  include \"a/b/c.h\"\n#import\"Profile.h\"")
+        );
+    }
+
+    @Test
+    public void visitToken_withWhitespaceInPath() {
+        assertEquals(
+                Arrays.asList("My File.h", "Shared/My  Header.h"),
+                collect("#import \"My File.h\"\n#import <Shared/My  Header.h>\n")
+        );
+    }
+
+    @Test
+    public void visitToken_withoutIncludes() {
+        assertEquals(
+                Collections.emptyList(),
+                collect("#define PROFILE \"Profile.h\"\n@import UIKit;\nNSString *name = @\"#import <A.h>\";\n#import PROFILE\n")
+        );
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.language;
+
+import me.raatiniemi.sonar.objectivec.language.api.ObjectiveCMetric;
+import me.raatiniemi.sonar.objectivec.language.lexer.ObjectiveCTokenBuffer;
+import org.junit.Assert;
+import org.junit.Test;
+import org.sonar.squidbridge.api.SourceFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Differential tests between the line counter and the metrics scanner.
+ */
+public class ObjectiveCLineCounterTest {
+    private static final String[] FRAGMENTS = {
+            "/", "*", "//", "/*", "*/", "\n", "\r", "\r\n", " ", "\t",
+            "@interface", "[self init];", "NOSONAR", "-", "é", "x1", "\"", "#import"
+    };
+
+    private static ObjectiveCConfiguration createConfiguration(boolean ignoreHeaderComments) {
+        ObjectiveCConfiguration configuration = ObjectiveCConfiguration.create(StandardCharsets.UTF_8);
+        configuration.setIgnoreHeaderComments(ignoreHeaderComments);
+        return configuration;
+    }
+
+    private static void assertSameLines(ObjectiveCConfiguration configuration, int bufferSize, String code) throws IOException {
+        SourceFile expected = new SourceFile("test.m");
+        ObjectiveCMetricsScanner.create(configuration).scan(expected, code);
+        SourceFile actual = new SourceFile("test.m");
+        new ObjectiveCLineCounter(configuration, new ObjectiveCScanStatistics(0), bufferSize)
+                .scan(actual, new StringReader(code));
+
+        Assert.assertEquals(code, expected.getInt(ObjectiveCMetric.LINES), actual.getInt(ObjectiveCMetric.LINES));
+        Assert.assertEquals(code, expected.getInt(ObjectiveCMetric.LINES_OF_CODE), actual.getInt(ObjectiveCMetric.LINES_OF_CODE));
+        Assert.assertEquals(code, expected.getInt(ObjectiveCMetric.COMMENT_LINES), actual.getInt(ObjectiveCMetric.COMMENT_LINES));
+        Assert.assertEquals(code, expected.getNoSonarTagLines(), actual.getNoSonarTagLines());
+    }
+
+    private static String generate(Random random) {
+        StringBuilder builder = new StringBuilder();
+        int numberOfFragments = random.nextInt(200);
+        for (int i = 0; i < numberOfFragments; i++) {
+            builder.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Unterminated block comments are only approximated by the line counter, the slash is dropped
+     * by the lexer and the asterisk starts a literal.
+     */
+    private static boolean hasUnterminatedBlockComment(String code) {
+        ObjectiveCTokenBuffer buffer = new ObjectiveCTokenBuffer();
+        buffer.lex(code);
+        for (int i = 0; i < buffer.size(); i++) {
+            int start = buffer.getStart(i);
+            if (ObjectiveCTokenBuffer.LITERAL == buffer.getType(i) && start > 0
+                    && code.charAt(start - 1) == '/' && code.charAt(start) == '*') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Test
+    public void scanFile() {
+        SourceFile file = ObjectiveCLineCounter.create(createConfiguration(false), new ObjectiveCScanStatistics(0))
+                .scanFile(new File("src/test/resources/objcSample.h"));
+
+        Assert.assertEquals(1, file.getInt(ObjectiveCMetric.FILES));
+        Assert.assertEquals(17, file.getInt(ObjectiveCMetric.LINES));
+        Assert.assertEquals(5, file.getInt(ObjectiveCMetric.LINES_OF_CODE));
+        Assert.assertEquals(4, file.getInt(ObjectiveCMetric.COMMENT_LINES));
+        Assert.assertTrue(file.getNoSonarTagLines().contains(10));
+    }
+
+    @Test
+    public void scan_withGeneratedCorpus() throws IOException {
+        Random random = new Random(42);
+
+        for (int i = 0; i < 1000; i++) {
+            String code = generate(random);
+            if (hasUnterminatedBlockComment(code)) {
+                continue;
+            }
+            assertSameLines(createConfiguration(false), 4096, code);
+            assertSameLines(createConfiguration(true), 4096, code);
+        }
+    }
+
+    @Test
+    public void scan_withSmallBuffer() throws IOException {
+        Random random = new Random(42);
+
+        for (int i = 0; i < 1000; i++) {
+            // NOSONAR markers split between chunks are not found, so only the counts are compared.
+            String code = generate(random).replace("NOSONAR", "NO");
+            if (hasUnterminatedBlockComment(code)) {
+                continue;
+            }
+            assertSameLines(createConfiguration(false), 1 + random.nextInt(7), code);
+        }
+    }
+
+    @Test
+    public void scan_withUnterminatedBlockComment() throws IOException {
+        SourceFile file = new SourceFile("test.m");
+        new ObjectiveCLineCounter(createConfiguration(false), new ObjectiveCScanStatistics(0), 4096)
+                .scan(file, new StringReader("[self init];\n/* comment\nNSString\n"));
+
+        Assert.assertEquals(4, file.getInt(ObjectiveCMetric.LINES));
+        Assert.assertEquals(1, file.getInt(ObjectiveCMetric.LINES_OF_CODE));
+        Assert.assertEquals(2, file.getInt(ObjectiveCMetric.COMMENT_LINES));
+    }
+
+    @Test
+    public void scan_withCommentInStringLiteral() throws IOException {
+        String code = "NSURL *url = @\"http://example.com\";\nNSString *text = @\"/* text\";\n[self init];\n*/\n";
+        assertSameLines(createConfiguration(false), 4096, code);
+
+        SourceFile file = new SourceFile("test.m");
+        new ObjectiveCLineCounter(createConfiguration(false), new ObjectiveCScanStatistics(0), 4096)
+                .scan(file, new StringReader(code));
+
+        Assert.assertEquals(2, file.getInt(ObjectiveCMetric.LINES_OF_CODE));
+        Assert.assertEquals(3, file.getInt(ObjectiveCMetric.COMMENT_LINES));
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.language;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class ObjectiveCMemoryBudgetTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File write(int size) throws IOException {
+        File file = temporaryFolder.newFile();
+        Files.write(file.toPath(), new byte[size]);
+        return file;
+    }
+
+    @Test
+    public void acquire_withUnlimitedBudget() throws IOException {
+        ObjectiveCMemoryBudget budget = ObjectiveCMemoryBudget.create(0);
+
+        Assert.assertEquals(0, budget.acquire(write(100)));
+        Assert.assertEquals(0, budget.getBytesInFlight());
+    }
+
+    @Test
+    public void acquire_withFileLargerThanBudget() throws IOException {
+        ObjectiveCMemoryBudget budget = ObjectiveCMemoryBudget.create(50);
+
+        long reserved = budget.acquire(write(100));
+        Assert.assertEquals(50, reserved);
+        Assert.assertEquals(50, budget.getBytesInFlight());
+
+        budget.release(reserved);
+        Assert.assertEquals(0, budget.getBytesInFlight());
+    }
+
+    @Test
+    public void acquire_waitsForRelease() throws Exception {
+        ObjectiveCMemoryBudget budget = ObjectiveCMemoryBudget.create(100);
+        File file = write(60);
+        long reserved = budget.acquire(file);
+
+        CountDownLatch acquired = new CountDownLatch(1);
+        Thread thread = new Thread(() -> {
+            budget.release(budget.acquire(file));
+            acquired.countDown();
+        });
+        thread.start();
+
+        Assert.assertFalse(acquired.await(100, TimeUnit.MILLISECONDS));
+        budget.release(reserved);
+        Assert.assertTrue(acquired.await(5, TimeUnit.SECONDS));
+        thread.join();
+        Assert.assertEquals(0, budget.getBytesInFlight());
+    }
+}
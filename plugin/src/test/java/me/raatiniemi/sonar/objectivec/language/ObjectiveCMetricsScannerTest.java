@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.language;
+
+import me.raatiniemi.sonar.objectivec.language.api.ObjectiveCDataMetric;
+import me.raatiniemi.sonar.objectivec.language.api.ObjectiveCMetric;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.squidbridge.api.SourceFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Differential tests between the metrics scanner and the AST scanner.
+ */
+public class ObjectiveCMetricsScannerTest {
+    private static final String[] FRAGMENTS = {
+            "/", "*", "//", "/*", "*/", "\n", "\r", "\r\n", " ", "\t",
+            "@interface", "[self init];", "NOSONAR", "NOSO", "-", "é", "x1",
+            "\"", "'", "\\", "#", "@\"a b\"", "10", "{", "}", "#import", "<", ">", "include"
+    };
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private static ObjectiveCConfiguration createConfiguration(boolean ignoreHeaderComments) {
+        ObjectiveCConfiguration configuration = ObjectiveCConfiguration.create(StandardCharsets.UTF_8);
+        configuration.setIgnoreHeaderComments(ignoreHeaderComments);
+        configuration.setCpdTokens(true);
+        configuration.setHighlighting(true);
+        configuration.setIncludes(true);
+        return configuration;
+    }
+
+    private static void assertSameMeasures(SourceFile expected, SourceFile actual) {
+        Assert.assertThat(actual.getKey(), Matchers.is(expected.getKey()));
+        for (ObjectiveCMetric metric : ObjectiveCMetric.values()) {
+            Assert.assertThat(expected.getKey() + " " + metric, actual.getInt(metric), Matchers.is(expected.getInt(metric)));
+        }
+        Assert.assertThat(actual.getNoSonarTagLines(), Matchers.is(expected.getNoSonarTagLines()));
+
+        ObjectiveCCpdTokens expectedTokens = (ObjectiveCCpdTokens) expected.getData(ObjectiveCDataMetric.CPD_TOKENS);
+        ObjectiveCCpdTokens actualTokens = (ObjectiveCCpdTokens) actual.getData(ObjectiveCDataMetric.CPD_TOKENS);
+        Assert.assertThat(
+                expected.getKey(),
+                ObjectiveCCpdTokenizerTest.positions(actualTokens),
+                Matchers.is(ObjectiveCCpdTokenizerTest.positions(expectedTokens))
+        );
+
+        ObjectiveCHighlighting expectedHighlighting = (ObjectiveCHighlighting) expected.getData(ObjectiveCDataMetric.HIGHLIGHTING);
+        ObjectiveCHighlighting actualHighlighting = (ObjectiveCHighlighting) actual.getData(ObjectiveCDataMetric.HIGHLIGHTING);
+        Assert.assertThat(
+                expected.getKey(),
+                ObjectiveCHighlighterTest.ranges(actualHighlighting),
+                Matchers.is(ObjectiveCHighlighterTest.ranges(expectedHighlighting))
+        );
+
+        Assert.assertThat(
+                expected.getKey(),
+                (String[]) actual.getData(ObjectiveCDataMetric.INCLUDES),
+                Matchers.is((String[]) expected.getData(ObjectiveCDataMetric.INCLUDES))
+        );
+    }
+
+    private static void assertSameMeasures(ObjectiveCConfiguration configuration, List<File> files) {
+        List<SourceFile> expected = ObjectiveCAstScanner.scanFiles(configuration, files, 1);
+        List<SourceFile> actual = ObjectiveCMetricsScanner.scanFiles(configuration, files, 1);
+
+        Assert.assertThat(actual.size(), Matchers.is(expected.size()));
+        for (int i = 0; i < expected.size(); i++) {
+            assertSameMeasures(expected.get(i), actual.get(i));
+        }
+    }
+
+    private List<File> generate(int numberOfFiles) throws IOException {
+        Random random = new Random(42);
+
+        List<File> files = new ArrayList<>();
+        for (int i = 0; i < numberOfFiles; i++) {
+            StringBuilder builder = new StringBuilder();
+            int numberOfFragments = random.nextInt(200);
+            for (int j = 0; j < numberOfFragments; j++) {
+                builder.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+            }
+
+            File file = temporaryFolder.newFile("generated" + i + ".m");
+            Files.write(file.toPath(), builder.toString().getBytes(StandardCharsets.UTF_8));
+            files.add(file);
+        }
+        return files;
+    }
+
+    @Test
+    public void scanFile() {
+        SourceFile file = ObjectiveCMetricsScanner.create(createConfiguration(false))
+                .scanFile(new File("src/test/resources/objcSample.h"));
+
+        Assert.assertThat(file.getInt(ObjectiveCMetric.FILES), Matchers.is(1));
+        Assert.assertThat(file.getInt(ObjectiveCMetric.LINES), Matchers.is(17));
+        Assert.assertThat(file.getInt(ObjectiveCMetric.LINES_OF_CODE), Matchers.is(5));
+        Assert.assertThat(file.getInt(ObjectiveCMetric.COMMENT_LINES), Matchers.is(4));
+        Assert.assertThat(file.getNoSonarTagLines(), Matchers.hasItem(10));
+        Assert.assertThat(file.getNoSonarTagLines().size(), Matchers.is(1));
+    }
+
+    @Test
+    public void scanFile_withTimeout() throws IOException {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 100_000; i++) {
+            builder.append("[self init]; // comment\n");
+        }
+        File file = temporaryFolder.newFile("timeout.m");
+        Files.write(file.toPath(), builder.toString().getBytes(StandardCharsets.UTF_8));
+        ObjectiveCConfiguration configuration = createConfiguration(false);
+        configuration.setTimeout(1);
+        // Each read of the clock advances it by the budget, i.e. only files checked more than once time out.
+        AtomicLong time = new AtomicLong();
+        configuration.setClock(() -> time.getAndAdd(1_000_000));
+        ObjectiveCScanStatistics statistics = new ObjectiveCScanStatistics(0);
+
+        SourceFile sourceFile = ObjectiveCMetricsScanner.create(configuration, statistics).scanFile(file);
+
+        Assert.assertThat(sourceFile.getData(ObjectiveCDataMetric.APPROXIMATE), Matchers.is(Boolean.TRUE));
+        Assert.assertThat(sourceFile.getInt(ObjectiveCMetric.LINES_OF_CODE), Matchers.is(100_000));
+        Assert.assertThat(sourceFile.getInt(ObjectiveCMetric.COMMENT_LINES), Matchers.is(100_000));
+        Assert.assertThat(statistics.getTimedOutFiles(), Matchers.is(Collections.singletonList(file.getAbsolutePath())));
+    }
+
+    @Test
+    public void scanFiles_withSampleFiles() {
+        List<File> files = Arrays.asList(new File("src/test/resources/objcSample.h"), new File("src/test/resources/Profile.m"));
+
+        assertSameMeasures(createConfiguration(false), files);
+        assertSameMeasures(createConfiguration(true), files);
+    }
+
+    @Test
+    public void scanFiles_withGeneratedCorpus() throws IOException {
+        List<File> files = generate(500);
+
+        assertSameMeasures(createConfiguration(false), files);
+        assertSameMeasures(createConfiguration(true), files);
+    }
+
+    @Test
+    public void scanFiles_withStreaming() throws IOException {
+        List<File> files = generate(100);
+        ObjectiveCConfiguration configuration = createConfiguration(false);
+
+        Map<String, SourceFile> actual = new HashMap<>();
+        ObjectiveCMetricsScanner.scanFiles(configuration, files, 4, new ObjectiveCScanStatistics(0), sourceFile -> actual.put(sourceFile.getKey(), sourceFile));
+
+        Assert.assertThat(actual.size(), Matchers.is(files.size()));
+        for (SourceFile expected : ObjectiveCMetricsScanner.scanFiles(configuration, files, 1)) {
+            assertSameMeasures(expected, actual.get(expected.getKey()));
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.language;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class ObjectiveCScanStatisticsTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private static ObjectiveCFileStatistics createFile(String path, long lexNanos) {
+        ObjectiveCFileStatistics file = new ObjectiveCFileStatistics(path);
+        file.bytes = 10;
+        file.tokens = 2;
+        file.lexNanos = lexNanos;
+        return file;
+    }
+
+    @Test
+    public void saved() {
+        ObjectiveCScanStatistics statistics = new ObjectiveCScanStatistics(2);
+        for (int i = 1; i <= 100; i++) {
+            statistics.scanned(createFile("file" + i, i * 1000));
+            statistics.saved("file" + i, 0);
+        }
+
+        assertEquals(100, statistics.getNumberOfFiles());
+        assertEquals(1000, statistics.getBytes());
+        assertEquals(200, statistics.getTokens());
+        assertEquals(50_000, statistics.getLatencyPercentile(50));
+        assertEquals(99_000, statistics.getLatencyPercentile(99));
+        assertEquals(2, statistics.getSlowestFiles().size());
+        assertEquals("file100", statistics.getSlowestFiles().get(0).getPath());
+        assertEquals("file99", statistics.getSlowestFiles().get(1).getPath());
+    }
+
+    @Test
+    public void saved_withoutScannedFile() {
+        ObjectiveCScanStatistics statistics = new ObjectiveCScanStatistics(2);
+
+        statistics.saved("file", 1000);
+
+        assertEquals(0, statistics.getNumberOfFiles());
+        assertEquals(0, statistics.getLatencyPercentile(50));
+    }
+
+    @Test
+    public void scanFiles() {
+        List<File> files = Arrays.asList(new File("src/test/resources/objcSample.h"), new File("src/test/resources/Profile.m"));
+        ObjectiveCConfiguration configuration = ObjectiveCConfiguration.create(StandardCharsets.UTF_8);
+        ObjectiveCScanStatistics statistics = new ObjectiveCScanStatistics(1);
+
+        ObjectiveCAstScanner.scanFiles(configuration, files, 1, statistics)
+                .forEach(sourceFile -> statistics.saved(sourceFile.getKey(), 0));
+
+        assertEquals(2, statistics.getNumberOfFiles());
+        assertEquals(files.get(0).length() + files.get(1).length(), statistics.getBytes());
+        assertTrue(statistics.getTokens() > 0);
+        assertEquals(1, statistics.getSlowestFiles().size());
+    }
+
+    @Test
+    public void writeReport() throws IOException {
+        ObjectiveCScanStatistics statistics = new ObjectiveCScanStatistics(1);
+        statistics.scanned(createFile("\"quoted\"\\path", 1000));
+        statistics.saved("\"quoted\"\\path", 0);
+        File reportFile = temporaryFolder.newFile();
+
+        statistics.writeReport(reportFile.toPath(), 2000);
+
+        String report = new String(Files.readAllBytes(reportFile.toPath()), StandardCharsets.UTF_8);
+        assertTrue(report.contains("\"files\": 1,"));
+        assertTrue(report.contains("\"path\": \"\\\"quoted\\\"\\\\path\""));
+    }
+
+    @Test
+    public void writeReport_withTimedOutFiles() throws IOException {
+        ObjectiveCScanStatistics statistics = new ObjectiveCScanStatistics(1);
+        statistics.timedOut("first.m");
+        statistics.timedOut("second.m");
+        File reportFile = temporaryFolder.newFile();
+
+        statistics.writeReport(reportFile.toPath(), 2000);
+
+        String report = new String(Files.readAllBytes(reportFile.toPath()), StandardCharsets.UTF_8);
+        assertTrue(report.contains("\"timedOutFiles\": [\"first.m\", \"second.m\"],"));
+        assertTrue(statistics.getSummary(2000).endsWith("2 files timed out"));
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.language;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(JUnit4.class)
+public class ObjectiveCSourceReaderTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File write(byte[] bytes) throws IOException {
+        File file = temporaryFolder.newFile();
+        Files.write(file.toPath(), bytes);
+        return file;
+    }
+
+    private void assertRead(Charset charset, byte[] bytes) throws IOException {
+        ObjectiveCSourceReader reader = new ObjectiveCSourceReader(charset);
+
+        assertEquals(new String(bytes, charset), reader.read(write(bytes)).toString());
+    }
+
+    @Test
+    public void read_withAscii() throws IOException {
+        assertRead(StandardCharsets.UTF_8, "[self init];\n// comment".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void read_withNonAscii() throws IOException {
+        assertRead(StandardCharsets.UTF_8, "// Université de Genève\n@end".getBytes(StandardCharsets.UTF_8));
+        assertRead(StandardCharsets.ISO_8859_1, "// Université de Genève\n@end".getBytes(StandardCharsets.ISO_8859_1));
+        assertRead(StandardCharsets.UTF_16, "// Université de Genève\n@end".getBytes(StandardCharsets.UTF_16));
+    }
+
+    @Test
+    public void read_withMalformedInput() throws IOException {
+        assertRead(StandardCharsets.UTF_8, new byte[]{'a', (byte) 0xc3, 'b', (byte) 0xff});
+    }
+
+    @Test
+    public void read_withEmptyFile() throws IOException {
+        assertRead(StandardCharsets.UTF_8, new byte[0]);
+    }
+
+    @Test
+    public void read_withMappedFile() throws IOException {
+        StringBuilder builder = new StringBuilder();
+        while (builder.length() <= ObjectiveCSourceReader.MAPPED_THRESHOLD) {
+            builder.append("@dynamic propertyé;\n");
+        }
+
+        assertRead(StandardCharsets.UTF_8, builder.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void read_withReusedBuffer() throws IOException {
+        ObjectiveCSourceReader reader = new ObjectiveCSourceReader(StandardCharsets.UTF_8);
+        File first = write("@interface Profile : NSObject\n@end\n".getBytes(StandardCharsets.UTF_8));
+        File second = write("@end".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals("@interface Profile : NSObject\n@end\n", reader.read(first).toString());
+        assertEquals("@end", reader.read(second).toString());
+    }
+}
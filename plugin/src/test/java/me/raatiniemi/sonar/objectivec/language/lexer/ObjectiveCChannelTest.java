@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.language.lexer;
+
+import com.sonar.sslr.api.Token;
+import com.sonar.sslr.api.Trivia;
+import com.sonar.sslr.impl.Lexer;
+import com.sonar.sslr.impl.channel.BlackHoleChannel;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.List;
+import java.util.Random;
+
+import static com.sonar.sslr.api.GenericTokenType.LITERAL;
+import static com.sonar.sslr.impl.channel.RegexpChannelBuilder.commentRegexp;
+import static com.sonar.sslr.impl.channel.RegexpChannelBuilder.regexp;
+
+/**
+ * Differential tests between the channel and the regular expression channels it replaced.
+ */
+public class ObjectiveCChannelTest {
+    private static final String[] FRAGMENTS = {
+            "/", "*", "//", "/*", "*/", "\n", "\r", "\r\n", " ", "\t", "\u000B", "\f",
+            "@interface", "[self init];", "NSString", "\"string\"", "#import", "é", " ", "NOSONAR"
+    };
+
+    private final Lexer lexer = ObjectiveCLexer.create();
+    private final Lexer regexpLexer = Lexer.builder()
+            .withFailIfNoChannelToConsumeOneCharacter(false)
+            .withChannel(commentRegexp("//[^\\n\\r]*+"))
+            .withChannel(commentRegexp("/\\*[\\s\\S]*?\\*/"))
+            .withChannel(regexp(LITERAL, "[^\r\n\\s/]+"))
+            .withChannel(new BlackHoleChannel("[\\s]"))
+            .build();
+
+    private static void assertSameToken(Token expected, Token actual) {
+        Assert.assertEquals(expected.getType(), actual.getType());
+        Assert.assertEquals(expected.getValue(), actual.getValue());
+        Assert.assertEquals(expected.getOriginalValue(), actual.getOriginalValue());
+        Assert.assertEquals(expected.getLine(), actual.getLine());
+        Assert.assertEquals(expected.getColumn(), actual.getColumn());
+    }
+
+    private static void assertSameTokens(List<Token> expected, List<Token> actual) {
+        Assert.assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertSameToken(expected.get(i), actual.get(i));
+
+            List<Trivia> expectedTrivia = expected.get(i).getTrivia();
+            List<Trivia> actualTrivia = actual.get(i).getTrivia();
+            Assert.assertEquals(expectedTrivia.size(), actualTrivia.size());
+            for (int j = 0; j < expectedTrivia.size(); j++) {
+                Assert.assertEquals(expectedTrivia.get(j).isComment(), actualTrivia.get(j).isComment());
+                assertSameToken(expectedTrivia.get(j).getToken(), actualTrivia.get(j).getToken());
+            }
+        }
+    }
+
+    private void assertSameTokens(String code) {
+        assertSameTokens(regexpLexer.lex(code), lexer.lex(code));
+    }
+
+    private static String generate(Random random, int numberOfFragments) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < numberOfFragments; i++) {
+            builder.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+        }
+        return builder.toString();
+    }
+
+    @Test
+    public void lex_withSampleFiles() {
+        assertSameTokens(regexpLexer.lex(new File("src/test/resources/objcSample.h")), lexer.lex(new File("src/test/resources/objcSample.h")));
+        assertSameTokens(regexpLexer.lex(new File("src/test/resources/Profile.m")), lexer.lex(new File("src/test/resources/Profile.m")));
+    }
+
+    @Test
+    public void lex_withEdgeCases() {
+        assertSameTokens("");
+        assertSameTokens("/");
+        assertSameTokens("/*/");
+        assertSameTokens("/**/");
+        assertSameTokens("a/b");
+        assertSameTokens("a//b\r\nc");
+        assertSameTokens("/* unterminated /* comment\n with /* more */");
+        assertSameTokens("/* a */ b /* c\r d */ e // f\r");
+        assertSameTokens("\t\u000B\f  ");
+    }
+
+    @Test
+    public void lex_withGeneratedCorpus() {
+        Random random = new Random(42);
+
+        for (int i = 0; i < 2000; i++) {
+            assertSameTokens(generate(random, random.nextInt(200)));
+        }
+    }
+}
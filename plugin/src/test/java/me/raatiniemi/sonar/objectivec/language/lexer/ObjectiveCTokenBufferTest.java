@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.language.lexer;
+
+import com.sonar.sslr.api.GenericTokenType;
+import com.sonar.sslr.api.Token;
+import com.sonar.sslr.api.Trivia;
+import com.sonar.sslr.impl.Lexer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Differential tests between the token buffer and the lexer.
+ */
+public class ObjectiveCTokenBufferTest {
+    private static final String[] FRAGMENTS = {
+            "/", "*", "//", "/*", "*/", "\n", "\r", "\r\n", " ", "\t", "\u000B", "\f",
+            "@interface", "[self init];", "NSString", "\"string\"", "#import", "é", " ", "NOSONAR"
+    };
+    private static final URI URI = new File("test.m").toURI();
+
+    private final Lexer lexer = ObjectiveCLexer.create();
+    private final ObjectiveCTokenBuffer buffer = new ObjectiveCTokenBuffer();
+
+    private static List<Token> flatten(List<Token> tokens) {
+        List<Token> flattened = new ArrayList<>();
+        for (Token token : tokens) {
+            for (Trivia trivia : token.getTrivia()) {
+                flattened.add(trivia.getToken());
+            }
+            if (GenericTokenType.EOF != token.getType()) {
+                flattened.add(token);
+            }
+        }
+        return flattened;
+    }
+
+    private void assertSameTokens(String code) {
+        List<Token> expected = flatten(lexer.lex(code));
+        buffer.lex(code);
+
+        Assert.assertEquals(code, expected.size(), buffer.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Token token = buffer.createToken(i, URI);
+            Assert.assertEquals(code, expected.get(i).getType(), token.getType());
+            Assert.assertEquals(code, expected.get(i).getValue(), token.getValue());
+            Assert.assertEquals(code, expected.get(i).getLine(), token.getLine());
+            Assert.assertEquals(code, expected.get(i).getColumn(), token.getColumn());
+        }
+    }
+
+    private static String generate(Random random, int numberOfFragments) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < numberOfFragments; i++) {
+            builder.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+        }
+        return builder.toString();
+    }
+
+    @Test
+    public void lex_withEdgeCases() {
+        assertSameTokens("");
+        assertSameTokens("/");
+        assertSameTokens("/*/");
+        assertSameTokens("/**/");
+        assertSameTokens("a/b");
+        assertSameTokens("a//b\r\nc");
+        assertSameTokens("/* unterminated /* comment\n with /* more */");
+        assertSameTokens("/* a */ b /* c\r d */ e // f\r");
+    }
+
+    @Test
+    public void lex_withGeneratedCorpus() {
+        Random random = new Random(42);
+
+        for (int i = 0; i < 2000; i++) {
+            assertSameTokens(generate(random, random.nextInt(200)));
+        }
+    }
+
+    @Test
+    public void lex_withMultiLineComment() {
+        buffer.lex("a /* b\r\n c\r d */ e\n");
+
+        Assert.assertEquals(3, buffer.size());
+        Assert.assertEquals(ObjectiveCTokenBuffer.COMMENT, buffer.getType(1));
+        Assert.assertEquals(1, buffer.getLine(1));
+        Assert.assertEquals(2, buffer.getColumn(1));
+        Assert.assertEquals(3, buffer.getEndLine(1));
+        Assert.assertEquals(5, buffer.getEndColumn(1));
+        Assert.assertEquals(3, buffer.getLine(2));
+        Assert.assertEquals(6, buffer.getColumn(2));
+        Assert.assertEquals("e", buffer.getValue(2).toString());
+        Assert.assertEquals(4, buffer.getNumberOfLines());
+    }
+
+    @Test
+    public void lex_withReusedBuffer() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            builder.append("[self init]; // comment\n");
+        }
+        buffer.lex(builder);
+        Assert.assertEquals(6000, buffer.size());
+        Assert.assertEquals(2001, buffer.getNumberOfLines());
+
+        buffer.lex("@end");
+        Assert.assertEquals(1, buffer.size());
+        Assert.assertEquals(1, buffer.getNumberOfLines());
+        Assert.assertEquals("@end", buffer.getValue(0).toString());
+    }
+}
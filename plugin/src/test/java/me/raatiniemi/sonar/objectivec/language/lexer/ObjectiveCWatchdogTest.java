@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.language.lexer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ObjectiveCWatchdogTest {
+    private final AtomicLong time = new AtomicLong();
+
+    private static void checkRepeatedly(ObjectiveCWatchdog watchdog) {
+        for (int i = 0; i < 10_000; i++) {
+            watchdog.check();
+        }
+    }
+
+    @Test
+    public void check_withDisabledWatchdog() {
+        ObjectiveCWatchdog watchdog = new ObjectiveCWatchdog(0, time::get);
+        watchdog.start();
+        time.addAndGet(5_000_000);
+
+        checkRepeatedly(watchdog);
+        Assert.assertFalse(watchdog.isEnabled());
+    }
+
+    @Test(expected = ObjectiveCWatchdog.TimeoutException.class)
+    public void check_withExceededBudget() {
+        ObjectiveCWatchdog watchdog = new ObjectiveCWatchdog(1, time::get);
+        watchdog.start();
+        time.addAndGet(5_000_000);
+
+        checkRepeatedly(watchdog);
+    }
+
+    @Test
+    public void check_withStoppedWatchdog() {
+        ObjectiveCWatchdog watchdog = new ObjectiveCWatchdog(1, time::get);
+        watchdog.start();
+        watchdog.stop();
+        time.addAndGet(5_000_000);
+
+        checkRepeatedly(watchdog);
+    }
+
+    @Test(expected = ObjectiveCWatchdog.TimeoutException.class)
+    public void checkNow_withExceededBudget() {
+        ObjectiveCWatchdog watchdog = new ObjectiveCWatchdog(1, time::get);
+        watchdog.start();
+        time.addAndGet(5_000_000);
+
+        watchdog.checkNow();
+    }
+
+    @Test
+    public void checkNow_withinBudget() {
+        ObjectiveCWatchdog watchdog = new ObjectiveCWatchdog(60_000, time::get);
+        watchdog.start();
+
+        watchdog.checkNow();
+    }
+
+    @Test(expected = ObjectiveCWatchdog.TimeoutException.class)
+    public void lex_withExceededBudget() {
+        ObjectiveCWatchdog watchdog = new ObjectiveCWatchdog(1, time::get);
+        watchdog.start();
+        time.addAndGet(5_000_000);
+
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 10_000; i++) {
+            builder.append("a ");
+        }
+        new ObjectiveCTokenBuffer().lex(builder, watchdog);
+    }
+}
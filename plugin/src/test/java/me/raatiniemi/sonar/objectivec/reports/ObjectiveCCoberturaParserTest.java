@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.reports;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import javax.annotation.Nonnull;
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(JUnit4.class)
+public class ObjectiveCCoberturaParserTest {
+    private static final String REPORT = "<?xml version=\"1.0\"?>\n"
+            + "<!DOCTYPE coverage SYSTEM \"http://cobertura.sourceforge.net/xml/coverage-04.dtd\">\n"
+            + "<coverage line-rate=\"0.5\">\n"
+            + "  <sources><source>/project</source></sources>\n"
+            + "  <packages><package name=\"App\"><classes>\n"
+            + "    <class name=\"Sample\" filename=\"App/Sample.m\">\n"
+            + "      <methods><method name=\"init\"><lines><line number=\"1\" hits=\"9\"/></lines></method></methods>\n"
+            + "      <lines>\n"
+            + "        <line number=\"1\" hits=\"2\" branch=\"false\"/>\n"
+            + "        <line number=\"2\" hits=\"1\" branch=\"true\" condition-coverage=\"50% (1/2)\"/>\n"
+            + "      </lines>\n"
+            + "    </class>\n"
+            + "    <class name=\"Sample+Category\" filename=\"App/Sample.m\">\n"
+            + "      <lines><line number=\"3\" hits=\"99999999999\"/></lines>\n"
+            + "    </class>\n"
+            + "    <class name=\"Skipped\" filename=\"App/Skipped.m\">\n"
+            + "      <lines><line number=\"1\" hits=\"1\"/></lines>\n"
+            + "    </class>\n"
+            + "    <class name=\"Other\" filename=\"App/Other.m\">\n"
+            + "      <lines><line number=\"0\" hits=\"1\"/><line number=\"4\" hits=\"invalid\"/><line number=\"5\" hits=\"0\"/></lines>\n"
+            + "    </class>\n"
+            + "  </classes></package></packages>\n"
+            + "</coverage>\n";
+
+    private static List<String> parse(String report) throws XMLStreamException {
+        List<String> events = new ArrayList<>();
+        ObjectiveCCoberturaParser.parse(new ByteArrayInputStream(report.getBytes(StandardCharsets.UTF_8)), new ObjectiveCCoberturaParser.Handler() {
+            @Override
+            public boolean startFile(@Nonnull String filename, @Nonnull List<String> sources) {
+                events.add("start " + filename + " " + sources);
+                return !filename.endsWith("Skipped.m");
+            }
+
+            @Override
+            public void line(int line, int hits, int conditions, int coveredConditions) {
+                events.add(line + ":" + hits + ":" + conditions + ":" + coveredConditions);
+            }
+
+            @Override
+            public void endFile() {
+                events.add("end");
+            }
+        });
+        return events;
+    }
+
+    @Test
+    public void parse_withReport() throws XMLStreamException {
+        List<String> expected = Arrays.asList(
+                "start App/Sample.m [/project]",
+                "1:2:0:0",
+                "2:1:2:1",
+                "3:" + Integer.MAX_VALUE + ":0:0",
+                "end",
+                "start App/Skipped.m [/project]",
+                "start App/Other.m [/project]",
+                "5:0:0:0",
+                "end"
+        );
+
+        assertEquals(expected, parse(REPORT));
+    }
+
+    @Test(expected = XMLStreamException.class)
+    public void parse_withMalformedReport() throws XMLStreamException {
+        parse("<coverage><packages>");
+    }
+}
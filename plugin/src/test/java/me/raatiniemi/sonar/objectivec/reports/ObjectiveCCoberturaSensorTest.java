@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.reports;
+
+import me.raatiniemi.sonar.objectivec.core.ObjectiveC;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.sonar.api.batch.fs.internal.DefaultInputFile;
+import org.sonar.api.batch.sensor.internal.DefaultSensorDescriptor;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+
+import java.io.File;
+import java.io.IOException;
+
+import static me.raatiniemi.sonar.objectivec.reports.ObjectiveCReportFixtures.createInputFile;
+import static me.raatiniemi.sonar.objectivec.reports.ObjectiveCReportFixtures.writeReport;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class ObjectiveCCoberturaSensorTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private SensorContextTester context;
+    private ObjectiveCCoberturaSensor sensor;
+
+    @Before
+    public void setUp() {
+        context = SensorContextTester.create(temporaryFolder.getRoot());
+        sensor = new ObjectiveCCoberturaSensor(context.fileSystem(), new ObjectiveCReports());
+    }
+
+    @Test
+    public void describe() {
+        DefaultSensorDescriptor descriptor = new DefaultSensorDescriptor();
+
+        sensor.describe(descriptor);
+
+        assertEquals("ObjectiveCCoberturaSensor", descriptor.name());
+        assertTrue(descriptor.languages().contains(ObjectiveC.KEY));
+    }
+
+    @Test
+    public void execute() throws IOException {
+        DefaultInputFile sample = createInputFile(context, "App/Sample.m", "a\nb\nc\n");
+        DefaultInputFile other = createInputFile(context, "App/Other.m", "a\n");
+        writeReport(context, "cobertura.xml", "<coverage>"
+                + "<sources><source>" + temporaryFolder.getRoot().getAbsolutePath() + "</source></sources>"
+                + "<packages><package><classes>"
+                + "<class filename=\"App/Sample.m\"><lines>"
+                + "<line number=\"1\" hits=\"2\"/>"
+                + "<line number=\"2\" hits=\"1\" branch=\"true\" condition-coverage=\"50% (1/2)\"/>"
+                + "<line number=\"10\" hits=\"1\"/>"
+                + "</lines></class>"
+                + "<class filename=\"App/Sample.m\"><lines><line number=\"1\" hits=\"3\"/></lines></class>"
+                + "<class filename=\"" + new File(temporaryFolder.getRoot(), "App/Other.m").getAbsolutePath() + "\">"
+                + "<lines><line number=\"1\" hits=\"0\"/></lines></class>"
+                + "<class filename=\"App/Missing.m\"><lines><line number=\"1\" hits=\"1\"/></lines></class>"
+                + "</classes></package></packages></coverage>");
+
+        sensor.execute(context);
+
+        assertEquals(Integer.valueOf(5), context.lineHits(sample.key(), 1));
+        assertEquals(Integer.valueOf(1), context.lineHits(sample.key(), 2));
+        assertNull(context.lineHits(sample.key(), 3));
+        assertEquals(Integer.valueOf(2), context.conditions(sample.key(), 2));
+        assertEquals(Integer.valueOf(1), context.coveredConditions(sample.key(), 2));
+        assertEquals(Integer.valueOf(0), context.lineHits(other.key(), 1));
+    }
+
+    @Test
+    public void execute_withoutReports() throws IOException {
+        DefaultInputFile sample = createInputFile(context, "App/Sample.m", "a\n");
+
+        sensor.execute(context);
+
+        assertNull(context.lineHits(sample.key(), 1));
+    }
+}
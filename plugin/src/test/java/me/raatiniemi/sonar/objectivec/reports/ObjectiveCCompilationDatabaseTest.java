@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.reports;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(JUnit4.class)
+public class ObjectiveCCompilationDatabaseTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private static Set<Path> read(String contents, Path directory) throws IOException {
+        return ObjectiveCCompilationDatabase.read(new ByteArrayInputStream(contents.getBytes(StandardCharsets.UTF_8)), directory);
+    }
+
+    @Test
+    public void read() throws IOException {
+        Path directory = temporaryFolder.getRoot().toPath();
+        Path absolute = directory.resolve("Other/Absolute.m");
+
+        Set<Path> files = read("[\n"
+                + "{\"directory\": \"" + directory.resolve("App").toString().replace("\\", "\\\\") + "\","
+                + " \"arguments\": [\"clang\", \"-I\", \"include\", \"-c\", \"Sample.m\"], \"file\": \"Sample.m\", \"output\": \"Sample.o\"},\n"
+                + "{\"file\": \"../Model/Profile.m\", \"command\": \"clang -c ../Model/Profile.m\", \"directory\": \"App\"},\n"
+                + "{\"directory\": \"App\", \"file\": \"" + absolute.toString().replace("\\", "\\\\") + "\"},\n"
+                + "{\"directory\": \"App\", \"file\": \"Sample.m\"},\n"
+                + "{\"directory\": \"App\"}\n"
+                + "]", directory);
+
+        assertEquals(Arrays.asList(
+                directory.resolve("App/Sample.m"),
+                directory.resolve("Model/Profile.m"),
+                absolute
+        ), Arrays.asList(files.toArray()));
+    }
+
+    @Test
+    public void read_withFile() throws IOException {
+        Path database = temporaryFolder.newFolder("build").toPath().resolve("compile_commands.json");
+        Files.write(database, "[{\"file\": \"Sample.m\"}]".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(Collections.singleton(database.getParent().resolve("Sample.m")), ObjectiveCCompilationDatabase.read(database));
+    }
+
+    @Test(expected = IOException.class)
+    public void read_withMalformedDatabase() throws IOException {
+        read("{\"file\": \"Sample.m\"}", temporaryFolder.getRoot().toPath());
+    }
+}
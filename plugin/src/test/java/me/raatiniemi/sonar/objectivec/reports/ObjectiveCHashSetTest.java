@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.reports;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class ObjectiveCHashSetTest {
+    @Test
+    public void add() {
+        ObjectiveCHashSet set = new ObjectiveCHashSet();
+        Random random = new Random(42);
+        long[] hashes = new long[10_000];
+        for (int i = 0; i < hashes.length; i++) {
+            hashes[i] = random.nextLong();
+            assertTrue(set.add(hashes[i]));
+        }
+
+        for (long hash : hashes) {
+            assertFalse(set.add(hash));
+        }
+        assertEquals(hashes.length, set.size());
+    }
+
+    @Test
+    public void add_withZero() {
+        ObjectiveCHashSet set = new ObjectiveCHashSet();
+
+        assertTrue(set.add(0));
+        assertFalse(set.add(0));
+        assertEquals(1, set.size());
+    }
+}
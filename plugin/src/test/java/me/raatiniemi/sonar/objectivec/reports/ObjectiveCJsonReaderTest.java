@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.reports;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class ObjectiveCJsonReaderTest {
+    private static ObjectiveCJsonReader create(String json) {
+        return new ObjectiveCJsonReader(new StringReader(json));
+    }
+
+    @Test
+    public void read() throws IOException {
+        ObjectiveCJsonReader reader = create(" {\"a\" : [1, -2.5e1, true, false, null, \"x\\ty\"], \"b\": {}}\n");
+
+        reader.beginObject();
+        assertEquals("a", reader.nextName());
+        reader.beginArray();
+        assertEquals(1, reader.nextLong());
+        assertEquals(-25, reader.nextLong());
+        assertTrue(reader.nextBoolean());
+        assertFalse(reader.nextBoolean());
+        reader.nextNull();
+        assertEquals("x\ty", reader.nextString());
+        assertFalse(reader.hasNext());
+        reader.endArray();
+        assertEquals("b", reader.nextName());
+        reader.beginObject();
+        assertFalse(reader.hasNext());
+        reader.endObject();
+        reader.endObject();
+        assertEquals(ObjectiveCJsonReader.Token.END_DOCUMENT, reader.peek());
+    }
+
+    @Test
+    public void skipValue() throws IOException {
+        ObjectiveCJsonReader reader = create("[{\"a\":[[],{\"b\":\"]}\\\"\"}]},2]");
+
+        reader.beginArray();
+        reader.skipValue();
+        assertEquals(2, reader.nextLong());
+        reader.endArray();
+    }
+
+    @Test
+    public void read_withStringLongerThanBuffer() throws IOException {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 100_000; i++) {
+            builder.append(i % 10);
+        }
+        ObjectiveCJsonReader reader = create("[\"" + builder + "\"]");
+
+        reader.beginArray();
+        assertEquals(builder.toString(), reader.nextString());
+        reader.endArray();
+    }
+
+    @Test(expected = IOException.class)
+    public void read_withMissingComma() throws IOException {
+        ObjectiveCJsonReader reader = create("[1 2]");
+
+        reader.beginArray();
+        reader.nextLong();
+        reader.nextLong();
+    }
+
+    @Test(expected = IOException.class)
+    public void read_withUnexpectedToken() throws IOException {
+        create("{\"a\":1}").beginArray();
+    }
+}
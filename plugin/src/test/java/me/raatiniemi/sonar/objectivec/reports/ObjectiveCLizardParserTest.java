@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.reports;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(JUnit4.class)
+public class ObjectiveCLizardParserTest {
+    private static final String REPORT = "<?xml version=\"1.0\" ?>\n"
+            + "<cppncss>\n"
+            + "  <measure type=\"Function\">\n"
+            + "    <labels><label>Nr.</label><label>NCSS</label><label>CCN</label></labels>\n"
+            + "    <item name=\"-[Sample init] at App/Sample.m:3\"><value>1</value><value>4</value><value>2</value></item>\n"
+            + "  </measure>\n"
+            + "  <measure type=\"File\">\n"
+            + "    <labels><label>Nr.</label><label>NCSS</label><label>CCN</label><label>Functions</label></labels>\n"
+            + "    <item name=\"App/Sample.m\"><value>1</value><value>12</value><value>5</value><value>3</value></item>\n"
+            + "    <item name=\"App/Other.m\"><value>2</value><value>1</value><value>invalid</value><value>1</value></item>\n"
+            + "    <item name=\"App/Empty.m\"><value>3</value><value>0</value><value>0</value><value>0</value></item>\n"
+            + "    <average label=\"CCN\" value=\"2\"/>\n"
+            + "    <sum label=\"CCN\" value=\"5\"/>\n"
+            + "  </measure>\n"
+            + "</cppncss>\n";
+
+    private static List<String> parse(String report) throws XMLStreamException {
+        List<String> events = new ArrayList<>();
+        ObjectiveCLizardParser.parse(
+                new ByteArrayInputStream(report.getBytes(StandardCharsets.UTF_8)),
+                (filename, complexity, functions) -> events.add(filename + ":" + complexity + ":" + functions)
+        );
+        return events;
+    }
+
+    @Test
+    public void parse() throws XMLStreamException {
+        List<String> events = parse(REPORT);
+
+        assertEquals(Arrays.asList("App/Sample.m:5:3", "App/Empty.m:0:0"), events);
+    }
+
+    @Test
+    public void parse_withoutFileMeasure() throws XMLStreamException {
+        List<String> events = parse("<cppncss><measure type=\"Function\">"
+                + "<labels><label>Nr.</label><label>NCSS</label><label>CCN</label><label>Functions</label></labels>"
+                + "<item name=\"App/Sample.m\"><value>1</value><value>1</value><value>1</value><value>1</value></item>"
+                + "</measure></cppncss>");
+
+        assertEquals(Collections.emptyList(), events);
+    }
+
+    @Test(expected = XMLStreamException.class)
+    public void parse_withMalformedReport() throws XMLStreamException {
+        parse("<cppncss><measure type=\"File\">");
+    }
+}
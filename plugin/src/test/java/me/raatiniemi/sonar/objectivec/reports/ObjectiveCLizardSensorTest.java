@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.reports;
+
+import me.raatiniemi.sonar.objectivec.ObjectiveCPlugin;
+import me.raatiniemi.sonar.objectivec.core.ObjectiveC;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.sonar.api.batch.fs.internal.DefaultInputFile;
+import org.sonar.api.batch.sensor.internal.DefaultSensorDescriptor;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+import org.sonar.api.config.internal.MapSettings;
+import org.sonar.api.measures.CoreMetrics;
+
+import java.io.File;
+import java.io.IOException;
+
+import static me.raatiniemi.sonar.objectivec.reports.ObjectiveCReportFixtures.createInputFile;
+import static me.raatiniemi.sonar.objectivec.reports.ObjectiveCReportFixtures.writeReport;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class ObjectiveCLizardSensorTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private SensorContextTester context;
+    private ObjectiveCLizardSensor sensor;
+
+    @Before
+    public void setUp() {
+        context = SensorContextTester.create(temporaryFolder.getRoot());
+        sensor = new ObjectiveCLizardSensor(context.fileSystem(), new ObjectiveCReports());
+    }
+
+    private void disableComplexity() {
+        MapSettings settings = new MapSettings();
+        settings.setProperty(ObjectiveCPlugin.SQUID_COMPLEXITY_KEY, false);
+        context.setSettings(settings);
+    }
+
+    @Test
+    public void describe() {
+        DefaultSensorDescriptor descriptor = new DefaultSensorDescriptor();
+
+        sensor.describe(descriptor);
+
+        assertEquals("ObjectiveCLizardSensor", descriptor.name());
+        assertTrue(descriptor.languages().contains(ObjectiveC.KEY));
+    }
+
+    @Test
+    public void execute() throws IOException {
+        DefaultInputFile sample = createInputFile(context, "App/Sample.m", "a\n");
+        writeReport(context, "lizard.xml", "<cppncss><measure type=\"File\">"
+                + "<labels><label>Nr.</label><label>NCSS</label><label>CCN</label><label>Functions</label></labels>"
+                + "<item name=\"App/Sample.m\"><value>1</value><value>12</value><value>5</value><value>3</value></item>"
+                + "<item name=\"App/Sample.m\"><value>2</value><value>12</value><value>6</value><value>4</value></item>"
+                + "<item name=\"App/Missing.m\"><value>3</value><value>1</value><value>1</value><value>1</value></item>"
+                + "</measure></cppncss>");
+        disableComplexity();
+
+        sensor.execute(context);
+
+        assertEquals(Integer.valueOf(5), context.<Integer>measure(sample.key(), CoreMetrics.COMPLEXITY).value());
+        assertEquals(Integer.valueOf(3), context.<Integer>measure(sample.key(), CoreMetrics.FUNCTIONS).value());
+    }
+
+    @Test
+    public void execute_withComplexity() throws IOException {
+        DefaultInputFile sample = createInputFile(context, "App/Sample.m", "a\n");
+        writeReport(context, "lizard.xml", "<cppncss><measure type=\"File\">"
+                + "<labels><label>Nr.</label><label>NCSS</label><label>CCN</label><label>Functions</label></labels>"
+                + "<item name=\"App/Sample.m\"><value>1</value><value>12</value><value>5</value><value>3</value></item>"
+                + "</measure></cppncss>");
+
+        sensor.execute(context);
+
+        assertNull(context.measure(sample.key(), CoreMetrics.COMPLEXITY));
+    }
+
+    @Test
+    public void execute_withoutReports() throws IOException {
+        DefaultInputFile sample = createInputFile(context, "App/Sample.m", "a\n");
+        disableComplexity();
+
+        sensor.execute(context);
+
+        assertNull(context.measure(sample.key(), CoreMetrics.COMPLEXITY));
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.reports;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class ObjectiveCLlvmCovParserTest {
+    private static final String EXPORT = "src/test/resources/llvm-cov/export.json";
+
+    private static InputStream toStream(String contents) {
+        return new ByteArrayInputStream(contents.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<String> parse(InputStream input) throws IOException {
+        List<String> events = new ArrayList<>();
+        ObjectiveCLlvmCovParser.parse(input, (filename, coverage) -> {
+            events.add(filename);
+            for (int line = 1; line <= coverage.getLines(); line++) {
+                int hits = coverage.getHits(line);
+                int conditions = coverage.getConditions(line);
+                if (hits >= 0 || conditions > 0) {
+                    events.add(line + ":" + hits + ":" + coverage.getCoveredConditions(line) + "/" + conditions);
+                }
+            }
+        });
+        return events;
+    }
+
+    private static List<String> parse(String export) throws IOException {
+        return parse(toStream(export));
+    }
+
+    @Test
+    public void parse_withExport() throws IOException {
+        List<String> events;
+        try (InputStream input = Files.newInputStream(Paths.get(EXPORT))) {
+            events = parse(input);
+        }
+
+        assertEquals(Arrays.asList(
+                "/Users/ci/Project/Sample/Sample.m",
+                "5:3:0/0", "6:3:2/2", "7:1:0/0", "8:1:0/0", "9:2:0/0", "10:2:0/0", "12:0:0/0", "13:0:0/0",
+                "/Users/ci/Project/Sample/Sample.h",
+                "3:4:0/0",
+                "/Users/ci/Project/Pods/Vendored/Vendored.m",
+                "1:1:0/0", "2:1:0/0"
+        ), events);
+    }
+
+    @Test
+    public void parse_withSegmentsWithoutGapRegion() throws IOException {
+        List<String> events = parse("{\"data\":[{\"files\":[{\"filename\":\"A.m\",\"segments\":["
+                + "[1,1,2,true,true],[3,1,0,false,false]"
+                + "]}]}]}");
+
+        assertEquals(Arrays.asList("A.m", "1:2:0/0", "2:2:0/0", "3:2:0/0"), events);
+    }
+
+    @Test
+    public void parse_withSkippedRegion() throws IOException {
+        List<String> events = parse("{\"data\":[{\"files\":[{\"filename\":\"A.m\",\"segments\":["
+                + "[1,1,5,true,true,false],[2,1,0,false,true,false],[4,1,5,true,true,false],[5,1,0,false,false,false]"
+                + "]}]}]}");
+
+        assertEquals(Arrays.asList("A.m", "1:5:0/0", "4:5:0/0", "5:5:0/0"), events);
+    }
+
+    @Test
+    public void parse_withMultipleRegionsOnLine() throws IOException {
+        List<String> events = parse("{\"data\":[{\"files\":[{\"filename\":\"A.m\",\"segments\":["
+                + "[1,1,1,true,true,false],[1,5,7,true,true,false],[1,9,1,true,false,false],[2,1,0,false,false,false]"
+                + "]}]}]}");
+
+        assertEquals(Arrays.asList("A.m", "1:7:0/0", "2:1:0/0"), events);
+    }
+
+    @Test
+    public void parse_withLargeCount() throws IOException {
+        List<String> events = parse("{\"data\":[{\"files\":[{\"filename\":\"A.m\",\"segments\":["
+                + "[1,1,99999999999,true,true,false],[1,9,0,false,false,false]"
+                + "]}]}]}");
+
+        assertEquals(Arrays.asList("A.m", "1:" + Integer.MAX_VALUE + ":0/0"), events);
+    }
+
+    @Test
+    public void parse_withEscapedFilenameAndUnknownKeys() throws IOException {
+        List<String> events = parse("{\"version\":\"2.0.1\",\"data\":[{\"totals\":{\"lines\":{\"percent\":1.5e1}},"
+                + "\"files\":[{\"summary\":{\"a\":[null,true,-1,\"}]\"]},\"filename\":\"App\\/\\u00e9 \\\"A\\\".m\"}]}]}");
+
+        assertEquals(Collections.singletonList("App/é \"A\".m"), events);
+    }
+
+    @Test
+    public void parse_withoutFiles() throws IOException {
+        assertEquals(Collections.emptyList(), parse("{\"data\":[{\"functions\":[]}],\"type\":\"llvm.coverage.json.export\"}"));
+    }
+
+    @Test(expected = IOException.class)
+    public void parse_withMalformedExport() throws IOException {
+        parse("{\"data\":[{\"files\":[{\"filename\":\"A.m\",\"segments\":[[1,1,");
+    }
+
+    @Test
+    public void isExport() throws IOException {
+        try (InputStream input = Files.newInputStream(Paths.get(EXPORT))) {
+            assertTrue(ObjectiveCLlvmCovParser.isExport(input));
+        }
+        assertTrue(ObjectiveCLlvmCovParser.isExport(toStream("{\"type\":\"llvm.coverage.json.export\",\"data\":[]}")));
+        assertTrue(ObjectiveCLlvmCovParser.isExport(toStream("{\"data\":[{\"files\":")));
+    }
+
+    @Test
+    public void isExport_withOtherJson() throws IOException {
+        assertFalse(ObjectiveCLlvmCovParser.isExport(toStream("{}")));
+        assertFalse(ObjectiveCLlvmCovParser.isExport(toStream("[]")));
+        assertFalse(ObjectiveCLlvmCovParser.isExport(toStream("{\"type\":\"other\",\"data\":[{\"files\":[]}]}")));
+        assertFalse(ObjectiveCLlvmCovParser.isExport(toStream("{\"data\":{\"files\":[]}}")));
+        assertFalse(ObjectiveCLlvmCovParser.isExport(toStream("{\"data\":[{\"name\":\"files\"}]}")));
+    }
+}
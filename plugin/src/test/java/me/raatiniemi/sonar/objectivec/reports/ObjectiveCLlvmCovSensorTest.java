@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.reports;
+
+import me.raatiniemi.sonar.objectivec.core.ObjectiveC;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.sonar.api.batch.fs.internal.DefaultInputFile;
+import org.sonar.api.batch.sensor.internal.DefaultSensorDescriptor;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import static me.raatiniemi.sonar.objectivec.reports.ObjectiveCReportFixtures.createInputFile;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class ObjectiveCLlvmCovSensorTest {
+    private static final String SAMPLE = "#import \"Sample.h\"\n"
+            + "\n"
+            + "@implementation Sample\n"
+            + "\n"
+            + "- (NSInteger)value:(BOOL)flag {\n"
+            + "    if (flag) {\n"
+            + "        return 1;\n"
+            + "    }\n"
+            + "    return 0;\n"
+            + "}\n"
+            + "\n"
+            + "- (void)unused {\n"
+            + "}\n"
+            + "\n"
+            + "@end\n";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private SensorContextTester context;
+    private ObjectiveCLlvmCovSensor sensor;
+
+    @Before
+    public void setUp() {
+        context = SensorContextTester.create(temporaryFolder.getRoot());
+        sensor = new ObjectiveCLlvmCovSensor(context.fileSystem(), new ObjectiveCReports());
+    }
+
+    /**
+     * Write the checked-in export to the report directory, with the paths of the machine where
+     * it was exported replaced by the temporary folder.
+     */
+    private void writeReport(String name) throws IOException {
+        String export = new String(Files.readAllBytes(Paths.get("src/test/resources/llvm-cov/export.json")), StandardCharsets.UTF_8)
+                .replace("/Users/ci/Project", temporaryFolder.getRoot().getAbsolutePath().replace("\\", "\\\\"));
+        ObjectiveCReportFixtures.writeReport(context, name, export);
+    }
+
+    @Test
+    public void describe() {
+        DefaultSensorDescriptor descriptor = new DefaultSensorDescriptor();
+
+        sensor.describe(descriptor);
+
+        assertEquals("ObjectiveCLlvmCovSensor", descriptor.name());
+        assertTrue(descriptor.languages().contains(ObjectiveC.KEY));
+    }
+
+    @Test
+    public void execute() throws IOException {
+        DefaultInputFile sample = createInputFile(context, "Sample/Sample.m", SAMPLE);
+        DefaultInputFile header = createInputFile(context, "Sample/Sample.h", "@interface Sample\n@end");
+        writeReport("coverage.json");
+
+        sensor.execute(context);
+
+        assertEquals(Integer.valueOf(3), context.lineHits(sample.key(), 5));
+        assertEquals(Integer.valueOf(3), context.lineHits(sample.key(), 6));
+        assertEquals(Integer.valueOf(1), context.lineHits(sample.key(), 7));
+        assertEquals(Integer.valueOf(2), context.lineHits(sample.key(), 9));
+        assertEquals(Integer.valueOf(0), context.lineHits(sample.key(), 12));
+        assertNull(context.lineHits(sample.key(), 1));
+        assertNull(context.lineHits(sample.key(), 11));
+        assertNull(context.lineHits(sample.key(), 15));
+        assertEquals(Integer.valueOf(2), context.conditions(sample.key(), 6));
+        assertEquals(Integer.valueOf(2), context.coveredConditions(sample.key(), 6));
+        assertNull(context.lineHits(header.key(), 3));
+    }
+
+    @Test
+    public void execute_withoutReports() throws IOException {
+        DefaultInputFile sample = createInputFile(context, "Sample/Sample.m", SAMPLE);
+
+        sensor.execute(context);
+
+        assertNull(context.lineHits(sample.key(), 5));
+    }
+
+    @Test
+    public void execute_withMalformedReport() throws IOException {
+        DefaultInputFile sample = createInputFile(context, "Sample/Sample.m", SAMPLE);
+        ObjectiveCReportFixtures.writeReport(context, "coverage.json", "{\"data\":[{\"files\":[");
+
+        sensor.execute(context);
+
+        assertNull(context.lineHits(sample.key(), 5));
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.reports;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+@RunWith(JUnit4.class)
+public class ObjectiveCOCLintParserTest {
+    private static List<String> parse(String report) throws XMLStreamException {
+        List<String> violations = new ArrayList<>();
+        ObjectiveCOCLintParser.parse(
+                new ByteArrayInputStream(report.getBytes(StandardCharsets.UTF_8)),
+                violation -> violations.add(violation.getPath() + ":" + violation.getLine() + ":" + violation.getColumn() + ":" + violation.getRule() + ":" + violation.getMessage())
+        );
+        return violations;
+    }
+
+    @Test
+    public void parse_withOCLintReport() throws XMLStreamException {
+        List<String> violations = parse("<?xml version=\"1.0\"?>\n"
+                + "<oclint version=\"0.13\"><summary/><violations>"
+                + "<violation path=\"/project/Sample.m\" startline=\"10\" startcolumn=\"1\" endline=\"10\" endcolumn=\"120\""
+                + " rule=\"long line\" category=\"size\" priority=\"3\" message=\"Line with 120 characters exceeds limit of 100\"/>"
+                + "<violation path=\"/project/Sample.m\" startline=\"\" rule=\"empty if statement\" priority=\"2\"/>"
+                + "<violation path=\"/project/Sample.m\" startline=\"1\"/>"
+                + "</violations></oclint>");
+
+        assertEquals(Arrays.asList(
+                "/project/Sample.m:10:1:long line:Line with 120 characters exceeds limit of 100",
+                "/project/Sample.m:0:0:empty if statement:"
+        ), violations);
+    }
+
+    @Test
+    public void parse_withPmdReport() throws XMLStreamException {
+        List<String> violations = parse("<?xml version=\"1.0\"?>\n"
+                + "<pmd version=\"oclint-0.13\">"
+                + "<file name=\"/project/Sample.m\">"
+                + "<violation begincolumn=\"1\" endcolumn=\"120\" beginline=\"10\" endline=\"10\" priority=\"3\" rule=\"long line\" ruleset=\"size\">\n"
+                + "  Line with 120 characters exceeds limit of 100\n"
+                + "</violation>"
+                + "</file>"
+                + "<file name=\"/project/Other.m\">"
+                + "<violation beginline=\"2\" rule=\"empty if statement\"/>"
+                + "</file>"
+                + "</pmd>");
+
+        assertEquals(Arrays.asList(
+                "/project/Sample.m:10:1:long line:Line with 120 characters exceeds limit of 100",
+                "/project/Other.m:2:0:empty if statement:"
+        ), violations);
+    }
+
+    @Test
+    public void hash() {
+        ObjectiveCOCLintParser.Violation violation = new ObjectiveCOCLintParser.Violation("a", 1, 1, 1, 2, "bc", "");
+
+        assertEquals(violation.hash("a"), new ObjectiveCOCLintParser.Violation("a", 1, 1, 1, 2, "bc", "").hash("a"));
+        assertEquals(violation.hash("a"), new ObjectiveCOCLintParser.Violation("/b/a", 1, 1, 1, 2, "bc", "").hash("a"));
+        assertNotEquals(violation.hash("a"), new ObjectiveCOCLintParser.Violation("a", 1, 1, 1, 2, "c", "").hash("ab"));
+        assertNotEquals(violation.hash("a"), new ObjectiveCOCLintParser.Violation("a", 2, 1, 2, 2, "bc", "").hash("a"));
+        assertNotEquals(violation.hash("a"), new ObjectiveCOCLintParser.Violation("a", 1, 5, 1, 6, "bc", "").hash("a"));
+    }
+}
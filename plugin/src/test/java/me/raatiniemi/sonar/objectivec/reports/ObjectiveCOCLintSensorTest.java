@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.reports;
+
+import me.raatiniemi.sonar.objectivec.core.ObjectiveC;
+import me.raatiniemi.sonar.oclint.OCLintRulesDefinition;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.sonar.api.batch.fs.internal.DefaultInputFile;
+import org.sonar.api.batch.rule.internal.ActiveRulesBuilder;
+import org.sonar.api.batch.sensor.internal.DefaultSensorDescriptor;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+import org.sonar.api.batch.sensor.issue.Issue;
+import org.sonar.api.rule.RuleKey;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static me.raatiniemi.sonar.objectivec.reports.ObjectiveCReportFixtures.createInputFile;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class ObjectiveCOCLintSensorTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private SensorContextTester context;
+    private ObjectiveCOCLintSensor sensor;
+
+    @Before
+    public void setUp() {
+        context = SensorContextTester.create(temporaryFolder.getRoot());
+        context.setActiveRules(new ActiveRulesBuilder()
+                .create(RuleKey.of(OCLintRulesDefinition.REPOSITORY_KEY, "long line")).activate()
+                .create(RuleKey.of(OCLintRulesDefinition.REPOSITORY_KEY, "empty if statement")).activate()
+                .build());
+        sensor = new ObjectiveCOCLintSensor(context.fileSystem(), new ObjectiveCReports());
+    }
+
+    private void writeReport(String name, String... violations) throws IOException {
+        StringBuilder report = new StringBuilder("<oclint version=\"0.13\"><violations>");
+        for (String violation : violations) {
+            report.append(violation);
+        }
+        report.append("</violations></oclint>");
+        ObjectiveCReportFixtures.writeReport(context, name, report.toString());
+    }
+
+    private static String violation(String path, int line, String rule) {
+        return "<violation path=\"" + path + "\" startline=\"" + line + "\" rule=\"" + rule + "\" message=\"" + rule + "\"/>";
+    }
+
+    @Test
+    public void describe() {
+        DefaultSensorDescriptor descriptor = new DefaultSensorDescriptor();
+
+        sensor.describe(descriptor);
+
+        assertEquals("ObjectiveCOCLintSensor", descriptor.name());
+        assertTrue(descriptor.languages().contains(ObjectiveC.KEY));
+    }
+
+    @Test
+    public void execute_withShards() throws IOException {
+        DefaultInputFile sample = createInputFile(context, "Sample.m", "a\nb\nc\n");
+        String path = new File(temporaryFolder.getRoot(), "Sample.m").getAbsolutePath();
+        List<String> violations = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            violations.add(violation(path, 1 + i % 3, "long line").replace("message=\"long line\"", "message=\"" + i + "\""));
+        }
+        writeReport("oclint-1.xml", violations.subList(0, 2000).toArray(new String[0]));
+        writeReport("oclint-2.xml", violations.subList(1000, 3000).toArray(new String[0]));
+        writeReport("oclint-3.xml",
+                violation(path, 2, "empty if statement"),
+                violation(path, 10, "empty if statement"),
+                violation(path, 1, "inactive rule"),
+                violation("Missing.m", 1, "long line"));
+        context.settings().setProperty(ObjectiveCReportType.OCLINT.getReportPathKey(), "sonar-reports/oclint-*.xml");
+
+        sensor.execute(context);
+
+        List<Issue> issues = new ArrayList<>(context.allIssues());
+        assertEquals(3002, issues.size());
+        long onLine = issues.stream()
+                .filter(issue -> "empty if statement".equals(issue.ruleKey().rule()))
+                .filter(issue -> null != issue.primaryLocation().textRange())
+                .count();
+        assertEquals(1, onLine);
+        assertTrue(issues.stream().allMatch(issue -> sample.equals(issue.primaryLocation().inputComponent())));
+    }
+
+    @Test
+    public void execute_withRelativeAndAbsolutePaths() throws IOException {
+        DefaultInputFile sample = createInputFile(context, "Sample.m", "a\nb\nc\n");
+        String path = new File(temporaryFolder.getRoot(), "Sample.m").getAbsolutePath();
+        writeReport("oclint-1.xml", violation("Sample.m", 1, "long line"));
+        writeReport("oclint-2.xml", violation(path, 1, "long line"));
+        context.settings().setProperty(ObjectiveCReportType.OCLINT.getReportPathKey(), "sonar-reports/oclint-*.xml");
+
+        sensor.execute(context);
+
+        List<Issue> issues = new ArrayList<>(context.allIssues());
+        assertEquals(1, issues.size());
+        assertEquals(sample, issues.get(0).primaryLocation().inputComponent());
+    }
+
+    @Test
+    public void execute_withViolationsOnSameLine() throws IOException {
+        createInputFile(context, "Sample.m", "a\nb\nc\n");
+        String violation = violation("Sample.m", 1, "long line");
+        writeReport("oclint.xml",
+                violation.replace(" rule=", " startcolumn=\"1\" rule="),
+                violation.replace(" rule=", " startcolumn=\"5\" rule="));
+        context.settings().setProperty(ObjectiveCReportType.OCLINT.getReportPathKey(), "sonar-reports/oclint.xml");
+
+        sensor.execute(context);
+
+        assertEquals(2, context.allIssues().size());
+    }
+
+    @Test
+    public void execute_withoutReports() throws IOException {
+        createInputFile(context, "Sample.m", "a\n");
+
+        sensor.execute(context);
+
+        assertEquals(Collections.emptyList(), new ArrayList<>(context.allIssues()));
+    }
+
+    @Test
+    public void execute_withMalformedReport() throws IOException {
+        createInputFile(context, "Sample.m", "a\n");
+        String path = new File(temporaryFolder.getRoot(), "Sample.m").getAbsolutePath();
+        ObjectiveCReportFixtures.writeReport(context, "oclint.xml", "<oclint><violations>" + violation(path, 1, "long line") + "<violation");
+
+        sensor.execute(context);
+
+        assertEquals(1, context.allIssues().size());
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.reports;
+
+import me.raatiniemi.sonar.objectivec.ObjectiveCPlugin;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.sonar.api.config.internal.MapSettings;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class ObjectiveCReportDiscoveryTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Path baseDir;
+    private MapSettings settings;
+
+    @Before
+    public void setUp() throws IOException {
+        baseDir = temporaryFolder.newFolder("project").toPath();
+        settings = new MapSettings();
+    }
+
+    private Path write(String path, String contents) throws IOException {
+        Path file = baseDir.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.write(file, contents.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private ObjectiveCReportDiscovery discover() {
+        return ObjectiveCReportDiscovery.discover(baseDir, settings.asConfig());
+    }
+
+    @Test
+    public void discover_withReports() throws IOException {
+        write("sonar-reports/TEST-report.xml", "<?xml version=\"1.0\"?>\n<testsuites><testsuite/></testsuites>");
+        Path cobertura = write("sonar-reports/cobertura.xml", "<?xml version=\"1.0\"?>\n"
+                + "<!DOCTYPE coverage SYSTEM \"http://cobertura.sourceforge.net/xml/coverage-04.dtd\">\n"
+                + "<coverage line-rate=\"1.0\"><packages/></coverage>");
+        Path oclint = write("sonar-reports/nested/oclint.xml", "<oclint version=\"0.13\"><violations/></oclint>");
+        Path lizard = write("sonar-reports/lizard.xml", "<?xml-stylesheet type=\"text/xsl\" href=\"lizard.xsl\"?><cppncss/>");
+        write("sonar-reports/other.xml", "<project/>");
+        write("sonar-reports/malformed.xml", "not xml");
+        Path llvmCov = write("sonar-reports/llvm-cov.json", "{\"data\":[{\"files\":[]}],\"type\":\"llvm.coverage.json.export\"}");
+        write("sonar-reports/other.json", "{}");
+        write("sonar-reports/malformed.json", "not json");
+
+        ObjectiveCReportDiscovery reports = discover();
+
+        assertEquals(Collections.singletonList(cobertura), reports.getReports(ObjectiveCReportType.COBERTURA));
+        assertEquals(Collections.singletonList(oclint), reports.getReports(ObjectiveCReportType.OCLINT));
+        assertEquals(Collections.singletonList(lizard), reports.getReports(ObjectiveCReportType.LIZARD));
+        assertEquals(Collections.singletonList(llvmCov), reports.getReports(ObjectiveCReportType.LLVM_COV));
+    }
+
+    @Test
+    public void discover_withoutReportDirectory() {
+        ObjectiveCReportDiscovery reports = discover();
+
+        for (ObjectiveCReportType type : ObjectiveCReportType.values()) {
+            assertTrue(reports.getReports(type).isEmpty());
+        }
+    }
+
+    @Test
+    public void discover_withReportPath() throws IOException {
+        Path first = write("build/reports/oclint-first.xml", "<oclint/>");
+        Path second = write("build/reports/oclint-second.xml", "<oclint/>");
+        write("build/reports/other.xml", "<oclint/>");
+        write("build/reports/nested/oclint-nested.xml", "<oclint/>");
+        write("build/coverage.xml", "<coverage/>");
+        settings.setProperty(ObjectiveCReportType.OCLINT.getReportPathKey(), "build/reports/oclint-*.xml");
+
+        ObjectiveCReportDiscovery reports = discover();
+
+        assertEquals(Arrays.asList(first, second), reports.getReports(ObjectiveCReportType.OCLINT));
+        assertTrue(reports.getReports(ObjectiveCReportType.COBERTURA).isEmpty());
+    }
+
+    @Test
+    public void discover_withRecursiveReportPath() throws IOException {
+        Path cobertura = write("App/build/cobertura.xml", "<coverage/>");
+        write("Pods/Networking/cobertura.xml", "<coverage/>");
+        write(".build/cobertura.xml", "<coverage/>");
+        write("a/b/c/d/e/f/g/h/i/j/k/cobertura.xml", "<coverage/>");
+        settings.setProperty(ObjectiveCReportType.COBERTURA.getReportPathKey(), "**/cobertura.xml");
+
+        ObjectiveCReportDiscovery reports = discover();
+
+        assertEquals(Collections.singletonList(cobertura), reports.getReports(ObjectiveCReportType.COBERTURA));
+    }
+
+    @Test
+    public void discover_withReportDirectories() throws IOException {
+        write("sonar-reports/cobertura.xml", "<coverage/>");
+        Path cobertura = write("reports/cobertura.xml", "<coverage/>");
+        settings.setProperty(ObjectiveCPlugin.REPORTS_DIRECTORIES_KEY, "reports");
+
+        ObjectiveCReportDiscovery reports = discover();
+
+        assertEquals(Collections.singletonList(cobertura), reports.getReports(ObjectiveCReportType.COBERTURA));
+    }
+
+    @Test
+    public void sniff_withEmptyFile() throws IOException {
+        assertNull(ObjectiveCReportDiscovery.sniff(write("empty.xml", "")));
+    }
+}
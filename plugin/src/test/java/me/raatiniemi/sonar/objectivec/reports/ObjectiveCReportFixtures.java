@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.reports;
+
+import me.raatiniemi.sonar.objectivec.core.ObjectiveC;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.DefaultInputFile;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Creates the input files and reports for the sensor tests, relative to the base directory of the context.
+ */
+final class ObjectiveCReportFixtures {
+    static final String REPORT_DIRECTORY = "sonar-reports";
+
+    private ObjectiveCReportFixtures() {
+    }
+
+    static DefaultInputFile createInputFile(SensorContextTester context, String path, String contents) throws IOException {
+        File baseDir = context.fileSystem().baseDir();
+        File file = new File(baseDir, path);
+        Files.createDirectories(file.getParentFile().toPath());
+        Files.write(file.toPath(), contents.getBytes(StandardCharsets.UTF_8));
+
+        DefaultInputFile inputFile = TestInputFileBuilder.create("", baseDir, file)
+                .setLanguage(ObjectiveC.KEY)
+                .setType(InputFile.Type.MAIN)
+                .setCharset(StandardCharsets.UTF_8)
+                .initMetadata(contents)
+                .build();
+        context.fileSystem().add(inputFile);
+        return inputFile;
+    }
+
+    /**
+     * Write the report to the default report directory, which is created if needed.
+     */
+    static void writeReport(SensorContextTester context, String name, String contents) throws IOException {
+        File reportDirectory = new File(context.fileSystem().baseDir(), REPORT_DIRECTORY);
+        Files.createDirectories(reportDirectory.toPath());
+        Files.write(new File(reportDirectory, name).toPath(), contents.getBytes(StandardCharsets.UTF_8));
+    }
+}
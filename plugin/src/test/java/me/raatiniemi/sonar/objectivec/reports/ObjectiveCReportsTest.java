@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.reports;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.sonar.api.batch.fs.internal.DefaultFileSystem;
+import org.sonar.api.config.Configuration;
+import org.sonar.api.config.internal.MapSettings;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class ObjectiveCReportsTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private DefaultFileSystem createModule(String name, boolean withReport) throws IOException {
+        File baseDir = temporaryFolder.newFolder(name);
+        if (withReport) {
+            File reportDirectory = new File(baseDir, "sonar-reports");
+            Files.createDirectories(reportDirectory.toPath());
+            Files.write(new File(reportDirectory, "cobertura.xml").toPath(), "<coverage/>".getBytes(StandardCharsets.UTF_8));
+        }
+        return new DefaultFileSystem(baseDir);
+    }
+
+    @Test
+    public void get() throws IOException {
+        ObjectiveCReports reports = new ObjectiveCReports();
+        DefaultFileSystem fileSystem = createModule("module", true);
+        Configuration configuration = new MapSettings().asConfig();
+
+        ObjectiveCReportDiscovery discovery = reports.get(fileSystem, configuration);
+
+        assertFalse(discovery.getReports(ObjectiveCReportType.COBERTURA).isEmpty());
+        assertSame(discovery, reports.get(fileSystem, configuration));
+    }
+
+    @Test
+    public void get_withOtherModule() throws IOException {
+        ObjectiveCReports reports = new ObjectiveCReports();
+        Configuration configuration = new MapSettings().asConfig();
+        ObjectiveCReportDiscovery first = reports.get(createModule("first", true), configuration);
+
+        ObjectiveCReportDiscovery second = reports.get(createModule("second", false), configuration);
+
+        assertNotSame(first, second);
+        assertTrue(second.getReports(ObjectiveCReportType.COBERTURA).isEmpty());
+    }
+
+    @Test
+    public void get_withProjectSettings() throws IOException {
+        ObjectiveCReports reports = new ObjectiveCReports();
+        DefaultFileSystem fileSystem = createModule("module", false);
+        Files.createDirectories(fileSystem.baseDir().toPath().resolve("build"));
+        Files.write(fileSystem.baseDir().toPath().resolve("build/coverage.xml"), "<coverage/>".getBytes(StandardCharsets.UTF_8));
+        reports.get(fileSystem, new MapSettings().asConfig());
+        MapSettings settings = new MapSettings();
+        settings.setProperty(ObjectiveCReportType.COBERTURA.getReportPathKey(), "build/coverage.xml");
+
+        ObjectiveCReportDiscovery discovery = reports.get(fileSystem, settings.asConfig());
+
+        assertFalse(discovery.getReports(ObjectiveCReportType.COBERTURA).isEmpty());
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.violations;
+
+import me.raatiniemi.sonar.oclint.OCLintProfile;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.sonar.api.profiles.RulesProfile;
+import org.sonar.api.rules.ActiveRule;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+@RunWith(JUnit4.class)
+public class ObjectiveCProfileIndexTest {
+    static final String PROFILE = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<profile>\n"
+            + "  <name>OCLint</name>\n"
+            + "  <language>objc</language>\n"
+            + "  <rules>\n"
+            + "    <rule><repositoryKey>OCLint</repositoryKey><key>bitwise operator in conditional</key><priority>CRITICAL</priority></rule>\n"
+            + "    <rule><repositoryKey>OCLint</repositoryKey><key>empty if statement</key><priority>MINOR</priority></rule>\n"
+            + "    <rule>\n"
+            + "      <repositoryKey>other</repositoryKey><key>long line</key><priority>INFO</priority>\n"
+            + "      <parameters><parameter><key>limit</key><value>100</value></parameter></parameters>\n"
+            + "    </rule>\n"
+            + "  </rules>\n"
+            + "</profile>\n";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private static List<ObjectiveCProfileIndex.Entry> writeAndRead(List<ObjectiveCProfileIndex.Entry> entries) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ObjectiveCProfileIndex.write(entries, output);
+
+        return ObjectiveCProfileIndex.read(new ByteArrayInputStream(output.toByteArray()));
+    }
+
+    private static RulesProfile activate(List<ObjectiveCProfileIndex.Entry> entries) {
+        RulesProfile profile = RulesProfile.create("Objective-C", "objc");
+        entries.forEach(entry -> entry.activate(profile));
+        return profile;
+    }
+
+    @Test
+    public void read_withWrittenProfile() throws IOException {
+        List<ObjectiveCProfileIndex.Entry> entries = writeAndRead(ObjectiveCProfileIndex.fromXml(new StringReader(PROFILE)));
+
+        List<ActiveRule> activeRules = activate(entries).getActiveRules();
+        assertEquals(3, activeRules.size());
+        assertEquals("OCLint", activeRules.get(0).getRepositoryKey());
+        assertEquals("bitwise operator in conditional", activeRules.get(0).getRuleKey());
+        assertEquals("CRITICAL", activeRules.get(0).getSeverity().name());
+        assertEquals("OCLint", activeRules.get(1).getRepositoryKey());
+        assertEquals("empty if statement", activeRules.get(1).getRuleKey());
+        assertEquals("MINOR", activeRules.get(1).getSeverity().name());
+        assertEquals("other", activeRules.get(2).getRepositoryKey());
+        assertEquals("INFO", activeRules.get(2).getSeverity().name());
+        assertEquals("100", activeRules.get(2).getParameter("limit"));
+    }
+
+    @Test
+    public void fromProfile() throws IOException {
+        RulesProfile profile = activate(ObjectiveCProfileIndex.fromXml(new StringReader(PROFILE)));
+
+        List<ActiveRule> activeRules = activate(writeAndRead(ObjectiveCProfileIndex.fromProfile(profile))).getActiveRules();
+
+        assertEquals(3, activeRules.size());
+        assertEquals("MINOR", activeRules.get(1).getSeverity().name());
+        assertEquals("100", activeRules.get(2).getParameter("limit"));
+    }
+
+    @Test(expected = IOException.class)
+    public void fromXml_withUnknownSeverity() throws IOException {
+        ObjectiveCProfileIndex.fromXml(new StringReader(PROFILE.replace("MINOR", "SEVERE")));
+    }
+
+    @Test(expected = IOException.class)
+    public void fromXml_withMissingKey() throws IOException {
+        ObjectiveCProfileIndex.fromXml(new StringReader(PROFILE.replace("<key>empty if statement</key>", "")));
+    }
+
+    @Test(expected = IOException.class)
+    public void read_withUnknownFormat() throws IOException {
+        ObjectiveCProfileIndex.read(new ByteArrayInputStream(new byte[]{0, 0, 0, 1, 0, 0, 0, 1}));
+    }
+
+    /**
+     * Run the index generator of the build with the profile of the OCLint module, when available.
+     */
+    @Test
+    public void main() throws IOException {
+        Assume.assumeTrue(null != ObjectiveCProfileIndex.class.getResource(OCLintProfile.PROFILE_PATH));
+        File indexFile = new File(temporaryFolder.getRoot(), "index/profile-oclint.index");
+
+        ObjectiveCProfileIndex.main(new String[]{indexFile.getPath()});
+
+        try (InputStream input = Files.newInputStream(indexFile.toPath())) {
+            assertFalse(activate(ObjectiveCProfileIndex.read(input)).getActiveRules().isEmpty());
+        }
+    }
+}
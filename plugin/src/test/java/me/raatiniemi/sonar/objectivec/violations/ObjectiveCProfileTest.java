@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2018 Tobias Raatiniemi
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package me.raatiniemi.sonar.objectivec.violations;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.sonar.api.profiles.RulesProfile;
+import org.sonar.api.utils.ValidationMessages;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class ObjectiveCProfileTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final AtomicInteger imports = new AtomicInteger();
+
+    private final Function<ValidationMessages, RulesProfile> profileImporter = messages -> {
+        imports.incrementAndGet();
+        RulesProfile profile = RulesProfile.create("OCLint", "objc");
+        org.sonar.api.rules.Rule rule = org.sonar.api.rules.Rule.create("OCLint", "imported rule");
+        profile.activateRule(rule, null);
+        return profile;
+    };
+
+    private URL writeIndex() throws IOException {
+        File indexFile = temporaryFolder.newFile("profile-oclint.index");
+        try (OutputStream output = Files.newOutputStream(indexFile.toPath())) {
+            ObjectiveCProfileIndex.write(
+                    ObjectiveCProfileIndex.fromXml(new StringReader(ObjectiveCProfileIndexTest.PROFILE)),
+                    output
+            );
+        }
+        return indexFile.toURI().toURL();
+    }
+
+    @Test
+    public void createProfile_withIndex() throws IOException {
+        ObjectiveCProfile profileDefinition = new ObjectiveCProfile(writeIndex(), profileImporter);
+
+        RulesProfile profile = profileDefinition.createProfile(ValidationMessages.create());
+
+        assertEquals("Objective-C", profile.getName());
+        assertTrue(profile.getDefaultProfile());
+        assertEquals(3, profile.getActiveRules().size());
+        assertEquals("bitwise operator in conditional", profile.getActiveRules().get(0).getRuleKey());
+        assertEquals(0, imports.get());
+    }
+
+    @Test
+    public void createProfile_withoutIndex() throws IOException {
+        URL index = new File(temporaryFolder.getRoot(), "missing.index").toURI().toURL();
+
+        RulesProfile profile = new ObjectiveCProfile(index, profileImporter).createProfile(ValidationMessages.create());
+
+        assertEquals(1, profile.getActiveRules().size());
+        assertEquals("imported rule", profile.getActiveRules().get(0).getRuleKey());
+        assertEquals(1, imports.get());
+    }
+
+    @Test
+    public void createProfile_withInvalidIndex() throws IOException {
+        File indexFile = temporaryFolder.newFile("invalid.index");
+        Files.write(indexFile.toPath(), new byte[]{0, 0, 0, 1});
+
+        RulesProfile profile = new ObjectiveCProfile(indexFile.toURI().toURL(), profileImporter)
+                .createProfile(ValidationMessages.create());
+
+        assertEquals("imported rule", profile.getActiveRules().get(0).getRuleKey());
+        assertEquals(1, imports.get());
+    }
+
+    @Test
+    public void createProfile_onlyLoadsRulesOnce() throws IOException {
+        URL index = new File(temporaryFolder.getRoot(), "missing.index").toURI().toURL();
+
+        RulesProfile first = new ObjectiveCProfile(index, profileImporter).createProfile(ValidationMessages.create());
+        RulesProfile second = new ObjectiveCProfile(index, profileImporter).createProfile(ValidationMessages.create());
+
+        assertEquals(1, imports.get());
+        assertEquals(1, first.getActiveRules().size());
+        assertEquals(1, second.getActiveRules().size());
+        assertTrue(first.getActiveRules().get(0) != second.getActiveRules().get(0));
+    }
+}